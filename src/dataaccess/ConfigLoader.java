@@ -54,6 +54,34 @@ public final class ConfigLoader {
         return PROPS.getProperty(key, def);
     }
 
+    public static int getInt(String key, int def) {
+        String v = PROPS.getProperty(key);
+        if (v == null || v.isBlank()) return def;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException ex) {
+            log.warn("Valor inválido para {}: '{}'. Se usa {}", key, v, def);
+            return def;
+        }
+    }
+
+    public static long getLong(String key, long def) {
+        String v = PROPS.getProperty(key);
+        if (v == null || v.isBlank()) return def;
+        try {
+            return Long.parseLong(v.trim());
+        } catch (NumberFormatException ex) {
+            log.warn("Valor inválido para {}: '{}'. Se usa {}", key, v, def);
+            return def;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        String v = PROPS.getProperty(key);
+        if (v == null || v.isBlank()) return def;
+        return Boolean.parseBoolean(v.trim());
+    }
+
     public static String getDbUrl()  { return mustGet("db.url"); }
     public static String getDbUser() { return mustGet("db.user"); }
     public static String getDbPass() { return mustGet("db.pass"); }
@@ -4,20 +4,47 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public final class ConnectionDataBase {
     private static final Logger log = LogManager.getLogger(ConnectionDataBase.class);
 
+    private static volatile ConnectionPool pool;
+
     public ConnectionDataBase() {}
 
+    /**
+     * Presta una conexión del pool. Cerrarla (try-with-resources) la devuelve al pool.
+     */
     public static Connection getConnection() throws SQLException {
-        String url  = ConfigLoader.getDbUrl();
-        String user = ConfigLoader.getDbUser();
-        String pass = ConfigLoader.getDbPass();
-        log.debug("Abriendo conexión a {}", sanitiseUrl(url));
-        return DriverManager.getConnection(url, user, pass);
+        return pool().borrow();
+    }
+
+    /** Abre de antemano las conexiones mínimas del pool. */
+    public static void warmUp() {
+        pool().warmUp();
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    public static String poolStats() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            return "pool sin inicializar";
+        }
+        return "total=" + p.getTotalConnections()
+                + ", prestadas=" + p.getBorrowedCount()
+                + ", inactivas=" + p.getIdleCount()
+                + ", max=" + p.getMaxSize();
+    }
+
+    public static String statementCacheStats() {
+        return StatementCache.stats();
     }
 
     public static boolean ping(int timeoutSeconds) {
@@ -34,7 +61,21 @@ public final class ConnectionDataBase {
 
     public static boolean ping() { return ping(5); }
 
-    private static String sanitiseUrl(String url) {
+    private static ConnectionPool pool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (ConnectionDataBase.class) {
+                p = pool;
+                if (p == null) {
+                    p = ConnectionPool.fromConfig();
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    static String sanitiseUrl(String url) {
         if (url == null) return null;
         int at = url.indexOf('@');
         if (at > 0 && url.startsWith("jdbc:mysql://")) {
@@ -0,0 +1,322 @@
+package dataaccess;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * Las conexiones prestadas son proxies: close() las regresa al pool en lugar de cerrarlas.
+ */
+final class ConnectionPool {
+    private static final Logger log = LogManager.getLogger(ConnectionPool.class);
+
+    private static final int DEFAULT_MIN_SIZE = 2;
+    private static final int DEFAULT_MAX_SIZE = 10;
+    private static final long DEFAULT_BORROW_TIMEOUT_MS = 5_000L;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 300_000L;
+    private static final long DEFAULT_VALIDATION_INTERVAL_MS = 30_000L;
+    private static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long DEFAULT_LEAK_DETECTION_MS = 60_000L;
+    private static final long DEFAULT_HOUSEKEEPING_INTERVAL_MS = 30_000L;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final String url;
+    private final String user;
+    private final String pass;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionMs;
+    private final int statementCacheSize;
+    private final boolean serverPrepStmts;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed;
+
+    private ConnectionPool(String url, String user, String pass,
+                           int minSize, int maxSize,
+                           long borrowTimeoutMs, long idleTimeoutMs,
+                           long validationIntervalMs, int validationTimeoutSeconds,
+                           long leakDetectionMs, long housekeepingIntervalMs,
+                           int statementCacheSize, boolean serverPrepStmts) {
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.maxSize = Math.max(1, maxSize);
+        this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+        this.borrowTimeoutMs = Math.max(0L, borrowTimeoutMs);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validationIntervalMs = Math.max(0L, validationIntervalMs);
+        this.validationTimeoutSeconds = Math.max(1, validationTimeoutSeconds);
+        this.leakDetectionMs = leakDetectionMs;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.serverPrepStmts = serverPrepStmts;
+        this.permits = new Semaphore(this.maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1_000L, housekeepingIntervalMs);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    static ConnectionPool fromConfig() {
+        ConnectionPool pool = new ConnectionPool(
+                ConfigLoader.getDbUrl(),
+                ConfigLoader.getDbUser(),
+                ConfigLoader.getDbPass(),
+                ConfigLoader.getInt("db.pool.minSize", DEFAULT_MIN_SIZE),
+                ConfigLoader.getInt("db.pool.maxSize", DEFAULT_MAX_SIZE),
+                ConfigLoader.getLong("db.pool.borrowTimeoutMs", DEFAULT_BORROW_TIMEOUT_MS),
+                ConfigLoader.getLong("db.pool.idleTimeoutMs", DEFAULT_IDLE_TIMEOUT_MS),
+                ConfigLoader.getLong("db.pool.validationIntervalMs", DEFAULT_VALIDATION_INTERVAL_MS),
+                ConfigLoader.getInt("db.pool.validationTimeoutSeconds", DEFAULT_VALIDATION_TIMEOUT_SECONDS),
+                ConfigLoader.getLong("db.pool.leakDetectionMs", DEFAULT_LEAK_DETECTION_MS),
+                ConfigLoader.getLong("db.pool.housekeepingIntervalMs", DEFAULT_HOUSEKEEPING_INTERVAL_MS),
+                ConfigLoader.getInt("db.pool.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE),
+                ConfigLoader.getBoolean("db.pool.serverPrepStmts", true));
+
+        log.info("Pool de conexiones creado (min={}, max={}, borrowTimeout={} ms, idleTimeout={} ms, statementCache={})",
+                pool.minSize, pool.maxSize, pool.borrowTimeoutMs, pool.idleTimeoutMs, pool.statementCacheSize);
+        return pool;
+    }
+
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool de conexiones está cerrado.");
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión.", ex);
+        }
+
+        if (!acquired) {
+            throw new SQLTransientConnectionException(
+                    "No hay conexiones disponibles tras " + borrowTimeoutMs + " ms (máximo " + maxSize + ").");
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = openPhysical();
+            }
+            pooled.markBorrowed(leakDetectionMs > 0);
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+
+        try {
+            if (closed || pooled.isBroken() || !pooled.resetForReuse()) {
+                closePhysical(pooled);
+                return;
+            }
+            pooled.markReturned();
+            synchronized (idle) {
+                idle.addFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Abre conexiones hasta alcanzar el mínimo configurado. */
+    void warmUp() {
+        while (!closed) {
+            int current = totalConnections.get();
+            if (current >= minSize) {
+                return;
+            }
+            if (!totalConnections.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            try {
+                PooledConnection pooled = new PooledConnection(this, open(), statementCacheSize);
+                synchronized (idle) {
+                    idle.addLast(pooled);
+                }
+            } catch (SQLException ex) {
+                totalConnections.decrementAndGet();
+                log.warn("No se pudo precalentar el pool: {}", ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+
+        List<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pooled : toClose) {
+            closePhysical(pooled);
+        }
+
+        if (!borrowed.isEmpty()) {
+            log.warn("Pool cerrado con {} conexión(es) aún prestadas; se cerrarán al devolverse.", borrowed.size());
+        }
+        log.info("Pool de conexiones cerrado.");
+    }
+
+    int getMaxSize() { return maxSize; }
+    int getTotalConnections() { return totalConnections.get(); }
+    int getBorrowedCount() { return borrowed.size(); }
+
+    int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            closePhysical(pooled);
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (pooled.idleMillis() < validationIntervalMs) {
+            return true;
+        }
+        try {
+            return pooled.physical().isValid(validationTimeoutSeconds);
+        } catch (SQLException ex) {
+            log.debug("Conexión descartada en validación: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        totalConnections.incrementAndGet();
+        try {
+            return new PooledConnection(this, open(), statementCacheSize);
+        } catch (SQLException | RuntimeException ex) {
+            totalConnections.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        log.debug("Abriendo conexión física a {}", ConnectionDataBase.sanitiseUrl(url));
+        Properties info = new Properties();
+        info.setProperty("user", user);
+        info.setProperty("password", pass);
+        if (serverPrepStmts && statementCacheSize > 0) {
+            // Con statements cacheados conviene que MySQL los prepare del lado del servidor una sola vez.
+            info.setProperty("useServerPrepStmts", "true");
+        }
+        return DriverManager.getConnection(url, info);
+    }
+
+    private void closePhysical(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.closePhysical();
+        } catch (SQLException ex) {
+            log.debug("Error cerrando conexión física: {}", ex.getMessage());
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+            warmUp();
+        } catch (RuntimeException ex) {
+            log.warn("Error en mantenimiento del pool: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private void evictIdle() {
+        if (idleTimeoutMs <= 0) {
+            return;
+        }
+
+        List<PooledConnection> evicted = new ArrayList<>();
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections.get() - evicted.size() > minSize) {
+                PooledConnection pooled = it.next();
+                if (pooled.idleMillis() >= idleTimeoutMs) {
+                    it.remove();
+                    evicted.add(pooled);
+                }
+            }
+        }
+
+        for (PooledConnection pooled : evicted) {
+            closePhysical(pooled);
+        }
+        if (!evicted.isEmpty()) {
+            log.debug("Pool: {} conexión(es) inactivas cerradas.", evicted.size());
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakDetectionMs <= 0) {
+            return;
+        }
+        for (PooledConnection pooled : borrowed) {
+            if (pooled.borrowedMillis() >= leakDetectionMs && pooled.markLeakReported()) {
+                log.warn("Posible fuga de conexión: prestada hace {} ms sin devolverse.",
+                        pooled.borrowedMillis(), pooled.borrowSite());
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package dataaccess;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Conexión física administrada por {@link ConnectionPool}.
+ * Cada préstamo entrega un proxy nuevo; cerrar el proxy devuelve la conexión física al pool.
+ */
+final class PooledConnection {
+    private static final Logger log = LogManager.getLogger(PooledConnection.class);
+
+    private static final String SQL_STATE_CONNECTION_ERROR_PREFIX = "08";
+
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final StatementCache statementCache;
+
+    private volatile long lastReturnedAt = System.currentTimeMillis();
+    private volatile long borrowedAt;
+    private volatile Throwable borrowSite;
+    private volatile boolean leakReported;
+    private volatile boolean broken;
+
+    PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = StatementCache.isEnabled(statementCacheSize)
+                ? new StatementCache(physical, statementCacheSize)
+                : null;
+    }
+
+    Connection physical() {
+        return physical;
+    }
+
+    /** Cierra los statements cacheados y la conexión física. */
+    void closePhysical() throws SQLException {
+        if (statementCache != null) {
+            statementCache.closeAll();
+        }
+        physical.close();
+    }
+
+    Connection newHandle() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Handle());
+    }
+
+    void markBorrowed(boolean captureSite) {
+        borrowedAt = System.currentTimeMillis();
+        borrowSite = captureSite ? new Throwable("Conexión prestada aquí") : null;
+        leakReported = false;
+    }
+
+    void markReturned() {
+        lastReturnedAt = System.currentTimeMillis();
+        borrowSite = null;
+    }
+
+    boolean markLeakReported() {
+        if (leakReported) {
+            return false;
+        }
+        leakReported = true;
+        return true;
+    }
+
+    long idleMillis() {
+        return System.currentTimeMillis() - lastReturnedAt;
+    }
+
+    long borrowedMillis() {
+        return System.currentTimeMillis() - borrowedAt;
+    }
+
+    Throwable borrowSite() {
+        return borrowSite;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    /**
+     * Deja la conexión como la entrega DriverManager: sin transacción abierta y con autocommit.
+     * Devuelve false si la conexión ya no es reutilizable.
+     */
+    boolean resetForReuse() {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException ex) {
+            log.debug("Conexión no reutilizable al devolverse al pool: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + (closed ? ", devuelta" : "") + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("La conexión ya fue devuelta al pool.");
+            }
+
+            try {
+                if (statementCache != null && isCacheablePrepare(method)) {
+                    return args.length == 1
+                            ? statementCache.prepare((String) args[0])
+                            : statementCache.prepare((String) args[0], (Integer) args[1]);
+                }
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException ex) {
+                throw markIfBroken(ex.getCause());
+            } catch (SQLException ex) {
+                throw markIfBroken(ex);
+            }
+        }
+    }
+
+    private Throwable markIfBroken(Throwable cause) {
+        if (cause instanceof SQLException sql && isConnectionError(sql)) {
+            broken = true;
+        }
+        return cause;
+    }
+
+    // prepareStatement(String) y prepareStatement(String, int autoGeneratedKeys)
+    private static boolean isCacheablePrepare(Method method) {
+        if (!"prepareStatement".equals(method.getName())) {
+            return false;
+        }
+        Class<?>[] params = method.getParameterTypes();
+        return params.length == 1 || (params.length == 2 && params[1] == int.class);
+    }
+
+    private static boolean isConnectionError(SQLException ex) {
+        String state = ex.getSQLState();
+        return state != null && state.startsWith(SQL_STATE_CONNECTION_ERROR_PREFIX);
+    }
+}
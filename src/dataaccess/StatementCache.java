@@ -0,0 +1,245 @@
+package dataaccess;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché LRU de PreparedStatement por conexión física, indexada por texto SQL.
+ * Cerrar el statement entregado lo devuelve a la caché; se cierra de verdad al ser desalojado
+ * o cuando se cierra la conexión física.
+ */
+final class StatementCache {
+    private static final Logger log = LogManager.getLogger(StatementCache.class);
+
+    private static final int NO_KEYS_FLAG = Integer.MIN_VALUE;
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private final Connection physical;
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    StatementCache(Connection physical, int capacity) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= StatementCache.this.capacity || eldest.getValue().inUse) {
+                    return false;
+                }
+                EVICTIONS.incrementAndGet();
+                closeQuietly(eldest.getValue().statement);
+                return true;
+            }
+        };
+    }
+
+    static boolean isEnabled(int capacity) {
+        return capacity > 0;
+    }
+
+    static String stats() {
+        long hits = HITS.get();
+        long misses = MISSES.get();
+        long total = hits + misses;
+        double rate = total == 0 ? 0.0 : (hits * 100.0) / total;
+        return String.format("aciertos=%d, fallos=%d, desalojos=%d, tasa=%.1f%%",
+                hits, misses, EVICTIONS.get(), rate);
+    }
+
+    static long hits() { return HITS.get(); }
+    static long misses() { return MISSES.get(); }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        return checkout(sql, NO_KEYS_FLAG);
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        return checkout(sql, autoGeneratedKeys);
+    }
+
+    synchronized void closeAll() {
+        for (Entry entry : entries.values()) {
+            closeQuietly(entry.statement);
+        }
+        entries.clear();
+    }
+
+    private synchronized PreparedStatement checkout(String sql, int keysFlag) throws SQLException {
+        Key key = new Key(sql, keysFlag);
+        Entry entry = entries.get(key);
+
+        if (entry != null && !entry.inUse) {
+            HITS.incrementAndGet();
+            entry.inUse = true;
+            return entry.newHandle();
+        }
+
+        MISSES.incrementAndGet();
+        PreparedStatement statement = keysFlag == NO_KEYS_FLAG
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, keysFlag);
+
+        if (entry != null) {
+            // El mismo SQL ya está en uso en esta conexión: se entrega uno sin cachear.
+            return statement;
+        }
+
+        entry = new Entry(key, statement);
+        entry.inUse = true;
+        entries.put(key, entry);
+        return entry.newHandle();
+    }
+
+    private synchronized void checkin(Entry entry) {
+        entry.inUse = false;
+
+        if (entries.get(entry.key) != entry) {
+            closeQuietly(entry.statement);
+            return;
+        }
+
+        // El siguiente usuario del mismo SQL no debe heredar el streaming (fetchSize), un límite de
+        // filas o un timeout que puso el anterior: se vuelve a los valores por omisión
+        try {
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            entry.statement.clearWarnings();
+            entry.statement.setFetchSize(0);
+            entry.statement.setMaxRows(0);
+            entry.statement.setQueryTimeout(0);
+        } catch (SQLException ex) {
+            log.debug("Statement descartado de la caché: {}", ex.getMessage());
+            entries.remove(entry.key);
+            closeQuietly(entry.statement);
+            return;
+        }
+
+        if (entries.size() > capacity) {
+            trimToCapacity();
+        }
+    }
+
+    private void trimToCapacity() {
+        List<Key> victims = new ArrayList<>();
+        int excess = entries.size() - capacity;
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            if (victims.size() >= excess) {
+                break;
+            }
+            if (!e.getValue().inUse) {
+                victims.add(e.getKey());
+            }
+        }
+        for (Key victim : victims) {
+            EVICTIONS.incrementAndGet();
+            closeQuietly(entries.remove(victim).statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ex) {
+            log.debug("Error cerrando statement cacheado: {}", ex.getMessage());
+        }
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final int keysFlag;
+
+        private Key(String sql, int keysFlag) {
+            this.sql = sql;
+            this.keysFlag = keysFlag;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return keysFlag == other.keysFlag && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, keysFlag);
+        }
+    }
+
+    private final class Entry {
+        private final Key key;
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        private Entry(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        private PreparedStatement newHandle() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final Entry entry;
+        private boolean closed;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        checkin(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.key.sql + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("El statement ya fue devuelto a la caché.");
+            }
+
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
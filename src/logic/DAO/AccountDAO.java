@@ -12,6 +12,9 @@ import java.util.List;
 
 public class AccountDAO {
 
+    // Solo la búsqueda por id: el inicio de sesión (por correo) siempre lee de la base
+    private static final EntityCache<Long, AccountDTO> CACHE = EntityCache.create("account", AccountDAO::copyOf);
+
     private static final String SQL_INSERT =
             "INSERT INTO account (email, password_hash, role, is_active) VALUES (?, ?, ?, ?)";
 
@@ -33,6 +36,10 @@ public class AccountDAO {
     private static final String SQL_UPDATE_PASSWORD =
             "UPDATE account SET password_hash = ?, updated_at = ? WHERE account_id = ?";
 
+    // Solo reemplaza si el hash no cambió desde la lectura (p. ej. por un cambio de contraseña)
+    private static final String SQL_REHASH_PASSWORD =
+            "UPDATE account SET password_hash = ? WHERE account_id = ? AND password_hash = ?";
+
     private static final String SQL_LOGICAL_DELETE =
             "UPDATE account SET is_active = 0, updated_at = ?, deleted_at = ? WHERE account_id = ?";
 
@@ -61,6 +68,10 @@ public class AccountDAO {
     }
 
     public AccountDTO findAccountById(long accountId) throws SQLException, IOException {
+        return CACHE.get(accountId, this::loadAccountById);
+    }
+
+    private AccountDTO loadAccountById(Long accountId) throws SQLException {
         try (Connection connection = ConnectionDataBase.getConnection();
              PreparedStatement statement = connection.prepareStatement(SQL_SELECT_BY_ID)) {
 
@@ -116,6 +127,8 @@ public class AccountDAO {
             if (affectedRows == 0) {
                 throw new SQLException("Updating account failed, no rows affected.");
             }
+        } finally {
+            CACHE.invalidate(account.getAccountId());
         }
     }
 
@@ -127,6 +140,27 @@ public class AccountDAO {
             statement.setObject(2, now);
             statement.setLong(3, accountId);
             statement.executeUpdate();
+        } finally {
+            CACHE.invalidate(accountId);
+        }
+    }
+
+    /**
+     * Actualiza el hash al costo vigente tras un inicio de sesión. No toca updated_at porque la
+     * contraseña es la misma.
+     *
+     * @return false si el hash ya había cambiado
+     */
+    public boolean replacePasswordHash(long accountId, String expectedHash, String newHash)
+            throws SQLException, IOException {
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SQL_REHASH_PASSWORD)) {
+            statement.setString(1, newHash);
+            statement.setLong(2, accountId);
+            statement.setString(3, expectedHash);
+            return statement.executeUpdate() > 0;
+        } finally {
+            CACHE.invalidate(accountId);
         }
     }
 
@@ -142,9 +176,19 @@ public class AccountDAO {
             if (affectedRows == 0) {
                 throw new SQLException("Logical delete account failed, no rows affected.");
             }
+        } finally {
+            CACHE.invalidate(accountId);
         }
     }
 
+    /**
+     * Las escrituras de cuenta van dentro de una transacción: otra lectura puede volver a cargar el
+     * valor anterior antes del commit, así que el servicio invalida de nuevo al confirmar.
+     */
+    static void invalidateCached(Long accountId) {
+        CACHE.invalidate(accountId);
+    }
+
     private String normalizeRoleForDb(AccountRole role) {
         if (role == null) {
             return "employee";
@@ -168,4 +212,17 @@ public class AccountDAO {
         a.setDeletedAt(rs.getObject("deleted_at", LocalDateTime.class));
         return a;
     }
+
+    private static AccountDTO copyOf(AccountDTO a) {
+        AccountDTO copy = new AccountDTO();
+        copy.setAccountId(a.getAccountId());
+        copy.setEmail(a.getEmail());
+        copy.setPasswordHash(a.getPasswordHash());
+        copy.setRole(a.getRole());
+        copy.setIsActive(a.getIsActive());
+        copy.setCreatedAt(a.getCreatedAt());
+        copy.setUpdatedAt(a.getUpdatedAt());
+        copy.setDeletedAt(a.getDeletedAt());
+        return copy;
+    }
 }
@@ -0,0 +1,251 @@
+package logic.DAO;
+
+import dataaccess.ConnectionDataBase;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Retención de audit_log: mueve las filas anteriores a un corte a tablas mensuales
+ * audit_log_archive_YYYYMM. Cada bloque se copia y borra en su propia transacción corta,
+ * de modo que las escrituras de auditoría nunca esperan a un archivado completo.
+ */
+public class AuditArchiveDAO {
+
+    static final String ARCHIVE_TABLE_PREFIX = "audit_log_archive_";
+    private static final Pattern ARCHIVE_TABLE_NAME = Pattern.compile(ARCHIVE_TABLE_PREFIX + "\\d{6}");
+    private static final DateTimeFormatter MONTH_KEY = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Lista explícita: las tablas de meses viejos conservan la estructura con la que se crearon.
+    private static final String ARCHIVE_COLUMNS =
+            "audit_id, account_id, actor_personnel_number, action, entity, entity_id, entity_name, " +
+                    "before_data, after_data, ip_address, created_at, chain_seq, prev_hash, row_hash";
+
+    private static final String SQL_OLDEST_BEFORE =
+            "SELECT MIN(created_at) FROM audit_log WHERE created_at < ?";
+
+    private static final String SQL_LOCK_CHUNK =
+            "SELECT created_at, audit_id FROM audit_log " +
+                    "WHERE created_at >= ? AND created_at < ? " +
+                    "ORDER BY created_at, audit_id LIMIT ? FOR UPDATE";
+
+    private static final String CHUNK_PREDICATE =
+            " WHERE created_at >= ? AND (created_at < ? OR (created_at = ? AND audit_id <= ?))";
+
+    private static final String SQL_UPSERT_MONTH =
+            "INSERT INTO audit_log_archive_month (month_key, table_name, min_created_at, max_created_at, row_count) " +
+                    "VALUES (?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  min_created_at = LEAST(min_created_at, VALUES(min_created_at)), " +
+                    "  max_created_at = GREATEST(max_created_at, VALUES(max_created_at)), " +
+                    "  row_count = row_count + VALUES(row_count)";
+
+    private static final String SQL_SELECT_MONTHS =
+            "SELECT table_name, min_created_at, max_created_at FROM audit_log_archive_month " +
+                    "WHERE (? IS NULL OR max_created_at >= ?) " +
+                    "  AND (? IS NULL OR min_created_at < ?) " +
+                    "  AND (? IS NULL OR min_created_at <= ?) " +
+                    "ORDER BY month_key DESC";
+
+    public static final int DEFAULT_CHUNK_SIZE = 2000;
+
+    /** Mes archivado y su rango de created_at. */
+    record ArchiveMonth(String tableName, LocalDateTime minCreatedAt, LocalDateTime maxCreatedAt) {}
+
+    /**
+     * Archiva todas las filas con created_at anterior a {@code cutoff}.
+     *
+     * @param pauseMs espera entre bloques para dejar pasar otras transacciones
+     * @return filas movidas
+     */
+    public long archiveOlderThan(LocalDateTime cutoff, int chunkSize, long pauseMs) throws SQLException, IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize debe ser mayor a 0.");
+        }
+
+        long moved = 0;
+
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            while (true) {
+                LocalDateTime oldest = findOldestBefore(connection, cutoff);
+                if (oldest == null) {
+                    break;
+                }
+
+                LocalDateTime monthStart = oldest.toLocalDate().withDayOfMonth(1).atStartOfDay();
+                LocalDateTime monthEnd = monthStart.plusMonths(1);
+                LocalDateTime rangeEnd = monthEnd.isBefore(cutoff) ? monthEnd : cutoff;
+                String monthKey = monthStart.format(MONTH_KEY);
+
+                ensureArchiveTable(connection, monthKey);
+
+                int chunk = archiveChunk(connection, monthKey, monthStart, rangeEnd, chunkSize);
+                if (chunk == 0) {
+                    break;
+                }
+                moved += chunk;
+
+                if (pauseMs > 0) {
+                    try {
+                        Thread.sleep(pauseMs);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        return moved;
+    }
+
+    private LocalDateTime findOldestBefore(Connection connection, LocalDateTime cutoff) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_OLDEST_BEFORE)) {
+            statement.setTimestamp(1, Timestamp.valueOf(cutoff));
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getObject(1, LocalDateTime.class) : null;
+            }
+        }
+    }
+
+    private void ensureArchiveTable(Connection connection, String monthKey) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + tableName(monthKey) + " LIKE audit_log");
+        }
+    }
+
+    private int archiveChunk(Connection connection, String monthKey, LocalDateTime from, LocalDateTime to,
+                             int chunkSize) throws SQLException {
+
+        String table = tableName(monthKey);
+        connection.setAutoCommit(false);
+        try {
+            // Se bloquean las filas del bloque y se toma su último (created_at, audit_id) como límite
+            LocalDateTime first = null;
+            LocalDateTime lastCreatedAt = null;
+            long lastId = 0;
+            int locked = 0;
+
+            try (PreparedStatement statement = connection.prepareStatement(SQL_LOCK_CHUNK)) {
+                statement.setTimestamp(1, Timestamp.valueOf(from));
+                statement.setTimestamp(2, Timestamp.valueOf(to));
+                statement.setInt(3, chunkSize);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        lastCreatedAt = rs.getObject(1, LocalDateTime.class);
+                        lastId = rs.getLong(2);
+                        if (first == null) {
+                            first = lastCreatedAt;
+                        }
+                        locked++;
+                    }
+                }
+            }
+
+            if (locked == 0) {
+                connection.commit();
+                return 0;
+            }
+
+            int copied;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO " + table + " (" + ARCHIVE_COLUMNS + ") " +
+                            "SELECT " + ARCHIVE_COLUMNS + " FROM audit_log" + CHUNK_PREDICATE)) {
+                bindChunk(statement, from, lastCreatedAt, lastId);
+                copied = statement.executeUpdate();
+            }
+
+            int deleted;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM audit_log" + CHUNK_PREDICATE)) {
+                bindChunk(statement, from, lastCreatedAt, lastId);
+                deleted = statement.executeUpdate();
+            }
+
+            if (copied != locked || deleted != locked) {
+                throw new SQLException("Bloque de archivo inconsistente en " + table
+                        + ": bloqueadas=" + locked + ", copiadas=" + copied + ", borradas=" + deleted);
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(SQL_UPSERT_MONTH)) {
+                statement.setString(1, monthKey);
+                statement.setString(2, table);
+                statement.setTimestamp(3, Timestamp.valueOf(first));
+                statement.setTimestamp(4, Timestamp.valueOf(lastCreatedAt));
+                statement.setLong(5, locked);
+                statement.executeUpdate();
+            }
+
+            connection.commit();
+            return locked;
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void bindChunk(PreparedStatement statement, LocalDateTime from, LocalDateTime lastCreatedAt, long lastId)
+            throws SQLException {
+        statement.setTimestamp(1, Timestamp.valueOf(from));
+        statement.setTimestamp(2, Timestamp.valueOf(lastCreatedAt));
+        statement.setTimestamp(3, Timestamp.valueOf(lastCreatedAt));
+        statement.setLong(4, lastId);
+    }
+
+    /**
+     * Meses archivados que pueden contener filas para el rango [from, to) y anteriores al cursor.
+     * Cualquier parámetro puede ir en null.
+     */
+    List<ArchiveMonth> findArchivedMonths(Connection connection, LocalDateTime from, LocalDateTime to,
+                                          LocalDateTime beforeCreatedAt) throws SQLException {
+        List<ArchiveMonth> months = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(SQL_SELECT_MONTHS)) {
+            setNullableTimestamp(statement, 1, from);
+            setNullableTimestamp(statement, 2, from);
+            setNullableTimestamp(statement, 3, to);
+            setNullableTimestamp(statement, 4, to);
+            setNullableTimestamp(statement, 5, beforeCreatedAt);
+            setNullableTimestamp(statement, 6, beforeCreatedAt);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table_name");
+                    if (!ARCHIVE_TABLE_NAME.matcher(table).matches()) {
+                        continue; // solo nombres generados por este DAO llegan al SQL
+                    }
+                    months.add(new ArchiveMonth(
+                            table,
+                            rs.getObject("min_created_at", LocalDateTime.class),
+                            rs.getObject("max_created_at", LocalDateTime.class)));
+                }
+            }
+        }
+        return months;
+    }
+
+    private static void setNullableTimestamp(PreparedStatement statement, int index, LocalDateTime value)
+            throws SQLException {
+        if (value != null) {
+            statement.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            statement.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    private static String tableName(String monthKey) {
+        return ARCHIVE_TABLE_PREFIX + monthKey;
+    }
+}
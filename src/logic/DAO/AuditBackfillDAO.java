@@ -0,0 +1,88 @@
+package logic.DAO;
+
+import dataaccess.ConnectionDataBase;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Completa actor_personnel_number y entity_name en filas de audit_log escritas antes de que
+ * AuditWriter los guardara. Resuelve los nombres con los mismos JOINs que usaba la vista, pero
+ * una sola vez y por bloques de audit_id para no bloquear la tabla con una transacción larga.
+ */
+public class AuditBackfillDAO {
+
+    private static final String ENTITY_ACCOUNT = "account";
+    private static final String ENTITY_USER = "user";
+    private static final String ENTITY_SALE = "sale";
+    private static final String ENTITY_PURCHASE_ORDER = "purchase_order";
+    private static final String ENTITY_INVENTORY_MOVEMENT = "inventory_movement";
+
+    private static final String SQL_PENDING_RANGE =
+            "SELECT COALESCE(MIN(audit_id), 0), COALESCE(MAX(audit_id), 0) FROM audit_log " +
+                    "WHERE actor_personnel_number IS NULL OR entity_name IS NULL";
+
+    // UPDATE multitabla no admite LIMIT: el bloque se delimita por rango de audit_id.
+    private static final String SQL_BACKFILL_RANGE =
+            "UPDATE audit_log al " +
+                    "LEFT JOIN `user` ua ON ua.account_id = al.account_id " +
+                    "LEFT JOIN `user` ue ON ((al.entity = '" + ENTITY_ACCOUNT + "' OR al.entity = '" + ENTITY_USER + "') AND ue.account_id = al.entity_id) " +
+                    "LEFT JOIN sale s ON (al.entity = '" + ENTITY_SALE + "' AND s.sale_id = al.entity_id) " +
+                    "LEFT JOIN purchase_order po ON (al.entity = '" + ENTITY_PURCHASE_ORDER + "' AND po.purchase_id = al.entity_id) " +
+                    "LEFT JOIN inventory_movement im ON (al.entity = '" + ENTITY_INVENTORY_MOVEMENT + "' AND im.movement_id = al.entity_id) " +
+                    "LEFT JOIN vehicle v ON (im.vehicle_id = v.vehicle_id) " +
+                    "SET al.actor_personnel_number = COALESCE(al.actor_personnel_number, ua.personnel_number), " +
+                    "    al.entity_name = COALESCE(al.entity_name, CASE al.entity " +
+                    "      WHEN '" + ENTITY_ACCOUNT + "' THEN ue.personnel_number " +
+                    "      WHEN '" + ENTITY_USER + "' THEN ue.personnel_number " +
+                    "      WHEN '" + ENTITY_SALE + "' THEN s.folio " +
+                    "      WHEN '" + ENTITY_PURCHASE_ORDER + "' THEN CONCAT('OC-', po.purchase_id) " +
+                    "      WHEN '" + ENTITY_INVENTORY_MOVEMENT + "' THEN CONCAT(v.vin, ' - ', v.make, ' ', v.model, ' ', v.model_year) " +
+                    "      ELSE NULL " +
+                    "    END) " +
+                    "WHERE al.audit_id BETWEEN ? AND ? " +
+                    "  AND (al.actor_personnel_number IS NULL OR al.entity_name IS NULL)";
+
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    /**
+     * Recorre las filas pendientes en bloques de {@code chunkSize} ids; cada bloque es su propia
+     * transacción (autocommit). Es idempotente: solo llena columnas que siguen en NULL.
+     *
+     * @return filas actualizadas
+     */
+    public long backfillDisplayFields(int chunkSize) throws SQLException, IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize debe ser mayor a 0.");
+        }
+
+        long updated = 0;
+
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            long minId;
+            long maxId;
+            try (PreparedStatement statement = connection.prepareStatement(SQL_PENDING_RANGE);
+                 ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                minId = rs.getLong(1);
+                maxId = rs.getLong(2);
+            }
+
+            if (maxId == 0) {
+                return 0;
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(SQL_BACKFILL_RANGE)) {
+                for (long from = minId; from <= maxId; from += chunkSize) {
+                    statement.setLong(1, from);
+                    statement.setLong(2, Math.min(from + chunkSize - 1, maxId));
+                    updated += statement.executeUpdate();
+                }
+            }
+        }
+        return updated;
+    }
+}
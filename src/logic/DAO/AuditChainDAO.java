@@ -0,0 +1,130 @@
+package logic.DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecturas y escrituras de la cadena de hashes de audit_log (migración 004).
+ * Las filas se buscan por chain_seq en audit_log y en las tablas de archivo mensuales.
+ */
+public class AuditChainDAO {
+
+    private static final String AUDIT_HOT_TABLE = "audit_log";
+
+    private static final String SQL_SELECT_HEAD =
+            "SELECT last_seq, last_hash FROM audit_chain_head WHERE head_id = 1";
+
+    private static final String SQL_SELECT_CHECKPOINTS =
+            "SELECT checkpoint_seq, row_hash, signature FROM audit_chain_checkpoint ORDER BY checkpoint_seq";
+
+    private static final String SQL_INSERT_CHECKPOINT =
+            "INSERT IGNORE INTO audit_chain_checkpoint (checkpoint_seq, row_hash, signature) VALUES (?, ?, ?)";
+
+    // Valores en texto y created_at formateado igual que en el trigger, sin conversiones del driver
+    private static final String SQL_SELECT_CHAIN_COLUMNS =
+            "SELECT chain_seq, " +
+                    "CAST(account_id AS CHAR) AS account_id, action, entity, " +
+                    "CAST(entity_id AS CHAR) AS entity_id, before_data, after_data, ip_address, " +
+                    "DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:%s') AS created_at_text, " +
+                    "prev_hash, row_hash ";
+
+    private static final String SQL_CHAIN_RANGE = " WHERE chain_seq BETWEEN ? AND ?";
+
+    record ChainHead(long lastSeq, String lastHash) {}
+
+    record Checkpoint(long seq, String rowHash, String signature) {}
+
+    record ChainRow(long seq, String accountId, String action, String entity, String entityId,
+                    String beforeData, String afterData, String ipAddress, String createdAt,
+                    String prevHash, String rowHash) {}
+
+    ChainHead getHead(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_SELECT_HEAD);
+             ResultSet rs = statement.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("No existe audit_chain_head; aplicar la migración 004.");
+            }
+            return new ChainHead(rs.getLong(1), rs.getString(2));
+        }
+    }
+
+    List<Checkpoint> getCheckpoints(Connection connection) throws SQLException {
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SQL_SELECT_CHECKPOINTS);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                checkpoints.add(new Checkpoint(rs.getLong(1), rs.getString(2), rs.getString(3)));
+            }
+        }
+        return checkpoints;
+    }
+
+    void insertCheckpoints(Connection connection, List<Checkpoint> checkpoints) throws SQLException {
+        if (checkpoints.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(SQL_INSERT_CHECKPOINT)) {
+            for (Checkpoint c : checkpoints) {
+                statement.setLong(1, c.seq());
+                statement.setString(2, c.rowHash());
+                statement.setString(3, c.signature());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /** audit_log más las tablas de archivo registradas. */
+    List<String> getChainTables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        tables.add(AUDIT_HOT_TABLE);
+        for (AuditArchiveDAO.ArchiveMonth month : new AuditArchiveDAO().findArchivedMonths(connection, null, null, null)) {
+            tables.add(month.tableName());
+        }
+        return tables;
+    }
+
+    /** Filas con chain_seq en [fromSeq, toSeq] ordenadas por secuencia. */
+    List<ChainRow> getRows(Connection connection, List<String> tables, long fromSeq, long toSeq) throws SQLException {
+        StringBuilder sql = new StringBuilder(256 * tables.size());
+        for (int i = 0; i < tables.size(); i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append(SQL_SELECT_CHAIN_COLUMNS).append("FROM ").append(tables.get(i)).append(SQL_CHAIN_RANGE);
+        }
+        sql.append(" ORDER BY chain_seq");
+
+        List<ChainRow> rows = new ArrayList<>((int) Math.min(toSeq - fromSeq + 1, 10_000));
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (int i = 0; i < tables.size(); i++) {
+                statement.setLong(index++, fromSeq);
+                statement.setLong(index++, toSeq);
+            }
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new ChainRow(
+                            rs.getLong("chain_seq"),
+                            rs.getString("account_id"),
+                            rs.getString("action"),
+                            rs.getString("entity"),
+                            rs.getString("entity_id"),
+                            rs.getString("before_data"),
+                            rs.getString("after_data"),
+                            rs.getString("ip_address"),
+                            rs.getString("created_at_text"),
+                            rs.getString("prev_hash"),
+                            rs.getString("row_hash")));
+                }
+            }
+        }
+        return rows;
+    }
+}
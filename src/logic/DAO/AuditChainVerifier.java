@@ -0,0 +1,223 @@
+package logic.DAO;
+
+import dataaccess.ConnectionDataBase;
+import logic.DTO.AuditChainReportDTO;
+import utilities.AuditChainHash;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Verifica la cadena de hashes de audit_log.
+ * <ul>
+ *   <li>{@link #verifyIncremental()} solo recalcula desde el último checkpoint firmado hasta la
+ *   cabeza y firma un checkpoint nuevo cada {@code checkpointInterval} filas.</li>
+ *   <li>{@link #verifyAll()} además revisa todos los tramos entre checkpoints en paralelo: cada
+ *   tramo empieza y termina en un hash firmado, así que se verifican de forma independiente.</li>
+ * </ul>
+ */
+public class AuditChainVerifier {
+
+    private static final int READ_BATCH = 2000;
+
+    private final AuditChainDAO chainDAO = new AuditChainDAO();
+    private final byte[] hmacKey;
+    private final int checkpointInterval;
+    private final int threads;
+
+    public AuditChainVerifier(byte[] hmacKey, int checkpointInterval, int threads) {
+        if (hmacKey == null || hmacKey.length == 0) {
+            throw new IllegalArgumentException("Se requiere la clave HMAC (AUDIT_CHAIN_KEY).");
+        }
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval debe ser mayor a 0.");
+        }
+        this.hmacKey = hmacKey.clone();
+        this.checkpointInterval = checkpointInterval;
+        this.threads = Math.max(1, threads);
+    }
+
+    /** Resultado de recorrer un tramo de la cadena. */
+    private record SegmentResult(long rows, long lastSeq, String lastHash, Long invalidSeq, String detail,
+                                 List<AuditChainDAO.Checkpoint> newCheckpoints) {
+        boolean valid() { return invalidSeq == null; }
+    }
+
+    public AuditChainReportDTO verifyIncremental() throws SQLException, IOException {
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            List<AuditChainDAO.Checkpoint> checkpoints = chainDAO.getCheckpoints(connection);
+            AuditChainReportDTO badSignature = checkSignatures(checkpoints);
+            if (badSignature != null) {
+                return badSignature;
+            }
+            return verifyTail(connection, checkpoints, 0, 0);
+        }
+    }
+
+    public AuditChainReportDTO verifyAll() throws SQLException, IOException {
+        List<AuditChainDAO.Checkpoint> checkpoints;
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            checkpoints = chainDAO.getCheckpoints(connection);
+        }
+
+        AuditChainReportDTO badSignature = checkSignatures(checkpoints);
+        if (badSignature != null) {
+            return badSignature;
+        }
+
+        long rows = 0;
+        int segments = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "audit-chain-verifier");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<SegmentResult>> futures = new ArrayList<>(checkpoints.size());
+            long fromSeq = 1;
+            String startHash = AuditChainHash.GENESIS;
+
+            for (AuditChainDAO.Checkpoint checkpoint : checkpoints) {
+                final long from = fromSeq;
+                final String prev = startHash;
+                futures.add(executor.submit(() -> verifySegment(from, checkpoint.seq(), prev, checkpoint.rowHash(), false)));
+                fromSeq = checkpoint.seq() + 1;
+                startHash = checkpoint.rowHash();
+            }
+
+            // Se reportan en orden: el primer tramo inválido es el más antiguo
+            for (Future<SegmentResult> future : futures) {
+                SegmentResult result = future.get();
+                segments++;
+                rows += result.rows();
+                if (!result.valid()) {
+                    return new AuditChainReportDTO(false, rows, segments, 0, result.invalidSeq(), result.detail());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Verificación interrumpida", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException sql) {
+                throw sql;
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new SQLException("Error al verificar la cadena de auditoría", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            return verifyTail(connection, checkpoints, rows, segments);
+        }
+    }
+
+    private AuditChainReportDTO checkSignatures(List<AuditChainDAO.Checkpoint> checkpoints) {
+        for (AuditChainDAO.Checkpoint c : checkpoints) {
+            if (!AuditChainHash.matches(AuditChainHash.sign(hmacKey, c.seq(), c.rowHash()), c.signature())) {
+                return new AuditChainReportDTO(false, 0, 0, 0, c.seq(), "Firma de checkpoint inválida");
+            }
+        }
+        return null;
+    }
+
+    /** Tramo desde el último checkpoint hasta la cabeza; si es válido firma los checkpoints nuevos. */
+    private AuditChainReportDTO verifyTail(Connection connection, List<AuditChainDAO.Checkpoint> checkpoints,
+                                           long previousRows, int previousSegments) throws SQLException, IOException {
+        AuditChainDAO.ChainHead head = chainDAO.getHead(connection);
+
+        long fromSeq = 1;
+        String startHash = AuditChainHash.GENESIS;
+        if (!checkpoints.isEmpty()) {
+            AuditChainDAO.Checkpoint last = checkpoints.get(checkpoints.size() - 1);
+            fromSeq = last.seq() + 1;
+            startHash = last.rowHash();
+        }
+
+        if (head.lastSeq() < fromSeq - 1) {
+            return new AuditChainReportDTO(false, previousRows, previousSegments, 0, head.lastSeq(),
+                    "La cabeza de la cadena está antes del último checkpoint");
+        }
+
+        SegmentResult tail = verifySegment(fromSeq, head.lastSeq(), startHash, head.lastHash(), true);
+        long rows = previousRows + tail.rows();
+        int segments = previousSegments + 1;
+
+        if (!tail.valid()) {
+            return new AuditChainReportDTO(false, rows, segments, 0, tail.invalidSeq(), tail.detail());
+        }
+
+        chainDAO.insertCheckpoints(connection, tail.newCheckpoints());
+        return new AuditChainReportDTO(true, rows, segments, tail.newCheckpoints().size(), null, null);
+    }
+
+    /**
+     * Recalcula [fromSeq, toSeq] partiendo de {@code startHash} y exige terminar en {@code endHash}.
+     * Detecta filas alteradas (hash distinto), borradas o insertadas (salto en la secuencia o en prev_hash).
+     */
+    private SegmentResult verifySegment(long fromSeq, long toSeq, String startHash, String endHash,
+                                        boolean collectCheckpoints) throws SQLException, IOException {
+        List<AuditChainDAO.Checkpoint> newCheckpoints = new ArrayList<>();
+        long rows = 0;
+        long expectedSeq = fromSeq;
+        String running = startHash;
+
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            List<String> tables = chainDAO.getChainTables(connection);
+
+            while (expectedSeq <= toSeq) {
+                long batchEnd = Math.min(toSeq, expectedSeq + READ_BATCH - 1);
+                List<AuditChainDAO.ChainRow> batch = chainDAO.getRows(connection, tables, expectedSeq, batchEnd);
+
+                for (AuditChainDAO.ChainRow row : batch) {
+                    if (row.seq() != expectedSeq) {
+                        return invalid(rows, expectedSeq, "Falta la fila de la secuencia " + expectedSeq);
+                    }
+                    if (!AuditChainHash.matches(running, row.prevHash())) {
+                        return invalid(rows, row.seq(), "prev_hash no coincide con la fila anterior");
+                    }
+
+                    String computed = AuditChainHash.rowHash(
+                            Long.toString(row.seq()), row.accountId(), row.action(), row.entity(), row.entityId(),
+                            row.beforeData(), row.afterData(), row.ipAddress(), row.createdAt(), running);
+
+                    if (!AuditChainHash.matches(computed, row.rowHash())) {
+                        return invalid(rows, row.seq(), "El contenido de la fila no coincide con su hash");
+                    }
+
+                    running = computed;
+                    rows++;
+                    expectedSeq++;
+
+                    if (collectCheckpoints && row.seq() % checkpointInterval == 0) {
+                        newCheckpoints.add(new AuditChainDAO.Checkpoint(
+                                row.seq(), computed, AuditChainHash.sign(hmacKey, row.seq(), computed)));
+                    }
+                }
+
+                if (expectedSeq <= batchEnd) {
+                    return invalid(rows, expectedSeq, "Falta la fila de la secuencia " + expectedSeq);
+                }
+            }
+        }
+
+        if (!AuditChainHash.matches(endHash, running)) {
+            return invalid(rows, toSeq, "El tramo no termina en el hash esperado");
+        }
+        return new SegmentResult(rows, toSeq, running, null, null, newCheckpoints);
+    }
+
+    private static SegmentResult invalid(long rows, long seq, String detail) {
+        return new SegmentResult(rows, seq, null, seq, detail, List.of());
+    }
+}
@@ -3,22 +3,18 @@ package logic.DAO;
 import dataaccess.ConnectionDataBase;
 import logic.DTO.AuditAction;
 import logic.DTO.AccountDTO;
+import logic.DTO.AuditRecordDTO;
 import logic.DTO.CustomerDTO;
 import logic.DTO.UserDTO;
+import utilities.JsonWriter;
 
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Types;
+import java.time.LocalDateTime;
 
 public class AuditLogDAO {
 
-    private static final String SQL_INSERT =
-            "INSERT INTO audit_log " +
-                    "(account_id, action, entity, entity_id, before_data, after_data, ip_address) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
     private static final String ENTITY_AUTH = "AUTH_LOGIN";
     private static final String ENTITY_CUSTOMER = "customer";
     private static final String ENTITY_ACCOUNT = "account";
@@ -28,7 +24,10 @@ public class AuditLogDAO {
     private static final long ENTITY_ID_NONE = 0L;
 
     public void logLoginSuccess(Long accountId, String email) throws SQLException, IOException {
-        String afterJson = "{\"email\":\"" + escapeJson(email) + "\",\"success\":true}";
+        String afterJson = JsonWriter.object()
+                .field("email", email != null ? email : "")
+                .field("success", true)
+                .end();
         insertAudit(
                 accountId,
                 AuditAction.LOGIN,
@@ -40,7 +39,10 @@ public class AuditLogDAO {
     }
 
     public void logLoginFailure(String email) throws SQLException, IOException {
-        String afterJson = "{\"email\":\"" + escapeJson(email) + "\",\"success\":false}";
+        String afterJson = JsonWriter.object()
+                .field("email", email != null ? email : "")
+                .field("success", false)
+                .end();
         insertAudit(
                 null,
                 AuditAction.LOGIN,
@@ -52,7 +54,9 @@ public class AuditLogDAO {
     }
 
     public void logLogout(Long accountId, String email) throws SQLException, IOException {
-        String afterJson = "{\"email\":\"" + escapeJson(email) + "\"}";
+        String afterJson = JsonWriter.object()
+                .field("email", email != null ? email : "")
+                .end();
         insertAudit(
                 accountId,
                 AuditAction.LOGOUT,
@@ -66,27 +70,31 @@ public class AuditLogDAO {
     public void logCustomerCreate(Long actorId, CustomerDTO customer) throws SQLException, IOException {
         String afterJson = buildCustomerJson(customer);
 
-        insertAudit(
+        insertAudit(new AuditRecordDTO(
                 actorId,
                 AuditAction.CREATE,
                 ENTITY_CUSTOMER,
                 ENTITY_ID_NONE,
                 null,
-                afterJson
-        );
+                afterJson,
+                DEFAULT_IP,
+                customer.getCostumerNumber(),
+                null));
     }
 
     public void logCustomerUpdate(Long actorId, CustomerDTO customer) throws SQLException, IOException {
         String afterJson = buildCustomerJson(customer);
 
-        insertAudit(
+        insertAudit(new AuditRecordDTO(
                 actorId,
                 AuditAction.UPDATE,
                 ENTITY_CUSTOMER,
                 ENTITY_ID_NONE,
                 null,
-                afterJson
-        );
+                afterJson,
+                DEFAULT_IP,
+                customer.getCostumerNumber(),
+                null));
     }
 
     // ===== NUEVO: Auditoría para users/account =====
@@ -141,6 +149,10 @@ public class AuditLogDAO {
 
     // ===== INSERT (2 versiones): una con Connection (para transacciones) y otra standalone =====
 
+    /**
+     * Versión standalone: si audit.async.enabled está activo el evento se escribe en segundo plano
+     * (ver {@link AuditWriteBehindQueue}); si no, se inserta en el momento con su propia conexión.
+     */
     public void insertAudit(
             Long accountId,
             AuditAction action,
@@ -149,11 +161,28 @@ public class AuditLogDAO {
             String beforeDataJson,
             String afterDataJson) throws SQLException, IOException {
 
+        insertAudit(new AuditRecordDTO(
+                accountId, action, entity, entityId, beforeDataJson, afterDataJson, DEFAULT_IP));
+    }
+
+    private void insertAudit(AuditRecordDTO record) throws SQLException, IOException {
+        if (AuditWriteBehindQueue.isEnabled()) {
+            AuditWriteBehindQueue.getInstance().enqueue(new AuditRecordDTO(
+                    record.getAccountId(), record.getAction(), record.getEntity(), record.getEntityId(),
+                    record.getBeforeData(), record.getAfterData(), record.getIpAddress(),
+                    record.getEntityName(), LocalDateTime.now()));
+            return;
+        }
+
         try (Connection connection = ConnectionDataBase.getConnection()) {
-            insertAudit(connection, accountId, action, entity, entityId, beforeDataJson, afterDataJson);
+            AuditWriter.record(connection, record);
         }
     }
 
+    /**
+     * Versión transaccional: el registro se escribe con {@link AuditWriter}, por lo que el llamador
+     * debe invocar {@link AuditWriter#flush(Connection)} antes de su commit.
+     */
     public void insertAudit(
             Connection connection,
             Long accountId,
@@ -163,82 +192,37 @@ public class AuditLogDAO {
             String beforeDataJson,
             String afterDataJson) throws SQLException {
 
-        try (PreparedStatement statement = connection.prepareStatement(SQL_INSERT)) {
-
-            if (accountId != null) {
-                statement.setLong(1, accountId);
-            } else {
-                statement.setNull(1, Types.BIGINT);
-            }
-
-            statement.setString(2, action.name());
-            statement.setString(3, entity);
-            statement.setLong(4, entityId);
-
-            if (beforeDataJson != null) {
-                statement.setString(5, beforeDataJson);
-            } else {
-                statement.setNull(5, Types.VARCHAR);
-            }
-
-            if (afterDataJson != null) {
-                statement.setString(6, afterDataJson);
-            } else {
-                statement.setNull(6, Types.VARCHAR);
-            }
-
-            statement.setString(7, DEFAULT_IP);
-            statement.executeUpdate();
-        }
+        AuditWriter.record(connection, new AuditRecordDTO(
+                accountId, action, entity, entityId, beforeDataJson, afterDataJson, DEFAULT_IP));
     }
 
     private String buildCustomerJson(CustomerDTO c) {
-        String number = c.getCostumerNumber() != null ? c.getCostumerNumber() : "";
-        String fullName = c.getFullName() != null ? c.getFullName() : "";
-        String email = c.getEmail() != null ? c.getEmail() : "";
-        String phone = c.getPhone() != null ? c.getPhone() : "";
-        boolean active = c.getIsActive();
-
-        return "{"
-                + "\"customerNumber\":\"" + escapeJson(number) + "\","
-                + "\"fullName\":\"" + escapeJson(fullName) + "\","
-                + "\"email\":\"" + escapeJson(email) + "\","
-                + "\"phone\":\"" + escapeJson(phone) + "\","
-                + "\"isActive\":" + active
-                + "}";
-    }
-
-    private String buildAccountJson(AccountDTO a) {
-        String email = a.getEmail() != null ? a.getEmail() : "";
-        String role = a.getRole() != null ? a.getRole().name() : "";
-        boolean active = a.getIsActive();
-
-        return "{"
-                + "\"accountId\":" + (a.getAccountId() == null ? 0 : a.getAccountId()) + ","
-                + "\"email\":\"" + escapeJson(email) + "\","
-                + "\"role\":\"" + escapeJson(role) + "\","
-                + "\"isActive\":" + active
-                + "}";
-    }
-
-    private String buildUserJson(UserDTO u) {
-        String pn = u.getPersonnelNumber() != null ? u.getPersonnelNumber() : "";
-        String username = u.getUsername() != null ? u.getUsername() : "";
-        String fullName = u.getFullName() != null ? u.getFullName() : "";
-        String phone = u.getPhone() != null ? u.getPhone() : "";
-
-        return "{"
-                + "\"personnelNumber\":\"" + escapeJson(pn) + "\","
-                + "\"username\":\"" + escapeJson(username) + "\","
-                + "\"fullName\":\"" + escapeJson(fullName) + "\","
-                + "\"phone\":\"" + escapeJson(phone) + "\""
-                + "}";
-    }
-
-    private String escapeJson(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+        return JsonWriter.object()
+                .field("customerNumber", c.getCostumerNumber() != null ? c.getCostumerNumber() : "")
+                .field("fullName", c.getFullName() != null ? c.getFullName() : "")
+                .field("email", c.getEmail() != null ? c.getEmail() : "")
+                .field("phone", c.getPhone() != null ? c.getPhone() : "")
+                .field("isActive", c.getIsActive())
+                .end();
+    }
+
+    // Compartidos con UserManagementDAO para que before/after tengan el mismo formato.
+
+    static String buildAccountJson(AccountDTO a) {
+        return JsonWriter.object()
+                .field("accountId", a.getAccountId() == null ? 0L : a.getAccountId())
+                .field("email", a.getEmail() != null ? a.getEmail() : "")
+                .field("role", a.getRole() != null ? a.getRole().name() : "")
+                .field("isActive", a.getIsActive())
+                .end();
+    }
+
+    static String buildUserJson(UserDTO u) {
+        return JsonWriter.object()
+                .field("personnelNumber", u.getPersonnelNumber() != null ? u.getPersonnelNumber() : "")
+                .field("username", u.getUsername() != null ? u.getUsername() : "")
+                .field("fullName", u.getFullName() != null ? u.getFullName() : "")
+                .field("phone", u.getPhone() != null ? u.getPhone() : "")
+                .end();
     }
 }
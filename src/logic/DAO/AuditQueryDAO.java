@@ -2,6 +2,8 @@ package logic.DAO;
 
 import dataaccess.ConnectionDataBase;
 import logic.DTO.AuditLogEntryDTO;
+import logic.DTO.AuditLogFilterDTO;
+import logic.DTO.AuditPageDTO;
 import logic.DTO.InventoryMovementDTO;
 import logic.DTO.InventoryMovementType;
 
@@ -13,81 +15,371 @@ import java.util.List;
 
 public class AuditQueryDAO {
 
-    private static final String ENTITY_CUSTOMER = "customer";
-    private static final String ENTITY_ACCOUNT = "account";
-    private static final String ENTITY_USER = "user";
-    private static final String ENTITY_SALE = "sale";
-    private static final String ENTITY_PURCHASE_ORDER = "purchase_order";
-    private static final String ENTITY_INVENTORY_MOVEMENT = "inventory_movement";
-
-    private static final String SQL_SELECT_AUDIT_ALL =
+    // actor_personnel_number y entity_name se guardan al escribir (ver AuditWriter): la lectura
+    // es sobre una sola tabla. Las filas anteriores se completan con AuditBackfillDAO.
+    private static final String SQL_SELECT_AUDIT_COLUMNS =
             "SELECT " +
                     "  al.audit_id, " +
-                    "  ua.personnel_number AS actor_personnel_number, " +
+                    "  al.actor_personnel_number, " +
                     "  al.action, " +
                     "  al.entity, " +
-                    "  CASE al.entity " +
-                    "    WHEN '" + ENTITY_ACCOUNT + "' THEN COALESCE(ue.personnel_number, '') " +
-                    "    WHEN '" + ENTITY_USER + "' THEN COALESCE(ue.personnel_number, '') " +
-                    "    WHEN '" + ENTITY_SALE + "' THEN COALESCE(s.folio, '') " +
-                    "    WHEN '" + ENTITY_PURCHASE_ORDER + "' THEN CONCAT('OC-', COALESCE(po.purchase_id, 0)) " +
-                    "    WHEN '" + ENTITY_INVENTORY_MOVEMENT + "' THEN COALESCE(CONCAT(v.vin, ' - ', v.make, ' ', v.model, ' ', v.model_year), '') " +
-                    "    WHEN '" + ENTITY_CUSTOMER + "' THEN '' " + // no hay JOIN confiable por entity_id=0 en tus logs de customer
-                    "    ELSE '' " +
-                    "  END AS entity_name, " +
+                    "  COALESCE(al.entity_name, '') AS entity_name, " +
                     "  al.before_data, " +
                     "  al.after_data, " +
                     "  al.ip_address, " +
-                    "  al.created_at " +
-                    "FROM audit_log al " +
-                    "LEFT JOIN `user` ua ON ua.account_id = al.account_id " +
-                    "LEFT JOIN `user` ue ON ((al.entity = '" + ENTITY_ACCOUNT + "' OR al.entity = '" + ENTITY_USER + "') AND ue.account_id = al.entity_id) " +
-                    "LEFT JOIN sale s ON (al.entity = '" + ENTITY_SALE + "' AND s.sale_id = al.entity_id) " +
-                    "LEFT JOIN purchase_order po ON (al.entity = '" + ENTITY_PURCHASE_ORDER + "' AND po.purchase_id = al.entity_id) " +
-                    "LEFT JOIN inventory_movement im ON (al.entity = '" + ENTITY_INVENTORY_MOVEMENT + "' AND im.movement_id = al.entity_id) " +
-                    "LEFT JOIN vehicle v ON (im.vehicle_id = v.vehicle_id) " +
-                    "ORDER BY al.created_at DESC";
-
-    private static final String SQL_SELECT_INVENTORY_ALL =
+                    "  al.created_at ";
+
+    private static final String AUDIT_HOT_TABLE = "audit_log";
+
+    private static final String SQL_SELECT_AUDIT_BASE =
+            SQL_SELECT_AUDIT_COLUMNS + "FROM " + AUDIT_HOT_TABLE + " al";
+
+    private static final String SQL_ORDER_AUDIT_PAGE =
+            " ORDER BY al.created_at DESC, al.audit_id DESC LIMIT ?";
+
+    private static final String SQL_ORDER_AUDIT_UNION =
+            " ORDER BY created_at DESC, audit_id DESC LIMIT ?";
+
+    private static final String SQL_SELECT_INVENTORY_BASE =
             "SELECT " +
                     "  im.movement_id, im.vehicle_id, im.type, im.ref_table, im.ref_id, im.note, im.created_at, " +
                     "  ua.personnel_number AS actor_personnel_number, " +
                     "  CONCAT(v.vin, ' - ', v.make, ' ', v.model, ' ', v.model_year) AS vehicle_name " +
                     "FROM inventory_movement im " +
                     "LEFT JOIN `user` ua ON ua.account_id = im.account_id " +
-                    "LEFT JOIN vehicle v ON v.vehicle_id = im.vehicle_id " +
-                    "ORDER BY im.created_at DESC";
+                    "LEFT JOIN vehicle v ON v.vehicle_id = im.vehicle_id";
 
-    public List<AuditLogEntryDTO> getAllAuditLogs() throws SQLException, IOException {
-        List<AuditLogEntryDTO> list = new ArrayList<>();
+    private static final String SQL_ORDER_INVENTORY_PAGE =
+            " ORDER BY im.created_at DESC, im.movement_id DESC LIMIT ?";
+
+    private static final String SQL_ORDER_AUDIT_TAIL =
+            " ORDER BY al.audit_id ASC LIMIT ?";
+
+    private static final String SQL_ORDER_INVENTORY_TAIL =
+            " ORDER BY im.movement_id ASC LIMIT ?";
+
+    private static final String SQL_MAX_AUDIT_ID =
+            "SELECT COALESCE(MAX(audit_id), 0) FROM audit_log";
+
+    private static final String SQL_MAX_MOVEMENT_ID =
+            "SELECT COALESCE(MAX(movement_id), 0) FROM inventory_movement";
+
+    private static final String SQL_ACCOUNT_BY_PERSONNEL =
+            "SELECT account_id FROM `user` WHERE personnel_number = ?";
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private final AuditArchiveDAO archiveDAO = new AuditArchiveDAO();
+
+    /**
+     * Página de auditoría más reciente primero. Para la primera página el cursor va en null;
+     * para las siguientes se pasa lastCreatedAt/lastId de la página anterior.
+     */
+    public AuditPageDTO<AuditLogEntryDTO> getAuditLogPage(
+            AuditLogFilterDTO filter,
+            LocalDateTime afterCreatedAt,
+            Long afterAuditId,
+            int pageSize) throws SQLException, IOException {
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        if (filter != null) {
+            addEquals(conditions, params, "al.action", filter.getAction());
+            addEquals(conditions, params, "al.entity", filter.getEntity());
+            addEquals(conditions, params, "al.actor_personnel_number", filter.getActorPersonnelNumber());
+            addDateRange(conditions, params, "al.created_at", filter.getFrom(), filter.getTo());
+        }
+        addKeyset(conditions, params, "al.created_at", "al.audit_id", afterCreatedAt, afterAuditId);
+
+        String whereClause = where(conditions);
+        List<AuditLogEntryDTO> list;
+
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            list = queryAuditTables(connection, List.of(AUDIT_HOT_TABLE), whereClause, params, pageSize + 1);
+
+            // Los meses archivados solo se consultan si la página llega a sus fechas
+            List<AuditArchiveDAO.ArchiveMonth> months = archiveDAO.findArchivedMonths(
+                    connection,
+                    filter != null ? filter.getFrom() : null,
+                    filter != null ? filter.getTo() : null,
+                    afterCreatedAt);
+
+            if (reachesArchive(list, pageSize, months)) {
+                List<String> tables = new ArrayList<>();
+                tables.add(AUDIT_HOT_TABLE);
+                for (AuditArchiveDAO.ArchiveMonth month : months) {
+                    tables.add(month.tableName());
+                }
+                list = queryAuditTables(connection, tables, whereClause, params, pageSize + 1);
+            }
+        }
+
+        boolean hasMore = trimToPage(list, pageSize);
+        AuditLogEntryDTO last = list.isEmpty() ? null : list.get(list.size() - 1);
+
+        return new AuditPageDTO<>(list,
+                last != null ? last.getCreatedAt() : afterCreatedAt,
+                last != null ? last.getAuditId() : afterAuditId,
+                hasMore);
+    }
+
+    /**
+     * Igual que {@link #getAuditLogPage} para inventory_movement. La acción del filtro se aplica
+     * sobre el tipo de movimiento; la entidad no aplica.
+     */
+    public AuditPageDTO<InventoryMovementDTO> getInventoryMovementPage(
+            AuditLogFilterDTO filter,
+            LocalDateTime afterCreatedAt,
+            Long afterMovementId,
+            int pageSize) throws SQLException, IOException {
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        if (filter != null) {
+            addEquals(conditions, params, "im.type", filter.getAction());
+            addActor(conditions, params, "im.account_id", filter.getActorPersonnelNumber());
+            addDateRange(conditions, params, "im.created_at", filter.getFrom(), filter.getTo());
+        }
+        addKeyset(conditions, params, "im.created_at", "im.movement_id", afterCreatedAt, afterMovementId);
+
+        String sql = SQL_SELECT_INVENTORY_BASE + where(conditions) + SQL_ORDER_INVENTORY_PAGE;
+        params.add(pageSize + 1);
+
+        List<InventoryMovementDTO> list = new ArrayList<>(pageSize + 1);
 
         try (Connection connection = ConnectionDataBase.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SQL_SELECT_AUDIT_ALL);
-             ResultSet rs = statement.executeQuery()) {
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            bind(statement, params);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapInventory(rs));
+                }
+            }
+        }
+
+        boolean hasMore = trimToPage(list, pageSize);
+        InventoryMovementDTO last = list.isEmpty() ? null : list.get(list.size() - 1);
+
+        return new AuditPageDTO<>(list,
+                last != null ? last.getCreatedAt() : afterCreatedAt,
+                last != null ? last.getMovementId() : afterMovementId,
+                hasMore);
+    }
+
+    private static boolean reachesArchive(List<AuditLogEntryDTO> hotRows, int pageSize,
+                                          List<AuditArchiveDAO.ArchiveMonth> months) {
+        if (months.isEmpty()) {
+            return false;
+        }
+        if (hotRows.size() <= pageSize) {
+            return true;
+        }
+        LocalDateTime oldestInPage = hotRows.get(hotRows.size() - 1).getCreatedAt();
+        for (AuditArchiveDAO.ArchiveMonth month : months) {
+            if (oldestInPage == null || !month.maxCreatedAt().isBefore(oldestInPage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Misma consulta de página sobre una o varias tablas con la estructura de audit_log.
+     * Con varias tablas cada rama trae su propia página ordenada y el UNION ALL se reordena.
+     */
+    private List<AuditLogEntryDTO> queryAuditTables(Connection connection, List<String> tables, String whereClause,
+                                                    List<Object> params, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder(512);
+        List<Object> allParams = new ArrayList<>();
+
+        if (tables.size() == 1) {
+            sql.append(SQL_SELECT_AUDIT_COLUMNS).append("FROM ").append(tables.get(0)).append(" al")
+                    .append(whereClause).append(SQL_ORDER_AUDIT_PAGE);
+            allParams.addAll(params);
+            allParams.add(limit);
+        } else {
+            for (int i = 0; i < tables.size(); i++) {
+                if (i > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append('(').append(SQL_SELECT_AUDIT_COLUMNS).append("FROM ").append(tables.get(i)).append(" al")
+                        .append(whereClause).append(SQL_ORDER_AUDIT_PAGE).append(')');
+                allParams.addAll(params);
+                allParams.add(limit);
+            }
+            sql.append(SQL_ORDER_AUDIT_UNION);
+            allParams.add(limit);
+        }
+
+        List<AuditLogEntryDTO> list = new ArrayList<>(limit);
 
-            while (rs.next()) {
-                list.add(mapAudit(rs));
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            bind(statement, allParams);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapAudit(rs));
+                }
             }
         }
+        return list;
+    }
+
+    // ===== Modo en vivo: solo lo insertado después del último id visto =====
+
+    /**
+     * Registros con audit_id mayor a {@code afterAuditId}, en orden ascendente de id para que un
+     * retraso de varios ciclos se recupere sin huecos. Se ordena por id y no por created_at porque
+     * la auditoría diferida puede insertar eventos con una fecha anterior a la última vista.
+     * <p>
+     * El id se asigna al INSERT pero la fila se ve al COMMIT, así que un id menor puede aparecer
+     * después de uno mayor. Quien sondea debe pasar un {@code afterAuditId} algo anterior al
+     * último visto y descartar los repetidos (ver AuditController, audit.tail.lookbackIds).
+     */
+    public List<AuditLogEntryDTO> getAuditLogsAfter(AuditLogFilterDTO filter, long afterAuditId, int maxRows)
+            throws SQLException, IOException {
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        conditions.add("al.audit_id > ?");
+        params.add(afterAuditId);
+        if (filter != null) {
+            addEquals(conditions, params, "al.action", filter.getAction());
+            addEquals(conditions, params, "al.entity", filter.getEntity());
+            addEquals(conditions, params, "al.actor_personnel_number", filter.getActorPersonnelNumber());
+            addDateRange(conditions, params, "al.created_at", filter.getFrom(), filter.getTo());
+        }
+        params.add(maxRows);
+
+        List<AuditLogEntryDTO> list = new ArrayList<>();
 
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     SQL_SELECT_AUDIT_BASE + where(conditions) + SQL_ORDER_AUDIT_TAIL)) {
+
+            bind(statement, params);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapAudit(rs));
+                }
+            }
+        }
         return list;
     }
 
-    public List<InventoryMovementDTO> getAllInventoryMovements() throws SQLException, IOException {
+    /** Igual que {@link #getAuditLogsAfter} para inventory_movement. */
+    public List<InventoryMovementDTO> getInventoryMovementsAfter(AuditLogFilterDTO filter, long afterMovementId, int maxRows)
+            throws SQLException, IOException {
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        conditions.add("im.movement_id > ?");
+        params.add(afterMovementId);
+        if (filter != null) {
+            addEquals(conditions, params, "im.type", filter.getAction());
+            addActor(conditions, params, "im.account_id", filter.getActorPersonnelNumber());
+            addDateRange(conditions, params, "im.created_at", filter.getFrom(), filter.getTo());
+        }
+        params.add(maxRows);
+
         List<InventoryMovementDTO> list = new ArrayList<>();
 
         try (Connection connection = ConnectionDataBase.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SQL_SELECT_INVENTORY_ALL);
-             ResultSet rs = statement.executeQuery()) {
+             PreparedStatement statement = connection.prepareStatement(
+                     SQL_SELECT_INVENTORY_BASE + where(conditions) + SQL_ORDER_INVENTORY_TAIL)) {
+
+            bind(statement, params);
 
-            while (rs.next()) {
-                list.add(mapInventory(rs));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapInventory(rs));
+                }
             }
         }
-
         return list;
     }
 
+    public long getMaxAuditId() throws SQLException, IOException {
+        return queryMaxId(SQL_MAX_AUDIT_ID);
+    }
+
+    public long getMaxMovementId() throws SQLException, IOException {
+        return queryMaxId(SQL_MAX_MOVEMENT_ID);
+    }
+
+    private long queryMaxId(String sql) throws SQLException, IOException {
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    // ===== Construcción de predicados =====
+
+    private static void addEquals(List<String> conditions, List<Object> params, String column, String value) {
+        if (value != null && !value.isBlank()) {
+            conditions.add(column + " = ?");
+            params.add(value.trim());
+        }
+    }
+
+    // Se filtra por account_id (indexado en la tabla) en lugar de por la columna del JOIN.
+    private static void addActor(List<String> conditions, List<Object> params, String accountColumn, String personnelNumber) {
+        if (personnelNumber != null && !personnelNumber.isBlank()) {
+            conditions.add(accountColumn + " IN (" + SQL_ACCOUNT_BY_PERSONNEL + ")");
+            params.add(personnelNumber.trim());
+        }
+    }
+
+    private static void addDateRange(List<String> conditions, List<Object> params, String column,
+                                     LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            conditions.add(column + " >= ?");
+            params.add(from);
+        }
+        if (to != null) {
+            conditions.add(column + " < ?");
+            params.add(to);
+        }
+    }
+
+    private static void addKeyset(List<String> conditions, List<Object> params, String createdAtColumn,
+                                  String idColumn, LocalDateTime afterCreatedAt, Long afterId) {
+        if (afterCreatedAt == null || afterId == null) {
+            return;
+        }
+        conditions.add("(" + createdAtColumn + " < ? OR (" + createdAtColumn + " = ? AND " + idColumn + " < ?))");
+        params.add(afterCreatedAt);
+        params.add(afterCreatedAt);
+        params.add(afterId);
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static void bind(PreparedStatement statement, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static boolean trimToPage(List<?> list, int pageSize) {
+        if (list.size() > pageSize) {
+            list.remove(list.size() - 1);
+            return true;
+        }
+        return false;
+    }
+
     private AuditLogEntryDTO mapAudit(ResultSet rs) throws SQLException {
         AuditLogEntryDTO a = new AuditLogEntryDTO();
 
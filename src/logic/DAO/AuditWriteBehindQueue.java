@@ -0,0 +1,432 @@
+package logic.DAO;
+
+import dataaccess.ConfigLoader;
+import dataaccess.ConnectionDataBase;
+import logic.DTO.AuditAction;
+import logic.DTO.AuditRecordDTO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escritura diferida de auditoría no transaccional (login, logout, clientes).
+ * Los eventos se encolan en memoria y un hilo en segundo plano los inserta por lotes.
+ * Si la cola está llena o la BD no responde, los eventos se guardan en un archivo local
+ * y se reintentan en cuanto un lote vuelve a escribirse correctamente.
+ */
+public final class AuditWriteBehindQueue {
+    private static final Logger log = LogManager.getLogger(AuditWriteBehindQueue.class);
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 200L;
+    private static final long DEFAULT_OFFER_TIMEOUT_MS = 50L;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000L;
+    private static final long SPILL_RETRY_INTERVAL_MS = 10_000L;
+
+    private static final String NULL_FIELD = "\\N";
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final int SPILL_FIELDS = 9;
+
+    private static volatile AuditWriteBehindQueue instance;
+
+    private final BlockingQueue<AuditRecordDTO> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final Path spillFile;
+    private final Object spillLock = new Object();
+    private final Thread writer;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile long lastReplayAttempt;
+
+    private AuditWriteBehindQueue(int capacity, int batchSize, long flushIntervalMs,
+                                  long offerTimeoutMs, Path spillFile) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1L, flushIntervalMs);
+        this.offerTimeoutMs = Math.max(0L, offerTimeoutMs);
+        this.spillFile = spillFile;
+
+        this.writer = new Thread(this::runWriter, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static boolean isEnabled() {
+        return ConfigLoader.getBoolean("audit.async.enabled", true);
+    }
+
+    public static AuditWriteBehindQueue getInstance() {
+        AuditWriteBehindQueue q = instance;
+        if (q == null) {
+            synchronized (AuditWriteBehindQueue.class) {
+                q = instance;
+                if (q == null) {
+                    q = fromConfig();
+                    instance = q;
+                }
+            }
+        }
+        return q;
+    }
+
+    /** Vacía la cola (escribe o guarda en archivo lo pendiente) y detiene el hilo escritor. */
+    public static synchronized void shutdown() {
+        AuditWriteBehindQueue q = instance;
+        if (q == null) {
+            return;
+        }
+        instance = null;
+        q.stop();
+    }
+
+    private static AuditWriteBehindQueue fromConfig() {
+        String defaultSpill = Paths.get(System.getProperty("user.home"), ".imperialmotors", "audit-spill.tsv").toString();
+        AuditWriteBehindQueue q = new AuditWriteBehindQueue(
+                ConfigLoader.getInt("audit.async.queueCapacity", DEFAULT_QUEUE_CAPACITY),
+                ConfigLoader.getInt("audit.async.batchSize", DEFAULT_BATCH_SIZE),
+                ConfigLoader.getLong("audit.async.flushIntervalMs", DEFAULT_FLUSH_INTERVAL_MS),
+                ConfigLoader.getLong("audit.async.offerTimeoutMs", DEFAULT_OFFER_TIMEOUT_MS),
+                Paths.get(ConfigLoader.get("audit.async.spillFile", defaultSpill)));
+
+        log.info("Auditoría diferida activa (lote={}, intervalo={} ms, archivo={})",
+                q.batchSize, q.flushIntervalMs, q.spillFile);
+        return q;
+    }
+
+    /**
+     * Encola un evento. Si la cola sigue llena tras la espera configurada, el evento
+     * se guarda directamente en el archivo local para no bloquear la UI.
+     */
+    public void enqueue(AuditRecordDTO record) {
+        if (running) {
+            try {
+                if (queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                log.warn("Cola de auditoría llena ({}); el evento se guarda en archivo local.", queue.size());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        spill(List.of(record));
+    }
+
+    public int getPendingCount() { return queue.size(); }
+    public long getWrittenCount() { return written.get(); }
+    public long getSpilledCount() { return spilled.get(); }
+
+    private void stop() {
+        running = false;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<AuditRecordDTO> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.warn("Auditoría: {} evento(s) sin escribir al cerrar; se guardan en archivo local.", remaining.size());
+            spill(remaining);
+        }
+        log.info("Auditoría diferida detenida (escritos={}, en archivo={}).", written.get(), spilled.get());
+    }
+
+    // ===== Hilo escritor =====
+
+    private void runWriter() {
+        List<AuditRecordDTO> batch = new ArrayList<>(batchSize);
+
+        // Pendientes de una ejecución anterior, incluido un .replay que quedó a medias
+        replaySpill();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException ex) {
+                running = false;
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                if (writeOrSpill(batch)) {
+                    replaySpill();
+                }
+                batch.clear();
+            } else if (running && System.currentTimeMillis() - lastReplayAttempt >= SPILL_RETRY_INTERVAL_MS) {
+                replaySpill();
+            }
+        }
+    }
+
+    private void collectBatch(List<AuditRecordDTO> batch) throws InterruptedException {
+        AuditRecordDTO first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize || !running) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            AuditRecordDTO next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private boolean writeOrSpill(List<AuditRecordDTO> batch) {
+        try {
+            writeBatch(batch);
+            written.addAndGet(batch.size());
+            return true;
+        } catch (SQLException | RuntimeException ex) {
+            log.warn("No se pudo escribir lote de auditoría ({} eventos): {}", batch.size(), ex.getMessage());
+            spill(batch);
+            return false;
+        }
+    }
+
+    private void writeBatch(List<AuditRecordDTO> batch) throws SQLException {
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            try {
+                connection.setAutoCommit(false);
+                AuditWriter.writeBatch(connection, batch);
+                connection.commit();
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    // ===== Archivo local de respaldo =====
+
+    private void spill(List<AuditRecordDTO> records) {
+        if (appendToSpill(records)) {
+            spilled.addAndGet(records.size());
+        }
+    }
+
+    private boolean appendToSpill(List<AuditRecordDTO> records) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (AuditRecordDTO r : records) {
+                        out.write(toLine(r));
+                        out.newLine();
+                    }
+                }
+                return true;
+            } catch (IOException ex) {
+                log.error("❌ Se perdieron {} evento(s) de auditoría: no se pudo escribir {}",
+                        records.size(), spillFile, ex);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Reintenta lo guardado en archivo. El archivo se renombra a {@code .replay} y solo se borra
+     * cuando todos sus lotes están en la BD; tras cada lote se reescribe con lo que falta. Si el
+     * proceso termina a media reproducción, el {@code .replay} se retoma en el siguiente intento
+     * (también al arrancar). Un lote escrito justo antes de una caída puede repetirse: se prefiere
+     * duplicar un evento a perderlo.
+     */
+    private void replaySpill() {
+        lastReplayAttempt = System.currentTimeMillis();
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+
+        // Primero un .replay pendiente, luego lo que se haya acumulado en el archivo de respaldo
+        while (true) {
+            List<AuditRecordDTO> pending;
+            synchronized (spillLock) {
+                try {
+                    if (!Files.exists(replaying)) {
+                        if (!Files.exists(spillFile)) {
+                            return;
+                        }
+                        Files.move(spillFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                    pending = readSpill(replaying);
+                } catch (IOException ex) {
+                    log.warn("No se pudo leer el archivo de auditoría pendiente {}: {}", replaying, ex.getMessage());
+                    return;
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                log.info("Reintentando {} evento(s) de auditoría guardados en archivo.", pending.size());
+            }
+            if (!replayFile(replaying, pending)) {
+                return;
+            }
+        }
+    }
+
+    private boolean replayFile(Path replaying, List<AuditRecordDTO> pending) {
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, pending.size());
+            try {
+                writeBatch(pending.subList(from, to));
+                written.addAndGet(to - from);
+            } catch (SQLException | RuntimeException ex) {
+                log.warn("La BD sigue sin aceptar auditoría: {}", ex.getMessage());
+                return false;
+            }
+            if (to < pending.size()) {
+                rewriteReplay(replaying, pending.subList(to, pending.size()));
+            }
+        }
+
+        try {
+            Files.deleteIfExists(replaying);
+            return true;
+        } catch (IOException ex) {
+            log.warn("No se pudo borrar {}: {}", replaying, ex.getMessage());
+            return false;
+        }
+    }
+
+    // Deja en el .replay solo lo que falta; se escribe aparte y se renombra para no truncarlo a medias
+    private void rewriteReplay(Path replaying, List<AuditRecordDTO> remaining) {
+        Path tmp = replaying.resolveSibling(replaying.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (AuditRecordDTO r : remaining) {
+                    out.write(toLine(r));
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, replaying, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // El .replay completo sigue ahí: en el peor caso se repiten lotes ya escritos
+            log.warn("No se pudo actualizar {}: {}", replaying, ex.getMessage());
+        }
+    }
+
+    private List<AuditRecordDTO> readSpill(Path file) throws IOException {
+        List<AuditRecordDTO> records = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                records.add(fromLine(line));
+            } catch (RuntimeException ex) {
+                log.error("Línea de auditoría inválida descartada: {}", line, ex);
+            }
+        }
+        return records;
+    }
+
+    private static String toLine(AuditRecordDTO r) {
+        StringBuilder sb = new StringBuilder(256);
+        appendField(sb, r.getAccountId() != null ? r.getAccountId().toString() : null).append(FIELD_SEPARATOR);
+        appendField(sb, r.getAction().name()).append(FIELD_SEPARATOR);
+        appendField(sb, r.getEntity()).append(FIELD_SEPARATOR);
+        appendField(sb, Long.toString(r.getEntityId())).append(FIELD_SEPARATOR);
+        appendField(sb, r.getBeforeData()).append(FIELD_SEPARATOR);
+        appendField(sb, r.getAfterData()).append(FIELD_SEPARATOR);
+        appendField(sb, r.getIpAddress()).append(FIELD_SEPARATOR);
+        appendField(sb, r.getCreatedAt().toString()).append(FIELD_SEPARATOR);
+        appendField(sb, r.getEntityName());
+        return sb.toString();
+    }
+
+    private static AuditRecordDTO fromLine(String line) {
+        String[] f = line.split(String.valueOf(FIELD_SEPARATOR), -1);
+        if (f.length != SPILL_FIELDS) {
+            throw new IllegalArgumentException("Se esperaban " + SPILL_FIELDS + " campos y hay " + f.length);
+        }
+        String accountId = unescape(f[0]);
+        return new AuditRecordDTO(
+                accountId != null ? Long.valueOf(accountId) : null,
+                AuditAction.valueOf(unescape(f[1])),
+                unescape(f[2]),
+                Long.parseLong(unescape(f[3])),
+                unescape(f[4]),
+                unescape(f[5]),
+                unescape(f[6]),
+                unescape(f[8]),
+                LocalDateTime.parse(unescape(f[7])));
+    }
+
+    private static StringBuilder appendField(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append(NULL_FIELD);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb;
+    }
+
+    private static String unescape(String field) {
+        if (NULL_FIELD.equals(field)) {
+            return null;
+        }
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                switch (next) {
+                    case 't' -> sb.append('\t');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    default -> sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package logic.DAO;
+
+import logic.DTO.AuditRecordDTO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Punto único de escritura en audit_log.
+ * Dentro de una transacción los registros se acumulan por conexión y se insertan en un solo lote
+ * con {@link #flush(Connection)} justo antes del commit; {@link #discard(Connection)} los descarta
+ * en el rollback. Con autocommit activo el registro se escribe de inmediato.
+ */
+public final class AuditWriter {
+
+    private static final String ENTITY_ACCOUNT = "account";
+    private static final String ENTITY_USER = "user";
+    private static final String ENTITY_INVENTORY_MOVEMENT = "inventory_movement";
+
+    // actor_personnel_number y entity_name se guardan al escribir para que la lectura no use JOINs.
+    // El número de personal se resuelve por PK en el mismo INSERT; si el llamador no envía el nombre
+    // de la entidad, también se resuelve aquí para account/user (número de personal) y para
+    // inventory_movement (VIN y datos del vehículo, igual que AuditBackfillDAO).
+    private static final String SQL_INSERT =
+            "INSERT INTO audit_log " +
+                    "(account_id, actor_personnel_number, action, entity, entity_id, entity_name, " +
+                    "before_data, after_data, ip_address, created_at) " +
+                    "VALUES (?, (SELECT u.personnel_number FROM `user` u WHERE u.account_id = ?), ?, ?, ?, " +
+                    "COALESCE(?, CASE " +
+                    "WHEN ? IN ('" + ENTITY_ACCOUNT + "', '" + ENTITY_USER + "') THEN " +
+                    "(SELECT u.personnel_number FROM `user` u WHERE u.account_id = ?) " +
+                    "WHEN ? = '" + ENTITY_INVENTORY_MOVEMENT + "' THEN " +
+                    "(SELECT CONCAT(v.vin, ' - ', v.make, ' ', v.model, ' ', v.model_year) " +
+                    "FROM inventory_movement im JOIN vehicle v ON v.vehicle_id = im.vehicle_id " +
+                    "WHERE im.movement_id = ?) " +
+                    "END), " +
+                    "?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP))";
+
+    // Claves débiles: si una conexión se devuelve sin flush/discard sus pendientes no se retienen.
+    private static final Map<Connection, List<AuditRecordDTO>> PENDING =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private AuditWriter() {}
+
+    public static void record(Connection connection, AuditRecordDTO record) throws SQLException {
+        if (connection.getAutoCommit()) {
+            writeBatch(connection, List.of(record));
+            return;
+        }
+        PENDING.computeIfAbsent(connection, c -> new ArrayList<>(4)).add(record);
+    }
+
+    /** Inserta en un solo lote todo lo registrado en la transacción actual de la conexión. */
+    public static void flush(Connection connection) throws SQLException {
+        List<AuditRecordDTO> pending = PENDING.remove(connection);
+        if (pending != null && !pending.isEmpty()) {
+            writeBatch(connection, pending);
+        }
+    }
+
+    public static void discard(Connection connection) {
+        PENDING.remove(connection);
+    }
+
+    static void writeBatch(Connection connection, List<AuditRecordDTO> records) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_INSERT)) {
+            if (records.size() == 1) {
+                bind(statement, records.get(0));
+                statement.executeUpdate();
+                return;
+            }
+
+            for (AuditRecordDTO r : records) {
+                bind(statement, r);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement statement, AuditRecordDTO r) throws SQLException {
+        if (r.getAccountId() != null) {
+            statement.setLong(1, r.getAccountId());
+            statement.setLong(2, r.getAccountId());
+        } else {
+            statement.setNull(1, Types.BIGINT);
+            statement.setNull(2, Types.BIGINT);
+        }
+
+        statement.setString(3, r.getAction().name());
+        statement.setString(4, r.getEntity());
+        statement.setLong(5, r.getEntityId());
+
+        setNullableString(statement, 6, r.getEntityName());
+        statement.setString(7, r.getEntity());
+        statement.setLong(8, r.getEntityId());
+        statement.setString(9, r.getEntity());
+        statement.setLong(10, r.getEntityId());
+
+        setNullableString(statement, 11, r.getBeforeData());
+        setNullableString(statement, 12, r.getAfterData());
+        statement.setString(13, r.getIpAddress());
+
+        if (r.getCreatedAt() != null) {
+            statement.setTimestamp(14, Timestamp.valueOf(r.getCreatedAt()));
+        } else {
+            statement.setNull(14, Types.TIMESTAMP);
+        }
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value != null && !value.isEmpty()) {
+            statement.setString(index, value);
+        } else {
+            statement.setNull(index, Types.VARCHAR);
+        }
+    }
+}
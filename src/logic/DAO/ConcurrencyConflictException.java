@@ -0,0 +1,36 @@
+package logic.DAO;
+
+import java.sql.SQLException;
+
+/**
+ * Una actualización condicionada (por {@code version} o por estado) no encontró la fila como la
+ * esperaba: otro usuario la modificó después de que se leyó. La transacción ya se deshizo; quien
+ * la recibe debe recargar los datos y, si aplica, volver a intentar sobre la versión actual.
+ * <p>
+ * Extiende SQLException para que los llamadores que ya manejan errores de base de datos la
+ * sigan atrapando; las pantallas la distinguen para mostrar un mensaje de recarga.
+ */
+public class ConcurrencyConflictException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    // Clase 40 de SQLSTATE: transacción revertida
+    private static final String SQL_STATE = "40001";
+
+    private final String entity;
+    private final long entityId;
+
+    public ConcurrencyConflictException(String entity, long entityId, String message) {
+        super(message, SQL_STATE);
+        this.entity = entity;
+        this.entityId = entityId;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+}
@@ -11,6 +11,8 @@ import java.util.List;
 
 public class CustomerDAO {
 
+    private static final EntityCache<String, CustomerDTO> CACHE = EntityCache.create("customer", CustomerDAO::copyOf);
+
     private static final String SQL_INSERT = "INSERT INTO customer " +
             "(customer_number, full_name, email, phone, is_active, created_at, updated_at, deleted_at) " +
             "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
@@ -73,6 +75,8 @@ public class CustomerDAO {
             statement.setString(8, customer.getCostumerNumber());
 
             return statement.executeUpdate() > 0;
+        } finally {
+            CACHE.invalidate(customer.getCostumerNumber());
         }
     }
 
@@ -87,10 +91,16 @@ public class CustomerDAO {
             statement.setString(3, costumerNumber);
 
             return statement.executeUpdate() > 0;
+        } finally {
+            CACHE.invalidate(costumerNumber);
         }
     }
 
     public CustomerDTO getCustomerDetails(String costumerNumber) throws SQLException, IOException {
+        return CACHE.get(costumerNumber, this::loadCustomerDetails);
+    }
+
+    private CustomerDTO loadCustomerDetails(String costumerNumber) throws SQLException {
         CustomerDTO customer = null;
 
         try (Connection connection = ConnectionDataBase.getConnection();
@@ -192,4 +202,17 @@ public class CustomerDAO {
             return String.format("C%04d", number);
         }
     }
+
+    private static CustomerDTO copyOf(CustomerDTO c) {
+        CustomerDTO copy = new CustomerDTO();
+        copy.setCostumerNumber(c.getCostumerNumber());
+        copy.setFullName(c.getFullName());
+        copy.setEmail(c.getEmail());
+        copy.setPhone(c.getPhone());
+        copy.setIsActive(c.getIsActive());
+        copy.setCreatedAt(c.getCreatedAt());
+        copy.setUpdatedAt(c.getUpdatedAt());
+        copy.setDeletedAt(c.getDeletedAt());
+        return copy;
+    }
 }
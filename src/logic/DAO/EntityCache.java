@@ -0,0 +1,228 @@
+package logic.DAO;
+
+import dataaccess.ConfigLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché de lectura por id delante de los DAO de catálogo (vehículos, proveedores, clientes, cuentas).
+ * LRU acotado por tamaño con caducidad (TTL). Los DTO son mutables, así que se guarda y se
+ * entrega siempre una copia. Cada DAO invalida la llave en sus métodos de escritura; el TTL acota
+ * lo que no se ve desde este proceso (cambios hechos por otra instancia de la aplicación).
+ */
+public final class EntityCache<K, V> {
+
+    private static final Logger log = LogManager.getLogger(EntityCache.class);
+
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final long DEFAULT_TTL_MS = 5 * 60_000L;
+
+    private static final List<EntityCache<?, ?>> REGISTRY = new CopyOnWriteArrayList<>();
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface BulkLoader<V> {
+        List<V> loadAll() throws SQLException;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final String name;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Cambia en cada invalidación: una carga que empezó antes no se guarda (evita reinsertar datos viejos)
+    private long epoch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    private EntityCache(String name, boolean enabled, int maxSize, long ttlMs, UnaryOperator<V> copier) {
+        this.name = name;
+        this.enabled = enabled && maxSize > 0;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Lee cache.entity.enabled / maxSize / ttlMs y permite sobrescribirlos por nombre
+     * (cache.vehicle.maxSize, cache.vehicle.ttlMs...).
+     */
+    static <K, V> EntityCache<K, V> create(String name, UnaryOperator<V> copier) {
+        boolean enabled = ConfigLoader.getBoolean("cache.entity.enabled", true);
+        int maxSize = ConfigLoader.getInt("cache." + name + ".maxSize",
+                ConfigLoader.getInt("cache.entity.maxSize", DEFAULT_MAX_SIZE));
+        long ttlMs = ConfigLoader.getLong("cache." + name + ".ttlMs",
+                ConfigLoader.getLong("cache.entity.ttlMs", DEFAULT_TTL_MS));
+
+        EntityCache<K, V> cache = new EntityCache<>(name, enabled, maxSize, ttlMs, copier);
+        REGISTRY.add(cache);
+        return cache;
+    }
+
+    /**
+     * Devuelve una copia del valor en caché o lo carga con {@code loader}.
+     * Un resultado null (no existe) no se guarda.
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        if (!enabled || key == null) {
+            return loader.load(key);
+        }
+
+        long startEpoch;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - System.nanoTime() > 0) {
+                    hits++;
+                    return copier.apply(entry.value);
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            startEpoch = epoch;
+        }
+
+        V loaded = loader.load(key);
+        if (loaded == null) {
+            return null;
+        }
+
+        V stored = copier.apply(loaded);
+        synchronized (this) {
+            if (epoch == startEpoch) {
+                entries.put(key, new Entry<>(stored, System.nanoTime() + ttlNanos));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Llena la caché con el resultado de una consulta de lista (precarga al arrancar).
+     * Si hubo una invalidación mientras corría la consulta no se guarda nada.
+     *
+     * @return cuántas entradas se guardaron
+     */
+    public int prime(BulkLoader<V> loader, Function<V, K> keyOf) throws SQLException {
+        if (!enabled) {
+            return 0;
+        }
+
+        long startEpoch;
+        synchronized (this) {
+            startEpoch = epoch;
+        }
+
+        List<V> values = loader.loadAll();
+        int limit = Math.min(values.size(), maxSize);
+        synchronized (this) {
+            if (epoch != startEpoch) {
+                return 0;
+            }
+            long expiresAt = System.nanoTime() + ttlNanos;
+            for (int i = 0; i < limit; i++) {
+                V value = values.get(i);
+                K key = keyOf.apply(value);
+                if (key != null) {
+                    entries.put(key, new Entry<>(copier.apply(value), expiresAt));
+                }
+            }
+        }
+        return limit;
+    }
+
+    public synchronized void invalidate(K key) {
+        epoch++;
+        invalidations++;
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        epoch++;
+        invalidations++;
+        entries.clear();
+    }
+
+    /** Quita las entradas caducadas; las vigentes siguen en orden LRU. */
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt - now <= 0) {
+                it.remove();
+                expirations++;
+            }
+        }
+    }
+
+    public synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public synchronized String stats() {
+        return String.format("%s: size=%d/%d hits=%d misses=%d hitRate=%.1f%% evictions=%d expirations=%d invalidations=%d%s",
+                name, entries.size(), maxSize, hits, misses, hitRate() * 100, evictions, expirations, invalidations,
+                enabled ? "" : " (deshabilitada)");
+    }
+
+    /** Estadísticas de todas las cachés de entidades, una por línea. */
+    public static String statsReport() {
+        StringBuilder sb = new StringBuilder();
+        for (EntityCache<?, ?> cache : REGISTRY) {
+            if (sb.length() > 0) {
+                sb.append(System.lineSeparator());
+            }
+            sb.append(cache.stats());
+        }
+        return sb.toString();
+    }
+
+    /** Se llama al cerrar la aplicación para revisar la tasa de aciertos y ajustar maxSize / ttlMs. */
+    public static void logStats() {
+        for (EntityCache<?, ?> cache : REGISTRY) {
+            log.info("Caché de entidades {}", cache.stats());
+        }
+    }
+}
@@ -2,8 +2,10 @@ package logic.DAO;
 
 import dataaccess.ConnectionDataBase;
 import logic.DTO.AuditAction;
+import logic.DTO.AuditRecordDTO;
 import logic.DTO.InventoryMovementDTO;
 import logic.DTO.InventoryMovementType;
+import utilities.JsonWriter;
 
 import java.io.IOException;
 import java.sql.*;
@@ -37,11 +39,7 @@ public class InventoryMovementDAO {
                     "LIMIT 1";
     // --- Audit log ---
     private static final String ENTITY_INVENTORY_MOVEMENT = "inventory_movement";
-
-    private static final String SQL_INSERT_AUDIT =
-            "INSERT INTO audit_log " +
-                    "(account_id, action, entity, entity_id, before_data, after_data, ip_address) " +
-                    "VALUES (?, ?, ?, ?, NULL, ?, 'LOCALHOST')";
+    private static final String AUDIT_IP = "LOCALHOST";
 
     /**
      * Inserta un movimiento de inventario.
@@ -54,8 +52,17 @@ public class InventoryMovementDAO {
      * Además registra la operación en audit_log.
      */
     public boolean insertInventoryMovement(InventoryMovementDTO movement) throws SQLException, IOException {
-        try (Connection connection = ConnectionDataBase.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            return insertInventoryMovement(connection, movement);
+        }
+    }
+
+    /**
+     * Igual que {@link #insertInventoryMovement(InventoryMovementDTO)} sobre la conexión (y la
+     * transacción) de quien llama; la auditoría queda pendiente hasta su AuditWriter.flush.
+     */
+    boolean insertInventoryMovement(Connection connection, InventoryMovementDTO movement) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
 
             statement.setLong(1, movement.getVehicleId());
             statement.setString(2, movement.getType().name());
@@ -247,45 +254,24 @@ public class InventoryMovementDAO {
 
         String afterJson = buildAfterDataJson(movement);
 
-        try (PreparedStatement statement = connection.prepareStatement(SQL_INSERT_AUDIT)) {
-            statement.setLong(1, movement.getAccountId());
-            statement.setString(2, AuditAction.CREATE.name());
-            statement.setString(3, ENTITY_INVENTORY_MOVEMENT);
-            statement.setLong(4, movement.getMovementId());
-            statement.setString(5, afterJson);
-            statement.executeUpdate();
-        }
+        AuditWriter.record(connection, new AuditRecordDTO(
+                movement.getAccountId(),
+                AuditAction.CREATE,
+                ENTITY_INVENTORY_MOVEMENT,
+                movement.getMovementId(),
+                null,
+                afterJson,
+                AUDIT_IP));
     }
 
     private String buildAfterDataJson(InventoryMovementDTO movement) {
-        String refTableJson = movement.getRefTable() == null
-                ? "null"
-                : "\"" + escapeJson(movement.getRefTable()) + "\"";
-
-        String refIdJson = movement.getRefId() == null
-                ? "null"
-                : movement.getRefId().toString();
-
-        String noteJson = movement.getNote() == null
-                ? "null"
-                : "\"" + escapeJson(movement.getNote()) + "\"";
-
-        return "{"
-                + "\"vehicleId\":" + movement.getVehicleId() + ","
-                + "\"type\":\"" + movement.getType().name() + "\","
-                + "\"refTable\":" + refTableJson + ","
-                + "\"refId\":" + refIdJson + ","
-                + "\"note\":" + noteJson + ","
-                + "\"accountId\":" + movement.getAccountId()
-                + "}";
-    }
-
-    private String escapeJson(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"");
+        return JsonWriter.object()
+                .field("vehicleId", movement.getVehicleId())
+                .field("type", movement.getType().name())
+                .field("refTable", movement.getRefTable())
+                .field("refId", movement.getRefId())
+                .field("note", movement.getNote())
+                .field("accountId", movement.getAccountId())
+                .end();
     }
 }
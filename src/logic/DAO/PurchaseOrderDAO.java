@@ -1,9 +1,12 @@
 package logic.DAO;
 
 import dataaccess.ConnectionDataBase;
+import logic.DTO.AuditAction;
+import logic.DTO.AuditRecordDTO;
 import logic.DTO.PurchaseOrderDTO;
 import logic.DTO.PurchaseOrderItemDTO;
 import logic.DTO.PurchaseStatus;
+import utilities.JsonWriter;
 
 import java.math.BigDecimal;
 import java.sql.*;
@@ -13,8 +16,8 @@ import java.util.List;
 public class PurchaseOrderDAO {
 
     private static final String ENTITY_PURCHASE_ORDER = "purchase_order";
-    private static final String ACTION_CREATE = "CREATE";
-    private static final String ACTION_UPDATE = "UPDATE";
+    private static final String AUDIT_IP = "LOCALHOST";
+    private static final String PURCHASE_ORDER_PREFIX = "OC-";
     private static final String INVENTORY_TYPE_ALTA = "ALTA";
     private static final String REF_TABLE_PURCHASE = "purchase_order";
     private static final String VEHICLE_STATUS_AVAILABLE = "DISPONIBLE";
@@ -30,66 +33,76 @@ public class PurchaseOrderDAO {
                         "(purchase_id, vehicle_id, agreed_price) " +
                         "VALUES (?, ?, ?)";
 
-        String sqlAudit =
-                "INSERT INTO audit_log (account_id, action, entity, entity_id, before_data, after_data, ip_address) " +
-                        "VALUES (?, ?, ?, ?, NULL, ?, 'LOCALHOST')";
-
         try (Connection connection = ConnectionDataBase.getConnection()) {
             connection.setAutoCommit(false);
 
-            Long purchaseId;
+            try {
+                Long purchaseId;
 
-            try (PreparedStatement stmtOrder = connection.prepareStatement(
-                    sqlInsertOrder, Statement.RETURN_GENERATED_KEYS)) {
+                try (PreparedStatement stmtOrder = connection.prepareStatement(
+                        sqlInsertOrder, Statement.RETURN_GENERATED_KEYS)) {
 
-                stmtOrder.setLong(1, order.getSupplierId());
-                stmtOrder.setLong(2, order.getAccountId());
-                stmtOrder.setBigDecimal(3, defaultAmount(order.getSubtotal()));
-                stmtOrder.setBigDecimal(4, defaultAmount(order.getDiscount()));
-                stmtOrder.setBigDecimal(5, defaultAmount(order.getTaxes()));
-                stmtOrder.setBigDecimal(6, defaultAmount(order.getTotal()));
+                    stmtOrder.setLong(1, order.getSupplierId());
+                    stmtOrder.setLong(2, order.getAccountId());
+                    stmtOrder.setBigDecimal(3, defaultAmount(order.getSubtotal()));
+                    stmtOrder.setBigDecimal(4, defaultAmount(order.getDiscount()));
+                    stmtOrder.setBigDecimal(5, defaultAmount(order.getTaxes()));
+                    stmtOrder.setBigDecimal(6, defaultAmount(order.getTotal()));
 
-                if (order.getExpectedDate() != null) {
-                    stmtOrder.setDate(7, Date.valueOf(order.getExpectedDate()));
-                } else {
-                    stmtOrder.setNull(7, Types.DATE);
-                }
+                    if (order.getExpectedDate() != null) {
+                        stmtOrder.setDate(7, Date.valueOf(order.getExpectedDate()));
+                    } else {
+                        stmtOrder.setNull(7, Types.DATE);
+                    }
 
-                stmtOrder.executeUpdate();
+                    stmtOrder.executeUpdate();
 
-                try (ResultSet rs = stmtOrder.getGeneratedKeys()) {
-                    if (!rs.next()) {
-                        connection.rollback();
-                        throw new SQLException("No se pudo obtener el ID de la orden de compra.");
+                    try (ResultSet rs = stmtOrder.getGeneratedKeys()) {
+                        if (!rs.next()) {
+                            connection.rollback();
+                            throw new SQLException("No se pudo obtener el ID de la orden de compra.");
+                        }
+                        purchaseId = rs.getLong(1);
                     }
-                    purchaseId = rs.getLong(1);
                 }
-            }
 
-            // Detalle
-            try (PreparedStatement stmtItem = connection.prepareStatement(sqlInsertItem)) {
-                for (PurchaseOrderItemDTO item : order.getItems()) {
-                    stmtItem.setLong(1, purchaseId);
-                    stmtItem.setLong(2, item.getVehicleId());
-                    stmtItem.setBigDecimal(3, defaultAmount(item.getAgreedPrice()));
-                    stmtItem.addBatch();
+                // Detalle
+                try (PreparedStatement stmtItem = connection.prepareStatement(sqlInsertItem)) {
+                    for (PurchaseOrderItemDTO item : order.getItems()) {
+                        stmtItem.setLong(1, purchaseId);
+                        stmtItem.setLong(2, item.getVehicleId());
+                        stmtItem.setBigDecimal(3, defaultAmount(item.getAgreedPrice()));
+                        stmtItem.addBatch();
+                    }
+                    stmtItem.executeBatch();
                 }
-                stmtItem.executeBatch();
-            }
 
-            // Audit log CREATE
-            String afterJson = "{\"status\":\"CREADA\",\"supplierId\":" + order.getSupplierId() + "}";
-            try (PreparedStatement stmtAudit = connection.prepareStatement(sqlAudit)) {
-                stmtAudit.setLong(1, order.getAccountId());
-                stmtAudit.setString(2, ACTION_CREATE);
-                stmtAudit.setString(3, ENTITY_PURCHASE_ORDER);
-                stmtAudit.setLong(4, purchaseId);
-                stmtAudit.setString(5, afterJson);
-                stmtAudit.executeUpdate();
+                // Audit log CREATE
+                String afterJson = JsonWriter.object()
+                        .field("status", PurchaseStatus.CREADA.name())
+                        .field("supplierId", order.getSupplierId())
+                        .end();
+                AuditWriter.record(connection, new AuditRecordDTO(
+                        order.getAccountId(),
+                        AuditAction.CREATE,
+                        ENTITY_PURCHASE_ORDER,
+                        purchaseId,
+                        null,
+                        afterJson,
+                        AUDIT_IP,
+                        purchaseOrderName(purchaseId),
+                        null));
+
+                AuditWriter.flush(connection);
+                connection.commit();
+                return purchaseId;
+            } catch (SQLException ex) {
+                AuditWriter.discard(connection);
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
-
-            connection.commit();
-            return purchaseId;
         }
     }
 
@@ -99,8 +112,8 @@ public class PurchaseOrderDAO {
 
         String sqlUpdateStatus =
                 "UPDATE purchase_order " +
-                        "SET status = 'RECIBIDA', received_at = NOW() " +
-                        "WHERE purchase_id = ?";
+                        "SET status = 'RECIBIDA', received_at = NOW(), version = version + 1 " +
+                        "WHERE purchase_id = ? AND status = 'CREADA'";
 
         String sqlInsertInventory =
                 "INSERT INTO inventory_movement " +
@@ -114,128 +127,145 @@ public class PurchaseOrderDAO {
         String sqlUpdateVehicleStatus =
                 "UPDATE vehicle v " +
                         "JOIN purchase_order_item poi ON poi.vehicle_id = v.vehicle_id " +
-                        "SET v.status = ? " +
+                        "SET v.status = ?, v.version = v.version + 1 " +
                         "WHERE poi.purchase_id = ?";
 
         // precio = agreed_price * 1.06
         String sqlUpdateVehiclePrice =
                 "UPDATE vehicle v " +
                         "JOIN purchase_order_item poi ON poi.vehicle_id = v.vehicle_id " +
-                        "SET v.price = ROUND(poi.agreed_price * 1.06, 2) " +
+                        "SET v.price = ROUND(poi.agreed_price * 1.06, 2), v.version = v.version + 1 " +
                         "WHERE poi.purchase_id = ?";
 
-        String sqlAudit =
-                "INSERT INTO audit_log (account_id, action, entity, entity_id, before_data, after_data, ip_address) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, 'LOCALHOST')";
-
         try (Connection connection = ConnectionDataBase.getConnection()) {
             connection.setAutoCommit(false);
 
-            // Validar estado actual
-            PurchaseStatus currentStatus;
-
-            try (PreparedStatement stmt = connection.prepareStatement(sqlSelectStatus)) {
-                stmt.setLong(1, purchaseId);
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (!rs.next()) {
-                        connection.rollback();
-                        throw new SQLException("La orden de compra no existe.");
+            try {
+                // Validar estado actual
+                PurchaseStatus currentStatus;
+
+                try (PreparedStatement stmt = connection.prepareStatement(sqlSelectStatus)) {
+                    stmt.setLong(1, purchaseId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            connection.rollback();
+                            throw new SQLException("La orden de compra no existe.");
+                        }
+                        currentStatus = PurchaseStatus.valueOf(rs.getString("status"));
                     }
-                    currentStatus = PurchaseStatus.valueOf(rs.getString("status"));
                 }
-            }
 
-            if (currentStatus != PurchaseStatus.CREADA) {
-                connection.rollback();
-                throw new SQLException("Solo se pueden recibir órdenes en estado CREADA.");
-            }
+                if (currentStatus != PurchaseStatus.CREADA) {
+                    connection.rollback();
+                    throw new SQLException("Solo se pueden recibir órdenes en estado CREADA.");
+                }
 
-            // 1) Actualizar orden a RECIBIDA
-            try (PreparedStatement stmtUpdate = connection.prepareStatement(sqlUpdateStatus)) {
-                stmtUpdate.setLong(1, purchaseId);
-                stmtUpdate.executeUpdate();
-            }
+                // 1) Actualizar orden a RECIBIDA; condicionado a CREADA por si otro usuario la recibió
+                //    o canceló después de la validación anterior
+                try (PreparedStatement stmtUpdate = connection.prepareStatement(sqlUpdateStatus)) {
+                    stmtUpdate.setLong(1, purchaseId);
+                    if (stmtUpdate.executeUpdate() == 0) {
+                        throw conflict(purchaseId);
+                    }
+                }
 
-            // 2) Movimientos de inventario (ALTA)
-            try (PreparedStatement stmtInv = connection.prepareStatement(sqlInsertInventory)) {
-                stmtInv.setString(1, INVENTORY_TYPE_ALTA);
-                stmtInv.setString(2, REF_TABLE_PURCHASE);
-                stmtInv.setLong(3, adminAccountId);
-                stmtInv.setLong(4, purchaseId);
-                stmtInv.executeUpdate();
-            }
+                // 2) Movimientos de inventario (ALTA)
+                try (PreparedStatement stmtInv = connection.prepareStatement(sqlInsertInventory)) {
+                    stmtInv.setString(1, INVENTORY_TYPE_ALTA);
+                    stmtInv.setString(2, REF_TABLE_PURCHASE);
+                    stmtInv.setLong(3, adminAccountId);
+                    stmtInv.setLong(4, purchaseId);
+                    stmtInv.executeUpdate();
+                }
 
-            // 3) Actualizar estado de los vehículos a DISPONIBLE
-            try (PreparedStatement stmtVeh = connection.prepareStatement(sqlUpdateVehicleStatus)) {
-                stmtVeh.setString(1, VEHICLE_STATUS_AVAILABLE);
-                stmtVeh.setLong(2, purchaseId);
-                stmtVeh.executeUpdate();
-            }
+                // 3) Actualizar estado de los vehículos a DISPONIBLE
+                try (PreparedStatement stmtVeh = connection.prepareStatement(sqlUpdateVehicleStatus)) {
+                    stmtVeh.setString(1, VEHICLE_STATUS_AVAILABLE);
+                    stmtVeh.setLong(2, purchaseId);
+                    stmtVeh.executeUpdate();
+                }
 
-            // 4) Actualizar precio (6 % más caro que el acordado)
-            try (PreparedStatement stmtPrice = connection.prepareStatement(sqlUpdateVehiclePrice)) {
-                stmtPrice.setLong(1, purchaseId);
-                stmtPrice.executeUpdate();
-            }
+                // 4) Actualizar precio (6 % más caro que el acordado)
+                try (PreparedStatement stmtPrice = connection.prepareStatement(sqlUpdateVehiclePrice)) {
+                    stmtPrice.setLong(1, purchaseId);
+                    stmtPrice.executeUpdate();
+                }
 
-            // 5) Audit log UPDATE
-            String beforeJson = "{\"status\":\"CREADA\"}";
-            String afterJson = "{\"status\":\"RECIBIDA\"}";
-
-            try (PreparedStatement stmtAudit = connection.prepareStatement(sqlAudit)) {
-                stmtAudit.setLong(1, adminAccountId);
-                stmtAudit.setString(2, ACTION_UPDATE);
-                stmtAudit.setString(3, ENTITY_PURCHASE_ORDER);
-                stmtAudit.setLong(4, purchaseId);
-                stmtAudit.setString(5, beforeJson);
-                stmtAudit.setString(6, afterJson);
-                stmtAudit.executeUpdate();
+                // 5) Audit log UPDATE
+                String beforeJson = "{\"status\":\"CREADA\"}";
+                String afterJson = "{\"status\":\"RECIBIDA\"}";
+
+                AuditWriter.record(connection, new AuditRecordDTO(
+                        adminAccountId,
+                        AuditAction.UPDATE,
+                        ENTITY_PURCHASE_ORDER,
+                        purchaseId,
+                        beforeJson,
+                        afterJson,
+                        AUDIT_IP,
+                        purchaseOrderName(purchaseId),
+                        null));
+
+                AuditWriter.flush(connection);
+                connection.commit();
+                // Los vehículos de la orden se actualizan con un JOIN; no se conocen los ids aquí
+                VehicleDAO.invalidateAllCached();
+            } catch (SQLException ex) {
+                AuditWriter.discard(connection);
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
-
-            connection.commit();
         }
     }
 
     public void cancelOrder(long purchaseId, long adminAccountId, String reason) throws SQLException {
         String sqlUpdateStatus =
                 "UPDATE purchase_order " +
-                        "SET status = 'CANCELADA', cancelled_at = NOW(), cancel_reason = ? " +
+                        "SET status = 'CANCELADA', cancelled_at = NOW(), cancel_reason = ?, version = version + 1 " +
                         "WHERE purchase_id = ? AND status = 'CREADA'";
 
-        String sqlAudit =
-                "INSERT INTO audit_log (account_id, action, entity, entity_id, before_data, after_data, ip_address) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, 'LOCALHOST')";
-
         try (Connection connection = ConnectionDataBase.getConnection()) {
             connection.setAutoCommit(false);
 
-            int updated;
-            try (PreparedStatement stmtUpdate = connection.prepareStatement(sqlUpdateStatus)) {
-                stmtUpdate.setString(1, reason);
-                stmtUpdate.setLong(2, purchaseId);
-                updated = stmtUpdate.executeUpdate();
-            }
+            try {
+                int updated;
+                try (PreparedStatement stmtUpdate = connection.prepareStatement(sqlUpdateStatus)) {
+                    stmtUpdate.setString(1, reason);
+                    stmtUpdate.setLong(2, purchaseId);
+                    updated = stmtUpdate.executeUpdate();
+                }
 
-            if (updated == 0) {
-                connection.rollback();
-                throw new SQLException("Solo se pueden cancelar órdenes en estado CREADA.");
-            }
+                // Condicionado a CREADA: 0 filas es que otro usuario la recibió o canceló antes
+                if (updated == 0) {
+                    throw conflict(purchaseId);
+                }
 
-            // Audit log
-            String beforeJson = "{\"status\":\"CREADA\"}";
-            String afterJson = "{\"status\":\"CANCELADA\"}";
-
-            try (PreparedStatement stmtAudit = connection.prepareStatement(sqlAudit)) {
-                stmtAudit.setLong(1, adminAccountId);
-                stmtAudit.setString(2, ACTION_UPDATE);
-                stmtAudit.setString(3, ENTITY_PURCHASE_ORDER);
-                stmtAudit.setLong(4, purchaseId);
-                stmtAudit.setString(5, beforeJson);
-                stmtAudit.setString(6, afterJson);
-                stmtAudit.executeUpdate();
+                // Audit log
+                String beforeJson = "{\"status\":\"CREADA\"}";
+                String afterJson = "{\"status\":\"CANCELADA\"}";
+
+                AuditWriter.record(connection, new AuditRecordDTO(
+                        adminAccountId,
+                        AuditAction.UPDATE,
+                        ENTITY_PURCHASE_ORDER,
+                        purchaseId,
+                        beforeJson,
+                        afterJson,
+                        AUDIT_IP,
+                        purchaseOrderName(purchaseId),
+                        null));
+
+                AuditWriter.flush(connection);
+                connection.commit();
+            } catch (SQLException ex) {
+                AuditWriter.discard(connection);
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
-
-            connection.commit();
         }
     }
 
@@ -245,101 +275,105 @@ public class PurchaseOrderDAO {
         }
 
         String sqlSelect =
-                "SELECT supplier_id, expected_date, subtotal, status " +
+                "SELECT supplier_id, expected_date, subtotal, status, version " +
                         "FROM purchase_order WHERE purchase_id = ?";
 
         String sqlUpdate =
                 "UPDATE purchase_order " +
-                        "SET supplier_id = ?, expected_date = ?, subtotal = ?, updated_at = NOW() " +
-                        "WHERE purchase_id = ? AND status = 'CREADA'";
-
-        String sqlAudit =
-                "INSERT INTO audit_log (account_id, action, entity, entity_id, before_data, after_data, ip_address) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, 'LOCALHOST')";
+                        "SET supplier_id = ?, expected_date = ?, subtotal = ?, updated_at = NOW(), version = version + 1 " +
+                        "WHERE purchase_id = ? AND status = 'CREADA' AND version = ?";
 
         try (Connection connection = ConnectionDataBase.getConnection()) {
             connection.setAutoCommit(false);
 
-            Long purchaseId = order.getPurchaseId();
-            Long beforeSupplierId = null;
-            String beforeExpectedDate = null;
-            BigDecimal beforeSubtotal = null;
-            String statusStr;
-
-            try (PreparedStatement stmtSelect = connection.prepareStatement(sqlSelect)) {
-                stmtSelect.setLong(1, purchaseId);
-                try (ResultSet rs = stmtSelect.executeQuery()) {
-                    if (!rs.next()) {
-                        connection.rollback();
-                        throw new SQLException("La orden de compra no existe.");
-                    }
-
-                    beforeSupplierId = rs.getLong("supplier_id");
-                    Date expectedDateSql = rs.getDate("expected_date");
-                    if (expectedDateSql != null) {
-                        beforeExpectedDate = expectedDateSql.toString();
+            try {
+                Long purchaseId = order.getPurchaseId();
+                Long beforeSupplierId = null;
+                String beforeExpectedDate = null;
+                BigDecimal beforeSubtotal = null;
+                String statusStr;
+                int currentVersion;
+
+                try (PreparedStatement stmtSelect = connection.prepareStatement(sqlSelect)) {
+                    stmtSelect.setLong(1, purchaseId);
+                    try (ResultSet rs = stmtSelect.executeQuery()) {
+                        if (!rs.next()) {
+                            connection.rollback();
+                            throw new SQLException("La orden de compra no existe.");
+                        }
+
+                        beforeSupplierId = rs.getLong("supplier_id");
+                        Date expectedDateSql = rs.getDate("expected_date");
+                        if (expectedDateSql != null) {
+                            beforeExpectedDate = expectedDateSql.toString();
+                        }
+                        beforeSubtotal = rs.getBigDecimal("subtotal");
+                        statusStr = rs.getString("status");
+                        currentVersion = rs.getInt("version");
                     }
-                    beforeSubtotal = rs.getBigDecimal("subtotal");
-                    statusStr = rs.getString("status");
                 }
-            }
 
-            PurchaseStatus currentStatus = PurchaseStatus.valueOf(statusStr);
-            if (currentStatus != PurchaseStatus.CREADA) {
-                connection.rollback();
-                throw new SQLException("Solo se pueden modificar órdenes en estado CREADA.");
-            }
+                PurchaseStatus currentStatus = PurchaseStatus.valueOf(statusStr);
+                if (currentStatus != PurchaseStatus.CREADA) {
+                    connection.rollback();
+                    throw new SQLException("Solo se pueden modificar órdenes en estado CREADA.");
+                }
 
-            // Ejecutar UPDATE
-            try (PreparedStatement stmtUpdate = connection.prepareStatement(sqlUpdate)) {
-                stmtUpdate.setLong(1, order.getSupplierId());
+                // Ejecutar UPDATE
+                try (PreparedStatement stmtUpdate = connection.prepareStatement(sqlUpdate)) {
+                    stmtUpdate.setLong(1, order.getSupplierId());
 
-                if (order.getExpectedDate() != null) {
-                    stmtUpdate.setDate(2, Date.valueOf(order.getExpectedDate()));
-                } else {
-                    stmtUpdate.setNull(2, Types.DATE);
-                }
+                    if (order.getExpectedDate() != null) {
+                        stmtUpdate.setDate(2, Date.valueOf(order.getExpectedDate()));
+                    } else {
+                        stmtUpdate.setNull(2, Types.DATE);
+                    }
 
-                stmtUpdate.setBigDecimal(3, defaultAmount(order.getSubtotal()));
-                stmtUpdate.setLong(4, purchaseId);
+                    stmtUpdate.setBigDecimal(3, defaultAmount(order.getSubtotal()));
+                    stmtUpdate.setLong(4, purchaseId);
+                    // Versión con la que la pantalla leyó la orden; sin ella, la recién leída
+                    stmtUpdate.setInt(5, order.getVersion() != null ? order.getVersion() : currentVersion);
 
-                int updated = stmtUpdate.executeUpdate();
-                if (updated == 0) {
-                    connection.rollback();
-                    throw new SQLException("No se pudo actualizar la orden, verifique el estado.");
+                    int updated = stmtUpdate.executeUpdate();
+                    if (updated == 0) {
+                        throw conflict(purchaseId);
+                    }
                 }
-            }
 
-            // Audit log con before/after simples
-            String beforeJson = String.format(
-                    "{\"supplierId\":%d,\"expectedDate\":%s,\"subtotal\":%s}",
-                    beforeSupplierId,
-                    beforeExpectedDate == null ? "null" : "\"" + beforeExpectedDate + "\"",
-                    beforeSubtotal == null ? "null" : "\"" + beforeSubtotal.toPlainString() + "\""
-            );
-
-            String afterExpectedDate = order.getExpectedDate() != null
-                    ? order.getExpectedDate().toString()
-                    : null;
-
-            String afterJson = String.format(
-                    "{\"supplierId\":%d,\"expectedDate\":%s,\"subtotal\":\"%s\"}",
-                    order.getSupplierId(),
-                    afterExpectedDate == null ? "null" : "\"" + afterExpectedDate + "\"",
-                    defaultAmount(order.getSubtotal()).toPlainString()
-            );
-
-            try (PreparedStatement stmtAudit = connection.prepareStatement(sqlAudit)) {
-                stmtAudit.setLong(1, actorAccountId);
-                stmtAudit.setString(2, ACTION_UPDATE);
-                stmtAudit.setString(3, ENTITY_PURCHASE_ORDER);
-                stmtAudit.setLong(4, purchaseId);
-                stmtAudit.setString(5, beforeJson);
-                stmtAudit.setString(6, afterJson);
-                stmtAudit.executeUpdate();
+                // Audit log con before/after simples (subtotal como cadena, igual que antes)
+                String beforeJson = JsonWriter.object()
+                        .field("supplierId", beforeSupplierId)
+                        .field("expectedDate", beforeExpectedDate)
+                        .field("subtotal", beforeSubtotal == null ? null : beforeSubtotal.toPlainString())
+                        .end();
+
+                String afterJson = JsonWriter.object()
+                        .field("supplierId", order.getSupplierId())
+                        .field("expectedDate", order.getExpectedDate() != null ? order.getExpectedDate().toString() : null)
+                        .field("subtotal", defaultAmount(order.getSubtotal()).toPlainString())
+                        .end();
+
+                AuditWriter.record(connection, new AuditRecordDTO(
+                        actorAccountId,
+                        AuditAction.UPDATE,
+                        ENTITY_PURCHASE_ORDER,
+                        purchaseId,
+                        beforeJson,
+                        afterJson,
+                        AUDIT_IP,
+                        purchaseOrderName(purchaseId),
+                        null));
+
+                AuditWriter.flush(connection);
+                connection.commit();
+                order.setVersion((order.getVersion() != null ? order.getVersion() : currentVersion) + 1);
+            } catch (SQLException ex) {
+                AuditWriter.discard(connection);
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
-
-            connection.commit();
         }
     }
 
@@ -347,7 +381,7 @@ public class PurchaseOrderDAO {
         String sql =
                 "SELECT po.purchase_id, po.supplier_id, po.account_id, po.status, " +
                         "       po.subtotal, po.discount, po.taxes, po.total, po.expected_date, " +
-                        "       po.created_at, po.updated_at, po.received_at, po.cancelled_at, po.cancel_reason, " +
+                        "       po.created_at, po.updated_at, po.received_at, po.cancelled_at, po.cancel_reason, po.version, " +
                         "       s.legal_name AS supplier_name " +
                         "FROM purchase_order po " +
                         "JOIN supplier s ON s.supplier_id = po.supplier_id " +
@@ -403,6 +437,7 @@ public class PurchaseOrderDAO {
 
                 dto.setCancelReason(rs.getString("cancel_reason"));
                 dto.setSupplierName(rs.getString("supplier_name"));
+                dto.setVersion(rs.getInt("version"));
 
                 purchases.add(dto);
             }
@@ -414,4 +449,13 @@ public class PurchaseOrderDAO {
     private BigDecimal defaultAmount(BigDecimal value) {
         return value != null ? value : BigDecimal.ZERO;
     }
+
+    private static ConcurrencyConflictException conflict(long purchaseId) {
+        return new ConcurrencyConflictException(ENTITY_PURCHASE_ORDER, purchaseId,
+                "La orden " + purchaseOrderName(purchaseId) + " fue modificada por otro usuario. Recarga los datos e intenta de nuevo.");
+    }
+
+    private static String purchaseOrderName(long purchaseId) {
+        return PURCHASE_ORDER_PREFIX + purchaseId;
+    }
 }
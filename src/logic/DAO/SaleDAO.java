@@ -1,46 +1,59 @@
 package logic.DAO;
 
+import dataaccess.ConfigLoader;
 import dataaccess.ConnectionDataBase;
 import logic.DTO.AuditAction;
+import logic.DTO.AuditRecordDTO;
 import logic.DTO.InventoryMovementType;
 import logic.DTO.SaleDTO;
 import logic.DTO.SaleStatus;
+import logic.DTO.SalesSummaryDTO;
+import logic.DTO.SalesSummaryGroup;
+import logic.DTO.SalesSummaryRowDTO;
 import logic.DTO.VehicleStatus;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utilities.JsonWriter;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class SaleDAO {
 
+    private static final Logger log = LogManager.getLogger(SaleDAO.class);
+
     private static final String INSERT_SALE_SQL =
             "INSERT INTO sale " +
                     "(folio, vehicle_id, costumer_number, seller_account_id, status, " +
                     "subtotal, discount, taxes, total) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
+    // Compare-and-set sobre el estado (migración 007): de dos ventas simultáneas del mismo
+    // vehículo solo una encuentra la fila DISPONIBLE; la otra actualiza 0 filas y se deshace.
+    private static final String UPDATE_VEHICLE_AS_SOLD_SQL =
+            "UPDATE vehicle SET status = ?, version = version + 1 " +
+                    "WHERE vehicle_id = ? AND status = 'DISPONIBLE'";
+
     private static final String UPDATE_VEHICLE_STATUS_SQL =
-            "UPDATE vehicle SET status = ? WHERE vehicle_id = ?";
+            "UPDATE vehicle SET status = ?, version = version + 1 WHERE vehicle_id = ?";
 
     private static final String INSERT_INVENTORY_MOVEMENT_SQL =
             "INSERT INTO inventory_movement " +
                     "(vehicle_id, type, ref_table, ref_id, note, account_id) " +
                     "VALUES (?, ?, ?, ?, ?, ?)";
 
-    private static final String INSERT_AUDIT_LOG_SQL =
-            "INSERT INTO audit_log " +
-                    "(account_id, action, entity, entity_id, before_data, after_data, ip_address) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
     private static final String ENTITY_SALE = "sale";
     private static final String REF_TABLE_SALE = "sale";
     private static final String DEFAULT_IP_PLACEHOLDER = "127.0.0.1";
 
     private static final String SELECT_ALL_SALES_SQL =
             "SELECT sale_id, folio, vehicle_id, costumer_number, seller_account_id, status, " +
-                    "subtotal, discount, taxes, total, created_at, closed_at, annulled_at, annul_reason " +
+                    "subtotal, discount, taxes, total, created_at, closed_at, annulled_at, annul_reason, version " +
                     "FROM sale";
 
     private static final String SELECT_SALE_BY_ID_SQL =
@@ -50,6 +63,35 @@ public class SaleDAO {
     private static final String SELECT_SALES_BETWEEN_SQL =
             SELECT_ALL_SALES_SQL + " WHERE created_at >= ? AND created_at < ?";
 
+    // Reportes: recorrido en orden cronológico con cursor de solo avance
+    private static final String STREAM_SALES_SQL =
+            SELECT_ALL_SALES_SQL + " ORDER BY created_at, sale_id";
+
+    private static final String STREAM_SALES_BETWEEN_SQL =
+            SELECT_SALES_BETWEEN_SQL + " ORDER BY created_at, sale_id";
+
+    private static final String COUNT_SALES_SQL =
+            "SELECT COUNT(*) FROM sale";
+
+    private static final String COUNT_SALES_BETWEEN_SQL =
+            COUNT_SALES_SQL + " WHERE created_at >= ? AND created_at < ?";
+
+    // Resumen agregado en el servidor: COUNT/SUM por grupo más el total general (WITH ROLLUP).
+    // Los importes excluyen las anuladas, igual que el reporte. GROUPING() distingue la fila de
+    // total de un grupo cuya llave sea NULL (MySQL 8.0.12+ para ORDER BY junto con ROLLUP).
+    private static final String SUMMARY_SELECT_SQL =
+            "SELECT %1$s AS group_key, GROUPING(%1$s) AS is_total, " +
+                    "COUNT(*) AS sale_count, " +
+                    "SUM(status = 'ANULADA') AS annulled_count, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN subtotal END), 0) AS subtotal, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN discount END), 0) AS discount, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN taxes END), 0) AS taxes, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN total END), 0) AS total " +
+                    "FROM sale";
+
+    private static final String SUMMARY_GROUP_SQL =
+            " GROUP BY %1$s WITH ROLLUP ORDER BY GROUPING(%1$s), %1$s";
+
     private static final String UPDATE_SALE_SQL =
             "UPDATE sale SET " +
                     "vehicle_id = ?, " +
@@ -61,26 +103,128 @@ public class SaleDAO {
                     "total = ?, " +
                     "closed_at = ?, " +
                     "annulled_at = ?, " +
-                    "annul_reason = ? " +
-                    "WHERE sale_id = ?";
+                    "annul_reason = ?, " +
+                    "version = version + 1 " +
+                    "WHERE sale_id = ? AND version = ?";
 
     private static final String DEFAULT_ANNUL_REASON =
             "Venta anulada desde módulo de ventas.";
 
+    // Venta, vehículo e inventario en un solo viaje (migraciones 006 y 008). Se prepara como
+    // cualquier sentencia para que la caché de statements del pool la reutilice; el id llega como
+    // resultado. La auditoría y el resumen diario no van en el procedimiento: se escriben con
+    // AuditWriter y SaleRollupDAO en la misma conexión antes del COMMIT.
+    private static final String CALL_CREATE_SALE_SQL =
+            "CALL sp_create_sale(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // ER_SP_DOES_NOT_EXIST: la migración 006 no se aplicó en esta base
+    private static final int ER_SP_DOES_NOT_EXIST = 1305;
+    // ER_SP_WRONG_NO_OF_ARGS: la base tiene una versión anterior a la 008 (con auditoría o resumen)
+    private static final int ER_SP_WRONG_NO_OF_ARGS = 1318;
+
+    // SIGNAL de sp_create_sale (007) cuando el vehículo ya no está DISPONIBLE
+    private static final String SQLSTATE_VEHICLE_NOT_AVAILABLE = "45001";
+
+    private static volatile boolean procedureAvailable = true;
+
+    /** Cómo se envía el alta de una venta; ambos caminos escriben lo mismo en una sola transacción. */
+    public enum CommitPath {
+        /** Una sentencia por paso: venta, vehículo, inventario, auditoría. */
+        STATEMENTS,
+        /** Una llamada a sp_create_sale con los mismos pasos dentro del servidor, más resumen y auditoría. */
+        PROCEDURE
+    }
+
     public long createSaleWithLogAndInventory(SaleDTO sale) throws SQLException {
+        boolean useProcedure = procedureAvailable
+                && ConfigLoader.getBoolean("sales.commit.procedure.enabled", false);
+        return createSaleWithLogAndInventory(sale, useProcedure ? CommitPath.PROCEDURE : CommitPath.STATEMENTS);
+    }
+
+    /**
+     * Con {@link CommitPath#PROCEDURE}, si el procedimiento no existe se registra una advertencia y
+     * la venta (y las siguientes) se guardan por sentencias.
+     */
+    public long createSaleWithLogAndInventory(SaleDTO sale, CommitPath path) throws SQLException {
         validateSaleAmounts(sale);
 
+        if (path == CommitPath.PROCEDURE) {
+            try {
+                return createSaleWithProcedure(sale);
+            } catch (SQLException ex) {
+                if (ex.getErrorCode() != ER_SP_DOES_NOT_EXIST && ex.getErrorCode() != ER_SP_WRONG_NO_OF_ARGS) {
+                    throw ex;
+                }
+                procedureAvailable = false;
+                log.warn("sp_create_sale no existe o no es la de la migración 008 ({}); las ventas se guardan por sentencias.",
+                        ex.getErrorCode());
+            }
+        }
+        return createSaleWithStatements(sale);
+    }
+
+    private long createSaleWithProcedure(SaleDTO sale) throws SQLException {
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = connection.prepareStatement(CALL_CREATE_SALE_SQL)) {
+                statement.setString(1, sale.getFolio());
+                statement.setLong(2, sale.getVehicleId());
+                statement.setString(3, sale.getCostumerNumber());
+                statement.setLong(4, sale.getSellerAccountId());
+                statement.setString(5, sale.getStatus().name());
+                statement.setBigDecimal(6, sale.getSubtotal());
+                statement.setBigDecimal(7, nullToZero(sale.getDiscount()));
+                statement.setBigDecimal(8, nullToZero(sale.getTaxes()));
+                statement.setBigDecimal(9, sale.getTotal());
+
+                long saleId;
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Creating sale failed, no ID obtained.");
+                    }
+                    saleId = rs.getLong("sale_id");
+                }
+                if (SaleRollupDAO.isEnabled()) {
+                    SaleRollupDAO.addSale(connection, saleId);
+                }
+                insertAuditLog(connection, sale, saleId);
+                AuditWriter.flush(connection);
+                connection.commit();
+                sale.setSaleId(saleId);
+                VehicleDAO.invalidateCached(sale.getVehicleId());
+                return saleId;
+            } catch (SQLException ex) {
+                AuditWriter.discard(connection);
+                connection.rollback();
+                if (SQLSTATE_VEHICLE_NOT_AVAILABLE.equals(ex.getSQLState())) {
+                    throw vehicleNotAvailable(sale.getVehicleId());
+                }
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private long createSaleWithStatements(SaleDTO sale) throws SQLException {
         try (Connection connection = ConnectionDataBase.getConnection()) {
             connection.setAutoCommit(false);
 
             try {
                 long saleId = insertSale(connection, sale);
+                if (SaleRollupDAO.isEnabled()) {
+                    SaleRollupDAO.addSale(connection, saleId);
+                }
                 updateVehicleAsSold(connection, sale.getVehicleId());
                 insertInventoryMovementSale(connection, sale, saleId);
                 insertAuditLog(connection, sale, saleId);
+                AuditWriter.flush(connection);
                 connection.commit();
+                VehicleDAO.invalidateCached(sale.getVehicleId());
                 return saleId;
             } catch (SQLException ex) {
+                AuditWriter.discard(connection);
                 connection.rollback();
                 throw ex;
             } finally {
@@ -100,6 +244,10 @@ public class SaleDAO {
                 if (current == null) {
                     throw new SQLException("Sale with ID " + sale.getSaleId() + " not found.");
                 }
+                // Sin versión de la pantalla se compara contra la recién leída (solo protege esta transacción)
+                if (sale.getVersion() == null) {
+                    sale.setVersion(current.getVersion());
+                }
 
                 SaleStatus newStatus = sale.getStatus();
                 SaleStatus previousStatus = current.getStatus();
@@ -123,18 +271,38 @@ public class SaleDAO {
                     sale.setAnnulReason(null);
                 }
 
-                boolean isLogicalDelete =
-                        previousStatus != SaleStatus.ANULADA && newStatus == SaleStatus.ANULADA;
+                // Una venta no anulada tiene su vehículo VENDIDO. Si cambia el vehículo o la venta sale
+                // de ANULADA, el nuevo se toma con el mismo compare-and-set que el alta, y el anterior
+                // se libera si la venta lo tenía.
+                boolean holdsVehicle = previousStatus != SaleStatus.ANULADA;
+                boolean willHoldVehicle = newStatus != SaleStatus.ANULADA;
+                Long previousVehicleId = current.getVehicleId();
+                Long newVehicleId = sale.getVehicleId();
+                boolean vehicleChanged = !Objects.equals(previousVehicleId, newVehicleId);
+
+                boolean takeNewVehicle = willHoldVehicle && (!holdsVehicle || vehicleChanged);
+                boolean releasePreviousVehicle = holdsVehicle && (!willHoldVehicle || vehicleChanged);
 
                 String beforeJson = buildAfterDataJson(current);
                 String afterJson = buildAfterDataJson(sale);
 
+                // Primero el UPDATE con versión (candado exclusivo sobre la venta); después el resumen
+                // diario resta los valores de current y suma la fila ya actualizada.
                 updateSaleRow(connection, sale);
+                if (SaleRollupDAO.isEnabled()) {
+                    SaleRollupDAO.removeSale(connection, current);
+                    SaleRollupDAO.addSale(connection, sale.getSaleId());
+                }
 
-                if (isLogicalDelete) {
-                    updateVehicleAsAvailable(connection, sale.getVehicleId());
-                    insertInventoryLiberationMovement(connection, sale);
-                } else {
+                if (takeNewVehicle) {
+                    updateVehicleAsSold(connection, newVehicleId);
+                    insertInventoryMovementSale(connection, sale, sale.getSaleId());
+                }
+                if (releasePreviousVehicle) {
+                    updateVehicleAsAvailable(connection, previousVehicleId);
+                    insertInventoryLiberationMovement(connection, sale, previousVehicleId);
+                }
+                if (!takeNewVehicle && !releasePreviousVehicle) {
                     insertInventoryAdjustmentMovement(connection, sale);
                 }
 
@@ -143,11 +311,21 @@ public class SaleDAO {
                         sale.getSellerAccountId(),
                         AuditAction.UPDATE,
                         sale.getSaleId(),
+                        sale.getFolio() != null ? sale.getFolio() : current.getFolio(),
                         beforeJson,
                         afterJson);
 
+                AuditWriter.flush(connection);
                 connection.commit();
+                sale.setVersion(sale.getVersion() + 1);
+                if (takeNewVehicle) {
+                    VehicleDAO.invalidateCached(newVehicleId);
+                }
+                if (releasePreviousVehicle) {
+                    VehicleDAO.invalidateCached(previousVehicleId);
+                }
             } catch (SQLException ex) {
+                AuditWriter.discard(connection);
                 connection.rollback();
                 throw ex;
             } finally {
@@ -173,37 +351,115 @@ public class SaleDAO {
 
     // ===== NUEVO: reportes por rango relativo a la fecha actual =====
 
-    public List<SaleDTO> getSalesForCurrentWeek() throws SQLException {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
-        LocalDate endOfWeek = today.with(DayOfWeek.SUNDAY);
+    /** Rango [from, to) sobre created_at; ambos null significa todas las ventas. */
+    public record DateRange(LocalDateTime from, LocalDateTime to) {
 
-        LocalDateTime from = startOfWeek.atStartOfDay();
-        LocalDateTime to = endOfWeek.plusDays(1).atStartOfDay(); // exclusivo
+        public static DateRange all() {
+            return new DateRange(null, null);
+        }
 
-        return getSalesBetween(from, to);
+        public static DateRange currentWeek() {
+            LocalDate today = LocalDate.now();
+            LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
+            LocalDate endOfWeek = today.with(DayOfWeek.SUNDAY);
+            return new DateRange(startOfWeek.atStartOfDay(), endOfWeek.plusDays(1).atStartOfDay()); // fin exclusivo
+        }
+
+        public static DateRange currentMonth() {
+            LocalDate firstDay = LocalDate.now().withDayOfMonth(1);
+            return new DateRange(firstDay.atStartOfDay(), firstDay.plusMonths(1).atStartOfDay());
+        }
+
+        public static DateRange currentYear() {
+            LocalDate firstDay = LocalDate.now().withDayOfYear(1);
+            return new DateRange(firstDay.atStartOfDay(), firstDay.plusYears(1).atStartOfDay());
+        }
+
+        public boolean isAll() {
+            return from == null && to == null;
+        }
+
+        /** Ambos extremos a medianoche (o todas): se puede responder con el resumen diario. */
+        public boolean isDayAligned() {
+            return isAll()
+                    || (from.toLocalTime().equals(LocalTime.MIDNIGHT) && to.toLocalTime().equals(LocalTime.MIDNIGHT));
+        }
     }
 
-    public List<SaleDTO> getSalesForCurrentMonth() throws SQLException {
-        LocalDate today = LocalDate.now();
-        LocalDate firstDay = today.withDayOfMonth(1);
-        LocalDate firstDayNextMonth = firstDay.plusMonths(1);
+    /** Recibe las ventas una por una; devolver false detiene el recorrido. */
+    @FunctionalInterface
+    public interface SaleRowHandler {
+        boolean onSale(SaleDTO sale) throws IOException;
+    }
 
-        LocalDateTime from = firstDay.atStartOfDay();
-        LocalDateTime to = firstDayNextMonth.atStartOfDay();
+    public List<SaleDTO> getSalesForCurrentWeek() throws SQLException {
+        DateRange range = DateRange.currentWeek();
+        return getSalesBetween(range.from(), range.to());
+    }
 
-        return getSalesBetween(from, to);
+    public List<SaleDTO> getSalesForCurrentMonth() throws SQLException {
+        DateRange range = DateRange.currentMonth();
+        return getSalesBetween(range.from(), range.to());
     }
 
     public List<SaleDTO> getSalesForCurrentYear() throws SQLException {
-        LocalDate today = LocalDate.now();
-        LocalDate firstDay = today.withDayOfYear(1);
-        LocalDate firstDayNextYear = firstDay.plusYears(1);
+        DateRange range = DateRange.currentYear();
+        return getSalesBetween(range.from(), range.to());
+    }
 
-        LocalDateTime from = firstDay.atStartOfDay();
-        LocalDateTime to = firstDayNextYear.atStartOfDay();
+    public long countSales(DateRange range) throws SQLException {
+        if (SaleRollupDAO.isEnabled() && range.isDayAligned()) {
+            return new SaleRollupDAO().countSales(range);
+        }
+
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     range.isAll() ? COUNT_SALES_SQL : COUNT_SALES_BETWEEN_SQL)) {
+
+            if (!range.isAll()) {
+                statement.setObject(1, range.from());
+                statement.setObject(2, range.to());
+            }
 
-        return getSalesBetween(from, to);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    /**
+     * Recorre las ventas del rango en orden cronológico sin cargarlas en una lista: el driver de
+     * MySQL las entrega fila por fila (fetch size Integer.MIN_VALUE), así que la memoria no crece
+     * con el tamaño del reporte. Mientras dura el recorrido la conexión queda ocupada.
+     *
+     * @return cuántas ventas se entregaron a {@code handler}
+     */
+    public long streamSales(DateRange range, SaleRowHandler handler) throws SQLException, IOException {
+        long delivered = 0;
+
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     range.isAll() ? STREAM_SALES_SQL : STREAM_SALES_BETWEEN_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            statement.setFetchSize(Integer.MIN_VALUE);
+            if (!range.isAll()) {
+                statement.setObject(1, range.from());
+                statement.setObject(2, range.to());
+            }
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    delivered++;
+                    if (!handler.onSale(mapResultSetToSaleDTO(rs))) {
+                        // Al cerrar, el driver descarta las filas que faltan antes de liberar la conexión
+                        break;
+                    }
+                }
+            }
+        }
+
+        return delivered;
     }
 
     public List<SaleDTO> getSalesBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
@@ -225,6 +481,75 @@ public class SaleDAO {
         return sales;
     }
 
+    /**
+     * Totales, conteos, descuentos e impuestos por día, semana ISO, mes, vendedor o estado,
+     * calculados con GROUP BY ... WITH ROLLUP: solo viajan las filas de resumen, no las ventas.
+     * Las sumas son DECIMAL en MySQL, así que llegan exactas como BigDecimal.
+     * Con el resumen diario activo, los rangos de días completos se leen de sale_daily_rollup.
+     */
+    public SalesSummaryDTO getSalesSummary(DateRange range, SalesSummaryGroup group) throws SQLException {
+        if (SaleRollupDAO.isEnabled() && range.isDayAligned()) {
+            return new SaleRollupDAO().getSalesSummary(range, group);
+        }
+
+        String expression = summaryExpression(group);
+        String sql = String.format(SUMMARY_SELECT_SQL, expression)
+                + (range.isAll() ? "" : " WHERE created_at >= ? AND created_at < ?")
+                + String.format(SUMMARY_GROUP_SQL, expression);
+
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            if (!range.isAll()) {
+                statement.setObject(1, range.from());
+                statement.setObject(2, range.to());
+            }
+            return readSummary(statement, group);
+        }
+    }
+
+    /** Lee las filas de un resumen con ROLLUP (group_key, is_total, sale_count, ...). */
+    static SalesSummaryDTO readSummary(PreparedStatement statement, SalesSummaryGroup group) throws SQLException {
+        List<SalesSummaryRowDTO> rows = new ArrayList<>();
+        SalesSummaryRowDTO grandTotal = null;
+
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                SalesSummaryRowDTO row = new SalesSummaryRowDTO(
+                        rs.getString("group_key"),
+                        rs.getInt("is_total") == 1,
+                        rs.getLong("sale_count"),
+                        rs.getLong("annulled_count"),
+                        rs.getBigDecimal("subtotal"),
+                        rs.getBigDecimal("discount"),
+                        rs.getBigDecimal("taxes"),
+                        rs.getBigDecimal("total"));
+                if (row.isTotal()) {
+                    grandTotal = row;
+                } else {
+                    rows.add(row);
+                }
+            }
+        }
+
+        // Sin ventas en el rango ROLLUP no devuelve ninguna fila
+        if (grandTotal == null) {
+            grandTotal = new SalesSummaryRowDTO(null, true, 0, 0,
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        return new SalesSummaryDTO(group, rows, grandTotal);
+    }
+
+    private static String summaryExpression(SalesSummaryGroup group) {
+        return switch (group) {
+            case DAY -> "DATE_FORMAT(created_at, '%Y-%m-%d')";
+            case WEEK -> "DATE_FORMAT(created_at, '%x-W%v')"; // semana ISO: lunes a domingo
+            case MONTH -> "DATE_FORMAT(created_at, '%Y-%m')";
+            case SELLER -> "seller_account_id";
+            case STATUS -> "status";
+        };
+    }
+
     // ================================================================
 
     private void validateSaleAmounts(SaleDTO sale) {
@@ -290,13 +615,13 @@ public class SaleDAO {
     }
 
     private void updateVehicleAsSold(Connection connection, Long vehicleId) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement(UPDATE_VEHICLE_STATUS_SQL)) {
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE_VEHICLE_AS_SOLD_SQL)) {
             statement.setString(1, VehicleStatus.VENDIDO.name());
             statement.setLong(2, vehicleId);
 
             int affectedRows = statement.executeUpdate();
             if (affectedRows == 0) {
-                throw new SQLException("Updating vehicle status failed, no rows affected.");
+                throw vehicleNotAvailable(vehicleId);
             }
         }
     }
@@ -325,13 +650,15 @@ public class SaleDAO {
         }
     }
 
-    private void insertInventoryLiberationMovement(Connection connection, SaleDTO sale) throws SQLException {
+    private void insertInventoryLiberationMovement(Connection connection, SaleDTO sale, long vehicleId)
+            throws SQLException {
+        String reason = sale.getStatus() == SaleStatus.ANULADA ? "Anulación" : "Cambio de vehículo";
         try (PreparedStatement statement = connection.prepareStatement(INSERT_INVENTORY_MOVEMENT_SQL)) {
-            statement.setLong(1, sale.getVehicleId());
+            statement.setLong(1, vehicleId);
             statement.setString(2, InventoryMovementType.LIBERACION.name());
             statement.setString(3, REF_TABLE_SALE);
             statement.setLong(4, sale.getSaleId());
-            statement.setString(5, "Anulación venta folio " + sale.getFolio());
+            statement.setString(5, reason + " venta folio " + sale.getFolio());
             statement.setLong(6, sale.getSellerAccountId());
             statement.executeUpdate();
         }
@@ -357,6 +684,7 @@ public class SaleDAO {
                 sale.getSellerAccountId(),
                 AuditAction.CREATE,
                 saleId,
+                sale.getFolio(),
                 null,
                 afterDataJson);
     }
@@ -366,36 +694,20 @@ public class SaleDAO {
             long accountId,
             AuditAction action,
             long entityId,
+            String folio,
             String beforeDataJson,
             String afterDataJson) throws SQLException {
 
-        try (PreparedStatement statement = connection.prepareStatement(INSERT_AUDIT_LOG_SQL)) {
-
-            if (accountId > 0) {
-                statement.setLong(1, accountId);
-            } else {
-                statement.setNull(1, Types.BIGINT);
-            }
-
-            statement.setString(2, action.name());
-            statement.setString(3, ENTITY_SALE);
-            statement.setLong(4, entityId);
-
-            if (beforeDataJson != null) {
-                statement.setString(5, beforeDataJson);
-            } else {
-                statement.setNull(5, Types.VARCHAR);
-            }
-
-            if (afterDataJson != null) {
-                statement.setString(6, afterDataJson);
-            } else {
-                statement.setNull(6, Types.VARCHAR);
-            }
-
-            statement.setString(7, DEFAULT_IP_PLACEHOLDER);
-            statement.executeUpdate();
-        }
+        AuditWriter.record(connection, new AuditRecordDTO(
+                accountId > 0 ? accountId : null,
+                action,
+                ENTITY_SALE,
+                entityId,
+                beforeDataJson,
+                afterDataJson,
+                DEFAULT_IP_PLACEHOLDER,
+                folio,
+                null));
     }
 
     private SaleDTO getSaleById(Connection connection, long saleId) throws SQLException {
@@ -441,10 +753,12 @@ public class SaleDAO {
             }
 
             statement.setLong(11, sale.getSaleId());
+            statement.setInt(12, sale.getVersion());
 
             int affectedRows = statement.executeUpdate();
             if (affectedRows == 0) {
-                throw new SQLException("Updating sale failed, no rows affected.");
+                throw new ConcurrencyConflictException(ENTITY_SALE, sale.getSaleId(),
+                        "La venta " + sale.getSaleId() + " fue modificada por otro usuario. Recarga los datos e intenta de nuevo.");
             }
         }
     }
@@ -467,29 +781,28 @@ public class SaleDAO {
         sale.setClosedAt(rs.getObject("closed_at", LocalDateTime.class));
         sale.setAnnulledAt(rs.getObject("annulled_at", LocalDateTime.class));
         sale.setAnnulReason(rs.getString("annul_reason"));
+        sale.setVersion(rs.getInt("version"));
 
         return sale;
     }
 
     private String buildAfterDataJson(SaleDTO sale) {
-        return "{"
-                + "\"folio\":\"" + escapeJson(sale.getFolio()) + "\","
-                + "\"status\":\"" + sale.getStatus().name() + "\","
-                + "\"subtotal\":" + sale.getSubtotal() + ","
-                + "\"discount\":" + nullToZero(sale.getDiscount()) + ","
-                + "\"taxes\":" + nullToZero(sale.getTaxes()) + ","
-                + "\"total\":" + sale.getTotal()
-                + "}";
+        return JsonWriter.object()
+                .field("folio", sale.getFolio() != null ? sale.getFolio() : "")
+                .field("status", sale.getStatus().name())
+                .field("subtotal", sale.getSubtotal())
+                .field("discount", nullToZero(sale.getDiscount()))
+                .field("taxes", nullToZero(sale.getTaxes()))
+                .field("total", sale.getTotal())
+                .end();
     }
 
-    private BigDecimal nullToZero(BigDecimal value) {
-        return value == null ? BigDecimal.ZERO : value;
+    private static ConcurrencyConflictException vehicleNotAvailable(Long vehicleId) {
+        return new ConcurrencyConflictException("vehicle", vehicleId,
+                "El vehículo " + vehicleId + " ya no está disponible; otro usuario lo vendió o lo modificó.");
     }
 
-    private String escapeJson(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    private BigDecimal nullToZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
     }
 }
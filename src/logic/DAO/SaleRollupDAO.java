@@ -0,0 +1,362 @@
+package logic.DAO;
+
+import dataaccess.ConfigLoader;
+import dataaccess.ConnectionDataBase;
+import logic.DTO.SaleDTO;
+import logic.DTO.SalesSummaryDTO;
+import logic.DTO.SalesSummaryGroup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Tabla sale_daily_rollup (migración 005_sale_daily_rollup.sql): conteo y sumas de importes por
+ * día × vendedor × estado. SaleDAO la mantiene en la misma transacción que la venta con
+ * {@link #addSale} / {@link #removeSale}; una edición (p. ej. a ANULADA) resta la venta de su fila
+ * anterior con los valores previos y la suma, ya actualizada, a la nueva. Las filas que quedan en cero se conservan hasta la
+ * siguiente reconstrucción y las consultas las ignoran.
+ */
+public class SaleRollupDAO {
+
+    // Los importes salen de la fila de sale dentro de la transacción, no de lo que mandó la pantalla.
+    // Las columnas destino van calificadas: sale también tiene status, subtotal, etc.
+    private static final String SQL_APPLY_SALE =
+            "INSERT INTO sale_daily_rollup " +
+                    "(sale_date, seller_account_id, status, sale_count, subtotal, discount, taxes, total) " +
+                    "SELECT DATE(s.created_at), COALESCE(s.seller_account_id, 0), s.status, ?, " +
+                    "? * COALESCE(s.subtotal, 0), ? * COALESCE(s.discount, 0), " +
+                    "? * COALESCE(s.taxes, 0), ? * COALESCE(s.total, 0) " +
+                    "FROM sale s WHERE s.sale_id = ? " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  sale_daily_rollup.sale_count = sale_daily_rollup.sale_count + VALUES(sale_count), " +
+                    "  sale_daily_rollup.subtotal = sale_daily_rollup.subtotal + VALUES(subtotal), " +
+                    "  sale_daily_rollup.discount = sale_daily_rollup.discount + VALUES(discount), " +
+                    "  sale_daily_rollup.taxes = sale_daily_rollup.taxes + VALUES(taxes), " +
+                    "  sale_daily_rollup.total = sale_daily_rollup.total + VALUES(total)";
+
+    // Resta con los valores ya leídos: no vuelve a leer sale, así que no toma candado compartido
+    // sobre la fila que la transacción va a actualizar (dos ediciones simultáneas se bloqueaban: 1213).
+    private static final String SQL_REMOVE_VALUES =
+            "INSERT INTO sale_daily_rollup " +
+                    "(sale_date, seller_account_id, status, sale_count, subtotal, discount, taxes, total) " +
+                    "VALUES (?, ?, ?, -1, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  sale_count = sale_count + VALUES(sale_count), " +
+                    "  subtotal = subtotal + VALUES(subtotal), " +
+                    "  discount = discount + VALUES(discount), " +
+                    "  taxes = taxes + VALUES(taxes), " +
+                    "  total = total + VALUES(total)";
+
+    private static final String SQL_DELETE_RANGE =
+            "DELETE FROM sale_daily_rollup";
+
+    private static final String SQL_REBUILD_RANGE =
+            "INSERT INTO sale_daily_rollup " +
+                    "(sale_date, seller_account_id, status, sale_count, subtotal, discount, taxes, total) " +
+                    "SELECT DATE(created_at), COALESCE(seller_account_id, 0), status, COUNT(*), " +
+                    "COALESCE(SUM(subtotal), 0), COALESCE(SUM(discount), 0), " +
+                    "COALESCE(SUM(taxes), 0), COALESCE(SUM(total), 0) " +
+                    "FROM sale%s " +
+                    "GROUP BY DATE(created_at), COALESCE(seller_account_id, 0), status";
+
+    private static final String SQL_LIVE_BUCKETS =
+            "SELECT DATE(created_at) AS sale_date, COALESCE(seller_account_id, 0) AS seller_account_id, status, " +
+                    "COUNT(*) AS sale_count, COALESCE(SUM(subtotal), 0) AS subtotal, " +
+                    "COALESCE(SUM(discount), 0) AS discount, COALESCE(SUM(taxes), 0) AS taxes, " +
+                    "COALESCE(SUM(total), 0) AS total " +
+                    "FROM sale%s " +
+                    "GROUP BY DATE(created_at), COALESCE(seller_account_id, 0), status";
+
+    private static final String SQL_ROLLUP_BUCKETS =
+            "SELECT sale_date, seller_account_id, status, sale_count, subtotal, discount, taxes, total " +
+                    "FROM sale_daily_rollup%s";
+
+    private static final String SALE_RANGE_PREDICATE = " WHERE created_at >= ? AND created_at < ?";
+    private static final String ROLLUP_RANGE_PREDICATE = " WHERE sale_date >= ? AND sale_date < ?";
+
+    private static final String SQL_COUNT =
+            "SELECT COALESCE(SUM(sale_count), 0) FROM sale_daily_rollup";
+
+    // Mismo resultado que SaleDAO.getSalesSummary, pero sumando filas diarias en lugar de ventas
+    private static final String SUMMARY_SELECT_SQL =
+            "SELECT %1$s AS group_key, GROUPING(%1$s) AS is_total, " +
+                    "SUM(sale_count) AS sale_count, " +
+                    "SUM(CASE WHEN status = 'ANULADA' THEN sale_count ELSE 0 END) AS annulled_count, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN subtotal END), 0) AS subtotal, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN discount END), 0) AS discount, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN taxes END), 0) AS taxes, " +
+                    "COALESCE(SUM(CASE WHEN status <> 'ANULADA' THEN total END), 0) AS total " +
+                    "FROM sale_daily_rollup";
+
+    private static final String SUMMARY_GROUP_SQL =
+            " GROUP BY %1$s WITH ROLLUP HAVING SUM(sale_count) > 0 ORDER BY GROUPING(%1$s), %1$s";
+
+    /** Fila de sale_daily_rollup que no coincide con lo que hay en sale; null = no existe de ese lado. */
+    public record Mismatch(LocalDate saleDate, long sellerAccountId, String status, String expected, String actual) {
+
+        @Override
+        public String toString() {
+            return saleDate + " | vendedor=" + sellerAccountId + " | " + status
+                    + "\n    sale:   " + expected + "\n    rollup: " + actual;
+        }
+    }
+
+    private record BucketKey(LocalDate saleDate, long sellerAccountId, String status) implements Comparable<BucketKey> {
+
+        @Override
+        public int compareTo(BucketKey other) {
+            int c = saleDate.compareTo(other.saleDate);
+            if (c == 0) {
+                c = Long.compare(sellerAccountId, other.sellerAccountId);
+            }
+            return c != 0 ? c : status.compareTo(other.status);
+        }
+    }
+
+    private record Bucket(long count, BigDecimal subtotal, BigDecimal discount, BigDecimal taxes, BigDecimal total) {
+
+        boolean isEmpty() {
+            return count == 0
+                    && subtotal.signum() == 0 && discount.signum() == 0
+                    && taxes.signum() == 0 && total.signum() == 0;
+        }
+
+        boolean sameAs(Bucket other) {
+            return count == other.count
+                    && subtotal.compareTo(other.subtotal) == 0
+                    && discount.compareTo(other.discount) == 0
+                    && taxes.compareTo(other.taxes) == 0
+                    && total.compareTo(other.total) == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "ventas=" + count + " | subtotal=" + subtotal.toPlainString()
+                    + " | descuento=" + discount.toPlainString() + " | impuestos=" + taxes.toPlainString()
+                    + " | total=" + total.toPlainString();
+        }
+    }
+
+    /** Solo se mantiene y se consulta con sales.rollup.enabled=true (después de aplicar la migración 005). */
+    public static boolean isEnabled() {
+        return ConfigLoader.getBoolean("sales.rollup.enabled", false);
+    }
+
+    // ===== Mantenimiento dentro de la transacción de SaleDAO =====
+
+    /** Suma la venta, tal como está ahora en sale, a su fila día × vendedor × estado. */
+    static void addSale(Connection connection, long saleId) throws SQLException {
+        apply(connection, saleId, 1);
+    }
+
+    /**
+     * Resta la venta con los valores que tenía antes de modificarla ({@code previous}, leída en la
+     * misma transacción). Se llama después del UPDATE con control de versión, que garantiza que
+     * esos valores eran los de la fila.
+     */
+    static void removeSale(Connection connection, SaleDTO previous) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_REMOVE_VALUES)) {
+            statement.setObject(1, previous.getCreatedAt().toLocalDate());
+            statement.setLong(2, previous.getSellerAccountId() == null ? 0L : previous.getSellerAccountId());
+            statement.setString(3, previous.getStatus().name());
+            statement.setBigDecimal(4, negate(previous.getSubtotal()));
+            statement.setBigDecimal(5, negate(previous.getDiscount()));
+            statement.setBigDecimal(6, negate(previous.getTaxes()));
+            statement.setBigDecimal(7, negate(previous.getTotal()));
+            statement.executeUpdate();
+        }
+    }
+
+    private static BigDecimal negate(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value.negate();
+    }
+
+    private static void apply(Connection connection, long saleId, int sign) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_APPLY_SALE)) {
+            for (int i = 1; i <= 5; i++) {
+                statement.setInt(i, sign);
+            }
+            statement.setLong(6, saleId);
+
+            if (statement.executeUpdate() == 0) {
+                throw new SQLException("Updating sale rollup failed, sale " + saleId + " not found.");
+            }
+        }
+    }
+
+    // ===== Reconstrucción y verificación (utilities.SaleRollupJob) =====
+
+    /**
+     * Recalcula desde sale las filas del rango, en una sola transacción. Las ventas nuevas del
+     * rango esperan a que termine (INSERT ... SELECT bloquea lo que lee), así que no se pierden.
+     *
+     * @return filas escritas en sale_daily_rollup
+     */
+    public int rebuild(SaleDAO.DateRange range) throws SQLException {
+        requireDayAligned(range);
+
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        SQL_DELETE_RANGE + rollupPredicate(range))) {
+                    bindDays(statement, range);
+                    statement.executeUpdate();
+                }
+
+                int written;
+                try (PreparedStatement statement = connection.prepareStatement(
+                        String.format(SQL_REBUILD_RANGE, salePredicate(range)))) {
+                    bindTimestamps(statement, range);
+                    written = statement.executeUpdate();
+                }
+
+                connection.commit();
+                return written;
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Compara sale_daily_rollup contra la agregación de sale para el rango; vacío = coinciden. */
+    public List<Mismatch> verify(SaleDAO.DateRange range) throws SQLException {
+        requireDayAligned(range);
+
+        Map<BucketKey, Bucket> expected;
+        Map<BucketKey, Bucket> actual;
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            expected = readBuckets(connection, String.format(SQL_LIVE_BUCKETS, salePredicate(range)), range, false);
+            actual = readBuckets(connection, String.format(SQL_ROLLUP_BUCKETS, rollupPredicate(range)), range, true);
+        }
+
+        List<Mismatch> mismatches = new ArrayList<>();
+        Map<BucketKey, Bucket> keys = new TreeMap<>(expected);
+        actual.forEach(keys::putIfAbsent);
+
+        for (BucketKey key : keys.keySet()) {
+            Bucket live = expected.get(key);
+            Bucket stored = actual.get(key);
+            // Una fila que quedó en cero equivale a que no exista
+            boolean same = live == null
+                    ? stored.isEmpty()
+                    : stored != null && live.sameAs(stored);
+            if (!same) {
+                mismatches.add(new Mismatch(key.saleDate(), key.sellerAccountId(), key.status(),
+                        Objects.toString(live, null), Objects.toString(stored, null)));
+            }
+        }
+        return mismatches;
+    }
+
+    // ===== Consultas para reportes =====
+
+    public long countSales(SaleDAO.DateRange range) throws SQLException {
+        requireDayAligned(range);
+
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SQL_COUNT + rollupPredicate(range))) {
+            bindDays(statement, range);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    /** Igual que {@link SaleDAO#getSalesSummary}, leyendo a lo más una fila por día, vendedor y estado. */
+    public SalesSummaryDTO getSalesSummary(SaleDAO.DateRange range, SalesSummaryGroup group) throws SQLException {
+        requireDayAligned(range);
+
+        String expression = summaryExpression(group);
+        String sql = String.format(SUMMARY_SELECT_SQL, expression)
+                + rollupPredicate(range)
+                + String.format(SUMMARY_GROUP_SQL, expression);
+
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindDays(statement, range);
+            return SaleDAO.readSummary(statement, group);
+        }
+    }
+
+    // Mismas llaves que SaleDAO: el vendedor 0 de la tabla vuelve a ser NULL
+    private static String summaryExpression(SalesSummaryGroup group) {
+        return switch (group) {
+            case DAY -> "DATE_FORMAT(sale_date, '%Y-%m-%d')";
+            case WEEK -> "DATE_FORMAT(sale_date, '%x-W%v')";
+            case MONTH -> "DATE_FORMAT(sale_date, '%Y-%m')";
+            case SELLER -> "NULLIF(seller_account_id, 0)";
+            case STATUS -> "status";
+        };
+    }
+
+    // ================================================================
+
+    private Map<BucketKey, Bucket> readBuckets(Connection connection, String sql, SaleDAO.DateRange range,
+                                               boolean byDay) throws SQLException {
+        Map<BucketKey, Bucket> buckets = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (byDay) {
+                bindDays(statement, range);
+            } else {
+                bindTimestamps(statement, range);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    BucketKey key = new BucketKey(
+                            rs.getObject("sale_date", LocalDate.class),
+                            rs.getLong("seller_account_id"),
+                            rs.getString("status"));
+                    buckets.put(key, new Bucket(
+                            rs.getLong("sale_count"),
+                            rs.getBigDecimal("subtotal"),
+                            rs.getBigDecimal("discount"),
+                            rs.getBigDecimal("taxes"),
+                            rs.getBigDecimal("total")));
+                }
+            }
+        }
+        return buckets;
+    }
+
+    private static void requireDayAligned(SaleDAO.DateRange range) {
+        if (!range.isDayAligned()) {
+            throw new IllegalArgumentException("El resumen diario solo admite rangos de días completos: " + range);
+        }
+    }
+
+    private static String salePredicate(SaleDAO.DateRange range) {
+        return range.isAll() ? "" : SALE_RANGE_PREDICATE;
+    }
+
+    private static String rollupPredicate(SaleDAO.DateRange range) {
+        return range.isAll() ? "" : ROLLUP_RANGE_PREDICATE;
+    }
+
+    private static void bindTimestamps(PreparedStatement statement, SaleDAO.DateRange range) throws SQLException {
+        if (!range.isAll()) {
+            statement.setObject(1, range.from());
+            statement.setObject(2, range.to());
+        }
+    }
+
+    private static void bindDays(PreparedStatement statement, SaleDAO.DateRange range) throws SQLException {
+        if (!range.isAll()) {
+            statement.setObject(1, range.from().toLocalDate());
+            statement.setObject(2, range.to().toLocalDate());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package logic.DAO;
+
+import dataaccess.ConnectionDataBase;
+import logic.DTO.SaleStatus;
+import logic.analytics.SalesColumns;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Carga las ventas con marca, modelo y año de su vehículo en {@link SalesColumns} para análisis en
+ * memoria. Las filas llegan una por una (cursor de solo avance) y los importes ya vienen en
+ * centavos desde MySQL, así que la carga no crea un SaleDTO ni un BigDecimal por venta.
+ */
+public class SalesAnalyticsDAO {
+
+    private static final String SELECT_SALES_WITH_VEHICLE_SQL =
+            "SELECT s.created_at, s.status, s.seller_account_id, v.make, v.model, v.model_year, " +
+                    "CAST(ROUND(COALESCE(s.subtotal, 0) * 100) AS SIGNED) AS subtotal_cents, " +
+                    "CAST(ROUND(COALESCE(s.discount, 0) * 100) AS SIGNED) AS discount_cents, " +
+                    "CAST(ROUND(COALESCE(s.taxes, 0) * 100) AS SIGNED) AS taxes_cents, " +
+                    "CAST(ROUND(COALESCE(s.total, 0) * 100) AS SIGNED) AS total_cents " +
+                    "FROM sale s LEFT JOIN vehicle v ON v.vehicle_id = s.vehicle_id";
+
+    private static final String RANGE_PREDICATE =
+            " WHERE s.created_at >= ? AND s.created_at < ?";
+
+    public SalesColumns loadColumns(SaleDAO.DateRange range) throws SQLException {
+        SalesColumns.Builder builder = new SalesColumns.Builder();
+
+        try (Connection connection = ConnectionDataBase.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     SELECT_SALES_WITH_VEHICLE_SQL + (range.isAll() ? "" : RANGE_PREDICATE),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            statement.setFetchSize(Integer.MIN_VALUE);
+            if (!range.isAll()) {
+                statement.setObject(1, range.from());
+                statement.setObject(2, range.to());
+            }
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    long seller = rs.getLong("seller_account_id");
+                    Long sellerAccountId = rs.wasNull() ? null : seller;
+
+                    builder.add(
+                            rs.getObject("created_at", LocalDateTime.class).toLocalDate(),
+                            SaleStatus.valueOf(rs.getString("status")),
+                            sellerAccountId,
+                            rs.getString("make"),
+                            rs.getString("model"),
+                            rs.getInt("model_year"), // NULL → 0, año desconocido
+                            rs.getLong("subtotal_cents"),
+                            rs.getLong("discount_cents"),
+                            rs.getLong("taxes_cents"),
+                            rs.getLong("total_cents"));
+                }
+            }
+        }
+
+        return builder.build();
+    }
+}
@@ -13,6 +13,8 @@ public class SupplierDAO {
     private static final int ACTIVE_FLAG = 1;
     private static final int INACTIVE_FLAG = 0;
 
+    private static final EntityCache<Long, SupplierDTO> CACHE = EntityCache.create("supplier", SupplierDAO::copyOf);
+
     private static final String BASE_COLUMNS =
             "supplier_id, legal_name, rfc, contact_name, phone, email, " +
                     "is_active, created_at, updated_at, deleted_at";
@@ -124,6 +126,8 @@ public class SupplierDAO {
             statement.setLong(7, supplier.getSupplierId());
 
             statement.executeUpdate();
+        } finally {
+            CACHE.invalidate(supplier.getSupplierId());
         }
     }
 
@@ -135,10 +139,21 @@ public class SupplierDAO {
             statement.setLong(2, supplierId);
 
             statement.executeUpdate();
+        } finally {
+            CACHE.invalidate(supplierId);
         }
     }
 
     public SupplierDTO findSupplierById(long supplierId) throws SQLException {
+        return CACHE.get(supplierId, this::loadSupplierById);
+    }
+
+    /** Precarga en caché los proveedores activos (catálogo que usan los formularios de compra). */
+    public int primeCache() throws SQLException {
+        return CACHE.prime(this::getAllActiveSuppliers, SupplierDTO::getSupplierId);
+    }
+
+    private SupplierDTO loadSupplierById(Long supplierId) throws SQLException {
         try (Connection connection = ConnectionDataBase.getConnection();
              PreparedStatement statement = connection.prepareStatement(SELECT_SUPPLIER_BY_ID_SQL)) {
 
@@ -292,4 +307,19 @@ public class SupplierDAO {
         }
         return timestamp.toLocalDateTime();
     }
+
+    private static SupplierDTO copyOf(SupplierDTO s) {
+        SupplierDTO copy = new SupplierDTO();
+        copy.setSupplierId(s.getSupplierId());
+        copy.setLegalName(s.getLegalName());
+        copy.setRfc(s.getRfc());
+        copy.setContactName(s.getContactName());
+        copy.setPhone(s.getPhone());
+        copy.setEmail(s.getEmail());
+        copy.setActive(s.getActive());
+        copy.setCreatedAt(s.getCreatedAt());
+        copy.setUpdatedAt(s.getUpdatedAt());
+        copy.setDeletedAt(s.getDeletedAt());
+        return copy;
+    }
 }
@@ -78,8 +78,10 @@ public class UserManagementDAO {
                 auditDao.logAccountCreate(connection, actorAccountId, account);
                 auditDao.logUserCreate(connection, actorAccountId, user);
 
+                AuditWriter.flush(connection);
                 connection.commit();
             } catch (Exception ex) {
+                AuditWriter.discard(connection);
                 connection.rollback();
                 if (ex instanceof SQLException) throw (SQLException) ex;
                 if (ex instanceof IOException) throw (IOException) ex;
@@ -125,8 +127,8 @@ public class UserManagementDAO {
                     throw new SQLException("User/Account not found.");
                 }
 
-                String beforeAccountJson = buildAccountJson(currentAccount);
-                String beforeUserJson = buildUserJson(currentUser);
+                String beforeAccountJson = AuditLogDAO.buildAccountJson(currentAccount);
+                String beforeUserJson = AuditLogDAO.buildUserJson(currentUser);
 
                 user.setPersonnelNumber(currentUser.getPersonnelNumber());
                 user.setPhone(normalizePhoneWithFixedPrefix(user.getPhone()));
@@ -144,13 +146,16 @@ public class UserManagementDAO {
                 UserDTO afterUser = userDao.findUserByPersonnelNumber(user.getPersonnelNumber());
 
                 auditDao.logAccountUpdate(connection, actorAccountId, account.getAccountId(),
-                        beforeAccountJson, buildAccountJson(afterAccount));
+                        beforeAccountJson, AuditLogDAO.buildAccountJson(afterAccount));
 
                 auditDao.logUserUpdate(connection, actorAccountId, account.getAccountId(),
-                        beforeUserJson, buildUserJson(afterUser));
+                        beforeUserJson, AuditLogDAO.buildUserJson(afterUser));
 
+                AuditWriter.flush(connection);
                 connection.commit();
+                AccountDAO.invalidateCached(account.getAccountId());
             } catch (Exception ex) {
+                AuditWriter.discard(connection);
                 connection.rollback();
                 if (ex instanceof SQLException) throw (SQLException) ex;
                 if (ex instanceof IOException) throw (IOException) ex;
@@ -185,8 +190,8 @@ public class UserManagementDAO {
                     throw new SQLException("Account not found.");
                 }
 
-                String beforeAccountJson = buildAccountJson(currentAccount);
-                String beforeUserJson = buildUserJson(currentUser);
+                String beforeAccountJson = AuditLogDAO.buildAccountJson(currentAccount);
+                String beforeUserJson = AuditLogDAO.buildUserJson(currentUser);
 
                 accountDao.logicalDeleteAccount(connection, currentAccount.getAccountId());
                 userDao.logicalDeleteUser(connection, personnelNumber);
@@ -195,13 +200,16 @@ public class UserManagementDAO {
                 UserDTO afterUser = userDao.findUserByPersonnelNumber(personnelNumber);
 
                 auditDao.logAccountDelete(connection, actorAccountId, currentAccount.getAccountId(),
-                        beforeAccountJson, buildAccountJson(afterAccount));
+                        beforeAccountJson, AuditLogDAO.buildAccountJson(afterAccount));
 
                 auditDao.logUserDelete(connection, actorAccountId, currentAccount.getAccountId(),
-                        beforeUserJson, buildUserJson(afterUser));
+                        beforeUserJson, AuditLogDAO.buildUserJson(afterUser));
 
+                AuditWriter.flush(connection);
                 connection.commit();
+                AccountDAO.invalidateCached(currentAccount.getAccountId());
             } catch (Exception ex) {
+                AuditWriter.discard(connection);
                 connection.rollback();
                 if (ex instanceof SQLException) throw (SQLException) ex;
                 if (ex instanceof IOException) throw (IOException) ex;
@@ -391,36 +399,4 @@ public class UserManagementDAO {
         }
         return PHONE_PREFIX_FIXED + raw;
     }
-
-    private String buildAccountJson(AccountDTO a) {
-        String email = a.getEmail() != null ? a.getEmail() : "";
-        String role = a.getRole() != null ? a.getRole().name() : "";
-        boolean active = a.getIsActive();
-
-        return "{"
-                + "\"accountId\":" + (a.getAccountId() == null ? 0 : a.getAccountId()) + ","
-                + "\"email\":\"" + escapeJson(email) + "\","
-                + "\"role\":\"" + escapeJson(role) + "\","
-                + "\"isActive\":" + active
-                + "}";
-    }
-
-    private String buildUserJson(UserDTO u) {
-        String pn = u.getPersonnelNumber() != null ? u.getPersonnelNumber() : "";
-        String username = u.getUsername() != null ? u.getUsername() : "";
-        String fullName = u.getFullName() != null ? u.getFullName() : "";
-        String phone = u.getPhone() != null ? u.getPhone() : "";
-
-        return "{"
-                + "\"personnelNumber\":\"" + escapeJson(pn) + "\","
-                + "\"username\":\"" + escapeJson(username) + "\","
-                + "\"fullName\":\"" + escapeJson(fullName) + "\","
-                + "\"phone\":\"" + escapeJson(phone) + "\""
-                + "}";
-    }
-
-    private String escapeJson(String value) {
-        if (value == null) return "";
-        return value.replace("\\", "\\\\").replace("\"", "\\\"");
-    }
 }
@@ -1,6 +1,7 @@
 package logic.DAO;
 
 import dataaccess.ConnectionDataBase;
+import logic.DTO.InventoryMovementDTO;
 import logic.DTO.VehicleDTO;
 import logic.DTO.VehicleStatus;
 
@@ -13,23 +14,30 @@ import java.util.List;
 
 public class VehicleDAO {
 
+    private static final EntityCache<Long, VehicleDTO> CACHE = EntityCache.create("vehicle", VehicleDAO::copyOf);
+
     private static final String SQL_INSERT =
             "INSERT INTO vehicle (" +
                     "vin, make, model, model_year, color, mileage_km, price, status, " +
                     "supplier_id, acquisition_date, created_at, updated_at, deleted_at" +
                     ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
+    // Cada escritura incrementa version; con una versión esperada la actualización es condicional
+    // (compare-and-set) y 0 filas significa que otro usuario modificó el vehículo.
     private static final String SQL_UPDATE =
             "UPDATE vehicle SET " +
                     "vin = ?, make = ?, model = ?, model_year = ?, color = ?, " +
                     "mileage_km = ?, price = ?, status = ?, supplier_id = ?, " +
-                    "acquisition_date = ?, created_at = ?, updated_at = ?, deleted_at = ? " +
-                    "WHERE vehicle_id = ?";
+                    "acquisition_date = ?, created_at = ?, updated_at = ?, deleted_at = ?, " +
+                    "version = version + 1 " +
+                    "WHERE vehicle_id = ? AND (? IS NULL OR version = ?)";
 
     private static final String SQL_SOFT_DELETE =
-            "UPDATE vehicle SET deleted_at = ? " +
+            "UPDATE vehicle SET deleted_at = ?, version = version + 1 " +
                     "WHERE vehicle_id = ? AND deleted_at IS NULL";
 
+    private static final String ENTITY_VEHICLE = "vehicle";
+
     private static final String SQL_SELECT_BY_ID =
             "SELECT * FROM vehicle WHERE vehicle_id = ?";
 
@@ -80,6 +88,7 @@ public class VehicleDAO {
             statement.setObject(13, vehicle.getDeletedAt());
 
             boolean result = statement.executeUpdate() > 0;
+            vehicle.setVersion(0);
 
             try (ResultSet keys = statement.getGeneratedKeys()) {
                 if (keys.next()) {
@@ -127,8 +136,20 @@ public class VehicleDAO {
             statement.setObject(12, vehicle.getUpdatedAt());
             statement.setObject(13, vehicle.getDeletedAt());
             statement.setLong(14, vehicle.getVehicleId());
+            setExpectedVersion(statement, 15, vehicle.getVersion());
 
-            return statement.executeUpdate() > 0;
+            if (statement.executeUpdate() == 0) {
+                if (vehicle.getVersion() != null) {
+                    throw conflict(vehicle.getVehicleId());
+                }
+                return false;
+            }
+            if (vehicle.getVersion() != null) {
+                vehicle.setVersion(vehicle.getVersion() + 1);
+            }
+            return true;
+        } finally {
+            CACHE.invalidate(vehicle.getVehicleId());
         }
     }
 
@@ -140,12 +161,19 @@ public class VehicleDAO {
             statement.setObject(1, LocalDateTime.now());
             statement.setLong(2, vehicleId);
             return statement.executeUpdate() > 0;
+        } finally {
+            CACHE.invalidate(vehicleId);
         }
     }
 
     public VehicleDTO findVehicleById(Long vehicleId) throws SQLException, IOException {
 
-        VehicleDTO vehicle = VehicleDTO.createNotFoundVehicle();
+        // El centinela de "no encontrado" no se guarda en caché
+        VehicleDTO vehicle = CACHE.get(vehicleId, this::loadVehicleById);
+        return vehicle != null ? vehicle : VehicleDTO.createNotFoundVehicle();
+    }
+
+    private VehicleDTO loadVehicleById(Long vehicleId) throws SQLException {
 
         try (Connection connection = ConnectionDataBase.getConnection();
              PreparedStatement statement = connection.prepareStatement(SQL_SELECT_BY_ID)) {
@@ -154,12 +182,12 @@ public class VehicleDAO {
 
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
-                    vehicle = mapResultSetToVehicleDTO(rs);
+                    return mapResultSetToVehicleDTO(rs);
                 }
             }
         }
 
-        return vehicle;
+        return null;
     }
 
     public List<VehicleDTO> getAllVehicles() throws SQLException, IOException {
@@ -242,37 +270,75 @@ public class VehicleDAO {
         vehicle.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
         vehicle.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
         vehicle.setDeletedAt(rs.getObject("deleted_at", LocalDateTime.class));
+        vehicle.setVersion(rs.getInt("version"));
 
         return vehicle;
     }
-    private static final String UPDATE_VEHICLE_STATUS_SQL =
-            "UPDATE vehicle SET status = ?, updated_at = NOW() WHERE vehicle_id = ?";
-
-    public void updateVehicleStatus(Long vehicleId, VehicleStatus newStatus) throws SQLException, IOException {
-        if (vehicleId == null || newStatus == null) {
-            throw new IllegalArgumentException("vehicleId y newStatus son requeridos.");
+    // Baja condicionada: solo un vehículo que sigue DISPONIBLE o RESERVADO (y, si se trae, con la
+    // versión con la que se leyó). Una venta confirmada en otra terminal deja 0 filas.
+    private static final String SQL_WRITE_OFF =
+            "UPDATE vehicle SET status = 'BAJA', updated_at = NOW(), version = version + 1 " +
+                    "WHERE vehicle_id = ? AND status IN ('DISPONIBLE', 'RESERVADO') " +
+                    "AND (? IS NULL OR version = ?)";
+
+    /**
+     * Marca el vehículo como BAJA y registra {@code movement} en la misma transacción.
+     *
+     * @param expectedVersion versión con la que se leyó el vehículo; null solo compara el estado
+     * @throws ConcurrencyConflictException si el vehículo ya no está disponible o cambió de versión
+     */
+    public void writeOffVehicle(Long vehicleId, Integer expectedVersion, InventoryMovementDTO movement)
+            throws SQLException, IOException {
+        if (vehicleId == null || movement == null) {
+            throw new IllegalArgumentException("vehicleId y movement son requeridos.");
         }
 
-        try (Connection connection = ConnectionDataBase.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPDATE_VEHICLE_STATUS_SQL)) {
-
-            statement.setString(1, newStatus.name());
-            statement.setLong(2, vehicleId);
+        try (Connection connection = ConnectionDataBase.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(SQL_WRITE_OFF)) {
+                    statement.setLong(1, vehicleId);
+                    setExpectedVersion(statement, 2, expectedVersion);
+                    if (statement.executeUpdate() == 0) {
+                        throw conflict(vehicleId);
+                    }
+                }
 
-            int rows = statement.executeUpdate();
-            if (rows == 0) {
-                throw new SQLException("No se encontró vehículo con id " + vehicleId);
+                new InventoryMovementDAO().insertInventoryMovement(connection, movement);
+
+                AuditWriter.flush(connection);
+                connection.commit();
+            } catch (SQLException ex) {
+                AuditWriter.discard(connection);
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+                CACHE.invalidate(vehicleId);
             }
         }
     }
+
     private static final String SQL_UPDATE_DETAILS =
-            "UPDATE vehicle SET color = ?, mileage_km = ?, price = ?, updated_at = NOW() " +
-                    "WHERE vehicle_id = ?";
+            "UPDATE vehicle SET color = ?, mileage_km = ?, price = ?, updated_at = NOW(), version = version + 1 " +
+                    "WHERE vehicle_id = ? AND (? IS NULL OR version = ?)";
 
     public void updateVehicleDetails(Long vehicleId,
                                      String color,
                                      Integer mileageKm,
                                      java.math.BigDecimal price) throws SQLException, IOException {
+        updateVehicleDetails(vehicleId, color, mileageKm, price, null);
+    }
+
+    /**
+     * @param expectedVersion versión con la que se leyó el vehículo; si ya cambió se lanza
+     *                        {@link ConcurrencyConflictException}. null actualiza sin comparar.
+     */
+    public void updateVehicleDetails(Long vehicleId,
+                                     String color,
+                                     Integer mileageKm,
+                                     java.math.BigDecimal price,
+                                     Integer expectedVersion) throws SQLException, IOException {
 
         if (vehicleId == null) {
             throw new IllegalArgumentException("vehicleId es requerido.");
@@ -294,11 +360,51 @@ public class VehicleDAO {
 
             statement.setBigDecimal(3, price);
             statement.setLong(4, vehicleId);
+            setExpectedVersion(statement, 5, expectedVersion);
 
             int rows = statement.executeUpdate();
             if (rows == 0) {
+                if (expectedVersion != null) {
+                    throw conflict(vehicleId);
+                }
                 throw new SQLException("No se encontró vehículo con id " + vehicleId);
             }
+        } finally {
+            CACHE.invalidate(vehicleId);
+        }
+    }
+
+    /** Invalida un vehículo modificado fuera de este DAO (ventas, recepción de órdenes de compra). */
+    static void invalidateCached(Long vehicleId) {
+        CACHE.invalidate(vehicleId);
+    }
+
+    static void invalidateAllCached() {
+        CACHE.invalidateAll();
+    }
+
+    private static VehicleDTO copyOf(VehicleDTO v) {
+        VehicleDTO copy = new VehicleDTO(v.getVehicleId(), v.getVin(), v.getMake(), v.getModel(), v.getModelYear(),
+                v.getColor(), v.getMileageKm(), v.getPrice(), v.getStatus(), v.getSupplierId(),
+                v.getAcquisitionDate(), v.getCreatedAt(), v.getUpdatedAt(), v.getDeletedAt());
+        copy.setVersion(v.getVersion());
+        return copy;
+    }
+
+    // Llena el par (? IS NULL OR version = ?) de los UPDATE condicionales
+    private static void setExpectedVersion(PreparedStatement statement, int index, Integer version)
+            throws SQLException {
+        if (version != null) {
+            statement.setInt(index, version);
+            statement.setInt(index + 1, version);
+        } else {
+            statement.setNull(index, Types.INTEGER);
+            statement.setNull(index + 1, Types.INTEGER);
         }
     }
+
+    private static ConcurrencyConflictException conflict(Long vehicleId) {
+        return new ConcurrencyConflictException(ENTITY_VEHICLE, vehicleId,
+                "El vehículo " + vehicleId + " fue modificado por otro usuario. Recarga los datos e intenta de nuevo.");
+    }
 }
@@ -0,0 +1,41 @@
+package logic.DTO;
+
+/**
+ * Resultado de una verificación de la cadena de audit_log.
+ */
+public final class AuditChainReportDTO {
+
+    private final boolean valid;
+    private final long verifiedRows;
+    private final int segmentsVerified;
+    private final int checkpointsCreated;
+    private final Long firstInvalidSeq;
+    private final String detail;
+
+    public AuditChainReportDTO(boolean valid, long verifiedRows, int segmentsVerified, int checkpointsCreated,
+                               Long firstInvalidSeq, String detail) {
+        this.valid = valid;
+        this.verifiedRows = verifiedRows;
+        this.segmentsVerified = segmentsVerified;
+        this.checkpointsCreated = checkpointsCreated;
+        this.firstInvalidSeq = firstInvalidSeq;
+        this.detail = detail;
+    }
+
+    public boolean isValid() { return valid; }
+    public long getVerifiedRows() { return verifiedRows; }
+    public int getSegmentsVerified() { return segmentsVerified; }
+    public int getCheckpointsCreated() { return checkpointsCreated; }
+    public Long getFirstInvalidSeq() { return firstInvalidSeq; }
+    public String getDetail() { return detail; }
+
+    @Override
+    public String toString() {
+        return (valid ? "OK" : "ALTERADA")
+                + " | filas=" + verifiedRows
+                + " | segmentos=" + segmentsVerified
+                + " | checkpoints nuevos=" + checkpointsCreated
+                + (firstInvalidSeq != null ? " | primera inválida=" + firstInvalidSeq : "")
+                + (detail != null ? " | " + detail : "");
+    }
+}
@@ -0,0 +1,31 @@
+package logic.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criterios de búsqueda para la consulta paginada de auditoría / movimientos de inventario.
+ * Los campos nulos o vacíos no filtran. {@code to} es exclusivo.
+ */
+public class AuditLogFilterDTO {
+
+    private String action;
+    private String entity;
+    private String actorPersonnelNumber;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public String getEntity() { return entity; }
+    public void setEntity(String entity) { this.entity = entity; }
+
+    public String getActorPersonnelNumber() { return actorPersonnelNumber; }
+    public void setActorPersonnelNumber(String actorPersonnelNumber) { this.actorPersonnelNumber = actorPersonnelNumber; }
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+}
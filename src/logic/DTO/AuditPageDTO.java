@@ -0,0 +1,28 @@
+package logic.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página de resultados ordenada por (created_at DESC, id DESC).
+ * La siguiente página se pide con {@link #getLastCreatedAt()} y {@link #getLastId()} como cursor.
+ */
+public class AuditPageDTO<T> {
+
+    private final List<T> items;
+    private final LocalDateTime lastCreatedAt;
+    private final Long lastId;
+    private final boolean hasMore;
+
+    public AuditPageDTO(List<T> items, LocalDateTime lastCreatedAt, Long lastId, boolean hasMore) {
+        this.items = items;
+        this.lastCreatedAt = lastCreatedAt;
+        this.lastId = lastId;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() { return items; }
+    public LocalDateTime getLastCreatedAt() { return lastCreatedAt; }
+    public Long getLastId() { return lastId; }
+    public boolean hasMore() { return hasMore; }
+}
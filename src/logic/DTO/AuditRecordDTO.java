@@ -0,0 +1,62 @@
+package logic.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de auditoría pendiente de escribirse en audit_log.
+ * Es inmutable porque puede viajar entre hilos (cola de escritura diferida).
+ */
+public final class AuditRecordDTO {
+
+    private final Long accountId;
+    private final AuditAction action;
+    private final String entity;
+    private final long entityId;
+    private final String beforeData;
+    private final String afterData;
+    private final String ipAddress;
+    private final String entityName;
+    private final LocalDateTime createdAt;
+
+    public AuditRecordDTO(Long accountId, AuditAction action, String entity, long entityId,
+                          String beforeData, String afterData, String ipAddress) {
+        this(accountId, action, entity, entityId, beforeData, afterData, ipAddress, null, null);
+    }
+
+    public AuditRecordDTO(Long accountId, AuditAction action, String entity, long entityId,
+                          String beforeData, String afterData, String ipAddress, LocalDateTime createdAt) {
+        this(accountId, action, entity, entityId, beforeData, afterData, ipAddress, null, createdAt);
+    }
+
+    /**
+     * @param entityName nombre visible de la entidad (folio, OC-id, VIN...) que se guarda junto al
+     *                   evento para que la vista de auditoría no tenga que resolverlo con JOINs.
+     */
+    public AuditRecordDTO(Long accountId, AuditAction action, String entity, long entityId,
+                          String beforeData, String afterData, String ipAddress, String entityName,
+                          LocalDateTime createdAt) {
+        this.accountId = accountId;
+        this.action = action;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.beforeData = beforeData;
+        this.afterData = afterData;
+        this.ipAddress = ipAddress;
+        this.entityName = entityName;
+        this.createdAt = createdAt;
+    }
+
+    public AuditRecordDTO withEntityName(String name) {
+        return new AuditRecordDTO(accountId, action, entity, entityId, beforeData, afterData, ipAddress, name, createdAt);
+    }
+
+    public Long getAccountId() { return accountId; }
+    public AuditAction getAction() { return action; }
+    public String getEntity() { return entity; }
+    public long getEntityId() { return entityId; }
+    public String getBeforeData() { return beforeData; }
+    public String getAfterData() { return afterData; }
+    public String getIpAddress() { return ipAddress; }
+    public String getEntityName() { return entityName; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -22,6 +22,7 @@ public class PurchaseOrderDTO {
     private LocalDateTime cancelledAt;
     private String cancelReason;
     private String supplierName;
+    private Integer version;
 
     private List<PurchaseOrderItemDTO> items;
 
@@ -152,4 +153,12 @@ public class PurchaseOrderDTO {
     public void setSupplierName(String supplierName) {
         this.supplierName = supplierName;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
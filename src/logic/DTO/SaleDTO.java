@@ -19,6 +19,7 @@ public class SaleDTO {
     private LocalDateTime closedAt;
     private LocalDateTime annulledAt;
     private String annulReason;
+    private Integer version;
 
     public Long getSaleId() {
         return saleId;
@@ -131,4 +132,12 @@ public class SaleDTO {
     public void setAnnulReason(String annulReason) {
         this.annulReason = annulReason;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
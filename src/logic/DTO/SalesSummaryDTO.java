@@ -0,0 +1,21 @@
+package logic.DTO;
+
+import java.util.List;
+
+/** Resumen de ventas agrupado: una fila por grupo, en orden, más el total general (ROLLUP). */
+public final class SalesSummaryDTO {
+
+    private final SalesSummaryGroup group;
+    private final List<SalesSummaryRowDTO> rows;
+    private final SalesSummaryRowDTO grandTotal;
+
+    public SalesSummaryDTO(SalesSummaryGroup group, List<SalesSummaryRowDTO> rows, SalesSummaryRowDTO grandTotal) {
+        this.group = group;
+        this.rows = List.copyOf(rows);
+        this.grandTotal = grandTotal;
+    }
+
+    public SalesSummaryGroup getGroup() { return group; }
+    public List<SalesSummaryRowDTO> getRows() { return rows; }
+    public SalesSummaryRowDTO getGrandTotal() { return grandTotal; }
+}
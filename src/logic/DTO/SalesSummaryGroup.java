@@ -0,0 +1,10 @@
+package logic.DTO;
+
+/** Agrupación de {@code SaleDAO.getSalesSummary}. */
+public enum SalesSummaryGroup {
+    DAY,
+    WEEK,
+    MONTH,
+    SELLER,
+    STATUS
+}
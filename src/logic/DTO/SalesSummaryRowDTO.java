@@ -0,0 +1,53 @@
+package logic.DTO;
+
+import java.math.BigDecimal;
+
+/**
+ * Una fila del resumen de ventas: un grupo o, con {@code total} en true, el total general.
+ * Los importes suman solo las ventas no anuladas (igual que el reporte); {@code saleCount}
+ * cuenta todas y {@code annulledCount} cuántas de ellas están anuladas.
+ */
+public final class SalesSummaryRowDTO {
+
+    private final String groupKey;
+    private final boolean total;
+    private final long saleCount;
+    private final long annulledCount;
+    private final BigDecimal subtotal;
+    private final BigDecimal discount;
+    private final BigDecimal taxes;
+    private final BigDecimal totalAmount;
+
+    public SalesSummaryRowDTO(String groupKey, boolean total, long saleCount, long annulledCount,
+                              BigDecimal subtotal, BigDecimal discount, BigDecimal taxes, BigDecimal totalAmount) {
+        this.groupKey = groupKey;
+        this.total = total;
+        this.saleCount = saleCount;
+        this.annulledCount = annulledCount;
+        this.subtotal = subtotal;
+        this.discount = discount;
+        this.taxes = taxes;
+        this.totalAmount = totalAmount;
+    }
+
+    /** Día (aaaa-mm-dd), semana ISO (aaaa-Wss), mes (aaaa-mm), id del vendedor o estado; null en el total. */
+    public String getGroupKey() { return groupKey; }
+    public boolean isTotal() { return total; }
+    public long getSaleCount() { return saleCount; }
+    public long getAnnulledCount() { return annulledCount; }
+    public BigDecimal getSubtotal() { return subtotal; }
+    public BigDecimal getDiscount() { return discount; }
+    public BigDecimal getTaxes() { return taxes; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+
+    @Override
+    public String toString() {
+        return (total ? "TOTAL" : groupKey)
+                + " | ventas=" + saleCount
+                + " | anuladas=" + annulledCount
+                + " | subtotal=" + subtotal.toPlainString()
+                + " | descuento=" + discount.toPlainString()
+                + " | impuestos=" + taxes.toPlainString()
+                + " | total=" + totalAmount.toPlainString();
+    }
+}
@@ -27,6 +27,7 @@ public class VehicleDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime deletedAt;
+    private Integer version;
 
     public VehicleDTO(){
     }
@@ -107,6 +108,10 @@ public class VehicleDTO {
 
     public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
 
+    public Integer getVersion() { return version; }
+
+    public void setVersion(Integer version) { this.version = version; }
+
     public static VehicleDTO createNotFoundVehicle() {
         return new VehicleDTO(NOT_FOUND_ID, "", "", "", NOT_FOUND_MODEL_YEAR, "", NOT_FOUND_MILEAGE, NOT_FOUND_PRICE,
                 null, NOT_FOUND_SUPPLIER_ID, NOT_FOUND_DATE, NOT_FOUND_DATETIME, NOT_FOUND_DATETIME, null);
@@ -0,0 +1,103 @@
+package logic.analytics;
+
+import logic.DTO.SaleStatus;
+
+/**
+ * Dimensiones por las que {@link SalesQuery} agrupa. Cada una se traduce a una llave int densa
+ * [0, cardinalidad) por fila, así los acumulados de un grupo son posiciones de un arreglo.
+ */
+public enum SalesDimension {
+    MONTH,
+    YEAR,
+    SELLER,
+    STATUS,
+    MAKE,
+    MODEL,
+    MODEL_YEAR,
+    DISCOUNT_BAND;
+
+    // Límites de las bandas de descuento, en % del subtotal: [0], (0, 5), [5, 10), [10, 20), [20, ...)
+    private static final int[] DISCOUNT_BAND_LIMITS = {5, 10, 20};
+    private static final String[] DISCOUNT_BAND_LABELS = {"Sin descuento", "< 5%", "5% - 10%", "10% - 20%", ">= 20%"};
+
+    private static final String UNKNOWN_LABEL = "(sin dato)";
+
+    /** Llave densa de cada fila para unas columnas concretas. */
+    interface Key {
+        int cardinality();
+
+        int of(int row);
+
+        String label(int key);
+    }
+
+    Key bind(SalesColumns c) {
+        return switch (this) {
+            case MONTH -> new Key() {
+                public int cardinality() { return c.monthCount; }
+                public int of(int row) { return c.monthOffset[row]; }
+                public String label(int key) { return c.firstMonth.plusMonths(key).toString(); }
+            };
+            case YEAR -> {
+                int firstYear = c.firstMonth.getYear();
+                // El mes 0 es firstMonth, que no necesariamente es enero
+                int firstMonthOfYear = c.firstMonth.getMonthValue() - 1;
+                int years = c.monthCount == 0 ? 0 : (firstMonthOfYear + c.monthCount - 1) / 12 + 1;
+                yield new Key() {
+                    public int cardinality() { return years; }
+                    public int of(int row) { return (firstMonthOfYear + c.monthOffset[row]) / 12; }
+                    public String label(int key) { return String.valueOf(firstYear + key); }
+                };
+            }
+            case SELLER -> dictionaryKey(c.seller, c.sellers);
+            case STATUS -> new Key() {
+                public int cardinality() { return SaleStatus.values().length; }
+                public int of(int row) { return c.status[row]; }
+                public String label(int key) { return SaleStatus.values()[key].name(); }
+            };
+            case MAKE -> dictionaryKey(c.make, c.makes);
+            case MODEL -> dictionaryKey(c.model, c.models);
+            case MODEL_YEAR -> new Key() {
+                // Llave 0 = año desconocido; luego un lugar por año entre el mínimo y el máximo
+                public int cardinality() { return c.maxModelYear - c.minModelYear + 2; }
+                public int of(int row) {
+                    short year = c.modelYear[row];
+                    return year == SalesColumns.UNKNOWN_YEAR ? 0 : year - c.minModelYear + 1;
+                }
+                public String label(int key) {
+                    return key == 0 ? UNKNOWN_LABEL : String.valueOf(c.minModelYear + key - 1);
+                }
+            };
+            case DISCOUNT_BAND -> new Key() {
+                public int cardinality() { return DISCOUNT_BAND_LABELS.length; }
+                public int of(int row) { return discountBand(c.discountCents[row], c.subtotalCents[row]); }
+                public String label(int key) { return DISCOUNT_BAND_LABELS[key]; }
+            };
+        };
+    }
+
+    private static Key dictionaryKey(int[] codes, ValueDictionary<?> dictionary) {
+        return new Key() {
+            public int cardinality() { return dictionary.size(); }
+            public int of(int row) { return codes[row]; }
+            public String label(int key) {
+                Object value = dictionary.valueOf(key);
+                return value == null ? UNKNOWN_LABEL : value.toString();
+            }
+        };
+    }
+
+    // Comparación en enteros: descuento * 100 < subtotal * límite, sin divisiones ni decimales
+    static int discountBand(long discount, long subtotal) {
+        if (discount <= 0) {
+            return 0;
+        }
+        long scaled = discount * 100;
+        for (int i = 0; i < DISCOUNT_BAND_LIMITS.length; i++) {
+            if (scaled < subtotal * DISCOUNT_BAND_LIMITS[i]) {
+                return i + 1;
+            }
+        }
+        return DISCOUNT_BAND_LIMITS.length + 1;
+    }
+}
@@ -0,0 +1,65 @@
+package logic.analytics;
+
+import logic.DTO.SaleStatus;
+
+import java.time.LocalDate;
+import java.util.function.IntPredicate;
+
+/**
+ * Condición sobre las filas de {@link SalesColumns}. Se resuelve una sola vez por consulta
+ * ({@link #bind}): los valores de texto se convierten a su código de diccionario y la prueba por
+ * fila solo compara enteros.
+ */
+@FunctionalInterface
+public interface SalesFilter {
+
+    IntPredicate bind(SalesColumns columns);
+
+    default SalesFilter and(SalesFilter other) {
+        return columns -> bind(columns).and(other.bind(columns));
+    }
+
+    /** Ventas con fecha en [from, to). */
+    static SalesFilter between(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        return c -> row -> c.epochDay[row] >= fromDay && c.epochDay[row] < toDay;
+    }
+
+    static SalesFilter status(SaleStatus status) {
+        byte code = (byte) status.ordinal();
+        return c -> row -> c.status[row] == code;
+    }
+
+    /** Igual que los reportes: las anuladas no cuentan en los importes. */
+    static SalesFilter notAnnulled() {
+        byte annulled = (byte) SaleStatus.ANULADA.ordinal();
+        return c -> row -> c.status[row] != annulled;
+    }
+
+    static SalesFilter seller(long sellerAccountId) {
+        return c -> {
+            int code = c.sellers.codeOf(sellerAccountId);
+            return row -> c.seller[row] == code;
+        };
+    }
+
+    static SalesFilter make(String make) {
+        return c -> {
+            int code = c.makes.codeOf(make);
+            return row -> c.make[row] == code;
+        };
+    }
+
+    static SalesFilter model(String model) {
+        return c -> {
+            int code = c.models.codeOf(model);
+            return row -> c.model[row] == code;
+        };
+    }
+
+    /** Año de modelo entre {@code min} y {@code max}, ambos incluidos. */
+    static SalesFilter modelYearBetween(int min, int max) {
+        return c -> row -> c.modelYear[row] >= min && c.modelYear[row] <= max;
+    }
+}
@@ -0,0 +1,54 @@
+package logic.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/** Un grupo del resultado de {@link SalesQuery}: una etiqueta por dimensión y sus acumulados. */
+public final class SalesGroupResult {
+
+    private final List<String> keys;
+    private final long saleCount;
+    private final long subtotalCents;
+    private final long discountCents;
+    private final long taxesCents;
+    private final long totalCents;
+
+    SalesGroupResult(List<String> keys, long saleCount, long subtotalCents, long discountCents,
+                     long taxesCents, long totalCents) {
+        this.keys = List.copyOf(keys);
+        this.saleCount = saleCount;
+        this.subtotalCents = subtotalCents;
+        this.discountCents = discountCents;
+        this.taxesCents = taxesCents;
+        this.totalCents = totalCents;
+    }
+
+    public List<String> getKeys() { return keys; }
+    public long getSaleCount() { return saleCount; }
+    public long getSubtotalCents() { return subtotalCents; }
+    public long getDiscountCents() { return discountCents; }
+    public long getTaxesCents() { return taxesCents; }
+    public long getTotalCents() { return totalCents; }
+
+    public BigDecimal getSubtotal() { return SalesColumns.toAmount(subtotalCents); }
+    public BigDecimal getDiscount() { return SalesColumns.toAmount(discountCents); }
+    public BigDecimal getTaxes() { return SalesColumns.toAmount(taxesCents); }
+    public BigDecimal getTotal() { return SalesColumns.toAmount(totalCents); }
+
+    public BigDecimal getAverageTotal() {
+        return saleCount == 0
+                ? BigDecimal.ZERO
+                : getTotal().divide(BigDecimal.valueOf(saleCount), 2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" / ", keys)
+                + " | ventas=" + saleCount
+                + " | subtotal=" + getSubtotal().toPlainString()
+                + " | descuento=" + getDiscount().toPlainString()
+                + " | impuestos=" + getTaxes().toPlainString()
+                + " | total=" + getTotal().toPlainString();
+    }
+}
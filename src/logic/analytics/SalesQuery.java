@@ -0,0 +1,323 @@
+package logic.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * Filtro + agrupación + sumas sobre {@link SalesColumns}:
+ * <pre>
+ * SalesQuery.groupBy(SalesDimension.MAKE, SalesDimension.MODEL_YEAR)
+ *         .where(SalesFilter.notAnnulled())
+ *         .run(columns);
+ * </pre>
+ * Las filas se reparten en bloques que se procesan en paralelo (fork/join). Cada bloque acumula
+ * en su propio arreglo de longs indexado por la llave del grupo, sin objetos por fila, y los
+ * arreglos se suman al unir. Cuando hay más grupos posibles que filas en un bloque, el arreglo
+ * denso sería casi todo ceros (y uno por bloque), así que se acumula en una tabla hash de llaves
+ * int que solo crece con los grupos que aparecen. Los grupos salen en el orden de sus llaves
+ * (cronológico, alfabético o numérico según la dimensión); los grupos sin ventas no se devuelven.
+ */
+public final class SalesQuery {
+
+    // Filas por bloque: bastante trabajo por tarea sin dejar hilos ociosos al final
+    static final int CHUNK_ROWS = 32_768;
+
+    // Acumulados por grupo: conteo, subtotal, descuento, impuestos, total
+    static final int FIELDS = 5;
+    private static final int MAX_GROUPS = 1 << 20;
+
+    private final SalesDimension[] dimensions;
+    private SalesFilter filter;
+
+    private SalesQuery(SalesDimension[] dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    /** Sin dimensiones el resultado es un solo grupo con el total. */
+    public static SalesQuery groupBy(SalesDimension... dimensions) {
+        return new SalesQuery(dimensions.clone());
+    }
+
+    /** Agrega una condición; varias se combinan con AND. */
+    public SalesQuery where(SalesFilter condition) {
+        filter = filter == null ? condition : filter.and(condition);
+        return this;
+    }
+
+    public List<SalesGroupResult> run(SalesColumns columns) {
+        return run(columns, ForkJoinPool.commonPool());
+    }
+
+    public List<SalesGroupResult> run(SalesColumns columns, ForkJoinPool pool) {
+        SalesDimension.Key[] keys = new SalesDimension.Key[dimensions.length];
+        long groups = 1;
+        for (int d = 0; d < dimensions.length; d++) {
+            keys[d] = dimensions[d].bind(columns);
+            groups *= keys[d].cardinality();
+        }
+        if (groups > MAX_GROUPS) {
+            throw new IllegalArgumentException("Demasiados grupos posibles (" + groups + ") para "
+                    + Arrays.toString(dimensions) + ".");
+        }
+
+        IntPredicate rows = filter == null ? null : filter.bind(columns);
+        List<SalesGroupResult> results = new ArrayList<>();
+        if (columns.size == 0) {
+            return results;
+        }
+
+        if (groups > CHUNK_ROWS) {
+            GroupTable table = pool.invoke(new SparseChunkTask(columns, keys, rows, 0, columns.size));
+            int[] present = table.sortedGroups();
+            for (int group : present) {
+                addResult(results, keys, group, table.values, table.slotOf(group) * FIELDS);
+            }
+        } else {
+            long[] totals = pool.invoke(new DenseChunkTask(columns, keys, rows, (int) groups, 0, columns.size));
+            for (int group = 0; group * FIELDS < totals.length; group++) {
+                if (totals[group * FIELDS] != 0) {
+                    addResult(results, keys, group, totals, group * FIELDS);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static void addResult(List<SalesGroupResult> results, SalesDimension.Key[] keys, int group,
+                                  long[] totals, int at) {
+        // Se deshace la llave compuesta, de la última dimensión a la primera
+        String[] labels = new String[keys.length];
+        int rest = group;
+        for (int d = keys.length - 1; d >= 0; d--) {
+            int cardinality = keys[d].cardinality();
+            labels[d] = keys[d].label(rest % cardinality);
+            rest /= cardinality;
+        }
+        results.add(new SalesGroupResult(Arrays.asList(labels),
+                totals[at], totals[at + 1], totals[at + 2], totals[at + 3], totals[at + 4]));
+    }
+
+    private static int groupOf(SalesDimension.Key[] keys, int row) {
+        int group = 0;
+        for (SalesDimension.Key key : keys) {
+            group = group * key.cardinality() + key.of(row);
+        }
+        return group;
+    }
+
+    private static void add(long[] totals, int at, SalesColumns c, int row) {
+        totals[at]++;
+        totals[at + 1] += c.subtotalCents[row];
+        totals[at + 2] += c.discountCents[row];
+        totals[at + 3] += c.taxesCents[row];
+        totals[at + 4] += c.totalCents[row];
+    }
+
+    /** Divide el rango hasta CHUNK_ROWS filas y une los acumulados de las dos mitades. */
+    private abstract static class ChunkTask<T> extends RecursiveTask<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        final SalesColumns c;
+        final SalesDimension.Key[] keys;
+        final IntPredicate rows;
+        final int from;
+        final int to;
+
+        ChunkTask(SalesColumns c, SalesDimension.Key[] keys, IntPredicate rows, int from, int to) {
+            this.c = c;
+            this.keys = keys;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        abstract ChunkTask<T> slice(int from, int to);
+
+        abstract T accumulate();
+
+        abstract T merge(T left, T right);
+
+        @Override
+        protected T compute() {
+            if (to - from <= CHUNK_ROWS) {
+                return accumulate();
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask<T> left = slice(from, mid);
+            left.fork();
+            T right = slice(mid, to).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    /** Un arreglo de groups * FIELDS longs por bloque; solo cuando groups <= CHUNK_ROWS. */
+    private static final class DenseChunkTask extends ChunkTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int groups;
+
+        DenseChunkTask(SalesColumns c, SalesDimension.Key[] keys, IntPredicate rows, int groups, int from, int to) {
+            super(c, keys, rows, from, to);
+            this.groups = groups;
+        }
+
+        @Override
+        ChunkTask<long[]> slice(int from, int to) {
+            return new DenseChunkTask(c, keys, rows, groups, from, to);
+        }
+
+        @Override
+        long[] accumulate() {
+            long[] totals = new long[groups * FIELDS];
+            for (int row = from; row < to; row++) {
+                if (rows != null && !rows.test(row)) {
+                    continue;
+                }
+                add(totals, groupOf(keys, row) * FIELDS, c, row);
+            }
+            return totals;
+        }
+
+        @Override
+        long[] merge(long[] left, long[] right) {
+            for (int i = 0; i < left.length; i++) {
+                left[i] += right[i];
+            }
+            return left;
+        }
+    }
+
+    /** Una tabla con a lo más una entrada por fila del bloque, sin importar cuántos grupos sean posibles. */
+    private static final class SparseChunkTask extends ChunkTask<GroupTable> {
+
+        private static final long serialVersionUID = 1L;
+
+        SparseChunkTask(SalesColumns c, SalesDimension.Key[] keys, IntPredicate rows, int from, int to) {
+            super(c, keys, rows, from, to);
+        }
+
+        @Override
+        ChunkTask<GroupTable> slice(int from, int to) {
+            return new SparseChunkTask(c, keys, rows, from, to);
+        }
+
+        @Override
+        GroupTable accumulate() {
+            GroupTable table = new GroupTable();
+            for (int row = from; row < to; row++) {
+                if (rows != null && !rows.test(row)) {
+                    continue;
+                }
+                // slotFor puede crecer la tabla: values se lee después
+                int at = table.slotFor(groupOf(keys, row)) * FIELDS;
+                add(table.values, at, c, row);
+            }
+            return table;
+        }
+
+        @Override
+        GroupTable merge(GroupTable left, GroupTable right) {
+            GroupTable into = left.size >= right.size ? left : right;
+            into.addAll(into == left ? right : left);
+            return into;
+        }
+    }
+
+    /**
+     * Llave de grupo -> FIELDS acumulados, con direccionamiento abierto (sondeo lineal) sobre
+     * arreglos de primitivos. Se duplica al pasar de la mitad de ocupación.
+     */
+    static final class GroupTable {
+
+        private static final int INITIAL_CAPACITY = 256;
+        private static final int EMPTY = -1;
+
+        private int[] groups = emptyGroups(INITIAL_CAPACITY);
+        long[] values = new long[INITIAL_CAPACITY * FIELDS];
+        int size;
+
+        /** Posición del grupo, creándolo en cero si no existía. */
+        int slotFor(int group) {
+            int mask = groups.length - 1;
+            int slot = hash(group) & mask;
+            while (groups[slot] != EMPTY) {
+                if (groups[slot] == group) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if ((size + 1) * 2 > groups.length) {
+                grow();
+                return slotFor(group);
+            }
+            groups[slot] = group;
+            size++;
+            return slot;
+        }
+
+        /** Posición de un grupo que ya existe. */
+        int slotOf(int group) {
+            int mask = groups.length - 1;
+            int slot = hash(group) & mask;
+            while (groups[slot] != group) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        void addAll(GroupTable other) {
+            for (int slot = 0; slot < other.groups.length; slot++) {
+                if (other.groups[slot] != EMPTY) {
+                    int at = slotFor(other.groups[slot]) * FIELDS;
+                    int from = slot * FIELDS;
+                    for (int f = 0; f < FIELDS; f++) {
+                        values[at + f] += other.values[from + f];
+                    }
+                }
+            }
+        }
+
+        int[] sortedGroups() {
+            int[] present = new int[size];
+            int n = 0;
+            for (int group : groups) {
+                if (group != EMPTY) {
+                    present[n++] = group;
+                }
+            }
+            Arrays.sort(present);
+            return present;
+        }
+
+        private void grow() {
+            int[] oldGroups = groups;
+            long[] oldValues = values;
+            groups = emptyGroups(oldGroups.length * 2);
+            values = new long[groups.length * FIELDS];
+            size = 0;
+            for (int slot = 0; slot < oldGroups.length; slot++) {
+                if (oldGroups[slot] != EMPTY) {
+                    System.arraycopy(oldValues, slot * FIELDS, values, slotFor(oldGroups[slot]) * FIELDS, FIELDS);
+                }
+            }
+        }
+
+        private static int[] emptyGroups(int capacity) {
+            int[] groups = new int[capacity];
+            Arrays.fill(groups, EMPTY);
+            return groups;
+        }
+
+        // Las llaves compuestas son consecutivas: se mezclan para no formar cadenas largas
+        private static int hash(int group) {
+            int h = group * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
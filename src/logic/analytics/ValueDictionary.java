@@ -0,0 +1,71 @@
+package logic.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificación por diccionario de una dimensión: cada valor distinto recibe un código int
+ * consecutivo y la columna guarda solo el código. {@link #sorted} reasigna los códigos en el
+ * orden natural de los valores para que agrupar por código ya salga ordenado.
+ * El valor null (p. ej. venta sin vehículo) es un valor más.
+ */
+final class ValueDictionary<T extends Comparable<T>> {
+
+    private final Map<T, Integer> codes;
+    private final List<T> values;
+
+    ValueDictionary() {
+        this.codes = new HashMap<>();
+        this.values = new ArrayList<>();
+    }
+
+    private ValueDictionary(List<T> values) {
+        this.values = values;
+        this.codes = new HashMap<>(values.size() * 2);
+        for (int i = 0; i < values.size(); i++) {
+            codes.put(values.get(i), i);
+        }
+    }
+
+    int encode(T value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /** Código de {@code value} o -1 si no aparece en los datos. */
+    int codeOf(T value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    T valueOf(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * Diccionario con los mismos valores en orden natural (null primero).
+     *
+     * @param remap se llena con código anterior → código nuevo; largo mínimo {@link #size()}
+     */
+    ValueDictionary<T> sorted(int[] remap) {
+        List<T> ordered = new ArrayList<>(values);
+        ordered.sort((a, b) -> a == null ? (b == null ? 0 : -1) : b == null ? 1 : a.compareTo(b));
+
+        ValueDictionary<T> result = new ValueDictionary<>(ordered);
+        for (int i = 0; i < values.size(); i++) {
+            remap[i] = result.codes.get(values.get(i));
+        }
+        return result;
+    }
+}
@@ -1,10 +1,16 @@
 package main;
 
+import dataaccess.ConnectionDataBase;
 import javafx.application.Application;
+import logic.DAO.AuditWriteBehindQueue;
+import logic.DAO.EntityCache;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import utilities.FxDataLoader;
+import utilities.PasswordVerifierPool;
+import utilities.StartupTimings;
 
 import java.io.IOException;
 
@@ -12,6 +18,10 @@ public class Main extends Application {
 
     @Override
     public void start(Stage stage) {
+        StartupTimings.mark("fx-start");
+        // Pool, bcrypt, PDFBox y dashboard se precalientan mientras el usuario ve el login
+        StartupOrchestrator.start();
+
         try {
             Parent root = FXMLLoader.load(getClass().getResource("/userinterface/login/LoginView.fxml"));
             Scene scene = new Scene(root, 1280, 800);
@@ -19,11 +29,23 @@ public class Main extends Application {
             stage.setScene(scene);
             stage.setResizable(false);
             stage.show();
+            StartupTimings.mark("login-visible");
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    @Override
+    public void stop() {
+        // Si se cerró sin iniciar sesión, los tiempos de arranque se guardan aquí
+        StartupTimings.flush();
+        PasswordVerifierPool.shutdown();
+        FxDataLoader.shutdown();
+        EntityCache.logStats();
+        AuditWriteBehindQueue.shutdown();
+        ConnectionDataBase.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,129 @@
+package main;
+
+import dataaccess.ConfigLoader;
+import dataaccess.ConnectionDataBase;
+import javafx.application.Platform;
+import logic.DAO.AccountDAO;
+import logic.DAO.SupplierDAO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import userinterface.dashboard.DashboardLoader;
+import userinterface.login.LoginController;
+import utilities.PasswordUtiities;
+import utilities.StartupTimings;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precalentamiento en paralelo mientras el usuario ve el login, para que el primer inicio de
+ * sesión no pague la carga en frío:
+ * <pre>
+ * db-pool ─┬─ login-statements
+ *          └─ reference-data
+ * bcrypt
+ * pdfbox
+ * dashboard-fxml (hilo de JavaFX)
+ * </pre>
+ * Cada fase registra su tiempo en {@link StartupTimings}. Una fase que falla solo se registra:
+ * lo que no se precalentó se carga normalmente cuando se usa.
+ */
+final class StartupOrchestrator {
+
+    private static final Logger log = LogManager.getLogger(StartupOrchestrator.class);
+
+    // Dominio reservado (RFC 2606): nunca coincide con una cuenta real
+    private static final String WARMUP_EMAIL = "warmup@imperialmotors.invalid";
+
+    private StartupOrchestrator() {
+    }
+
+    static void start() {
+        // Primer uso de ConfigLoader: su inicialización estática lee el archivo de configuración
+        long configStart = StartupTimings.sinceJvmStart();
+        boolean enabled = ConfigLoader.getBoolean("startup.warmup.enabled", true);
+        StartupTimings.record("config", configStart, StartupTimings.sinceJvmStart() - configStart, true);
+
+        if (!enabled) {
+            // Sin precalentamiento solo se calibra bcrypt; mientras tanto se usa el costo por defecto
+            Thread calibration = new Thread(PasswordUtiities::calibrate, "bcrypt-calibration");
+            calibration.setDaemon(true);
+            calibration.start();
+            return;
+        }
+
+        ExecutorService executor = createExecutor(Math.max(1, ConfigLoader.getInt("startup.warmup.threads", 3)));
+        long startMs = StartupTimings.sinceJvmStart();
+
+        CompletableFuture<Void> pool = phase("db-pool", executor, ConnectionDataBase::warmUp);
+
+        CompletableFuture<Void> loginStatements = pool.thenCompose(v ->
+                phase("login-statements", executor, () -> new AccountDAO().findAccountByEmail(WARMUP_EMAIL)));
+
+        CompletableFuture<Void> referenceData = pool.thenCompose(v ->
+                phase("reference-data", executor, () -> new SupplierDAO().primeCache()));
+
+        CompletableFuture<Void> bcrypt = phase("bcrypt", executor, () -> {
+            PasswordUtiities.calibrate();
+            LoginController.warmUp();
+        });
+
+        CompletableFuture<Void> pdf = phase("pdfbox", executor, StartupOrchestrator::warmUpPdf);
+
+        // El FXML del dashboard se arma en el hilo de JavaFX, en cuanto el login queda visible
+        CompletableFuture<Void> dashboard = phase("dashboard-fxml", Platform::runLater, DashboardLoader::prepare);
+
+        CompletableFuture.allOf(loginStatements, referenceData, bcrypt, pdf, dashboard)
+                .whenComplete((v, ex) -> {
+                    StartupTimings.record("warm-up-total", startMs, StartupTimings.sinceJvmStart() - startMs, true);
+                    executor.shutdown();
+                });
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    /**
+     * Corre {@code step} en {@code executor} midiendo su tiempo. El futuro siempre termina bien,
+     * aunque la fase falle, para que las dependientes lo intenten por su cuenta.
+     */
+    private static CompletableFuture<Void> phase(String name, Executor executor, Step step) {
+        return CompletableFuture.runAsync(() -> {
+            long start = StartupTimings.sinceJvmStart();
+            boolean ok = true;
+            try {
+                step.run();
+            } catch (Exception | LinkageError ex) {
+                ok = false;
+                log.warn("Precalentamiento '{}' falló: {}", name, ex.getMessage());
+            }
+            StartupTimings.record(name, start, StartupTimings.sinceJvmStart() - start, ok);
+        }, executor);
+    }
+
+    /** Carga de clases de PDFBox y las métricas AFM de las fuentes que usan los reportes. */
+    private static void warmUpPdf() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            PDType1Font.HELVETICA.getStringWidth("Imperial Motors 0123456789");
+            PDType1Font.HELVETICA_BOLD.getStringWidth("Imperial Motors 0123456789");
+        }
+    }
+
+    private static ExecutorService createExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "startup-warmup-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
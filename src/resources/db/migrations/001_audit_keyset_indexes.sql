@@ -0,0 +1,21 @@
+-- Índices para la paginación por cursor (created_at, id) de AuditQueryDAO.
+-- Cada filtro de la vista de auditoría tiene su índice con el mismo orden de la página,
+-- de modo que MySQL lee solo las filas de la página en lugar de ordenar toda la tabla.
+
+CREATE INDEX idx_audit_log_created_id
+    ON audit_log (created_at, audit_id);
+
+CREATE INDEX idx_audit_log_action_created_id
+    ON audit_log (action, created_at, audit_id);
+
+CREATE INDEX idx_audit_log_entity_created_id
+    ON audit_log (entity, created_at, audit_id);
+
+CREATE INDEX idx_audit_log_account_created_id
+    ON audit_log (account_id, created_at, audit_id);
+
+CREATE INDEX idx_inventory_movement_created_id
+    ON inventory_movement (created_at, movement_id);
+
+CREATE INDEX idx_inventory_movement_type_created_id
+    ON inventory_movement (type, created_at, movement_id);
@@ -0,0 +1,11 @@
+-- Campos de presentación de audit_log guardados al escribir el evento (ver AuditWriter).
+-- Con ellos la vista de auditoría lee una sola tabla en lugar de unir user (x2), sale,
+-- purchase_order, inventory_movement y vehicle en cada página.
+-- Las filas existentes se completan después con utilities.AuditBackfillJob (por bloques de id).
+
+ALTER TABLE audit_log
+    ADD COLUMN actor_personnel_number VARCHAR(32) NULL AFTER account_id,
+    ADD COLUMN entity_name VARCHAR(255) NULL AFTER entity_id;
+
+CREATE INDEX idx_audit_log_actor_created_id
+    ON audit_log (actor_personnel_number, created_at, audit_id);
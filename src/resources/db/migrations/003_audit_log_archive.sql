@@ -0,0 +1,15 @@
+-- Archivo mensual de audit_log (ver logic.DAO.AuditArchiveDAO / utilities.AuditArchiveJob).
+-- Las filas más antiguas que audit.retention.months se mueven a tablas audit_log_archive_YYYYMM,
+-- creadas bajo demanda con la misma estructura que audit_log. Este registro indica qué meses
+-- existen y su rango de fechas para que AuditQueryDAO solo consulte los que aplican.
+
+CREATE TABLE IF NOT EXISTS audit_log_archive_month (
+    month_key      CHAR(6)     NOT NULL,
+    table_name     VARCHAR(64) NOT NULL,
+    min_created_at DATETIME    NOT NULL,
+    max_created_at DATETIME    NOT NULL,
+    row_count      BIGINT      NOT NULL DEFAULT 0,
+    archived_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (month_key),
+    INDEX idx_audit_archive_month_range (min_created_at, max_created_at)
+);
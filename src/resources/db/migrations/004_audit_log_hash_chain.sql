@@ -0,0 +1,161 @@
+-- Cadena de hashes de audit_log (evidencia de manipulación).
+-- Cada fila guarda chain_seq, el hash de la fila anterior (prev_hash) y su propio hash (row_hash):
+--   SHA-256( seq|account_id|action|entity|entity_id|len:before_data|len:after_data|ip|created_at|prev_hash )
+-- El trigger asigna los tres valores bajo el candado de audit_chain_head, por lo que la cadena es
+-- única aunque varias instancias de la aplicación escriban a la vez. utilities.AuditChainVerifyJob
+-- recalcula la cadena y guarda checkpoints firmados (HMAC) en audit_chain_checkpoint.
+-- actor_personnel_number y entity_name no forman parte del hash: son datos de presentación.
+--
+-- Ejecutar en ventana de mantenimiento con utilities.AuditArchiveJob detenido. Las tablas de archivo
+-- que ya existan (registradas en audit_log_archive_month por 003) reciben las mismas columnas y se
+-- sellan primero, en orden de mes, para que la cadena sea continua con audit_log; las que se creen
+-- después salen de CREATE TABLE ... LIKE audit_log y ya traen las columnas.
+
+ALTER TABLE audit_log
+    ADD COLUMN chain_seq BIGINT NULL,
+    ADD COLUMN prev_hash CHAR(64) NULL,
+    ADD COLUMN row_hash CHAR(64) NULL,
+    ADD UNIQUE INDEX ux_audit_log_chain_seq (chain_seq);
+
+CREATE TABLE IF NOT EXISTS audit_chain_head (
+    head_id   TINYINT  NOT NULL,
+    last_seq  BIGINT   NOT NULL,
+    last_hash CHAR(64) NOT NULL,
+    PRIMARY KEY (head_id)
+);
+
+CREATE TABLE IF NOT EXISTS audit_chain_checkpoint (
+    checkpoint_seq BIGINT    NOT NULL,
+    row_hash       CHAR(64)  NOT NULL,
+    signature      CHAR(64)  NOT NULL,
+    created_at     TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (checkpoint_seq)
+);
+
+-- Sellado de las filas existentes en orden de audit_id.
+-- En un UPDATE de una sola tabla las asignaciones se evalúan de izquierda a derecha,
+-- así que row_hash ve los chain_seq/prev_hash recién asignados.
+SET @chain_seq := 0;
+SET @chain_prev := REPEAT('0', 64);
+
+-- Tablas de archivo existentes: se agregan las columnas y se sellan con las mismas variables de
+-- sesión, de modo que audit_log continúa la secuencia donde termina el mes archivado más reciente.
+DELIMITER $$
+
+CREATE PROCEDURE sp_audit_chain_seal_archives()
+BEGIN
+    DECLARE v_done BOOLEAN DEFAULT FALSE;
+    DECLARE v_table VARCHAR(64);
+    DECLARE c_months CURSOR FOR
+        SELECT table_name FROM audit_log_archive_month ORDER BY month_key;
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET v_done = TRUE;
+
+    OPEN c_months;
+    seal_loop: LOOP
+        FETCH c_months INTO v_table;
+        IF v_done THEN
+            LEAVE seal_loop;
+        END IF;
+
+        IF v_table NOT REGEXP '^audit_log_archive_[0-9]{6}$' THEN
+            SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Nombre de tabla de archivo inválido';
+        END IF;
+
+        IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = DATABASE()
+                         AND table_name = v_table
+                         AND column_name = 'chain_seq') THEN
+            SET @ddl := CONCAT('ALTER TABLE ', v_table,
+                    ' ADD COLUMN chain_seq BIGINT NULL,',
+                    ' ADD COLUMN prev_hash CHAR(64) NULL,',
+                    ' ADD COLUMN row_hash CHAR(64) NULL,',
+                    ' ADD UNIQUE INDEX ux_audit_log_chain_seq (chain_seq)');
+            PREPARE stmt FROM @ddl;
+            EXECUTE stmt;
+            DEALLOCATE PREPARE stmt;
+        END IF;
+
+        SET @seal := CONCAT('UPDATE ', v_table, ' ',
+                'SET chain_seq = (@chain_seq := @chain_seq + 1), ',
+                '    prev_hash = @chain_prev, ',
+                '    row_hash  = (@chain_prev := SHA2(CONCAT(',
+                '        chain_seq, ''|'', ',
+                '        COALESCE(account_id, ''''), ''|'', ',
+                '        COALESCE(action, ''''), ''|'', ',
+                '        COALESCE(entity, ''''), ''|'', ',
+                '        COALESCE(entity_id, ''''), ''|'', ',
+                '        CHAR_LENGTH(COALESCE(before_data, '''')), '':'', COALESCE(before_data, ''''), ''|'', ',
+                '        CHAR_LENGTH(COALESCE(after_data, '''')), '':'', COALESCE(after_data, ''''), ''|'', ',
+                '        COALESCE(ip_address, ''''), ''|'', ',
+                '        DATE_FORMAT(created_at, ''%Y-%m-%d %H:%i:%s''), ''|'', ',
+                '        prev_hash), 256)) ',
+                'ORDER BY audit_id');
+        PREPARE stmt FROM @seal;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END LOOP;
+    CLOSE c_months;
+END$$
+
+DELIMITER ;
+
+CALL sp_audit_chain_seal_archives();
+DROP PROCEDURE sp_audit_chain_seal_archives;
+
+LOCK TABLES audit_log WRITE, audit_chain_head WRITE;
+
+UPDATE audit_log
+SET chain_seq = (@chain_seq := @chain_seq + 1),
+    prev_hash = @chain_prev,
+    row_hash  = (@chain_prev := SHA2(CONCAT(
+            chain_seq, '|',
+            COALESCE(account_id, ''), '|',
+            COALESCE(action, ''), '|',
+            COALESCE(entity, ''), '|',
+            COALESCE(entity_id, ''), '|',
+            CHAR_LENGTH(COALESCE(before_data, '')), ':', COALESCE(before_data, ''), '|',
+            CHAR_LENGTH(COALESCE(after_data, '')), ':', COALESCE(after_data, ''), '|',
+            COALESCE(ip_address, ''), '|',
+            DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:%s'), '|',
+            prev_hash), 256))
+ORDER BY audit_id;
+
+INSERT INTO audit_chain_head (head_id, last_seq, last_hash) VALUES (1, @chain_seq, @chain_prev);
+
+UNLOCK TABLES;
+
+DELIMITER $$
+
+CREATE TRIGGER trg_audit_log_chain
+    BEFORE INSERT ON audit_log
+    FOR EACH ROW
+BEGIN
+    DECLARE v_seq BIGINT;
+    DECLARE v_prev CHAR(64);
+
+    SELECT last_seq, last_hash INTO v_seq, v_prev
+    FROM audit_chain_head
+    WHERE head_id = 1
+    FOR UPDATE;
+
+    SET NEW.chain_seq = v_seq + 1;
+    SET NEW.prev_hash = v_prev;
+    SET NEW.row_hash = SHA2(CONCAT(
+            NEW.chain_seq, '|',
+            COALESCE(NEW.account_id, ''), '|',
+            COALESCE(NEW.action, ''), '|',
+            COALESCE(NEW.entity, ''), '|',
+            COALESCE(NEW.entity_id, ''), '|',
+            CHAR_LENGTH(COALESCE(NEW.before_data, '')), ':', COALESCE(NEW.before_data, ''), '|',
+            CHAR_LENGTH(COALESCE(NEW.after_data, '')), ':', COALESCE(NEW.after_data, ''), '|',
+            COALESCE(NEW.ip_address, ''), '|',
+            DATE_FORMAT(NEW.created_at, '%Y-%m-%d %H:%i:%s'), '|',
+            NEW.prev_hash), 256);
+
+    UPDATE audit_chain_head
+    SET last_seq = NEW.chain_seq,
+        last_hash = NEW.row_hash
+    WHERE head_id = 1;
+END$$
+
+DELIMITER ;
@@ -0,0 +1,27 @@
+-- Resumen diario de ventas (ver logic.DAO.SaleRollupDAO / utilities.SaleRollupJob).
+-- Una fila por día × vendedor × estado con el conteo y las sumas de importes de todas sus ventas
+-- (también las anuladas: quien lee filtra por estado). SaleDAO la actualiza en la misma transacción
+-- que crea o modifica la venta, así que los reportes por periodo leen unos cientos de filas en lugar
+-- de recorrer sale. Una venta sin vendedor se guarda con seller_account_id = 0.
+--
+-- Después de crear la tabla se llena con el histórico; activar sales.rollup.enabled solo cuando
+-- esta migración ya se aplicó. SaleRollupJob --verify compara la tabla contra sale.
+
+CREATE TABLE IF NOT EXISTS sale_daily_rollup (
+    sale_date         DATE           NOT NULL,
+    seller_account_id BIGINT         NOT NULL DEFAULT 0,
+    status            VARCHAR(20)    NOT NULL,
+    sale_count        BIGINT         NOT NULL DEFAULT 0,
+    subtotal          DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    discount          DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    taxes             DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    total             DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (sale_date, seller_account_id, status)
+);
+
+INSERT INTO sale_daily_rollup
+    (sale_date, seller_account_id, status, sale_count, subtotal, discount, taxes, total)
+SELECT DATE(created_at), COALESCE(seller_account_id, 0), status, COUNT(*),
+       COALESCE(SUM(subtotal), 0), COALESCE(SUM(discount), 0), COALESCE(SUM(taxes), 0), COALESCE(SUM(total), 0)
+FROM sale
+GROUP BY DATE(created_at), COALESCE(seller_account_id, 0), status;
@@ -0,0 +1,74 @@
+-- Alta de venta en un solo viaje al servidor (ver SaleDAO.createSaleWithLogAndInventory y
+-- sales.commit.procedure.enabled). Hace lo mismo que el camino por sentencias, en el mismo orden:
+-- venta, vehículo VENDIDO, movimiento de inventario VENTA, resumen diario (005) si se pide y
+-- registro de auditoría CREATE. No hace COMMIT ni ROLLBACK: la transacción sigue siendo de la
+-- aplicación, así que un error en cualquier paso deshace todo igual que antes.
+-- El resumen diario solo se toca con p_update_rollup = 1 (la tabla debe existir en ese caso).
+--
+-- Ejecutar desde el cliente mysql (usa DELIMITER). Para los tiempos: SaleCommitBenchmark (perfil benchmarks).
+
+DROP PROCEDURE IF EXISTS sp_create_sale;
+
+DELIMITER //
+
+CREATE PROCEDURE sp_create_sale(
+    IN  p_folio             VARCHAR(64),
+    IN  p_vehicle_id        BIGINT,
+    IN  p_costumer_number   VARCHAR(64),
+    IN  p_seller_account_id BIGINT,
+    IN  p_status            VARCHAR(20),
+    IN  p_subtotal          DECIMAL(18, 2),
+    IN  p_discount          DECIMAL(18, 2),
+    IN  p_taxes             DECIMAL(18, 2),
+    IN  p_total             DECIMAL(18, 2),
+    IN  p_after_data        LONGTEXT,
+    IN  p_ip_address        VARCHAR(45),
+    IN  p_update_rollup     TINYINT
+)
+BEGIN
+    DECLARE v_sale_id BIGINT;
+
+    INSERT INTO sale
+        (folio, vehicle_id, costumer_number, seller_account_id, status, subtotal, discount, taxes, total)
+    VALUES
+        (p_folio, p_vehicle_id, p_costumer_number, p_seller_account_id, p_status,
+         p_subtotal, p_discount, p_taxes, p_total);
+    SET v_sale_id = LAST_INSERT_ID();
+
+    -- Con CLIENT_FOUND_ROWS (opción por defecto de Connector/J) cuenta filas encontradas, como JDBC
+    UPDATE vehicle SET status = 'VENDIDO' WHERE vehicle_id = p_vehicle_id;
+    IF ROW_COUNT() = 0 THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Updating vehicle status failed, no rows affected.';
+    END IF;
+
+    INSERT INTO inventory_movement (vehicle_id, type, ref_table, ref_id, note, account_id)
+    VALUES (p_vehicle_id, 'VENTA', 'sale', v_sale_id, CONCAT('Venta folio ', p_folio), p_seller_account_id);
+
+    IF p_update_rollup = 1 THEN
+        INSERT INTO sale_daily_rollup
+            (sale_date, seller_account_id, status, sale_count, subtotal, discount, taxes, total)
+        SELECT DATE(s.created_at), COALESCE(s.seller_account_id, 0), s.status, 1,
+               COALESCE(s.subtotal, 0), COALESCE(s.discount, 0), COALESCE(s.taxes, 0), COALESCE(s.total, 0)
+        FROM sale s WHERE s.sale_id = v_sale_id
+        ON DUPLICATE KEY UPDATE
+            sale_daily_rollup.sale_count = sale_daily_rollup.sale_count + VALUES(sale_count),
+            sale_daily_rollup.subtotal = sale_daily_rollup.subtotal + VALUES(subtotal),
+            sale_daily_rollup.discount = sale_daily_rollup.discount + VALUES(discount),
+            sale_daily_rollup.taxes = sale_daily_rollup.taxes + VALUES(taxes),
+            sale_daily_rollup.total = sale_daily_rollup.total + VALUES(total);
+    END IF;
+
+    -- Mismas columnas que AuditWriter; la cadena de hashes (004) la asigna el trigger
+    INSERT INTO audit_log
+        (account_id, actor_personnel_number, action, entity, entity_id, entity_name,
+         before_data, after_data, ip_address, created_at)
+    VALUES
+        (IF(p_seller_account_id > 0, p_seller_account_id, NULL),
+         (SELECT u.personnel_number FROM `user` u WHERE u.account_id = p_seller_account_id),
+         'CREATE', 'sale', v_sale_id, NULLIF(p_folio, ''), NULL, p_after_data, p_ip_address, CURRENT_TIMESTAMP);
+
+    -- El id sale como resultado y no como parámetro OUT: Connector/J lee los OUT con otra consulta
+    SELECT v_sale_id AS sale_id;
+END //
+
+DELIMITER ;
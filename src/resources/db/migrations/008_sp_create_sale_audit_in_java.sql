@@ -0,0 +1,51 @@
+-- sp_create_sale sin el registro de auditoría ni el resumen diario. La fila de audit_log (con
+-- AuditWriter) y la de sale_daily_rollup (con SaleRollupDAO.addSale) las escribe SaleDAO en la
+-- misma conexión y antes del COMMIT, igual que en el camino por sentencias: así el procedimiento
+-- no lleva copias del INSERT de AuditWriter ni del upsert del resumen que haya que mantener a mano.
+-- Quedan fuera p_after_data, p_ip_address y p_update_rollup. El resto es igual que en 007.
+--
+-- Aplicar junto con el despliegue: mientras la base tenga la versión de 007 (12 parámetros) la
+-- llamada falla con 1318 y SaleDAO guarda las ventas por sentencias. Ejecutar desde el cliente
+-- mysql (usa DELIMITER).
+
+DROP PROCEDURE IF EXISTS sp_create_sale;
+
+DELIMITER //
+
+CREATE PROCEDURE sp_create_sale(
+    IN  p_folio             VARCHAR(64),
+    IN  p_vehicle_id        BIGINT,
+    IN  p_costumer_number   VARCHAR(64),
+    IN  p_seller_account_id BIGINT,
+    IN  p_status            VARCHAR(20),
+    IN  p_subtotal          DECIMAL(18, 2),
+    IN  p_discount          DECIMAL(18, 2),
+    IN  p_taxes             DECIMAL(18, 2),
+    IN  p_total             DECIMAL(18, 2)
+)
+BEGIN
+    DECLARE v_sale_id BIGINT;
+
+    INSERT INTO sale
+        (folio, vehicle_id, costumer_number, seller_account_id, status, subtotal, discount, taxes, total)
+    VALUES
+        (p_folio, p_vehicle_id, p_costumer_number, p_seller_account_id, p_status,
+         p_subtotal, p_discount, p_taxes, p_total);
+    SET v_sale_id = LAST_INSERT_ID();
+
+    -- Compare-and-set: solo un vehículo DISPONIBLE pasa a VENDIDO. Si otra transacción lo vendió
+    -- o apartó primero no hay fila que actualizar y SaleDAO traduce 45001 a ConcurrencyConflictException
+    UPDATE vehicle SET status = 'VENDIDO', version = version + 1
+    WHERE vehicle_id = p_vehicle_id AND status = 'DISPONIBLE';
+    IF ROW_COUNT() = 0 THEN
+        SIGNAL SQLSTATE '45001' SET MESSAGE_TEXT = 'Vehicle is not available for sale.';
+    END IF;
+
+    INSERT INTO inventory_movement (vehicle_id, type, ref_table, ref_id, note, account_id)
+    VALUES (p_vehicle_id, 'VENTA', 'sale', v_sale_id, CONCAT('Venta folio ', p_folio), p_seller_account_id);
+
+    -- El id sale como resultado y no como parámetro OUT: Connector/J lee los OUT con otra consulta
+    SELECT v_sale_id AS sale_id;
+END //
+
+DELIMITER ;
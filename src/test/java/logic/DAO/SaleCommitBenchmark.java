@@ -0,0 +1,119 @@
+package logic.DAO;
+
+import dataaccess.ConnectionDataBase;
+import logic.DTO.SaleDTO;
+import logic.DTO.SaleStatus;
+import logic.DTO.VehicleDTO;
+import logic.DTO.VehicleStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Alta de venta por sentencias (cuatro viajes) contra sp_create_sale más el lote de auditoría
+ * (dos; migraciones 006 y 008). SampleTime da la latencia por venta con sus percentiles; con
+ * {@code -bm thrpt -t 4} se miden ventas por segundo sostenidas con varios hilos. El vehículo de
+ * cada venta se crea antes de cada llamada, fuera de la medición.
+ * <p>
+ * CREA VEHÍCULOS Y VENTAS REALES (con su auditoría): ejecutar solo contra una base de pruebas.
+ * La conexión sale de DB_URL / DB_USER / DB_PASS (variables de entorno) o de config.properties.
+ * Ejecutar: mvn -Pbenchmarks test-compile exec:exec
+ * -Djmh.args="SaleCommitBenchmark -p sellerAccountId=1 -p customerNumber=C-0001"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleCommitBenchmark {
+
+    // VIN y folio únicos entre hilos y corridas
+    private static final long RUN_ID = System.currentTimeMillis() % 10_000_000;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    // El procedimiento va primero: si no existe, el DAO cae a sentencias y no tiene caso medir
+    @Param({"PROCEDURE", "STATEMENTS"})
+    public SaleDAO.CommitPath path;
+
+    @Param({"0"})
+    public long sellerAccountId;
+
+    @Param({""})
+    public String customerNumber;
+
+    private final SaleDAO saleDao = new SaleDAO();
+    private final VehicleDAO vehicleDao = new VehicleDAO();
+    private SaleDTO sale;
+
+    @Setup(Level.Trial)
+    public void checkArguments() {
+        if (sellerAccountId <= 0 || customerNumber.isBlank()) {
+            throw new IllegalStateException(
+                    "Indicar un vendedor y un cliente existentes: -p sellerAccountId=... -p customerNumber=...");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareSale() throws Exception {
+        sale = newSale(createVehicle());
+    }
+
+    @Benchmark
+    public long createSale() throws Exception {
+        return saleDao.createSaleWithLogAndInventory(sale, path);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownPool() {
+        ConnectionDataBase.shutdown();
+    }
+
+    private long createVehicle() throws Exception {
+        VehicleDTO vehicle = new VehicleDTO();
+        vehicle.setVin(String.format("BN%06d%09d", RUN_ID % 1_000_000, SEQUENCE.incrementAndGet()));
+        vehicle.setMake("Benchmark");
+        vehicle.setModel("Venta");
+        vehicle.setModelYear((short) 2024);
+        vehicle.setColor("Blanco");
+        vehicle.setPrice(new BigDecimal("250000.00"));
+        vehicle.setStatus(VehicleStatus.DISPONIBLE);
+        vehicle.setCreatedAt(LocalDateTime.now());
+        vehicle.setUpdatedAt(LocalDateTime.now());
+        vehicleDao.insertVehicle(vehicle);
+        return vehicle.getVehicleId();
+    }
+
+    private SaleDTO newSale(long vehicleId) {
+        BigDecimal subtotal = new BigDecimal("250000.00");
+        BigDecimal taxes = subtotal.multiply(new BigDecimal("0.16")).setScale(2, RoundingMode.HALF_UP);
+
+        SaleDTO sale = new SaleDTO();
+        sale.setFolio(String.format("B%07d%08d", RUN_ID, SEQUENCE.incrementAndGet()));
+        sale.setVehicleId(vehicleId);
+        sale.setCostumerNumber(customerNumber);
+        sale.setSellerAccountId(sellerAccountId);
+        sale.setStatus(SaleStatus.COMPLETADA);
+        sale.setSubtotal(subtotal);
+        sale.setDiscount(BigDecimal.ZERO);
+        sale.setTaxes(taxes);
+        sale.setTotal(subtotal.add(taxes));
+        return sale;
+    }
+}
@@ -0,0 +1,173 @@
+package logic.DAO;
+
+import dataaccess.ConnectionDataBase;
+import logic.DTO.SaleDTO;
+import logic.DTO.SaleStatus;
+import logic.DTO.SalesSummaryDTO;
+import logic.DTO.SalesSummaryGroup;
+import logic.DTO.SalesSummaryRowDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * SaleDAO.getSalesSummary (GROUP BY ... WITH ROLLUP en el servidor) contra los totales calculados
+ * venta por venta con BigDecimal sobre getAllSales / getSalesBetween, como lo hace el reporte,
+ * para cada agrupación y rango. Con sales.rollup.enabled=true lo comparado es sale_daily_rollup.
+ * <p>
+ * Necesita una base MySQL: solo corre si DB_URL (variable de entorno o -DDB_URL) está definida,
+ * junto con DB_USER y DB_PASS. Usar una base de pruebas sin escrituras mientras corre.
+ * Ejecutar: mvn test -Dtest=SaleSummaryDatabaseTest -DDB_URL=jdbc:mysql://... -DDB_USER=... -DDB_PASS=...
+ */
+class SaleSummaryDatabaseTest {
+
+    // Acumulado de un grupo con las mismas reglas que el SQL: los importes excluyen anuladas
+    private static final class Totals {
+        long count;
+        long annulled;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discount = BigDecimal.ZERO;
+        BigDecimal taxes = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+
+        void add(SaleDTO sale) {
+            count++;
+            if (sale.getStatus() == SaleStatus.ANULADA) {
+                annulled++;
+                return;
+            }
+            subtotal = subtotal.add(zero(sale.getSubtotal()));
+            discount = discount.add(zero(sale.getDiscount()));
+            taxes = taxes.add(zero(sale.getTaxes()));
+            total = total.add(zero(sale.getTotal()));
+        }
+
+        boolean matches(SalesSummaryRowDTO row) {
+            return count == row.getSaleCount()
+                    && annulled == row.getAnnulledCount()
+                    && subtotal.compareTo(row.getSubtotal()) == 0
+                    && discount.compareTo(row.getDiscount()) == 0
+                    && taxes.compareTo(row.getTaxes()) == 0
+                    && total.compareTo(row.getTotalAmount()) == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "ventas=" + count + " | anuladas=" + annulled
+                    + " | subtotal=" + subtotal.toPlainString()
+                    + " | descuento=" + discount.toPlainString()
+                    + " | impuestos=" + taxes.toPlainString()
+                    + " | total=" + total.toPlainString();
+        }
+    }
+
+    @BeforeAll
+    static void requireDatabase() {
+        String url = System.getProperty("DB_URL", System.getenv("DB_URL"));
+        assumeTrue(url != null && !url.isBlank(), "Sin DB_URL: se omite la comparación contra MySQL.");
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        ConnectionDataBase.shutdown();
+    }
+
+    @Test
+    void serverSummaryMatchesRowByRowTotals() throws Exception {
+        SaleDAO dao = new SaleDAO();
+
+        Map<String, SaleDAO.DateRange> ranges = new LinkedHashMap<>();
+        ranges.put("todas", SaleDAO.DateRange.all());
+        ranges.put("año", SaleDAO.DateRange.currentYear());
+        ranges.put("mes", SaleDAO.DateRange.currentMonth());
+        ranges.put("semana", SaleDAO.DateRange.currentWeek());
+
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, SaleDAO.DateRange> entry : ranges.entrySet()) {
+            SaleDAO.DateRange range = entry.getValue();
+            List<SaleDTO> sales = range.isAll()
+                    ? dao.getAllSales()
+                    : dao.getSalesBetween(range.from(), range.to());
+
+            for (SalesSummaryGroup group : SalesSummaryGroup.values()) {
+                compare(entry.getKey() + "/" + group, group, sales, dao.getSalesSummary(range, group), problems);
+            }
+        }
+
+        assertTrue(problems.isEmpty(), String.join("\n", problems));
+    }
+
+    private static void compare(String label, SalesSummaryGroup group, List<SaleDTO> sales,
+                                SalesSummaryDTO summary, List<String> problems) {
+        // TreeMap no admite llaves null: las ventas sin llave (sin fecha o sin vendedor) se agrupan aparte
+        Map<String, Totals> expected = new TreeMap<>();
+        Totals nullKey = null;
+        Totals grandTotal = new Totals();
+
+        for (SaleDTO sale : sales) {
+            grandTotal.add(sale);
+            String key = keyOf(group, sale);
+            if (key == null) {
+                if (nullKey == null) {
+                    nullKey = new Totals();
+                }
+                nullKey.add(sale);
+            } else {
+                expected.computeIfAbsent(key, k -> new Totals()).add(sale);
+            }
+        }
+
+        int seen = 0;
+        for (SalesSummaryRowDTO row : summary.getRows()) {
+            Totals totals = row.getGroupKey() == null ? nullKey : expected.get(row.getGroupKey());
+            if (totals == null) {
+                problems.add("[" + label + "] grupo " + row.getGroupKey() + " solo en el servidor: " + row);
+            } else {
+                seen++;
+                if (!totals.matches(row)) {
+                    problems.add("[" + label + "] grupo " + row.getGroupKey()
+                            + "\n    servidor: " + row + "\n    java:     " + totals);
+                }
+            }
+        }
+        int expectedGroups = expected.size() + (nullKey == null ? 0 : 1);
+        if (seen != expectedGroups) {
+            problems.add("[" + label + "] el servidor devolvió " + seen + " de " + expectedGroups + " grupos");
+        }
+        if (!grandTotal.matches(summary.getGrandTotal())) {
+            problems.add("[" + label + "] total general\n    servidor: " + summary.getGrandTotal()
+                    + "\n    java:     " + grandTotal);
+        }
+    }
+
+    // Mismas llaves que SaleDAO.summaryExpression
+    private static String keyOf(SalesSummaryGroup group, SaleDTO sale) {
+        LocalDateTime at = sale.getCreatedAt();
+        return switch (group) {
+            case DAY -> at == null ? null : at.toLocalDate().toString();
+            case WEEK -> at == null ? null : String.format("%d-W%02d",
+                    at.get(IsoFields.WEEK_BASED_YEAR), at.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> at == null ? null : String.format("%d-%02d", at.getYear(), at.getMonthValue());
+            // El mapeo del DAO convierte un seller_account_id NULL en 0
+            case SELLER -> sale.getSellerAccountId() == null || sale.getSellerAccountId() == 0
+                    ? null : sale.getSellerAccountId().toString();
+            case STATUS -> sale.getStatus() == null ? null : sale.getStatus().name();
+        };
+    }
+
+    private static BigDecimal zero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
@@ -0,0 +1,128 @@
+package logic.DAO;
+
+import logic.DTO.SalesSummaryDTO;
+import logic.DTO.SalesSummaryGroup;
+import logic.DTO.SalesSummaryRowDTO;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mapeo de SaleDAO.readSummary sobre un ResultSet falso (proxy): filas de grupo, un grupo con
+ * llave NULL que no debe confundirse con la fila de ROLLUP, y el rango vacío. El SQL del resumen
+ * contra los totales venta por venta se prueba en {@link SaleSummaryDatabaseTest}.
+ */
+class SaleSummaryTest {
+
+    @Test
+    void separatesGroupRowsFromRollupRow() throws Exception {
+        List<Map<String, Object>> rows = List.of(
+                row(null, 0, 2, 1, "100.00", "0.00", "16.00", "116.00"),
+                row("2025-01", 0, 3, 0, "300.50", "10.25", "46.44", "336.69"),
+                row(null, 1, 5, 1, "400.50", "10.25", "62.44", "452.69"));
+
+        SalesSummaryDTO summary = SaleDAO.readSummary(statement(rows), SalesSummaryGroup.MONTH);
+
+        assertEquals(SalesSummaryGroup.MONTH, summary.getGroup());
+        assertEquals(2, summary.getRows().size());
+
+        SalesSummaryRowDTO nullGroup = summary.getRows().get(0);
+        assertNull(nullGroup.getGroupKey());
+        assertFalse(nullGroup.isTotal());
+        assertEquals(2, nullGroup.getSaleCount());
+        assertEquals(1, nullGroup.getAnnulledCount());
+
+        SalesSummaryRowDTO month = summary.getRows().get(1);
+        assertEquals("2025-01", month.getGroupKey());
+        assertEquals(new BigDecimal("300.50"), month.getSubtotal());
+        assertEquals(new BigDecimal("10.25"), month.getDiscount());
+        assertEquals(new BigDecimal("46.44"), month.getTaxes());
+        assertEquals(new BigDecimal("336.69"), month.getTotalAmount());
+
+        SalesSummaryRowDTO total = summary.getGrandTotal();
+        assertTrue(total.isTotal());
+        assertEquals(5, total.getSaleCount());
+        assertEquals(new BigDecimal("452.69"), total.getTotalAmount());
+    }
+
+    @Test
+    void emptyRangeGivesZeroGrandTotal() throws Exception {
+        SalesSummaryDTO summary = SaleDAO.readSummary(statement(List.of()), SalesSummaryGroup.MONTH);
+
+        assertTrue(summary.getRows().isEmpty());
+        SalesSummaryRowDTO total = summary.getGrandTotal();
+        assertTrue(total.isTotal());
+        assertEquals(0, total.getSaleCount());
+        assertEquals(0, total.getAnnulledCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(total.getSubtotal()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(total.getTotalAmount()));
+    }
+
+    // ================================================================
+
+    private static Map<String, Object> row(String key, int isTotal, long count, long annulled,
+                                           String subtotal, String discount, String taxes, String total) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("group_key", key);
+        row.put("is_total", isTotal);
+        row.put("sale_count", count);
+        row.put("annulled_count", annulled);
+        row.put("subtotal", new BigDecimal(subtotal));
+        row.put("discount", new BigDecimal(discount));
+        row.put("taxes", new BigDecimal(taxes));
+        row.put("total", new BigDecimal(total));
+        return row;
+    }
+
+    private static PreparedStatement statement(List<Map<String, Object>> rows) {
+        ResultSet resultSet = resultSet(rows);
+        return (PreparedStatement) Proxy.newProxyInstance(
+                SaleSummaryTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "executeQuery" -> resultSet;
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        int[] cursor = {-1};
+        Object[] last = new Object[1];
+        return (ResultSet) Proxy.newProxyInstance(
+                SaleSummaryTest.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.size();
+                        case "close":
+                            return null;
+                        case "wasNull":
+                            return last[0] == null;
+                        default:
+                            break;
+                    }
+                    Object value = rows.get(cursor[0]).get((String) args[0]);
+                    last[0] = value;
+                    return switch (method.getName()) {
+                        case "getString" -> value == null ? null : value.toString();
+                        case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                        case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                        case "getBigDecimal" -> value;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+}
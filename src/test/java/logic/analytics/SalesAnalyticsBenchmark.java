@@ -0,0 +1,109 @@
+package logic.analytics;
+
+import logic.DTO.SaleStatus;
+import logic.analytics.SyntheticSales.Sale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas típicas de SalesQuery sobre una década de ventas sintéticas, y la misma agrupación por
+ * marca recorriendo la lista con BigDecimal (como se haría sobre {@code List<SaleDTO>}).
+ * La exactitud de los resultados se prueba en {@link SalesQueryTest}.
+ * Ejecutar: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="SalesAnalyticsBenchmark -p sales=1000000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SalesAnalyticsBenchmark {
+
+    @Param({"200000", "1000000"})
+    public int sales;
+
+    private List<Sale> list;
+    private SalesColumns columns;
+    private LocalDate lastYear;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        list = SyntheticSales.generate(sales, 10, today, 42);
+        columns = SyntheticSales.columns(list);
+        lastYear = today.minusYears(1);
+    }
+
+    @Benchmark
+    public List<SalesGroupResult> byMonth() {
+        return SalesQuery.groupBy(SalesDimension.MONTH).where(SalesFilter.notAnnulled()).run(columns);
+    }
+
+    @Benchmark
+    public List<SalesGroupResult> byMakeAndModelYear() {
+        return SalesQuery.groupBy(SalesDimension.MAKE, SalesDimension.MODEL_YEAR)
+                .where(SalesFilter.notAnnulled())
+                .run(columns);
+    }
+
+    @Benchmark
+    public List<SalesGroupResult> bySellerAndDiscountBandLastYear() {
+        return SalesQuery.groupBy(SalesDimension.SELLER, SalesDimension.DISCOUNT_BAND)
+                .where(SalesFilter.between(lastYear, lastYear.plusYears(1).plusDays(1)))
+                .run(columns);
+    }
+
+    /** Más grupos posibles que filas por bloque: acumula en la tabla hash. */
+    @Benchmark
+    public List<SalesGroupResult> byMonthSellerAndModel() {
+        return SalesQuery.groupBy(SalesDimension.MONTH, SalesDimension.SELLER, SalesDimension.MODEL)
+                .where(SalesFilter.notAnnulled())
+                .run(columns);
+    }
+
+    @Benchmark
+    public List<SalesGroupResult> byModelFiltered() {
+        return SalesQuery.groupBy(SalesDimension.MODEL)
+                .where(SalesFilter.make("Toyota"))
+                .where(SalesFilter.modelYearBetween(2020, 9999))
+                .run(columns);
+    }
+
+    @Benchmark
+    public List<SalesGroupResult> byMakeColumns() {
+        return SalesQuery.groupBy(SalesDimension.MAKE).where(SalesFilter.notAnnulled()).run(columns);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal[]> byMakeBigDecimal() {
+        Map<String, BigDecimal[]> sums = new HashMap<>();
+        for (Sale sale : list) {
+            if (sale.status() == SaleStatus.ANULADA) {
+                continue;
+            }
+            BigDecimal[] group = sums.computeIfAbsent(sale.make(),
+                    k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+            group[0] = group[0].add(sale.subtotal());
+            group[1] = group[1].add(sale.discount());
+            group[2] = group[2].add(sale.taxes());
+            group[3] = group[3].add(sale.total());
+        }
+        return sums;
+    }
+}
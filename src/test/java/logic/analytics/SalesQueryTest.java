@@ -0,0 +1,295 @@
+package logic.analytics;
+
+import logic.DTO.SaleStatus;
+import logic.analytics.SyntheticSales.Sale;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SalesQuery contra una agrupación de referencia hecha venta por venta: por bloques en paralelo y
+ * en un hilo, por el arreglo denso y por la tabla hash (a ambos lados de CHUNK_ROWS grupos),
+ * con filtros y sin filas. Los importes también se comparan contra sumas BigDecimal.
+ */
+class SalesQueryTest {
+
+    private static final String UNKNOWN = "(sin dato)";
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 6, 30);
+
+    // Varios bloques de CHUNK_ROWS filas para que haya fork y unión de acumulados
+    private static final int SALES = SalesQuery.CHUNK_ROWS * 4 + 123;
+
+    private static List<Sale> sales;
+    private static SalesColumns columns;
+    private static ForkJoinPool parallel;
+    private static ForkJoinPool single;
+
+    @BeforeAll
+    static void load() {
+        sales = SyntheticSales.generate(SALES, 10, LAST_DAY, 42);
+        columns = SyntheticSales.columns(sales);
+        // Pool explícito: el común puede tener un solo hilo en la máquina de pruebas
+        parallel = new ForkJoinPool(4);
+        single = new ForkJoinPool(1);
+    }
+
+    @AfterAll
+    static void shutdownPools() {
+        parallel.shutdown();
+        single.shutdown();
+    }
+
+    @Test
+    void parallelAndSingleThreadGiveSameResults() {
+        List<SalesQuery> queries = List.of(
+                SalesQuery.groupBy(SalesDimension.MONTH).where(SalesFilter.notAnnulled()),
+                SalesQuery.groupBy(SalesDimension.MAKE, SalesDimension.MODEL_YEAR),
+                SalesQuery.groupBy(SalesDimension.SELLER, SalesDimension.DISCOUNT_BAND),
+                // 120 meses x 40 vendedores x 80 modelos: tabla hash
+                SalesQuery.groupBy(SalesDimension.MONTH, SalesDimension.SELLER, SalesDimension.MODEL));
+
+        for (SalesQuery query : queries) {
+            assertEquals(describe(query.run(columns, single)), describe(query.run(columns, parallel)));
+        }
+    }
+
+    @Test
+    void denseGroupingMatchesReference() {
+        SalesDimension[] dimensions = {SalesDimension.MAKE, SalesDimension.MODEL_YEAR, SalesDimension.STATUS};
+        List<SalesGroupResult> results = SalesQuery.groupBy(dimensions).run(columns, parallel);
+
+        assertMatches(expected(sales, sale -> true, dimensions), results);
+    }
+
+    @Test
+    void sparseGroupingMatchesReference() {
+        SalesDimension[] dimensions = {SalesDimension.MONTH, SalesDimension.SELLER, SalesDimension.MODEL};
+        assertTrue(columns.monthCount * columns.sellers.size() * columns.models.size() > SalesQuery.CHUNK_ROWS);
+
+        List<SalesGroupResult> results = SalesQuery.groupBy(dimensions)
+                .where(SalesFilter.notAnnulled())
+                .run(columns, parallel);
+
+        assertMatches(expected(sales, sale -> sale.status() != SaleStatus.ANULADA, dimensions), results);
+    }
+
+    @Test
+    void amountsMatchBigDecimalSums() {
+        Map<String, BigDecimal[]> expected = new TreeMap<>();
+        for (Sale sale : sales) {
+            if (sale.status() == SaleStatus.ANULADA) {
+                continue;
+            }
+            BigDecimal[] sums = expected.computeIfAbsent(sale.make(),
+                    k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+            sums[0] = sums[0].add(sale.subtotal());
+            sums[1] = sums[1].add(sale.discount());
+            sums[2] = sums[2].add(sale.taxes());
+            sums[3] = sums[3].add(sale.total());
+        }
+
+        List<SalesGroupResult> results = SalesQuery.groupBy(SalesDimension.MAKE)
+                .where(SalesFilter.notAnnulled())
+                .run(columns, parallel);
+
+        assertEquals(new ArrayList<>(expected.keySet()), results.stream().map(r -> r.getKeys().get(0)).toList());
+        for (SalesGroupResult result : results) {
+            BigDecimal[] sums = expected.get(result.getKeys().get(0));
+            assertEquals(0, sums[0].compareTo(result.getSubtotal()), result.toString());
+            assertEquals(0, sums[1].compareTo(result.getDiscount()), result.toString());
+            assertEquals(0, sums[2].compareTo(result.getTaxes()), result.toString());
+            assertEquals(0, sums[3].compareTo(result.getTotal()), result.toString());
+        }
+    }
+
+    @Test
+    void denseAndSparseAgreeAroundChunkRowsGroups() {
+        // 128 vendedores x 256 modelos = CHUNK_ROWS grupos (arreglo denso); con 257 modelos, tabla hash
+        for (int models : new int[]{256, 257}) {
+            List<Sale> grid = grid(128, models, SalesQuery.CHUNK_ROWS * 2 + 1_000);
+            SalesColumns gridColumns = SyntheticSales.columns(grid);
+            assertEquals((long) 128 * models, (long) gridColumns.sellers.size() * gridColumns.models.size());
+
+            List<SalesGroupResult> results = SalesQuery.groupBy(SalesDimension.SELLER, SalesDimension.MODEL)
+                    .where(SalesFilter.notAnnulled())
+                    .run(gridColumns, parallel);
+
+            assertMatches(expected(grid, sale -> sale.status() != SaleStatus.ANULADA,
+                    new SalesDimension[]{SalesDimension.SELLER, SalesDimension.MODEL}), results);
+            assertEquals(describe(results), describe(SalesQuery.groupBy(SalesDimension.SELLER, SalesDimension.MODEL)
+                    .where(SalesFilter.notAnnulled())
+                    .run(gridColumns, single)));
+
+            // Orden de las llaves: vendedor numérico y luego modelo, igual en los dos caminos
+            Comparator<SalesGroupResult> byKeys = Comparator
+                    .<SalesGroupResult>comparingLong(r -> Long.parseLong(r.getKeys().get(0)))
+                    .thenComparing(r -> r.getKeys().get(1));
+            assertEquals(results.stream().sorted(byKeys).toList(), results);
+        }
+    }
+
+    @Test
+    void groupTableKeepsTotalsWhenGrowing() {
+        SalesQuery.GroupTable table = new SalesQuery.GroupTable();
+        int groups = 5_000;
+        for (int g = 0; g < groups; g++) {
+            // slotFor puede duplicar la tabla: values se lee después
+            int at = table.slotFor(g * 31) * SalesQuery.FIELDS;
+            table.values[at] += g + 1;
+        }
+        for (int g = 0; g < groups; g++) {
+            int at = table.slotFor(g * 31) * SalesQuery.FIELDS;
+            table.values[at + SalesQuery.FIELDS - 1] += 7;
+        }
+
+        assertEquals(groups, table.size);
+        int[] present = table.sortedGroups();
+        assertEquals(groups, present.length);
+        for (int g = 0; g < groups; g++) {
+            assertEquals(g * 31, present[g]);
+            int at = table.slotOf(g * 31) * SalesQuery.FIELDS;
+            assertEquals(g + 1, table.values[at]);
+            assertEquals(7, table.values[at + SalesQuery.FIELDS - 1]);
+        }
+    }
+
+    @Test
+    void groupTableAddAllMergesOverlappingGroups() {
+        SalesQuery.GroupTable left = new SalesQuery.GroupTable();
+        SalesQuery.GroupTable right = new SalesQuery.GroupTable();
+        for (int g = 0; g < 300; g++) {
+            int at = left.slotFor(g) * SalesQuery.FIELDS;
+            left.values[at] += 1;
+        }
+        for (int g = 200; g < 600; g++) {
+            int at = right.slotFor(g) * SalesQuery.FIELDS;
+            right.values[at] += 10;
+        }
+
+        left.addAll(right);
+
+        assertEquals(600, left.size);
+        for (int g = 0; g < 600; g++) {
+            long expected = (g < 300 ? 1 : 0) + (g >= 200 ? 10 : 0);
+            assertEquals(expected, left.values[left.slotOf(g) * SalesQuery.FIELDS], "grupo " + g);
+        }
+    }
+
+    @Test
+    void filtersMatchReference() {
+        SalesDimension[] dimensions = {SalesDimension.MODEL};
+        List<SalesGroupResult> results = SalesQuery.groupBy(dimensions)
+                .where(SalesFilter.make("Toyota"))
+                .where(SalesFilter.modelYearBetween(2020, 9999))
+                .where(SalesFilter.between(LocalDate.of(2021, 1, 1), LocalDate.of(2024, 1, 1)))
+                .run(columns, parallel);
+
+        Predicate<Sale> filter = sale -> sale.make().equals("Toyota")
+                && sale.modelYear() >= 2020
+                && !sale.date().isBefore(LocalDate.of(2021, 1, 1))
+                && sale.date().isBefore(LocalDate.of(2024, 1, 1));
+        assertTrue(results.size() > 0);
+        assertMatches(expected(sales, filter, dimensions), results);
+    }
+
+    @Test
+    void noMatchingRowsGivesNoGroups() {
+        assertTrue(SalesQuery.groupBy(SalesDimension.MODEL)
+                .where(SalesFilter.make("Marca inexistente"))
+                .run(columns, parallel)
+                .isEmpty());
+        assertTrue(SalesQuery.groupBy(SalesDimension.MONTH, SalesDimension.SELLER, SalesDimension.MODEL)
+                .where(SalesFilter.between(LAST_DAY.plusYears(1), LAST_DAY.plusYears(2)))
+                .run(columns, parallel)
+                .isEmpty());
+    }
+
+    @Test
+    void emptyColumnsGiveNoGroups() {
+        SalesColumns empty = new SalesColumns.Builder().build();
+
+        assertEquals(0, empty.size());
+        assertTrue(SalesQuery.groupBy().run(empty, parallel).isEmpty());
+        assertTrue(SalesQuery.groupBy(SalesDimension.MONTH, SalesDimension.MAKE).run(empty, parallel).isEmpty());
+    }
+
+    // ================================================================
+
+    /** Cada vendedor y cada modelo aparece al menos una vez; importes distintos por fila. */
+    private static List<Sale> grid(int sellers, int models, int rows) {
+        List<Sale> grid = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal amount = BigDecimal.valueOf(100_000 + i, 2);
+            grid.add(new Sale(LocalDate.of(2024, 1, 1).plusDays(i % 400),
+                    i % 17 == 0 ? SaleStatus.ANULADA : SaleStatus.COMPLETADA,
+                    (long) (i % sellers) + 1, "Marca", String.format("M%03d", (i * 7) % models), 2020,
+                    amount, BigDecimal.ZERO, BigDecimal.ONE, amount.add(BigDecimal.ONE)));
+        }
+        return grid;
+    }
+
+    private static Map<List<String>, long[]> expected(List<Sale> sales, Predicate<Sale> filter,
+                                                      SalesDimension[] dimensions) {
+        Map<List<String>, long[]> expected = new HashMap<>();
+        for (Sale sale : sales) {
+            if (!filter.test(sale)) {
+                continue;
+            }
+            List<String> keys = new ArrayList<>(dimensions.length);
+            for (SalesDimension dimension : dimensions) {
+                keys.add(label(dimension, sale));
+            }
+            long[] totals = expected.computeIfAbsent(keys, k -> new long[5]);
+            totals[0]++;
+            totals[1] += SalesColumns.toCents(sale.subtotal());
+            totals[2] += SalesColumns.toCents(sale.discount());
+            totals[3] += SalesColumns.toCents(sale.taxes());
+            totals[4] += SalesColumns.toCents(sale.total());
+        }
+        return expected;
+    }
+
+    private static String label(SalesDimension dimension, Sale sale) {
+        return switch (dimension) {
+            case MONTH -> YearMonth.from(sale.date()).toString();
+            case YEAR -> String.valueOf(sale.date().getYear());
+            case SELLER -> sale.seller() == null ? UNKNOWN : sale.seller().toString();
+            case STATUS -> sale.status().name();
+            case MAKE -> sale.make();
+            case MODEL -> sale.model();
+            case MODEL_YEAR -> sale.modelYear() == 0 ? UNKNOWN : String.valueOf(sale.modelYear());
+            default -> throw new UnsupportedOperationException(dimension.name());
+        };
+    }
+
+    private static void assertMatches(Map<List<String>, long[]> expected, List<SalesGroupResult> results) {
+        assertEquals(expected.size(), results.size());
+        for (SalesGroupResult result : results) {
+            long[] totals = expected.get(result.getKeys());
+            assertNotNull(totals, "grupo inesperado " + result);
+            assertArrayEquals(totals, new long[]{result.getSaleCount(), result.getSubtotalCents(),
+                    result.getDiscountCents(), result.getTaxesCents(), result.getTotalCents()}, result.toString());
+        }
+    }
+
+    private static List<String> describe(List<SalesGroupResult> results) {
+        return results.stream().map(SalesGroupResult::toString).toList();
+    }
+}
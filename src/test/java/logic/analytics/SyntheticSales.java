@@ -0,0 +1,66 @@
+package logic.analytics;
+
+import logic.DTO.SaleStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ventas sintéticas reproducibles (misma semilla, mismas ventas) con sus importes en BigDecimal,
+ * como los tendría un {@code List<SaleDTO>}, para comparar y medir {@link SalesQuery}.
+ */
+final class SyntheticSales {
+
+    static final String[] MAKES = {"Nissan", "Toyota", "Honda", "Mazda", "Ford", "Chevrolet",
+            "Volkswagen", "Kia", "Hyundai", "BMW"};
+    static final int MODELS_PER_MAKE = 8;
+    static final int SELLERS = 40;
+
+    record Sale(LocalDate date, SaleStatus status, Long seller, String make, String model, int modelYear,
+                BigDecimal subtotal, BigDecimal discount, BigDecimal taxes, BigDecimal total) {
+    }
+
+    private SyntheticSales() {
+    }
+
+    /** {@code count} ventas repartidas en los {@code years} años anteriores a {@code lastDay}. */
+    static List<Sale> generate(int count, int years, LocalDate lastDay, long seed) {
+        Random random = new Random(seed);
+        LocalDate firstDay = lastDay.minusYears(years);
+        int days = (int) (lastDay.toEpochDay() - firstDay.toEpochDay());
+        List<Sale> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = firstDay.plusDays(random.nextInt(days));
+            String make = MAKES[random.nextInt(MAKES.length)];
+            String model = make + " M" + random.nextInt(MODELS_PER_MAKE);
+            long seller = 1 + random.nextInt(SELLERS);
+            int modelYear = date.getYear() - random.nextInt(6);
+
+            BigDecimal subtotal = BigDecimal.valueOf(150_000_00L + random.nextInt(600_000_00), 2);
+            BigDecimal discount = random.nextInt(3) == 0
+                    ? BigDecimal.ZERO
+                    : BigDecimal.valueOf(subtotal.unscaledValue().longValue() * random.nextInt(25) / 100, 2);
+            BigDecimal taxes = subtotal.subtract(discount).multiply(new BigDecimal("0.16"))
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal total = subtotal.subtract(discount).add(taxes);
+            SaleStatus status = random.nextInt(20) == 0 ? SaleStatus.ANULADA : SaleStatus.COMPLETADA;
+
+            sales.add(new Sale(date, status, seller, make, model, modelYear, subtotal, discount, taxes, total));
+        }
+        return sales;
+    }
+
+    static SalesColumns columns(List<Sale> sales) {
+        SalesColumns.Builder builder = new SalesColumns.Builder();
+        for (Sale sale : sales) {
+            builder.add(sale.date(), sale.status(), sale.seller(), sale.make(), sale.model(), sale.modelYear(),
+                    SalesColumns.toCents(sale.subtotal()), SalesColumns.toCents(sale.discount()),
+                    SalesColumns.toCents(sale.taxes()), SalesColumns.toCents(sale.total()));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,76 @@
+package utilities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload de auditoría de una venta armado con concatenación (como lo hacía SaleDAO antes de
+ * JsonWriter) contra {@link JsonWriter}. Con {@code -prof gc} se ven los bytes por operación.
+ * Ejecutar: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="JsonWriterBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonWriterBenchmark {
+
+    private static final int SAMPLES = 1024;
+    private static final String[] STATUSES = {"COMPLETADA", "PENDIENTE", "ANULADA"};
+
+    // Datos variables para que el JIT no pliegue constantes en la concatenación
+    private final String[] folios = new String[SAMPLES];
+    private final BigDecimal[] amounts = new BigDecimal[SAMPLES];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < SAMPLES; i++) {
+            folios[i] = String.format("V-2025-%06d", i);
+            amounts[i] = new BigDecimal(150_000 + i * 37L).movePointLeft(2).setScale(2);
+        }
+    }
+
+    @Benchmark
+    public String concatenation() {
+        int i = next();
+        return "{"
+                + "\"folio\":\"" + folios[i].replace("\\", "\\\\").replace("\"", "\\\"") + "\","
+                + "\"status\":\"" + STATUSES[i % STATUSES.length] + "\","
+                + "\"subtotal\":" + amounts[i] + ","
+                + "\"discount\":" + amounts[(i + 1) & (SAMPLES - 1)] + ","
+                + "\"taxes\":" + amounts[(i + 2) & (SAMPLES - 1)] + ","
+                + "\"total\":" + amounts[(i + 3) & (SAMPLES - 1)]
+                + "}";
+    }
+
+    @Benchmark
+    public String jsonWriter() {
+        int i = next();
+        return JsonWriter.object()
+                .field("folio", folios[i])
+                .field("status", STATUSES[i % STATUSES.length])
+                .field("subtotal", amounts[i])
+                .field("discount", amounts[(i + 1) & (SAMPLES - 1)])
+                .field("taxes", amounts[(i + 2) & (SAMPLES - 1)])
+                .field("total", amounts[(i + 3) & (SAMPLES - 1)])
+                .end();
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+}
@@ -0,0 +1,109 @@
+package utilities;
+
+import logic.DTO.VehicleDTO;
+import logic.DTO.VehicleStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Catálogo sintético para {@link VehicleSimilarityIndex} y un recorrido lineal con la misma
+ * métrica escrita de forma directa, contra el que se compara el árbol.
+ */
+final class SyntheticVehicles {
+
+    private static final String[] MAKES = {"Nissan", "Toyota", "Honda", "Mazda", "Ford", "Chevrolet",
+            "Volkswagen", "Kia", "Hyundai", "BMW"};
+    private static final int MODELS_PER_MAKE = 6;
+
+    private SyntheticVehicles() {
+    }
+
+    /** Una cuarta parte VENDIDO, el resto DISPONIBLE; ids 1..count. */
+    static List<VehicleDTO> catalog(Random random, int count) {
+        List<VehicleDTO> catalog = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            catalog.add(vehicle(random, id));
+        }
+        return catalog;
+    }
+
+    static VehicleDTO vehicle(Random random, long id) {
+        int make = random.nextInt(MAKES.length);
+        short year = (short) (2010 + random.nextInt(16));
+        int mileage = random.nextInt(250_000);
+        BigDecimal price = BigDecimal.valueOf(120_000 + random.nextInt(1_400_000));
+        VehicleStatus status = random.nextInt(4) == 0 ? VehicleStatus.VENDIDO : VehicleStatus.DISPONIBLE;
+
+        return new VehicleDTO(id, "SYN" + id, MAKES[make], MAKES[make] + "-" + random.nextInt(MODELS_PER_MAKE),
+                year, "Gris", mileage, price, status, null, null, null, null, null);
+    }
+
+    static List<VehicleDTO> available(List<VehicleDTO> catalog) {
+        List<VehicleDTO> available = new ArrayList<>();
+        for (VehicleDTO v : catalog) {
+            if (v.getStatus() == VehicleStatus.DISPONIBLE) {
+                available.add(v);
+            }
+        }
+        return available;
+    }
+
+    /** Los k más cercanos de {@code available} sin contar a {@code query}, del más cercano al más lejano. */
+    static List<VehicleDTO> linearNearest(List<VehicleDTO> available, VehicleDTO query, int k, double[] ranges) {
+        VehicleDTO[] best = new VehicleDTO[k];
+        double[] bestDistances = new double[k];
+        Arrays.fill(bestDistances, Double.MAX_VALUE);
+        int count = 0;
+
+        for (VehicleDTO v : available) {
+            if (v.getVehicleId().equals(query.getVehicleId())) {
+                continue;
+            }
+            double d = distance(v, query, ranges);
+            if (count == k && d >= bestDistances[k - 1]) {
+                continue;
+            }
+            int i = count < k ? count++ : k - 1;
+            while (i > 0 && bestDistances[i - 1] > d) {
+                bestDistances[i] = bestDistances[i - 1];
+                best[i] = best[i - 1];
+                i--;
+            }
+            bestDistances[i] = d;
+            best[i] = v;
+        }
+        return Arrays.asList(Arrays.copyOf(best, count));
+    }
+
+    // Misma métrica que VehicleSimilarityIndex: diferencias normalizadas al rango de los indexados
+    static double distance(VehicleDTO v, VehicleDTO query, double[] ranges) {
+        double dy = (v.getModelYear() - query.getModelYear()) / ranges[0];
+        double dm = (v.getMileageKm() - query.getMileageKm()) / ranges[1];
+        double dp = (v.getPrice().doubleValue() - query.getPrice().doubleValue()) / ranges[2];
+        double d = dy * dy + dm * dm + 1.5 * dp * dp;
+        if (!v.getMake().equalsIgnoreCase(query.getMake())) d += 0.09;
+        if (!v.getModel().equalsIgnoreCase(query.getModel())) d += 0.04;
+        return d;
+    }
+
+    static double[] ranges(List<VehicleDTO> available) {
+        double[] lo = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] hi = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (VehicleDTO v : available) {
+            double[] c = {v.getModelYear(), v.getMileageKm(), v.getPrice().doubleValue()};
+            for (int d = 0; d < 3; d++) {
+                lo[d] = Math.min(lo[d], c[d]);
+                hi[d] = Math.max(hi[d], c[d]);
+            }
+        }
+        double[] ranges = new double[3];
+        for (int d = 0; d < 3; d++) {
+            ranges[d] = hi[d] <= lo[d] ? 1 : hi[d] - lo[d];
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,80 @@
+package utilities;
+
+import logic.DTO.VehicleDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción y consultas de {@link VehicleSimilarityIndex} con un catálogo sintético, contra un
+ * recorrido lineal con la misma métrica. Que ambos devuelvan los mismos vecinos se prueba en
+ * {@link VehicleSimilarityIndexTest}.
+ * Ejecutar: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="VehicleSimilarityBenchmark -p vehicles=100000"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleSimilarityBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000"})
+    public int vehicles;
+
+    @Param({"5"})
+    public int k;
+
+    private List<VehicleDTO> catalog;
+    private List<VehicleDTO> available;
+    private double[] ranges;
+    private VehicleSimilarityIndex index;
+    private final VehicleDTO[] queries = new VehicleDTO[QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        catalog = SyntheticVehicles.catalog(random, vehicles);
+        available = SyntheticVehicles.available(catalog);
+        ranges = SyntheticVehicles.ranges(available);
+        index = VehicleSimilarityIndex.build(catalog);
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = SyntheticVehicles.vehicle(random, -1 - i);
+        }
+    }
+
+    @Benchmark
+    public VehicleSimilarityIndex build() {
+        return VehicleSimilarityIndex.build(catalog);
+    }
+
+    @Benchmark
+    public List<VehicleDTO> nearest() {
+        return index.nearest(nextQuery(), k);
+    }
+
+    @Benchmark
+    public List<VehicleDTO> linearScan() {
+        return SyntheticVehicles.linearNearest(available, nextQuery(), k, ranges);
+    }
+
+    private VehicleDTO nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return queries[next];
+    }
+}
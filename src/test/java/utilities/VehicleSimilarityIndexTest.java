@@ -0,0 +1,108 @@
+package utilities;
+
+import logic.DTO.VehicleDTO;
+import logic.DTO.VehicleStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El árbol KD de VehicleSimilarityIndex devuelve los mismos vecinos que un recorrido lineal con
+ * la misma métrica. Se compara por distancia y no por id para no depender del desempate entre iguales.
+ */
+class VehicleSimilarityIndexTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    void treeMatchesLinearScan() {
+        Random random = new Random(42);
+        List<VehicleDTO> catalog = SyntheticVehicles.catalog(random, 20_000);
+        VehicleSimilarityIndex index = VehicleSimilarityIndex.build(catalog);
+        List<VehicleDTO> available = SyntheticVehicles.available(catalog);
+        double[] ranges = SyntheticVehicles.ranges(available);
+
+        assertEquals(available.size(), index.size());
+        for (int k : new int[]{1, VehicleSimilarityIndex.DEFAULT_RESULTS, 25}) {
+            for (int i = 0; i < 300; i++) {
+                VehicleDTO query = SyntheticVehicles.vehicle(random, -1 - i);
+                assertSameDistances(SyntheticVehicles.linearNearest(available, query, k, ranges),
+                        index.nearest(query, k), query, ranges);
+            }
+        }
+    }
+
+    @Test
+    void excludesReferenceAndNonAvailableVehicles() {
+        Random random = new Random(7);
+        List<VehicleDTO> catalog = SyntheticVehicles.catalog(random, 2_000);
+        VehicleSimilarityIndex index = VehicleSimilarityIndex.build(catalog);
+        List<VehicleDTO> available = SyntheticVehicles.available(catalog);
+        double[] ranges = SyntheticVehicles.ranges(available);
+
+        for (VehicleDTO reference : available.subList(0, 100)) {
+            List<VehicleDTO> similar = index.nearest(reference, VehicleSimilarityIndex.DEFAULT_RESULTS);
+            for (VehicleDTO v : similar) {
+                assertFalse(v.getVehicleId().equals(reference.getVehicleId()));
+                assertEquals(VehicleStatus.DISPONIBLE, v.getStatus());
+            }
+            assertSameDistances(SyntheticVehicles.linearNearest(available, reference,
+                    VehicleSimilarityIndex.DEFAULT_RESULTS, ranges), similar, reference, ranges);
+        }
+    }
+
+    @Test
+    void fewerCandidatesThanRequested() {
+        List<VehicleDTO> catalog = new ArrayList<>();
+        catalog.add(vehicle(1L, 2020, VehicleStatus.DISPONIBLE));
+        catalog.add(vehicle(2L, 2021, VehicleStatus.DISPONIBLE));
+        catalog.add(vehicle(3L, 2022, VehicleStatus.VENDIDO));
+        VehicleDTO withoutPrice = vehicle(4L, 2022, VehicleStatus.DISPONIBLE);
+        withoutPrice.setPrice(null);
+        catalog.add(withoutPrice);
+        catalog.add(null);
+
+        VehicleSimilarityIndex index = VehicleSimilarityIndex.build(catalog);
+
+        assertEquals(2, index.size());
+        List<VehicleDTO> similar = index.nearest(vehicle(1L, 2020, VehicleStatus.VENDIDO), 10);
+        assertEquals(1, similar.size());
+        assertEquals(2L, similar.get(0).getVehicleId());
+    }
+
+    @Test
+    void emptyResultsForEmptyIndexOrIncompleteReference() {
+        VehicleDTO reference = vehicle(1L, 2020, VehicleStatus.DISPONIBLE);
+        assertTrue(VehicleSimilarityIndex.build(List.of()).nearest(reference, 5).isEmpty());
+
+        VehicleSimilarityIndex index = VehicleSimilarityIndex.build(List.of(vehicle(2L, 2021, VehicleStatus.DISPONIBLE)));
+        VehicleDTO withoutYear = vehicle(3L, 2020, VehicleStatus.VENDIDO);
+        withoutYear.setModelYear(null);
+        assertTrue(index.nearest(withoutYear, 5).isEmpty());
+        assertTrue(index.nearest(null, 5).isEmpty());
+        assertTrue(index.nearest(reference, 0).isEmpty());
+    }
+
+    // ================================================================
+
+    private static void assertSameDistances(List<VehicleDTO> expected, List<VehicleDTO> actual,
+                                            VehicleDTO query, double[] ranges) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(SyntheticVehicles.distance(expected.get(i), query, ranges),
+                    SyntheticVehicles.distance(actual.get(i), query, ranges), TOLERANCE, "posición " + i);
+        }
+    }
+
+    private static VehicleDTO vehicle(Long id, int year, VehicleStatus status) {
+        return new VehicleDTO(id, "VIN" + id, "Nissan", "Versa", (short) year, "Gris", (year - 2000) * 10_000,
+                BigDecimal.valueOf(200_000 + year), status, null, null, null, null, null);
+    }
+}
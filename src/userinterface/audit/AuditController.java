@@ -1,24 +1,57 @@
 package userinterface.audit;
 
+import dataaccess.ConfigLoader;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.ScheduledService;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.Region;
+import javafx.util.Duration;
 import logic.DAO.AuditQueryDAO;
+import logic.DTO.AuditAction;
 import logic.DTO.AuditLogEntryDTO;
+import logic.DTO.AuditLogFilterDTO;
+import logic.DTO.AuditPageDTO;
 import logic.DTO.InventoryMovementDTO;
+import logic.DTO.InventoryMovementType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utilities.FxDataLoader;
 import utilities.SessionManager;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Locale;
 
 public class AuditController {
 
+    private static final Logger log = LogManager.getLogger(AuditController.class);
+
     private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private static final String FILTER_ALL = "Todas";
+    private static final String[] AUDIT_ENTITIES = {
+            "AUTH_LOGIN", "account", "user", "customer", "sale", "purchase_order", "inventory_movement"
+    };
+    // Fracción del scroll a partir de la cual se pide la siguiente página
+    private static final double SCROLL_PREFETCH_THRESHOLD = 0.9;
+
+    private static final long DEFAULT_TAIL_INTERVAL_MS = 3000;
+    private static final int DEFAULT_TAIL_MAX_ROWS = 1000;
+    private static final int DEFAULT_TAIL_LOOKBACK_IDS = 500;
+
     private enum ViewMode {
         AUDITORIA,
         INVENTARIO
@@ -32,6 +65,15 @@ public class AuditController {
     @FXML private Button btnVerAuditoria;
     @FXML private Button btnVerInventario;
 
+    @FXML private ComboBox<String> cmbAccion;
+    @FXML private ComboBox<String> cmbEntidad;
+    @FXML private TextField txtActor;
+    @FXML private DatePicker dpDesde;
+    @FXML private DatePicker dpHasta;
+    @FXML private Button btnFiltrar;
+    @FXML private Button btnLimpiarFiltros;
+    @FXML private ToggleButton tglEnVivo;
+
     @FXML private TableView<AuditTableRow> tblData;
 
     @FXML private TableColumn<AuditTableRow, String> colId;
@@ -49,6 +91,30 @@ public class AuditController {
 
     private ViewMode mode = ViewMode.AUDITORIA;
 
+    // Estado de la paginación por cursor (created_at, id)
+    private AuditLogFilterDTO currentFilter = new AuditLogFilterDTO();
+    private LocalDateTime cursorCreatedAt;
+    private Long cursorId;
+    private boolean hasMore;
+    private int loadGeneration;
+    private final FxDataLoader<PageResult> pageLoader = new FxDataLoader<>("los registros de auditoría");
+
+    // Modo en vivo: último id visto y tamaño máximo de la ventana en memoria
+    private final long tailIntervalMs = Math.max(500, ConfigLoader.getLong("audit.tail.intervalMs", DEFAULT_TAIL_INTERVAL_MS));
+    private final int tailMaxRows = Math.max(AuditQueryDAO.DEFAULT_PAGE_SIZE,
+            ConfigLoader.getInt("audit.tail.maxRows", DEFAULT_TAIL_MAX_ROWS));
+    // Los ids se asignan al INSERT pero se ven al COMMIT: un id menor puede aparecer después de uno
+    // mayor. Cada sondeo vuelve a leer los últimos tailLookbackIds ids y descarta los ya mostrados.
+    private final int tailLookbackIds = Math.max(0,
+            ConfigLoader.getInt("audit.tail.lookbackIds", DEFAULT_TAIL_LOOKBACK_IDS));
+    private ScheduledService<TailResult> tailService;
+    private Long tailCursorId;
+    // El último sondeo falló; el servicio reintenta con espera creciente
+    private boolean tailReconnecting;
+    private final Set<Long> tailSeenIds = new HashSet<>();
+    // El primer sondeo solo marca como vistas las filas de la ventana que ya existían
+    private boolean tailSeeded;
+
     @FXML
     public void initialize() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
@@ -59,6 +125,7 @@ public class AuditController {
 
         configurarTabla();
         configurarEventos();
+        configurarModoEnVivo();
         setMode(ViewMode.AUDITORIA);
     }
 
@@ -67,6 +134,9 @@ public class AuditController {
         if (btnVerAuditoria != null) btnVerAuditoria.setDisable(true);
         if (btnVerInventario != null) btnVerInventario.setDisable(true);
         if (tblData != null) tblData.setDisable(true);
+        if (btnFiltrar != null) btnFiltrar.setDisable(true);
+        if (btnLimpiarFiltros != null) btnLimpiarFiltros.setDisable(true);
+        if (tglEnVivo != null) tglEnVivo.setDisable(true);
     }
 
     private void configurarTabla() {
@@ -80,6 +150,26 @@ public class AuditController {
 
         filtered = new FilteredList<>(rows, x -> true);
         tblData.setItems(filtered);
+        pageLoader.attachTo(tblData);
+
+        tblData.skinProperty().addListener((obs, o, skin) -> {
+            if (skin != null) {
+                Platform.runLater(this::engancharScrollPaginado);
+            }
+        });
+    }
+
+    private void engancharScrollPaginado() {
+        for (Node node : tblData.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, o, v) -> {
+                    double max = bar.getMax();
+                    if (max > 0 && v.doubleValue() >= max * SCROLL_PREFETCH_THRESHOLD) {
+                        cargarSiguientePagina();
+                    }
+                });
+            }
+        }
     }
 
     private void configurarEventos() {
@@ -92,46 +182,309 @@ public class AuditController {
         if (txtBuscar != null) {
             txtBuscar.textProperty().addListener((obs, o, n) -> aplicarFiltroTexto());
         }
+        if (btnFiltrar != null) {
+            btnFiltrar.setOnAction(e -> aplicarFiltrosServidor());
+        }
+        if (btnLimpiarFiltros != null) {
+            btnLimpiarFiltros.setOnAction(e -> limpiarFiltros());
+        }
+        if (txtActor != null) {
+            txtActor.setOnAction(e -> aplicarFiltrosServidor());
+        }
+    }
+
+    private void configurarFiltros() {
+        if (cmbAccion != null) {
+            List<String> actions = new ArrayList<>();
+            actions.add(FILTER_ALL);
+            if (mode == ViewMode.AUDITORIA) {
+                for (AuditAction a : AuditAction.values()) actions.add(a.name());
+            } else {
+                for (InventoryMovementType t : InventoryMovementType.values()) actions.add(t.name());
+            }
+            cmbAccion.setItems(FXCollections.observableArrayList(actions));
+            cmbAccion.setValue(FILTER_ALL);
+        }
+
+        if (cmbEntidad != null) {
+            List<String> entities = new ArrayList<>();
+            entities.add(FILTER_ALL);
+            entities.addAll(List.of(AUDIT_ENTITIES));
+            cmbEntidad.setItems(FXCollections.observableArrayList(entities));
+            cmbEntidad.setValue(FILTER_ALL);
+            cmbEntidad.setDisable(mode != ViewMode.AUDITORIA);
+        }
+    }
+
+    private void limpiarFiltros() {
+        if (cmbAccion != null) cmbAccion.setValue(FILTER_ALL);
+        if (cmbEntidad != null) cmbEntidad.setValue(FILTER_ALL);
+        if (txtActor != null) txtActor.clear();
+        if (dpDesde != null) dpDesde.setValue(null);
+        if (dpHasta != null) dpHasta.setValue(null);
+        aplicarFiltrosServidor();
+    }
+
+    private void aplicarFiltrosServidor() {
+        LocalDate desde = dpDesde == null ? null : dpDesde.getValue();
+        LocalDate hasta = dpHasta == null ? null : dpHasta.getValue();
+
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            mostrarInfo("Rango inválido", "La fecha final no puede ser anterior a la inicial.");
+            return;
+        }
+
+        AuditLogFilterDTO filter = new AuditLogFilterDTO();
+        filter.setAction(valorFiltro(cmbAccion));
+        filter.setEntity(mode == ViewMode.AUDITORIA ? valorFiltro(cmbEntidad) : null);
+        filter.setActorPersonnelNumber(txtActor == null ? null : txtActor.getText());
+        filter.setFrom(desde == null ? null : desde.atStartOfDay());
+        filter.setTo(hasta == null ? null : hasta.plusDays(1).atStartOfDay());
+
+        currentFilter = filter;
+        cargarDatos();
+    }
+
+    private String valorFiltro(ComboBox<String> combo) {
+        if (combo == null || combo.getValue() == null || FILTER_ALL.equals(combo.getValue())) {
+            return null;
+        }
+        return combo.getValue();
     }
 
     private void setMode(ViewMode newMode) {
         mode = newMode;
+        currentFilter = new AuditLogFilterDTO();
+        if (txtActor != null) txtActor.clear();
+        if (dpDesde != null) dpDesde.setValue(null);
+        if (dpHasta != null) dpHasta.setValue(null);
+        configurarFiltros();
 
         if (lblTitle != null) {
             lblTitle.setText(mode == ViewMode.AUDITORIA ? "Auditoría" : "Inventario");
         }
         if (lblModeHint != null) {
-            lblModeHint.setText(mode == ViewMode.AUDITORIA
-                    ? "Mostrando: auditoría"
-                    : "Mostrando: inventario");
+            lblModeHint.setText(textoModo());
         }
 
         cargarDatos();
     }
 
+    private String textoModo() {
+        return mode == ViewMode.AUDITORIA ? "Mostrando: auditoría" : "Mostrando: inventario";
+    }
+
     private void cargarDatos() {
         rows.clear();
+        loadGeneration++;
+        pageLoader.cancel();
+        cursorCreatedAt = null;
+        cursorId = null;
+        hasMore = true;
+        tailCursorId = null;
+        tailSeenIds.clear();
+        tailSeeded = false;
+
+        cargarSiguientePagina();
+    }
 
-        try {
-            if (mode == ViewMode.AUDITORIA) {
-                List<AuditLogEntryDTO> data = auditQueryDAO.getAllAuditLogs();
-                for (AuditLogEntryDTO a : data) {
-                    rows.add(AuditTableRow.fromAudit(a, DATE_TIME_FMT));
+    private void cargarSiguientePagina() {
+        // En vivo la tabla es una ventana de los más recientes: no se piden páginas antiguas
+        if (pageLoader.isLoading() || !hasMore || isTailing()) {
+            return;
+        }
+
+        final ViewMode pageMode = mode;
+        final AuditLogFilterDTO filter = currentFilter;
+        final LocalDateTime afterCreatedAt = cursorCreatedAt;
+        final Long afterId = cursorId;
+
+        // Si cambian el modo o los filtros, cargarDatos() cancela esta página y su resultado se descarta
+        pageLoader.load(() -> {
+            List<AuditTableRow> pageRows = new ArrayList<>();
+
+            if (pageMode == ViewMode.AUDITORIA) {
+                AuditPageDTO<AuditLogEntryDTO> page = auditQueryDAO.getAuditLogPage(
+                        filter, afterCreatedAt, afterId, AuditQueryDAO.DEFAULT_PAGE_SIZE);
+                for (AuditLogEntryDTO a : page.getItems()) {
+                    pageRows.add(AuditTableRow.fromAudit(a, DATE_TIME_FMT));
                 }
-            } else {
-                List<InventoryMovementDTO> data = auditQueryDAO.getAllInventoryMovements();
-                for (InventoryMovementDTO m : data) {
-                    rows.add(AuditTableRow.fromMovement(m, DATE_TIME_FMT));
+                return new PageResult(pageRows, page.getLastCreatedAt(), page.getLastId(), page.hasMore());
+            }
+
+            AuditPageDTO<InventoryMovementDTO> page = auditQueryDAO.getInventoryMovementPage(
+                    filter, afterCreatedAt, afterId, AuditQueryDAO.DEFAULT_PAGE_SIZE);
+            for (InventoryMovementDTO m : page.getItems()) {
+                pageRows.add(AuditTableRow.fromMovement(m, DATE_TIME_FMT));
+            }
+            return new PageResult(pageRows, page.getLastCreatedAt(), page.getLastId(), page.hasMore());
+        }, result -> {
+            rows.addAll(result.rows);
+            cursorCreatedAt = result.lastCreatedAt;
+            cursorId = result.lastId;
+            hasMore = result.hasMore;
+
+            for (AuditTableRow r : result.rows) {
+                if (tailCursorId == null || r.getKey() > tailCursorId) {
+                    tailCursorId = r.getKey();
                 }
             }
+            actualizarEstado();
+        }, ex -> hasMore = false);
+    }
+
+    private record PageResult(List<AuditTableRow> rows, LocalDateTime lastCreatedAt, Long lastId, boolean hasMore) {}
+
+    private void actualizarEstado() {
+        if (lblModeHint == null) {
+            return;
+        }
+        String suffix;
+        if (isTailing()) {
+            suffix = tailReconnecting
+                    ? " (en vivo, reconectando…)"
+                    : " (en vivo, últimos " + tailMaxRows + ")";
+        } else {
+            suffix = hasMore ? " (desplaza para cargar más)" : "";
+        }
+        lblModeHint.setText(textoModo() + " · " + rows.size() + " registros" + suffix);
+    }
 
-            aplicarFiltroTexto();
+    // ===== Modo en vivo =====
+
+    private void configurarModoEnVivo() {
+        tailService = new ScheduledService<>() {
+            @Override
+            protected Task<TailResult> createTask() {
+                // createTask corre en el hilo de JavaFX: se toma una foto del estado actual
+                final int generation = loadGeneration;
+                final boolean skip = pageLoader.isLoading();
+                final ViewMode tailMode = mode;
+                final AuditLogFilterDTO filter = currentFilter;
+                final Long afterId = tailCursorId;
+                final boolean seed = !tailSeeded;
+
+                return new Task<>() {
+                    @Override
+                    protected TailResult call() throws Exception {
+                        if (skip) {
+                            return new TailResult(generation, List.of(), afterId, Long.MIN_VALUE);
+                        }
+
+                        // Sin filas cargadas se parte del último id existente
+                        long cursor = afterId != null
+                                ? afterId
+                                : tailMode == ViewMode.AUDITORIA
+                                ? auditQueryDAO.getMaxAuditId()
+                                : auditQueryDAO.getMaxMovementId();
+
+                        List<AuditTableRow> newRows = new ArrayList<>();
+                        long lastId = cursor;
+                        long from = Math.max(0L, cursor - tailLookbackIds);
+                        int limit = tailMaxRows + tailLookbackIds;
+
+                        if (tailMode == ViewMode.AUDITORIA) {
+                            for (AuditLogEntryDTO a : auditQueryDAO.getAuditLogsAfter(filter, from, limit)) {
+                                newRows.add(AuditTableRow.fromAudit(a, DATE_TIME_FMT));
+                            }
+                        } else {
+                            for (InventoryMovementDTO m : auditQueryDAO.getInventoryMovementsAfter(filter, from, limit)) {
+                                newRows.add(AuditTableRow.fromMovement(m, DATE_TIME_FMT));
+                            }
+                        }
+                        if (!newRows.isEmpty()) {
+                            lastId = Math.max(lastId, newRows.get(newRows.size() - 1).getKey());
+                        }
+                        return new TailResult(generation, newRows, lastId, seed ? cursor : Long.MIN_VALUE);
+                    }
+                };
+            }
+        };
+        tailService.setPeriod(Duration.millis(tailIntervalMs));
+        tailService.setRestartOnFailure(true);
+        tailService.setMaximumFailureCount(Integer.MAX_VALUE);
+        tailService.setBackoffStrategy(ScheduledService.LOGARITHMIC_BACKOFF_STRATEGY);
+        tailService.setMaximumCumulativePeriod(Duration.minutes(1));
+
+        tailService.setOnSucceeded(e -> {
+            tailReconnecting = false;
+            aplicarFilasEnVivo(tailService.getValue());
+        });
+        tailService.setOnFailed(e -> {
+            log.warn("Falló el sondeo en vivo de {} (intento {}); se reintenta.",
+                    mode, tailService.getCurrentFailureCount(), tailService.getException());
+            tailReconnecting = true;
+            actualizarEstado();
+        });
 
-        } catch (Exception ex) {
-            mostrarError("Error al cargar datos", ex.getMessage());
+        if (tglEnVivo != null) {
+            tglEnVivo.selectedProperty().addListener((obs, o, on) -> {
+                tailReconnecting = false;
+                if (on) {
+                    tailService.restart();
+                } else {
+                    tailService.cancel();
+                }
+                actualizarEstado();
+            });
         }
+
+        // Al salir de la pantalla se detiene el sondeo
+        tblData.sceneProperty().addListener((obs, o, scene) -> {
+            if (scene == null && tglEnVivo != null) {
+                tglEnVivo.setSelected(false);
+            }
+        });
     }
 
+    private boolean isTailing() {
+        return tglEnVivo != null && tglEnVivo.isSelected();
+    }
+
+    private void aplicarFilasEnVivo(TailResult result) {
+        if (result == null || result.generation != loadGeneration || !isTailing()) {
+            return;
+        }
+        tailCursorId = result.lastId;
+
+        // La ventana repetida trae filas ya mostradas; solo quedan las que no se habían visto.
+        // En el primer sondeo lo que ya existía hasta el cursor solo se marca (se ve paginando).
+        List<AuditTableRow> newest = new ArrayList<>();
+        for (AuditTableRow r : result.rows) {
+            if (tailSeenIds.add(r.getKey()) && r.getKey() > result.seededUpTo) {
+                newest.add(r);
+            }
+        }
+        if (result.seededUpTo != Long.MIN_VALUE) {
+            tailSeeded = true;
+        }
+        if (tailCursorId != null) {
+            long windowStart = tailCursorId - tailLookbackIds;
+            tailSeenIds.removeIf(id -> id <= windowStart);
+        }
+
+        if (newest.isEmpty()) {
+            return;
+        }
+
+        // Llegan en orden ascendente de id; la tabla muestra lo más reciente arriba
+        Collections.reverse(newest);
+        rows.addAll(0, newest);
+
+        if (rows.size() > tailMaxRows) {
+            rows.remove(tailMaxRows, rows.size());
+
+            // Las filas descartadas se vuelven a pedir por paginación al salir del modo en vivo
+            AuditTableRow last = rows.get(rows.size() - 1);
+            cursorCreatedAt = last.getCreatedAtValue();
+            cursorId = last.getKey();
+            hasMore = true;
+        }
+        actualizarEstado();
+    }
+
+    private record TailResult(int generation, List<AuditTableRow> rows, Long lastId, long seededUpTo) {}
+
     private void aplicarFiltroTexto() {
         String search = txtBuscar == null || txtBuscar.getText() == null
                 ? ""
@@ -164,13 +517,4 @@ public class AuditController {
         a.getDialogPane().setMinHeight(Region.USE_PREF_SIZE);
         a.showAndWait();
     }
-
-    private void mostrarError(String titulo, String msg) {
-        Alert a = new Alert(Alert.AlertType.ERROR);
-        a.setTitle(titulo);
-        a.setHeaderText(null);
-        a.setContentText(msg == null ? "Ocurrió un error." : msg);
-        a.getDialogPane().setMinHeight(Region.USE_PREF_SIZE);
-        a.showAndWait();
-    }
 }
@@ -5,6 +5,7 @@ import javafx.beans.property.StringProperty;
 import logic.DTO.AuditLogEntryDTO;
 import logic.DTO.InventoryMovementDTO;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class AuditTableRow {
@@ -19,10 +20,16 @@ public class AuditTableRow {
     private final StringProperty ip = new SimpleStringProperty();
     private final StringProperty summary = new SimpleStringProperty();
 
+    // Valores crudos para los cursores de paginación y del modo en vivo
+    private long key;
+    private LocalDateTime createdAtValue;
+
     public static AuditTableRow fromAudit(AuditLogEntryDTO a, DateTimeFormatter fmt) {
         AuditTableRow r = new AuditTableRow();
 
         r.id.set(a.getAuditId() == null ? "" : a.getAuditId().toString());
+        r.key = a.getAuditId() == null ? 0L : a.getAuditId();
+        r.createdAtValue = a.getCreatedAt();
         r.actorPersonnelNumber.set(safe(a.getActorPersonnelNumber()));
         r.action.set(safe(a.getAction()));
         r.entity.set(safe(a.getEntity()));
@@ -40,6 +47,8 @@ public class AuditTableRow {
         AuditTableRow r = new AuditTableRow();
 
         r.id.set(m.getMovementId() == null ? "" : m.getMovementId().toString());
+        r.key = m.getMovementId() == null ? 0L : m.getMovementId();
+        r.createdAtValue = m.getCreatedAt();
         r.actorPersonnelNumber.set(safe(m.getActorPersonnelNumber()));
         r.action.set(m.getType() == null ? "" : m.getType().name());
         r.entity.set("inventario");
@@ -81,6 +90,8 @@ public class AuditTableRow {
     public String getCreatedAt() { return createdAt.get(); }
     public String getIp() { return ip.get(); }
     public String getSummary() { return summary.get(); }
+    public long getKey() { return key; }
+    public LocalDateTime getCreatedAtValue() { return createdAtValue; }
 
     public StringProperty idProperty() { return id; }
     public StringProperty actorPersonnelNumberProperty() { return actorPersonnelNumber; }
@@ -18,13 +18,16 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import logic.DAO.CustomerDAO;
 import logic.DTO.CustomerDTO;
+import utilities.CachedView;
+import utilities.FxDataLoader;
 
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 
-public class CustomerListController {
+public class CustomerListController implements CachedView {
 
     private static final DateTimeFormatter DATE_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -86,11 +89,13 @@ public class CustomerListController {
 
     private final CustomerDAO customerDao = new CustomerDAO();
     private final ObservableList<CustomerDTO> backingList = FXCollections.observableArrayList();
+    private final FxDataLoader<List<CustomerDTO>> customersLoader = new FxDataLoader<>("los clientes");
     private FilteredList<CustomerDTO> filteredList;
 
     @FXML
     private void initialize() {
         configureTable();
+        customersLoader.attachTo(TblCustomers);
         loadActiveCustomers();
         configureSearch();
         configureSelectionBinding();
@@ -113,13 +118,14 @@ public class CustomerListController {
                 (obs, oldSel, newSel) -> showCustomerDetails(newSel));
     }
 
+    // El dashboard conserva la vista: al volver solo se recargan los datos
+    @Override
+    public void onReactivated() {
+        loadActiveCustomers();
+    }
+
     private void loadActiveCustomers() {
-        backingList.clear();
-        try {
-            backingList.addAll(customerDao.getActiveCustomers());
-        } catch (SQLException | IOException ex) {
-            showError("Error al cargar clientes", ex.getMessage());
-        }
+        customersLoader.load(customerDao::getActiveCustomers, backingList::setAll);
     }
 
     private void configureSearch() {
@@ -0,0 +1,22 @@
+package userinterface.dashboard;
+
+/** Módulos que el dashboard muestra en su área de contenido. */
+enum AppModule {
+    USERS("/userinterface/users/users.fxml"),
+    CUSTOMERS("/userinterface/costumers/CustomersView.fxml"),
+    INVENTORY("/userinterface/inventory/Inventory.fxml"),
+    SALES("/userinterface/sales/SalesView.fxml"),
+    PURCHASES("/userinterface/purchase/PurchaseView.fxml"),
+    SUPPLIERS("/userinterface/suppliers/SupplierView.fxml"),
+    AUDIT("/userinterface/audit/AuditView.fxml");
+
+    private final String resourcePath;
+
+    AppModule(String resourcePath) {
+        this.resourcePath = resourcePath;
+    }
+
+    String getResourcePath() {
+        return resourcePath;
+    }
+}
@@ -21,39 +21,48 @@ public class DashboardController {
     private AnchorPane contentArea;
 
     private final AuditLogDAO auditLogDAO = new AuditLogDAO();
+    private final ViewRegistry views = new ViewRegistry();
 
     @FXML
     public void initialize() {
     }
 
+    /**
+     * Se llama al mostrar el dashboard después del login. La vista puede haberse preparado
+     * antes de que hubiera sesión, así que la precarga por rol empieza aquí y no en initialize().
+     */
+    public void startSession() {
+        views.preloadFor(SessionManager.getCurrentRole());
+    }
+
     @FXML
     private void onUsers() {
-        loadPage("/userinterface/users/users.fxml");
+        loadPage(AppModule.USERS);
     }
 
     @FXML
     private void onClients() {
-        loadPage("/userinterface/costumers/CustomersView.fxml");
+        loadPage(AppModule.CUSTOMERS);
     }
 
     @FXML
     private void onInventory() {
-        loadPage("/userinterface/inventory/Inventory.fxml");
+        loadPage(AppModule.INVENTORY);
     }
 
     @FXML
     private void onSales() {
-        loadPage("/userinterface/sales/SalesView.fxml");
+        loadPage(AppModule.SALES);
     }
 
     @FXML
     private void onPurchases() {
-        loadPage("/userinterface/purchase/PurchaseView.fxml");
+        loadPage(AppModule.PURCHASES);
     }
 
     @FXML
     private void onProviders() {
-        loadPage("/userinterface/suppliers/SupplierView.fxml");
+        loadPage(AppModule.SUPPLIERS);
     }
 
     @FXML
@@ -66,7 +75,7 @@ public class DashboardController {
             mostrarInfo("Permiso denegado", "Solo el administrador puede ver auditoría.");
             return;
         }
-        loadPage("/userinterface/audit/AuditView.fxml");
+        loadPage(AppModule.AUDIT);
     }
 
     @FXML
@@ -92,6 +101,7 @@ public class DashboardController {
             }
         } catch (Exception ignored) {
         } finally {
+            views.clear();
             SessionManager.logout();
             loadLoginView();
         }
@@ -113,10 +123,9 @@ public class DashboardController {
         }
     }
 
-    private void loadPage(String resourcePath) {
+    private void loadPage(AppModule module) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(resourcePath));
-            Parent node = loader.load();
+            Parent node = views.activate(module);
 
             contentArea.getChildren().setAll(node);
             AnchorPane.setTopAnchor(node, 0.0);
@@ -128,7 +137,7 @@ public class DashboardController {
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error al cargar módulo");
             alert.setHeaderText(null);
-            alert.setContentText("No se pudo cargar: " + resourcePath + "\n" + ex.getMessage());
+            alert.setContentText("No se pudo cargar: " + module.getResourcePath() + "\n" + ex.getMessage());
             alert.showAndWait();
         }
     }
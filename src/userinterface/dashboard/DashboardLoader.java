@@ -0,0 +1,43 @@
+package userinterface.dashboard;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+
+/**
+ * Vista del dashboard preparada mientras el usuario está en el login. {@link #take()} entrega
+ * la preparada (una sola vez) o la carga en ese momento si no hubo tiempo de prepararla.
+ * Todos los métodos se llaman desde el hilo de JavaFX.
+ */
+public final class DashboardLoader {
+
+    private static final String RESOURCE_DASHBOARD = "/userinterface/dashboard/DashboardView.fxml";
+
+    public record Loaded(Parent root, DashboardController controller) {
+    }
+
+    private static Loaded prepared;
+
+    private DashboardLoader() {
+    }
+
+    /** Lee el FXML del dashboard por adelantado; no hace nada si ya hay una preparada. */
+    public static void prepare() throws IOException {
+        if (prepared == null) {
+            prepared = load();
+        }
+    }
+
+    public static Loaded take() throws IOException {
+        Loaded loaded = prepared;
+        prepared = null;
+        return loaded != null ? loaded : load();
+    }
+
+    private static Loaded load() throws IOException {
+        FXMLLoader loader = new FXMLLoader(DashboardLoader.class.getResource(RESOURCE_DASHBOARD));
+        Parent root = loader.load();
+        return new Loaded(root, loader.getController());
+    }
+}
@@ -0,0 +1,177 @@
+package userinterface.dashboard;
+
+import dataaccess.ConfigLoader;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.util.Duration;
+import logic.DTO.AccountRole;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utilities.CachedView;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Vistas de los módulos del dashboard, leídas del FXML una sola vez por sesión.
+ * <ul>
+ *     <li>El nodo y su controlador se conservan; al volver a un módulo solo se llama a
+ *     {@link CachedView#onReactivated()} si estuvo oculto más de {@code ui.views.refreshAfterMs}.</li>
+ *     <li>Después del login se precargan los módulos configurados para el rol, uno por pausa,
+ *     para no congelar la pantalla. Sus datos se consultan en segundo plano desde su
+ *     {@code initialize()}, así que al abrirlos ya están listos.</li>
+ * </ul>
+ * Todos los métodos se llaman desde el hilo de JavaFX.
+ */
+final class ViewRegistry {
+
+    private static final Logger log = LogManager.getLogger(ViewRegistry.class);
+
+    private static final String DEFAULT_PRELOAD_ADMIN = "SALES,INVENTORY,USERS";
+    private static final String DEFAULT_PRELOAD_EMPLOYEE = "SALES,INVENTORY,CUSTOMERS";
+
+    private record View(Parent node, Object controller) {
+    }
+
+    private final boolean enabled = ConfigLoader.getBoolean("ui.views.cache.enabled", true);
+    private final long refreshAfterMs = Math.max(0, ConfigLoader.getLong("ui.views.refreshAfterMs", 3000));
+    private final long preloadDelayMs = Math.max(0, ConfigLoader.getLong("ui.views.preloadDelayMs", 400));
+
+    private final Map<AppModule, View> views = new EnumMap<>(AppModule.class);
+    private final Map<AppModule, Long> hiddenSince = new EnumMap<>(AppModule.class);
+    private final Deque<AppModule> preloadQueue = new ArrayDeque<>();
+    private PauseTransition preloadPause;
+    private AppModule active;
+
+    /**
+     * Devuelve el nodo del módulo, leyéndolo solo si no estaba en caché. Si ya estaba, refresca
+     * sus datos cuando lleva tiempo oculto.
+     */
+    Parent activate(AppModule module) throws IOException {
+        if (active != null && active != module) {
+            hiddenSince.put(active, System.currentTimeMillis());
+        }
+
+        View view = views.get(module);
+        if (view == null) {
+            preloadQueue.remove(module);
+            view = load(module);
+        } else if (module != active) {
+            refreshIfStale(module, view);
+        }
+
+        active = module;
+        return view.node();
+    }
+
+    private void refreshIfStale(AppModule module, View view) {
+        Long since = hiddenSince.remove(module);
+        if (since == null || System.currentTimeMillis() - since < refreshAfterMs) {
+            return;
+        }
+        if (view.controller() instanceof CachedView cached) {
+            cached.onReactivated();
+        }
+    }
+
+    private View load(AppModule module) throws IOException {
+        long start = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(module.getResourcePath()));
+        Parent node = loader.load();
+        View view = new View(node, loader.getController());
+
+        // Sin caché se comporta como antes: cada clic vuelve a leer el FXML
+        if (enabled) {
+            views.put(module, view);
+        }
+        log.debug("Vista {} cargada en {} ms", module, (System.nanoTime() - start) / 1_000_000);
+        return view;
+    }
+
+    /** Programa la precarga de los módulos configurados para {@code role}. */
+    void preloadFor(AccountRole role) {
+        if (!enabled || role == null) {
+            return;
+        }
+        for (AppModule module : preloadModules(role)) {
+            if (!views.containsKey(module) && !preloadQueue.contains(module)) {
+                preloadQueue.add(module);
+            }
+        }
+        scheduleNextPreload();
+    }
+
+    private List<AppModule> preloadModules(AccountRole role) {
+        String key = "ui.views.preload." + role.name().toLowerCase(Locale.ROOT);
+        String fallback = role == AccountRole.ADMINISTRATOR ? DEFAULT_PRELOAD_ADMIN : DEFAULT_PRELOAD_EMPLOYEE;
+        String value = ConfigLoader.get(key, fallback);
+
+        List<AppModule> modules = new ArrayList<>();
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                modules.add(AppModule.valueOf(trimmed.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                log.warn("Módulo desconocido en {}: {}", key, trimmed);
+            }
+        }
+        // Auditoría solo la ve el administrador
+        if (role != AccountRole.ADMINISTRATOR) {
+            modules.remove(AppModule.AUDIT);
+        }
+        return modules;
+    }
+
+    private void scheduleNextPreload() {
+        if (preloadQueue.isEmpty() || preloadPause != null) {
+            return;
+        }
+        preloadPause = new PauseTransition(Duration.millis(preloadDelayMs));
+        // La carga va en runLater y no en el onFinished: dentro de una animación no se permiten
+        // diálogos modales si el initialize() del módulo muestra alguno
+        preloadPause.setOnFinished(e -> Platform.runLater(this::preloadNext));
+        preloadPause.play();
+    }
+
+    private void preloadNext() {
+        if (preloadPause == null) {
+            return; // clear() llegó antes
+        }
+        preloadPause = null;
+        AppModule module = preloadQueue.poll();
+        if (module != null && !views.containsKey(module)) {
+            try {
+                load(module);
+                // Cuenta como oculto desde ahora: si se abre mucho después, se refresca
+                hiddenSince.put(module, System.currentTimeMillis());
+            } catch (IOException | RuntimeException ex) {
+                // La precarga es opcional: si falla, el módulo se carga al abrirlo
+                log.warn("No se pudo precargar la vista {}", module, ex);
+            }
+        }
+        scheduleNextPreload();
+    }
+
+    /** Descarta todas las vistas (cierre de sesión). */
+    void clear() {
+        if (preloadPause != null) {
+            preloadPause.stop();
+            preloadPause = null;
+        }
+        preloadQueue.clear();
+        views.clear();
+        hiddenSince.clear();
+        active = null;
+    }
+}
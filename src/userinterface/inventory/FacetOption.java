@@ -0,0 +1,20 @@
+package userinterface.inventory;
+
+/**
+ * Opción de un combo de facetas. {@code value} null es la opción "todos".
+ */
+record FacetOption(VehicleFacet facet, String value, int count) {
+
+    static FacetOption all(VehicleFacet facet, int count) {
+        return new FacetOption(facet, null, count);
+    }
+
+    boolean isAll() {
+        return value == null;
+    }
+
+    @Override
+    public String toString() {
+        return (value == null ? facet.getAllLabel() : value) + " (" + count + ")";
+    }
+}
@@ -1,5 +1,6 @@
 package userinterface.inventory;
 
+import javafx.animation.PauseTransition;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -9,23 +10,32 @@ import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.HBox;
-import logic.DAO.InventoryMovementDAO;
+import javafx.util.Duration;
+import logic.DAO.ConcurrencyConflictException;
 import logic.DAO.VehicleDAO;
 import logic.DTO.InventoryMovementDTO;
 import logic.DTO.InventoryMovementType;
 import logic.DTO.VehicleDTO;
 import logic.DTO.VehicleStatus;
 import logic.DTO.AccountRole;
+import utilities.CachedView;
+import utilities.FxDataLoader;
 import utilities.SessionManager;
+import utilities.VehicleSimilarityIndex;
 
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class InventoryController {
+public class InventoryController implements CachedView {
+
+    private static final int SEARCH_DEBOUNCE_MS = 150;
 
     @FXML private TableView<VehicleTableRow> tblVehicle;
     @FXML private TableColumn<VehicleTableRow, String> colId;
@@ -39,36 +49,56 @@ public class InventoryController {
 
     @FXML private AnchorPane contentArea;
     @FXML private TextField txtSearch;
-    @FXML private ComboBox<String> cmbStatusFilter;
-    @FXML private ComboBox<String> cmbBrandFilter;
+    @FXML private ComboBox<FacetOption> cmbStatusFilter;
+    @FXML private ComboBox<FacetOption> cmbBrandFilter;
+    @FXML private ComboBox<FacetOption> cmbYearFilter;
+    @FXML private ComboBox<FacetOption> cmbColorFilter;
+    @FXML private ComboBox<FacetOption> cmbPriceFilter;
+    @FXML private ComboBox<FacetOption> cmbMileageFilter;
     @FXML private Button btnRefresh;
 
     private final ObservableList<VehicleTableRow> masterVehicles = FXCollections.observableArrayList();
     private final VehicleDAO vehicleDAO = new VehicleDAO();
-    private final InventoryMovementDAO inventoryMovementDAO = new InventoryMovementDAO();
+    private VehicleSearchIndex searchIndex = new VehicleSearchIndex();
+    private final FxDataLoader<VehicleLoad> vehiclesLoader = new FxDataLoader<>("los vehículos");
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MS));
+    private final Map<VehicleFacet, ComboBox<FacetOption>> facetCombos = new EnumMap<>(VehicleFacet.class);
+
+    // Evita volver a filtrar mientras se reemplazan las opciones de los combos
+    private boolean actualizandoFacetas;
+
+    // Se construye al ver el primer vehículo y se descarta cuando cambia el inventario cargado
+    private VehicleSimilarityIndex similarityIndex;
+
+    // Vista principal mientras se muestra el formulario de edición, para regresar sin recargar
+    private List<Node> vistaPrincipal;
 
     @FXML
     public void initialize() {
         configurarTabla();
 
-        if (cmbStatusFilter.getValue() == null) {
-            cmbStatusFilter.setValue("Todos los estados");
-        }
-        if (cmbBrandFilter.getValue() == null) {
-            cmbBrandFilter.setValue("Todas las marcas");
-        }
+        facetCombos.put(VehicleFacet.STATUS, cmbStatusFilter);
+        facetCombos.put(VehicleFacet.MAKE, cmbBrandFilter);
+        facetCombos.put(VehicleFacet.YEAR, cmbYearFilter);
+        facetCombos.put(VehicleFacet.COLOR, cmbColorFilter);
+        facetCombos.put(VehicleFacet.PRICE, cmbPriceFilter);
+        facetCombos.put(VehicleFacet.MILEAGE, cmbMileageFilter);
 
+        vehiclesLoader.attachTo(tblVehicle);
         cargarVehiculos();
-        aplicarFiltros();
-
-        txtSearch.textProperty().addListener((obs, ov, nv) -> aplicarFiltros());
-        cmbBrandFilter.getSelectionModel().selectedItemProperty()
-                .addListener((obs, ov, nv) -> aplicarFiltros());
-        cmbStatusFilter.getSelectionModel().selectedItemProperty()
-                .addListener((obs, ov, nv) -> {
-                    cargarVehiculos();
+
+        // Se filtra cuando el usuario deja de escribir, no en cada tecla
+        searchDebounce.setOnFinished(e -> aplicarFiltros());
+        txtSearch.textProperty().addListener((obs, ov, nv) -> searchDebounce.playFromStart());
+
+        // Las facetas se resuelven en memoria; cambiar un combo no vuelve a consultar la base
+        for (ComboBox<FacetOption> combo : facetCombos.values()) {
+            combo.valueProperty().addListener((obs, ov, nv) -> {
+                if (!actualizandoFacetas) {
                     aplicarFiltros();
-                });
+                }
+            });
+        }
 
         configurarAccesoPorRol();
     }
@@ -188,80 +218,108 @@ public class InventoryController {
         tblVehicle.setItems(FXCollections.observableArrayList());
     }
 
+    // El dashboard conserva la vista: al volver solo se recargan los datos
+    @Override
+    public void onReactivated() {
+        cargarVehiculos();
+    }
+
+    // Filas e índice se arman en segundo plano; en el hilo de JavaFX solo se reemplazan
+    private record VehicleLoad(List<VehicleTableRow> rows, VehicleSearchIndex index) {}
+
     private void cargarVehiculos() {
-        masterVehicles.clear();
+        vehiclesLoader.load(() -> {
+            List<VehicleTableRow> rows = vehicleDAO.getAllVehicles().stream()
+                    .map(VehicleTableRow::new)
+                    .collect(Collectors.toList());
+
+            VehicleSearchIndex index = new VehicleSearchIndex();
+            index.rebuild(rows);
+            return new VehicleLoad(rows, index);
+        }, load -> {
+            masterVehicles.setAll(load.rows());
+            searchIndex = load.index();
+            similarityIndex = null;
+            aplicarFiltros();
+        });
+    }
 
+    /**
+     * Vuelve a leer un vehículo después de editarlo o darlo de baja y actualiza solo su fila
+     * (y el índice de búsqueda) en lugar de recargar todo el inventario.
+     */
+    private void actualizarVehiculo(Long vehicleId) {
         try {
-            String statusStr = cmbStatusFilter.getValue();
-            List<VehicleDTO> dtoList;
+            VehicleDTO updated = vehicleDAO.findVehicleById(vehicleId);
+            boolean visible = updated.getVehicleId() != null && updated.getVehicleId() > 0;
+
+            int position = -1;
+            for (int i = 0; i < masterVehicles.size(); i++) {
+                if (vehicleId.equals(masterVehicles.get(i).getVehicle().getVehicleId())) {
+                    position = i;
+                    break;
+                }
+            }
 
-            if (statusStr == null || statusStr.equals("Todos los estados")) {
-                dtoList = vehicleDAO.getAllVehicles();
+            if (visible) {
+                VehicleTableRow row = new VehicleTableRow(updated);
+                if (position >= 0) {
+                    masterVehicles.set(position, row);
+                } else {
+                    masterVehicles.add(row);
+                }
+                searchIndex.upsert(row);
             } else {
-                VehicleStatus status = VehicleStatus.valueOf(statusStr.toUpperCase());
-                dtoList = vehicleDAO.getVehiclesByStatus(status);
+                if (position >= 0) {
+                    masterVehicles.remove(position);
+                }
+                searchIndex.remove(vehicleId);
             }
 
-            List<VehicleTableRow> rows = dtoList.stream()
-                    .map(VehicleTableRow::new)
-                    .collect(Collectors.toList());
-
-            masterVehicles.setAll(rows);
-            actualizarOpcionesMarca();
+            similarityIndex = null;
+            aplicarFiltros();
 
         } catch (SQLException | IOException e) {
             e.printStackTrace();
             mostrarError("Error al cargar vehículos", e.toString());
-        } catch (IllegalArgumentException e) {
-            mostrarError("Estado inválido", "El estado seleccionado no es válido.");
         }
     }
 
-    private void actualizarOpcionesMarca() {
-        TreeSet<String> marcas = new TreeSet<>();
-        for (VehicleTableRow row : masterVehicles) {
-            String m = row.getMake();
-            if (m != null && !m.isBlank() && !m.equals("-")) {
-                marcas.add(m);
-            }
-        }
-
-        ObservableList<String> items = FXCollections.observableArrayList();
-        items.add("Todas las marcas");
-        items.addAll(marcas);
+    private void aplicarFiltros() {
+        searchDebounce.stop();
 
-        cmbBrandFilter.setItems(items);
+        Map<VehicleFacet, String> seleccion = new EnumMap<>(VehicleFacet.class);
+        facetCombos.forEach((facet, combo) -> {
+            FacetOption option = combo.getValue();
+            if (option != null && !option.isAll()) {
+                seleccion.put(facet, option.value());
+            }
+        });
 
-        if (!items.contains(cmbBrandFilter.getValue())) {
-            cmbBrandFilter.setValue("Todas las marcas");
-        }
+        VehicleSearchIndex.Result result = searchIndex.search(txtSearch.getText(), seleccion);
+        tblVehicle.setItems(FXCollections.observableArrayList(result.rows()));
+        actualizarFacetas(result.options(), seleccion);
     }
 
-    private void aplicarFiltros() {
-        String texto = txtSearch.getText();
-        String marca = cmbBrandFilter.getValue();
-
-        List<VehicleTableRow> filtrados = masterVehicles.stream()
-                .filter(row -> {
-                    boolean okSearch = true;
-                    if (texto != null && !texto.isBlank()) {
-                        String f = texto.toLowerCase();
-                        okSearch =
-                                contains(row.getMake(), f) ||
-                                        contains(row.getModel(), f) ||
-                                        contains(row.getVin(), f);
-                    }
-
-                    boolean okBrand = true;
-                    if (marca != null && !marca.equals("Todas las marcas")) {
-                        okBrand = marca.equalsIgnoreCase(row.getMake());
+    private void actualizarFacetas(Map<VehicleFacet, List<FacetOption>> opciones,
+                                   Map<VehicleFacet, String> seleccion) {
+        actualizandoFacetas = true;
+        try {
+            facetCombos.forEach((facet, combo) -> {
+                List<FacetOption> items = opciones.get(facet);
+                combo.getItems().setAll(items);
+
+                String selected = seleccion.get(facet);
+                for (FacetOption option : items) {
+                    if (Objects.equals(option.value(), selected)) {
+                        combo.setValue(option);
+                        break;
                     }
-
-                    return okSearch && okBrand;
-                })
-                .collect(Collectors.toList());
-
-        tblVehicle.setItems(FXCollections.observableArrayList(filtrados));
+                }
+            });
+        } finally {
+            actualizandoFacetas = false;
+        }
     }
 
 
@@ -285,11 +343,34 @@ public class InventoryController {
                         "VIN: " + vin + "\n" +
                         "Kilometraje: " + mileage + "\n" +
                         "Precio: " + price + "\n" +
-                        "Estado: " + status;
+                        "Estado: " + status +
+                        describirSimilares(v);
 
         mostrarInfo("Ver vehículo", mensaje);
     }
 
+    private String describirSimilares(VehicleDTO v) {
+        if (similarityIndex == null) {
+            similarityIndex = VehicleSimilarityIndex.build(
+                    masterVehicles.stream().map(VehicleTableRow::getVehicle).collect(Collectors.toList()));
+        }
+
+        List<VehicleDTO> similares = similarityIndex.nearest(v, VehicleSimilarityIndex.DEFAULT_RESULTS);
+        if (similares.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder("\n\nDisponibles parecidos:");
+        for (VehicleDTO s : similares) {
+            sb.append("\n• ID ").append(s.getVehicleId()).append(" - ")
+                    .append(safe(s.getMake())).append(" ").append(safe(s.getModel()))
+                    .append(" ").append(s.getModelYear())
+                    .append(", ").append(s.getMileageKm() != null ? s.getMileageKm() + " km" : "-")
+                    .append(", $").append(s.getPrice().toPlainString());
+        }
+        return sb.toString();
+    }
+
     private void onEditVehicle(VehicleDTO v) {
         if (!isCurrentUserAdmin()) {
             mostrarError("Acceso denegado",
@@ -312,12 +393,12 @@ public class InventoryController {
 
             controller.setVehicleToEdit(v);
             controller.setOnSaveCallback(() -> {
-                cargarVehiculos();
-                aplicarFiltros();
                 showMainView();
+                actualizarVehiculo(v.getVehicleId());
             });
             controller.setOnCloseCallback(this::showMainView);
 
+            vistaPrincipal = new ArrayList<>(contentArea.getChildren());
             contentArea.getChildren().setAll(form);
             AnchorPane.setTopAnchor(form, 0.0);
             AnchorPane.setBottomAnchor(form, 0.0);
@@ -363,8 +444,10 @@ public class InventoryController {
                     marcarVehiculoComoBaja(v);
                     mostrarInfo("Vehículo dado de baja",
                             "El vehículo se marcó como BAJA y se registró el movimiento de inventario.");
-                    cargarVehiculos();
-                    aplicarFiltros();
+                    actualizarVehiculo(v.getVehicleId());
+                } catch (ConcurrencyConflictException ex) {
+                    mostrarError("No se dio de baja", ex.getMessage());
+                    actualizarVehiculo(v.getVehicleId());
                 } catch (SQLException | IOException ex) {
                     mostrarError("Error al dar de baja",
                             "Ocurrió un error al dar de baja el vehículo:\n" + ex.getMessage());
@@ -379,8 +462,6 @@ public class InventoryController {
             throw new IllegalArgumentException("vehicleId requerido para marcar BAJA.");
         }
 
-        vehicleDAO.updateVehicleStatus(vehicleId, VehicleStatus.BAJA);
-
         InventoryMovementDTO movement = new InventoryMovementDTO();
         movement.setVehicleId(vehicleId);
         movement.setType(InventoryMovementType.BAJA);
@@ -390,7 +471,9 @@ public class InventoryController {
         movement.setAccountId(SessionManager.getCurrentAccountId());
         movement.setCreatedAt(LocalDateTime.now());
 
-        inventoryMovementDAO.insertInventoryMovement(movement);
+        // Condicionado a DISPONIBLE/RESERVADO y a la versión de la fila mostrada: si otra terminal
+        // la vendió mientras se confirmaba, no se da de baja
+        vehicleDAO.writeOffVehicle(vehicleId, v.getVersion(), movement);
     }
 
     // ---------- Botón Refrescar ----------
@@ -398,7 +481,6 @@ public class InventoryController {
     @FXML
     private void onRefresh() {
         cargarVehiculos();
-        aplicarFiltros();
     }
 
     // ---------- Helpers ----------
@@ -424,6 +506,12 @@ public class InventoryController {
     }
 
     private void showMainView() {
+        if (vistaPrincipal != null) {
+            contentArea.getChildren().setAll(vistaPrincipal);
+            vistaPrincipal = null;
+            return;
+        }
+
         try {
             FXMLLoader loader = new FXMLLoader(
                     getClass().getResource("/userinterface/inventory/Inventory.fxml"));
@@ -453,11 +541,6 @@ public class InventoryController {
         };
     }
 
-    private boolean contains(String value, String filtro) {
-        if (value == null) return false;
-        return value.toLowerCase().contains(filtro);
-    }
-
     private String safe(String s) {
         return s != null ? s : "-";
     }
@@ -5,6 +5,7 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import logic.DAO.ConcurrencyConflictException;
 import logic.DAO.VehicleDAO;
 import logic.DTO.VehicleDTO;
 import utilities.SessionManager;
@@ -129,7 +130,8 @@ public class VehicleEditFormController {
                     vehicle.getVehicleId(),
                     color,
                     mileageKm,
-                    price);
+                    price,
+                    vehicle.getVersion());
 
             showInfo("Vehículo actualizado correctamente.");
 
@@ -137,6 +139,12 @@ public class VehicleEditFormController {
                 onSaveCallback.run();
             }
 
+        } catch (ConcurrencyConflictException ex) {
+            showError(ex.getMessage());
+            // Regresa al inventario con la fila recargada
+            if (onSaveCallback != null) {
+                onSaveCallback.run();
+            }
         } catch (SQLException | IOException ex) {
             showError("Error al actualizar el vehículo: " + ex.getMessage());
         }
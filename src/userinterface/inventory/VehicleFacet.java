@@ -0,0 +1,119 @@
+package userinterface.inventory;
+
+import logic.DTO.VehicleDTO;
+import logic.DTO.VehicleStatus;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Facetas del filtro de inventario. Cada una convierte un vehículo en el valor que se muestra en
+ * su combo (null si no aplica) y define el orden de esos valores.
+ */
+enum VehicleFacet {
+
+    STATUS("Todos los estados",
+            v -> v.getStatus() != null ? v.getStatus().name() : null,
+            Comparator.comparing(VehicleStatus::valueOf)),
+
+    MAKE("Todas las marcas",
+            v -> blankToNull(v.getMake()),
+            String.CASE_INSENSITIVE_ORDER),
+
+    YEAR("Todos los años",
+            v -> v.getModelYear() != null ? v.getModelYear().toString() : null,
+            Comparator.reverseOrder()),
+
+    COLOR("Todos los colores",
+            v -> capitalize(blankToNull(v.getColor())),
+            String.CASE_INSENSITIVE_ORDER),
+
+    PRICE("Cualquier precio",
+            v -> priceBand(v.getPrice()),
+            Comparator.comparingInt(Bands.PRICE_LABELS::indexOf)),
+
+    MILEAGE("Cualquier kilometraje",
+            v -> mileageBand(v.getMileageKm()),
+            Comparator.comparingInt(Bands.MILEAGE_LABELS::indexOf));
+
+    private final String allLabel;
+    private final Function<VehicleDTO, String> extractor;
+    private final Comparator<String> order;
+
+    VehicleFacet(String allLabel, Function<VehicleDTO, String> extractor, Comparator<String> order) {
+        this.allLabel = allLabel;
+        this.extractor = extractor;
+        this.order = order;
+    }
+
+    String getAllLabel() {
+        return allLabel;
+    }
+
+    String valueOf(VehicleDTO vehicle) {
+        return extractor.apply(vehicle);
+    }
+
+    Comparator<String> order() {
+        return order;
+    }
+
+    // Rangos fijos; los límites superiores son exclusivos
+    private static final class Bands {
+        static final long[] PRICE_LIMITS = {200_000, 400_000, 700_000};
+        static final List<String> PRICE_LABELS = List.of(
+                "Menos de $200,000",
+                "$200,000 - $400,000",
+                "$400,000 - $700,000",
+                "$700,000 o más");
+
+        static final int[] MILEAGE_LIMITS = {20_000, 60_000, 120_000};
+        static final List<String> MILEAGE_LABELS = List.of(
+                "Menos de 20,000 km",
+                "20,000 - 60,000 km",
+                "60,000 - 120,000 km",
+                "120,000 km o más");
+    }
+
+    private static String priceBand(BigDecimal price) {
+        if (price == null || price.signum() < 0) {
+            return null;
+        }
+        for (int i = 0; i < Bands.PRICE_LIMITS.length; i++) {
+            if (price.compareTo(BigDecimal.valueOf(Bands.PRICE_LIMITS[i])) < 0) {
+                return Bands.PRICE_LABELS.get(i);
+            }
+        }
+        return Bands.PRICE_LABELS.get(Bands.PRICE_LIMITS.length);
+    }
+
+    private static String mileageBand(Integer mileageKm) {
+        if (mileageKm == null || mileageKm < 0) {
+            return null;
+        }
+        for (int i = 0; i < Bands.MILEAGE_LIMITS.length; i++) {
+            if (mileageKm < Bands.MILEAGE_LIMITS[i]) {
+                return Bands.MILEAGE_LABELS.get(i);
+            }
+        }
+        return Bands.MILEAGE_LABELS.get(Bands.MILEAGE_LIMITS.length);
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null || value.isBlank() || value.equals("-")) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    // "rojo" y "Rojo" caen en la misma opción
+    private static String capitalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String lower = value.toLowerCase();
+        return Character.toUpperCase(lower.charAt(0)) + lower.substring(1);
+    }
+}
@@ -0,0 +1,293 @@
+package userinterface.inventory;
+
+import logic.DTO.VehicleDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para el filtro de inventario. Cada fila ocupa una posición (slot) y cada
+ * n-grama de 1 a 3 caracteres de marca, modelo, VIN y color apunta a un BitSet de posiciones.
+ * Un término de hasta 3 caracteres se resuelve con una sola consulta; uno más largo intersecta
+ * sus trigramas y solo verifica con contains() los candidatos que quedan.
+ * <p>
+ * Además guarda un BitSet por valor de cada {@link VehicleFacet}: combinar filtros es un AND entre
+ * BitSets y los conteos de cada opción son cardinalidades, sin recorrer filas ni consultar la base.
+ */
+final class VehicleSearchIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final BitSet EMPTY = new BitSet();
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // slot -> fila; las posiciones no se reutilizan para conservar el orden de carga
+    private final List<VehicleTableRow> rows = new ArrayList<>();
+    private final List<String[]> fieldsBySlot = new ArrayList<>();
+    private final List<String[]> facetValuesBySlot = new ArrayList<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    // Llave del n-grama empaquetada en un long (longitud y hasta 3 caracteres de 16 bits)
+    private final Map<Long, BitSet> grams = new HashMap<>();
+    private final Map<VehicleFacet, Map<String, BitSet>> facets = new EnumMap<>(VehicleFacet.class);
+
+    /** Filas que pasan el filtro y las opciones (con conteo) de cada faceta. */
+    record Result(List<VehicleTableRow> rows, Map<VehicleFacet, List<FacetOption>> options) {
+    }
+
+    VehicleSearchIndex() {
+        for (VehicleFacet facet : VehicleFacet.values()) {
+            facets.put(facet, new HashMap<>());
+        }
+    }
+
+    void rebuild(List<VehicleTableRow> newRows) {
+        rows.clear();
+        fieldsBySlot.clear();
+        facetValuesBySlot.clear();
+        slotById.clear();
+        live.clear();
+        grams.clear();
+        facets.values().forEach(Map::clear);
+
+        for (VehicleTableRow row : newRows) {
+            upsert(row);
+        }
+    }
+
+    /** Agrega la fila o reemplaza la del mismo vehículo conservando su posición. */
+    void upsert(VehicleTableRow row) {
+        Long id = row.getVehicle().getVehicleId();
+        Integer slot = id != null ? slotById.get(id) : null;
+
+        if (slot != null) {
+            unindex(slot);
+            rows.set(slot, row);
+        } else {
+            slot = rows.size();
+            rows.add(row);
+            fieldsBySlot.add(null);
+            facetValuesBySlot.add(null);
+            if (id != null) {
+                slotById.put(id, slot);
+            }
+        }
+
+        index(slot, row);
+    }
+
+    void remove(Long vehicleId) {
+        Integer slot = slotById.remove(vehicleId);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        rows.set(slot, null);
+    }
+
+    /**
+     * Aplica el texto (todos los términos deben aparecer en algún campo) y el valor elegido en
+     * cada faceta ({@code selection} sin la faceta = "todos").
+     * <p>
+     * El conteo de una opción considera el texto y las demás facetas, pero no la propia, para que
+     * el combo muestre cuántos vehículos quedarían al cambiar a esa opción.
+     */
+    Result search(String text, Map<VehicleFacet, String> selection) {
+        BitSet base = matchText(text);
+
+        Map<VehicleFacet, BitSet> selected = new EnumMap<>(VehicleFacet.class);
+        for (Map.Entry<VehicleFacet, String> entry : selection.entrySet()) {
+            if (entry.getValue() != null) {
+                selected.put(entry.getKey(), facets.get(entry.getKey()).getOrDefault(entry.getValue(), EMPTY));
+            }
+        }
+
+        BitSet result = (BitSet) base.clone();
+        selected.values().forEach(result::and);
+
+        Map<VehicleFacet, List<FacetOption>> options = new EnumMap<>(VehicleFacet.class);
+        for (VehicleFacet facet : VehicleFacet.values()) {
+            BitSet others = (BitSet) base.clone();
+            selected.forEach((f, bits) -> {
+                if (f != facet) {
+                    others.and(bits);
+                }
+            });
+            options.put(facet, facetOptions(facet, others, selection.get(facet)));
+        }
+
+        List<VehicleTableRow> matches = new ArrayList<>(result.cardinality());
+        for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+            matches.add(rows.get(slot));
+        }
+        return new Result(matches, options);
+    }
+
+    private BitSet matchText(String text) {
+        BitSet result = (BitSet) live.clone();
+
+        List<String> longTerms = new ArrayList<>();
+        if (text != null) {
+            for (String term : normalize(text).split("\\s+")) {
+                if (term.isEmpty() || result.isEmpty()) {
+                    continue;
+                }
+                if (term.length() <= MAX_GRAM) {
+                    result.and(grams.getOrDefault(gramKey(term, 0, term.length()), EMPTY));
+                } else {
+                    for (int i = 0; i + MAX_GRAM <= term.length() && !result.isEmpty(); i++) {
+                        result.and(grams.getOrDefault(gramKey(term, i, MAX_GRAM), EMPTY));
+                    }
+                    longTerms.add(term);
+                }
+            }
+        }
+
+        // Los trigramas pueden coincidir en otro orden: se confirman solo los candidatos
+        if (!longTerms.isEmpty()) {
+            for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                if (!containsAll(fieldsBySlot.get(slot), longTerms)) {
+                    result.clear(slot);
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<FacetOption> facetOptions(VehicleFacet facet, BitSet scope, String selectedValue) {
+        List<FacetOption> options = new ArrayList<>();
+        options.add(FacetOption.all(facet, scope.cardinality()));
+
+        List<String> values = new ArrayList<>(facets.get(facet).keySet());
+        values.sort(facet.order());
+
+        for (String value : values) {
+            BitSet bits = (BitSet) facets.get(facet).get(value).clone();
+            bits.and(scope);
+            int count = bits.cardinality();
+            // Las opciones sin resultados se ocultan, salvo la que está elegida
+            if (count > 0 || value.equals(selectedValue)) {
+                options.add(new FacetOption(facet, value, count));
+            }
+        }
+        return options;
+    }
+
+    int size() {
+        return live.cardinality();
+    }
+
+    private void index(int slot, VehicleTableRow row) {
+        VehicleDTO v = row.getVehicle();
+        String[] fields = {
+                normalize(v.getMake()),
+                normalize(v.getModel()),
+                normalize(v.getVin()),
+                normalize(v.getColor())
+        };
+        fieldsBySlot.set(slot, fields);
+        live.set(slot);
+
+        String[] facetValues = new String[VehicleFacet.values().length];
+        for (VehicleFacet facet : VehicleFacet.values()) {
+            String value = facet.valueOf(v);
+            facetValues[facet.ordinal()] = value;
+            if (value != null) {
+                facets.get(facet).computeIfAbsent(value, k -> new BitSet()).set(slot);
+            }
+        }
+        facetValuesBySlot.set(slot, facetValues);
+
+        for (String field : fields) {
+            forEachGram(field, gram -> grams.computeIfAbsent(gram, k -> new BitSet()).set(slot));
+        }
+    }
+
+    private void unindex(int slot) {
+        String[] fields = fieldsBySlot.get(slot);
+        if (fields == null) {
+            return;
+        }
+
+        for (String field : fields) {
+            forEachGram(field, gram -> {
+                BitSet bits = grams.get(gram);
+                if (bits != null) {
+                    bits.clear(slot);
+                    if (bits.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+            });
+        }
+
+        String[] facetValues = facetValuesBySlot.get(slot);
+        for (VehicleFacet facet : VehicleFacet.values()) {
+            String value = facetValues[facet.ordinal()];
+            if (value == null) {
+                continue;
+            }
+            BitSet bits = facets.get(facet).get(value);
+            if (bits != null) {
+                bits.clear(slot);
+                if (bits.isEmpty()) {
+                    facets.get(facet).remove(value);
+                }
+            }
+        }
+
+        fieldsBySlot.set(slot, null);
+        facetValuesBySlot.set(slot, null);
+        live.clear(slot);
+    }
+
+    private static void forEachGram(String field, LongConsumer action) {
+        int length = field.length();
+        for (int start = 0; start < length; start++) {
+            for (int n = 1; n <= MAX_GRAM && start + n <= length; n++) {
+                action.accept(gramKey(field, start, n));
+            }
+        }
+    }
+
+    private static long gramKey(String value, int start, int length) {
+        long key = length;
+        for (int i = 0; i < length; i++) {
+            key = (key << 16) | value.charAt(start + i);
+        }
+        return key;
+    }
+
+    private static boolean containsAll(String[] fields, List<String> terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (String field : fields) {
+                if (field.contains(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Minúsculas y sin acentos, para que "citroen" encuentre "Citroën"
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+}
@@ -1,8 +1,7 @@
 package userinterface.login;
 
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.Alert.AlertType;
@@ -10,14 +9,23 @@ import javafx.stage.Stage;
 import logic.DAO.AccountDAO;
 import logic.DAO.AuditLogDAO;
 import logic.DTO.AccountDTO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import userinterface.dashboard.DashboardLoader;
+import utilities.LoginAttemptThrottle;
 import utilities.PasswordUtiities;
+import utilities.PasswordVerifierPool;
 import utilities.SessionManager;
+import utilities.StartupTimings;
 
 import java.io.IOException;
-import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
 
 public class LoginController {
 
+    private static final Logger log = LogManager.getLogger(LoginController.class);
+
     @FXML
     private TextField txtEmail;
 
@@ -30,8 +38,30 @@ public class LoginController {
     @FXML
     private Hyperlink lnkForgot;
 
+    @FXML
+    private ProgressIndicator progressLogin;
+
+    private static final String LOGIN_TEXT = "Iniciar sesión";
+    private static final String LOGIN_BUSY_TEXT = "Verificando...";
+
+    // Hash de relleno: si el correo no existe se hace el mismo trabajo de bcrypt que con uno real,
+    // así el tiempo de respuesta no revela qué correos están registrados.
+    private static volatile String dummyHash;
+
     private final AccountDAO accountDAO = new AccountDAO();
     private final AuditLogDAO auditLogDAO = new AuditLogDAO();
+    private final LoginAttemptThrottle throttle = LoginAttemptThrottle.getInstance();
+
+    private boolean loginInProgress;
+    private long loginStartedMs;
+
+    private enum LoginStatus {
+        SUCCESS,
+        INVALID,
+        INACTIVE
+    }
+
+    private record LoginResult(LoginStatus status, AccountDTO account) {}
 
     @FXML
     public void initialize() {
@@ -50,13 +80,18 @@ public class LoginController {
     }
 
     private void updateButtonState() {
-        boolean disable = txtEmail.getText() == null || txtEmail.getText().trim().isEmpty()
+        boolean disable = loginInProgress
+                || txtEmail.getText() == null || txtEmail.getText().trim().isEmpty()
                 || txtPassword.getText() == null || txtPassword.getText().trim().isEmpty();
         btnLogin.setDisable(disable);
     }
 
     @FXML
     private void onLogin() {
+        if (loginInProgress) {
+            return;
+        }
+
         String email = txtEmail.getText() != null ? txtEmail.getText().trim() : "";
         String password = txtPassword.getText() != null ? txtPassword.getText() : "";
 
@@ -65,56 +100,165 @@ public class LoginController {
             return;
         }
 
-        try {
-            String normalizedEmail = email.toLowerCase();
-            AccountDTO account = accountDAO.findAccountByEmail(normalizedEmail);
+        String normalizedEmail = email.toLowerCase(Locale.ROOT);
 
-            if (account == null) {
-                auditLogDAO.logLoginFailure(normalizedEmail);
-                mostrarErrorLogin();
-                return;
-            }
+        long waitMs = throttle.tryAcquire(normalizedEmail);
+        if (waitMs < 0) {
+            return; // ya hay un intento en curso para este correo
+        }
+        if (waitMs > 0) {
+            mostrarError("Demasiados intentos",
+                    "Se bloquearon temporalmente los intentos para este correo. Intenta de nuevo en "
+                            + Math.max(1, (waitMs + 999) / 1000) + " segundos.");
+            return;
+        }
 
-            if (!Boolean.TRUE.equals(account.getIsActive()) || account.getDeletedAt() != null) {
-                auditLogDAO.logLoginFailure(normalizedEmail);
-                mostrarError("Cuenta inactiva",
-                        "La cuenta está desactivada o ha sido eliminada. Consulta con el administrador.");
-                return;
+        Task<LoginResult> task = new Task<>() {
+            @Override
+            protected LoginResult call() throws Exception {
+                return authenticate(normalizedEmail, password);
             }
+        };
 
-            boolean ok = PasswordUtiities.verifyPassword(password, account.getPasswordHash());
-            if (!ok) {
-                auditLogDAO.logLoginFailure(normalizedEmail);
-                mostrarErrorLogin();
-                return;
+        task.setOnSucceeded(e -> {
+            setLoginInProgress(false);
+            LoginResult result = task.getValue();
+
+            switch (result.status()) {
+                case SUCCESS -> {
+                    throttle.recordSuccess(normalizedEmail);
+                    AccountDTO account = result.account();
+                    SessionManager.setCurrentAccountId(account.getAccountId());
+                    SessionManager.setCurrentRole(account.getRole());
+                    SessionManager.setCurrentIsActive(account.getIsActive());
+                    abrirDashboard(account);
+                }
+                case INACTIVE -> {
+                    throttle.recordFailure(normalizedEmail);
+                    mostrarError("Cuenta inactiva",
+                            "La cuenta está desactivada o ha sido eliminada. Consulta con el administrador.");
+                }
+                default -> {
+                    throttle.recordFailure(normalizedEmail);
+                    mostrarErrorLogin();
+                }
             }
+        });
+
+        task.setOnFailed(e -> {
+            setLoginInProgress(false);
+            throttle.release(normalizedEmail);
+            Throwable ex = task.getException();
+            mostrarError("Error de autenticación", ex != null ? ex.getMessage() : null);
+        });
+
+        setLoginInProgress(true);
+        loginStartedMs = StartupTimings.sinceJvmStart();
+        try {
+            PasswordVerifierPool.execute(task);
+        } catch (RejectedExecutionException ex) {
+            setLoginInProgress(false);
+            throttle.release(normalizedEmail);
+            mostrarError("Servidor ocupado", "Hay demasiados inicios de sesión en proceso. Intenta de nuevo.");
+        }
+    }
+
+    /** Corre en PasswordVerifierPool: consulta de la cuenta, bcrypt y auditoría. */
+    private LoginResult authenticate(String normalizedEmail, String password) throws Exception {
+        AccountDTO account = accountDAO.findAccountByEmail(normalizedEmail);
+
+        if (account == null) {
+            PasswordUtiities.verifyPassword(password, getDummyHash());
+            auditLogDAO.logLoginFailure(normalizedEmail);
+            return new LoginResult(LoginStatus.INVALID, null);
+        }
+
+        if (!Boolean.TRUE.equals(account.getIsActive()) || account.getDeletedAt() != null) {
+            auditLogDAO.logLoginFailure(normalizedEmail);
+            return new LoginResult(LoginStatus.INACTIVE, null);
+        }
+
+        if (!PasswordUtiities.verifyPassword(password, account.getPasswordHash())) {
+            auditLogDAO.logLoginFailure(normalizedEmail);
+            return new LoginResult(LoginStatus.INVALID, null);
+        }
+
+        auditLogDAO.logLoginSuccess(account.getAccountId(), normalizedEmail);
 
-            SessionManager.setCurrentAccountId(account.getAccountId());
-            SessionManager.setCurrentRole(account.getRole());
-            SessionManager.setCurrentIsActive(account.getIsActive());
+        if (PasswordUtiities.needsRehash(account.getPasswordHash())) {
+            scheduleRehash(account.getAccountId(), account.getPasswordHash(), password);
+        }
+        return new LoginResult(LoginStatus.SUCCESS, account);
+    }
 
-            auditLogDAO.logLoginSuccess(account.getAccountId(), normalizedEmail);
+    /**
+     * Sube el hash al costo calibrado en segundo plano, ya con la contraseña verificada.
+     * Si el pool está ocupado o falla se omite: se reintenta en el siguiente inicio de sesión.
+     */
+    private void scheduleRehash(long accountId, String currentHash, String password) {
+        try {
+            PasswordVerifierPool.execute(() -> {
+                try {
+                    String newHash = PasswordUtiities.hashPassword(password);
+                    accountDAO.replacePasswordHash(accountId, currentHash, newHash);
+                } catch (Exception ex) {
+                    // La contraseña sigue siendo válida con el hash anterior
+                    log.warn("No se pudo actualizar el hash de la cuenta {}; se reintenta en el siguiente inicio de sesión.",
+                            accountId, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("Pool de verificación ocupado: se omite la actualización del hash de la cuenta {} "
+                    + "hasta el siguiente inicio de sesión.", accountId, ex);
+        }
+    }
 
-            abrirDashboard(account);
+    /** Calcula de antemano el hash de relleno (primera corrida de bcrypt) mientras se muestra el login. */
+    public static void warmUp() {
+        getDummyHash();
+    }
 
-        } catch (SQLException | IOException ex) {
-            mostrarError("Error de autenticación", ex.getMessage());
+    private static String getDummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            synchronized (LoginController.class) {
+                hash = dummyHash;
+                if (hash == null) {
+                    hash = PasswordUtiities.hashPassword(Long.toHexString(System.nanoTime()) + "-imperial");
+                    dummyHash = hash;
+                }
+            }
         }
+        return hash;
+    }
+
+    private void setLoginInProgress(boolean inProgress) {
+        loginInProgress = inProgress;
+        txtEmail.setDisable(inProgress);
+        txtPassword.setDisable(inProgress);
+        btnLogin.setText(inProgress ? LOGIN_BUSY_TEXT : LOGIN_TEXT);
+        if (progressLogin != null) {
+            progressLogin.setVisible(inProgress);
+        }
+        updateButtonState();
     }
 
     private void abrirDashboard(AccountDTO account) {
         try {
-            FXMLLoader loader = new FXMLLoader(
-                    getClass().getResource("/userinterface/dashboard/DashboardView.fxml")
-            );
-            Parent root = loader.load();
+            DashboardLoader.Loaded dashboard = DashboardLoader.take();
 
             Stage currentStage = (Stage) btnLogin.getScene().getWindow();
 
-            Scene scene = new Scene(root);
+            Scene scene = new Scene(dashboard.root());
             currentStage.setScene(scene);
             currentStage.setTitle("Imperial Motors - Dashboard");
             currentStage.centerOnScreen();
+            dashboard.controller().startSession();
+
+            StartupTimings.record("login-to-dashboard", loginStartedMs,
+                    StartupTimings.sinceJvmStart() - loginStartedMs, true);
+            StartupTimings.mark("dashboard-visible");
+            StartupTimings.flush();
 
         } catch (IOException ex) {
             mostrarError("Error al abrir el dashboard", ex.getMessage());
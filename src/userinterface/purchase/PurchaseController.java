@@ -8,11 +8,14 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import javafx.scene.layout.AnchorPane;
+import logic.DAO.ConcurrencyConflictException;
 import logic.DAO.PurchaseOrderDAO;
 import logic.DAO.SupplierDAO;
 import logic.DTO.PurchaseOrderDTO;
 import logic.DTO.PurchaseStatus;
 import logic.DTO.SupplierDTO;
+import utilities.CachedView;
+import utilities.FxDataLoader;
 import utilities.SessionManager;
 
 import java.io.IOException;
@@ -27,7 +30,7 @@ import java.util.stream.Collectors;
 import javafx.scene.control.DateCell;
 import javafx.scene.control.DatePicker;
 
-public class PurchaseController {
+public class PurchaseController implements CachedView {
 
     @FXML private AnchorPane contentArea;
 
@@ -57,6 +60,7 @@ public class PurchaseController {
     private final PurchaseOrderDAO purchaseOrderDao = new PurchaseOrderDAO();
     private final SupplierDAO supplierDao = new SupplierDAO();
     private final ObservableList<PurchaseOrderDTO> allPurchases = FXCollections.observableArrayList();
+    private final FxDataLoader<List<PurchaseOrderDTO>> purchasesLoader = new FxDataLoader<>("las compras");
 
     private boolean isAdmin;
     private final DateTimeFormatter dateTimeFormatter =
@@ -72,6 +76,7 @@ public class PurchaseController {
         configureSelectionListener();
         configureSearchFilter();
 
+        purchasesLoader.attachTo(TblPurchases);
         reloadPurchasesTable();
         clearForm();
         setDetailDisabled(true);
@@ -175,14 +180,17 @@ public class PurchaseController {
         BtnSaveChanges.setDisable(!canEdit);
     }
 
+    // El dashboard conserva la vista: al volver solo se recargan los datos
+    @Override
+    public void onReactivated() {
+        reloadPurchasesTable();
+    }
+
     private void reloadPurchasesTable() {
-        try {
-            List<PurchaseOrderDTO> purchases = purchaseOrderDao.getAllPurchases();
+        purchasesLoader.load(purchaseOrderDao::getAllPurchases, purchases -> {
             allPurchases.setAll(purchases);
             applyFilter();
-        } catch (SQLException ex) {
-            showError("No se pudieron cargar las compras:\n" + ex.getMessage());
-        }
+        });
     }
 
     private void applyFilter() {
@@ -297,6 +305,9 @@ public class PurchaseController {
             showInfo("Compra marcada como recibida y vehículos dados de alta en inventario.");
             reloadPurchasesTable();
 
+        } catch (ConcurrencyConflictException ex) {
+            showError(ex.getMessage());
+            reloadPurchasesTable();
         } catch (Exception ex) {
             showError("No se pudo marcar como recibida: " + ex.getMessage());
         }
@@ -453,6 +464,10 @@ public class PurchaseController {
 
         } catch (IllegalArgumentException ex) {
             showError(ex.getMessage());
+        } catch (ConcurrencyConflictException ex) {
+            // La fila de la tabla ya tiene los cambios no guardados; se recarga con los actuales
+            showError(ex.getMessage());
+            reloadPurchasesTable();
         } catch (SQLException ex) {
             showError(mapDatabaseError(ex));
         } catch (Exception ex) {
@@ -2,6 +2,7 @@ package userinterface.sales;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import logic.DAO.ConcurrencyConflictException;
 import logic.DAO.SaleDAO;
 import logic.DAO.VehicleDAO;
 import logic.DTO.SaleDTO;
@@ -154,6 +155,8 @@ public class SaleFormController {
                 onCloseCallback.run();
             }
 
+        } catch (ConcurrencyConflictException ex) {
+            showError(ex.getMessage() + " Selecciona otro vehículo.");
         } catch (SQLException ex) {
             showError("Error al guardar en la base de datos: " + ex.getMessage());
         } catch (Exception ex) {
@@ -10,13 +10,18 @@ import javafx.scene.control.*;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.control.ListCell;
 
+import logic.DAO.ConcurrencyConflictException;
 import logic.DAO.SaleDAO;
 import logic.DAO.VehicleDAO;
 import logic.DTO.SaleDTO;
 import logic.DTO.SaleStatus;
 import logic.DTO.SalesReportRange;
 import logic.DTO.VehicleDTO;
+import logic.DTO.VehicleStatus;
+import utilities.CachedView;
+import utilities.FxDataLoader;
 import utilities.SessionManager;
+import utilities.VehicleSimilarityIndex;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -48,7 +53,7 @@ import logic.DTO.SupplierDTO;
 
 import java.io.File;
 
-public class SalesController {
+public class SalesController implements CachedView {
 
     private static final String CUSTOMER_NUMBER_PATTERN = "C\\d{4}";
 
@@ -103,6 +108,13 @@ public class SalesController {
 
     private boolean isAdmin;
     private final ObservableList<SaleDTO> allSales = FXCollections.observableArrayList();
+    private final FxDataLoader<List<SaleDTO>> salesLoader = new FxDataLoader<>("las ventas");
+
+    private final FxDataLoader<SimilarVehicles> similarLoader = new FxDataLoader<>("los vehículos parecidos");
+
+    // vehicle es null si el ID no existe
+    private record SimilarVehicles(long vehicleId, VehicleDTO vehicle, List<VehicleDTO> similar) {
+    }
 
     @FXML
     private void initialize() {
@@ -119,6 +131,7 @@ public class SalesController {
         clearForm();
         setFormDisabled(true);
 
+        salesLoader.attachTo(TblSales);
         reloadSalesTable();
     }
 
@@ -538,12 +551,15 @@ public class SalesController {
             sale.setClosedAt(selected.getClosedAt());
             sale.setAnnulledAt(selected.getAnnulledAt());
             sale.setAnnulReason(selected.getAnnulReason());
+            sale.setVersion(selected.getVersion());
 
             saleDao.updateSaleWithAudit(sale);
 
             showInfo("Venta actualizada correctamente.");
             reloadSalesTable();
 
+        } catch (ConcurrencyConflictException ex) {
+            showConflictAndReload(ex);
         } catch (Exception ex) {
             showError("Error al guardar la venta: " + ex.getMessage());
         }
@@ -598,16 +614,78 @@ public class SalesController {
             sale.setTotal(selected.getTotal());
             sale.setCreatedAt(selected.getCreatedAt());
             sale.setClosedAt(selected.getClosedAt());
+            sale.setVersion(selected.getVersion());
 
             saleDao.updateSaleWithAudit(sale);
 
             showInfo("Venta anulada correctamente.");
             reloadSalesTable();
 
+        } catch (ConcurrencyConflictException ex) {
+            showConflictAndReload(ex);
         } catch (Exception ex) {
             showError("Error al anular la venta: " + ex.getMessage());
         }
     }
+    @FXML
+    private void onShowSimilarVehicles() {
+        String text = TxtVehicleId.getText();
+        if (text == null || text.trim().isEmpty()) {
+            showError("Selecciona una venta o captura el ID del vehículo.");
+            return;
+        }
+
+        long vehicleId;
+        try {
+            vehicleId = parseLong(text, "ID vehículo");
+        } catch (IllegalArgumentException ex) {
+            showError(ex.getMessage());
+            return;
+        }
+
+        similarLoader.load(() -> findSimilarVehicles(vehicleId), this::showSimilarVehicles);
+    }
+
+    // Fuera del hilo de JavaFX. El índice se arma con los DISPONIBLE de este momento en cada
+    // consulta: uno guardado seguiría ofreciendo vehículos que ya se vendieron o dieron de baja.
+    private SimilarVehicles findSimilarVehicles(long vehicleId) throws SQLException, IOException {
+        VehicleDTO vehicle = vehicleDao.findVehicleById(vehicleId);
+        if (vehicle == null || vehicle.getVehicleId() == null || vehicle.getVehicleId() <= 0) {
+            return new SimilarVehicles(vehicleId, null, List.of());
+        }
+        VehicleSimilarityIndex index = VehicleSimilarityIndex.build(
+                vehicleDao.getVehiclesByStatus(VehicleStatus.DISPONIBLE));
+        return new SimilarVehicles(vehicleId, vehicle, index.nearest(vehicle, VehicleSimilarityIndex.DEFAULT_RESULTS));
+    }
+
+    private void showSimilarVehicles(SimilarVehicles result) {
+        VehicleDTO vehicle = result.vehicle();
+        if (vehicle == null) {
+            showError("El vehículo con ID " + result.vehicleId() + " no existe.");
+            return;
+        }
+
+        List<VehicleDTO> similar = result.similar();
+        if (similar.isEmpty()) {
+            showInfo("No hay vehículos disponibles parecidos a "
+                    + safe(vehicle.getMake()) + " " + safe(vehicle.getModel()) + ".");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder("Disponibles parecidos a ")
+                .append(safe(vehicle.getMake())).append(" ").append(safe(vehicle.getModel()))
+                .append(" (").append(vehicle.getModelYear() == null ? "-" : vehicle.getModelYear())
+                .append("):\n");
+        for (VehicleDTO v : similar) {
+            sb.append("\n• ID ").append(v.getVehicleId()).append(" - ")
+                    .append(safe(v.getMake())).append(" ").append(safe(v.getModel()))
+                    .append(" ").append(v.getModelYear())
+                    .append(", ").append(v.getMileageKm() == null ? "-" : v.getMileageKm() + " km")
+                    .append(", $").append(safeDec(v.getPrice()));
+        }
+        showInfo(sb.toString());
+    }
+
     @FXML
     private void onExportReport() {
         try {
@@ -626,6 +704,9 @@ public class SalesController {
 
             stage.setScene(new Scene(root));
             stage.setResizable(false);
+            // Al cerrar la ventana se cancela el reporte que se esté generando
+            SalesReportController reportController = loader.getController();
+            stage.setOnHidden(e -> reportController.cancelReport());
             stage.showAndWait();
 
         } catch (IOException ex) {
@@ -640,14 +721,23 @@ public class SalesController {
         setFormDisabled(true);
     }
 
+    // El dashboard conserva la vista: al volver solo se recargan los datos
+    @Override
+    public void onReactivated() {
+        reloadSalesTable();
+    }
+
     private void reloadSalesTable() {
-        try {
-            List<SaleDTO> sales = saleDao.getAllSales();
+        salesLoader.load(saleDao::getAllSales, sales -> {
             allSales.setAll(sales);
             applyFilter();
-        } catch (SQLException ex) {
-            showError("No se pudieron cargar las ventas:\n" + ex.getMessage());
-        }
+        });
+    }
+
+    // Otro usuario guardó la venta o vendió el vehículo primero: se muestran los datos actuales
+    private void showConflictAndReload(ConcurrencyConflictException ex) {
+        showError(ex.getMessage());
+        reloadSalesTable();
     }
 
     private void applyFilter() {
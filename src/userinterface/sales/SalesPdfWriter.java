@@ -0,0 +1,295 @@
+package userinterface.sales;
+
+import logic.DTO.SaleDTO;
+import logic.DTO.SaleStatus;
+import logic.DTO.SalesSummaryDTO;
+import logic.DTO.SalesSummaryGroup;
+import logic.DTO.SalesSummaryRowDTO;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Escribe el reporte de ventas fila por fila. Cuando una página se llena se cierra su contenido
+ * y se abre otra con el encabezado de columnas repetido. El documento usa un archivo temporal
+ * (MemoryUsageSetting.setupTempFileOnly) para el contenido de las páginas, así que la memoria
+ * no crece con el número de ventas.
+ */
+final class SalesPdfWriter implements Closeable {
+
+    private static final float MARGIN = 50f;
+    private static final float LINE_HEIGHT = 16f;
+    private static final float MIN_Y = 60f;
+    private static final float FOOTER_Y = 30f;
+
+    // Posición de cada columna respecto a la anterior (folio y fecha más anchos)
+    private static final String[] COLUMN_TITLES = {"Folio", "Cliente", "Vehículo", "Total", "Estado", "Fecha"};
+    private static final float[] COLUMN_OFFSETS = {0f, 160f, 140f, 140f, 100f, 100f};
+
+    private static final String[] SUMMARY_TITLES = {"Grupo", "Ventas", "Subtotal", "Descuento", "Impuestos", "Total"};
+    private static final float[] SUMMARY_OFFSETS = {0f, 120f, 110f, 110f, 110f, 110f};
+
+    private static final DateTimeFormatter GENERATED_AT_FORMATTER =
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private static final DateTimeFormatter SALE_DATETIME_FORMATTER =
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final PDDocument document;
+    private final String periodLabel;
+    private final String generatedAt;
+    private final PDRectangle pageSize;
+
+    private PDPageContentStream content;
+    private int pageNumber;
+    private float y;
+
+    private long rowCount;
+    private BigDecimal totalGeneral = BigDecimal.ZERO;
+
+    SalesPdfWriter(String periodLabel) {
+        this.document = new PDDocument(MemoryUsageSetting.setupTempFileOnly());
+        this.periodLabel = periodLabel;
+        this.generatedAt = LocalDateTime.now().format(GENERATED_AT_FORMATTER);
+
+        // Página en horizontal (landscape) sin usar rotate()
+        PDRectangle base = PDRectangle.LETTER;
+        this.pageSize = new PDRectangle(base.getHeight(), base.getWidth());
+    }
+
+    void writeSale(SaleDTO sale) throws IOException {
+        if (content == null || y < MIN_Y) {
+            newPage();
+        }
+
+        String vehicle = sale.getVehicleId() == null ? "" : "ID " + sale.getVehicleId();
+        String total = sale.getTotal() == null ? "" : sale.getTotal().toPlainString();
+        String status = sale.getStatus() == null ? "" : sale.getStatus().name();
+        String date = sale.getCreatedAt() == null ? "" : sale.getCreatedAt().format(SALE_DATETIME_FORMATTER);
+
+        writeRow(
+                safe(sale.getFolio()), // sin truncar
+                truncate(safe(sale.getCostumerNumber()), 25),
+                truncate(vehicle, 20),
+                total,
+                status,
+                date);
+        y -= LINE_HEIGHT;
+
+        rowCount++;
+        // Solo suman las ventas que no están anuladas
+        if (sale.getTotal() != null && sale.getStatus() != null && sale.getStatus() != SaleStatus.ANULADA) {
+            totalGeneral = totalGeneral.add(sale.getTotal());
+        }
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    BigDecimal getTotalGeneral() {
+        return totalGeneral;
+    }
+
+    /**
+     * Escribe los totales de las filas listadas, las secciones de resumen (calculadas en el
+     * servidor) y guarda el documento en {@code file}.
+     */
+    void finish(File file, List<SalesSummaryDTO> summaries) throws IOException {
+        if (content == null || y < MIN_Y + LINE_HEIGHT * 2) {
+            newPage();
+        }
+
+        y -= LINE_HEIGHT;
+        content.setFont(PDType1Font.HELVETICA_BOLD, 10);
+        writeText(MARGIN, y, "Total de ventas listadas: " + rowCount);
+        y -= LINE_HEIGHT;
+        writeText(MARGIN, y, "Suma total: " + totalGeneral.toPlainString());
+        y -= LINE_HEIGHT;
+
+        for (SalesSummaryDTO summary : summaries) {
+            writeSummary(summary);
+        }
+
+        closePage();
+        document.save(file);
+    }
+
+    private void writeSummary(SalesSummaryDTO summary) throws IOException {
+        // Título, encabezado y al menos una fila en la misma página
+        if (y < MIN_Y + LINE_HEIGHT * 4) {
+            newSummaryPage();
+        }
+
+        y -= LINE_HEIGHT;
+        content.setFont(PDType1Font.HELVETICA_BOLD, 11);
+        writeText(MARGIN, y, summaryTitle(summary.getGroup()));
+        y -= LINE_HEIGHT;
+
+        content.setFont(PDType1Font.HELVETICA_BOLD, 10);
+        writeSummaryRow(SUMMARY_TITLES);
+        y -= LINE_HEIGHT;
+
+        content.setFont(PDType1Font.HELVETICA, 9);
+        for (SalesSummaryRowDTO row : summary.getRows()) {
+            if (y < MIN_Y) {
+                newSummaryPage();
+                content.setFont(PDType1Font.HELVETICA, 9);
+            }
+            writeSummaryRow(summaryCells(safe(row.getGroupKey()), row));
+            y -= LINE_HEIGHT;
+        }
+
+        if (y < MIN_Y) {
+            newSummaryPage();
+        }
+        content.setFont(PDType1Font.HELVETICA_BOLD, 9);
+        writeSummaryRow(summaryCells("Total", summary.getGrandTotal()));
+        y -= LINE_HEIGHT;
+    }
+
+    private String[] summaryCells(String label, SalesSummaryRowDTO row) {
+        return new String[]{
+                label,
+                row.getSaleCount() + (row.getAnnulledCount() > 0 ? " (" + row.getAnnulledCount() + " anul.)" : ""),
+                row.getSubtotal().toPlainString(),
+                row.getDiscount().toPlainString(),
+                row.getTaxes().toPlainString(),
+                row.getTotalAmount().toPlainString()};
+    }
+
+    private static String summaryTitle(SalesSummaryGroup group) {
+        return switch (group) {
+            case DAY -> "Resumen por día";
+            case WEEK -> "Resumen por semana";
+            case MONTH -> "Resumen por mes";
+            case SELLER -> "Resumen por vendedor";
+            case STATUS -> "Resumen por estado";
+        };
+    }
+
+    // Las páginas de resumen no llevan el encabezado de columnas del listado
+    private void newSummaryPage() throws IOException {
+        closePage();
+
+        PDPage page = new PDPage(pageSize);
+        document.addPage(page);
+        content = new PDPageContentStream(document, page);
+        pageNumber++;
+        y = pageSize.getHeight() - MARGIN;
+
+        content.setFont(PDType1Font.HELVETICA, 9);
+        writeText(MARGIN, y, "Imperial Motors - Reporte de ventas (" + periodLabel + ")");
+        y -= LINE_HEIGHT * 1.5f;
+
+        content.setFont(PDType1Font.HELVETICA, 8);
+        writeText(MARGIN, FOOTER_Y, "Página " + pageNumber);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closePage();
+        } finally {
+            document.close();
+        }
+    }
+
+    private void newPage() throws IOException {
+        closePage();
+
+        PDPage page = new PDPage(pageSize);
+        document.addPage(page);
+        content = new PDPageContentStream(document, page);
+        pageNumber++;
+        y = pageSize.getHeight() - MARGIN;
+
+        if (pageNumber == 1) {
+            content.setFont(PDType1Font.HELVETICA_BOLD, 16);
+            writeText(MARGIN, y, "Imperial Motors - Reporte de ventas");
+            y -= LINE_HEIGHT * 2;
+
+            content.setFont(PDType1Font.HELVETICA, 10);
+            writeText(MARGIN, y, "Generado: " + generatedAt);
+            y -= LINE_HEIGHT;
+            writeText(MARGIN, y, "Periodo: " + periodLabel);
+            y -= LINE_HEIGHT * 2;
+        } else {
+            content.setFont(PDType1Font.HELVETICA, 9);
+            writeText(MARGIN, y, "Imperial Motors - Reporte de ventas (" + periodLabel + ")");
+            y -= LINE_HEIGHT * 1.5f;
+        }
+
+        // Encabezado de columnas, repetido en cada página
+        content.setFont(PDType1Font.HELVETICA_BOLD, 10);
+        writeRow(COLUMN_TITLES);
+        y -= LINE_HEIGHT;
+
+        content.moveTo(MARGIN, y);
+        content.lineTo(pageSize.getWidth() - MARGIN, y);
+        content.stroke();
+        y -= LINE_HEIGHT;
+
+        content.setFont(PDType1Font.HELVETICA, 8);
+        writeText(MARGIN, FOOTER_Y, "Página " + pageNumber);
+
+        content.setFont(PDType1Font.HELVETICA, 9);
+    }
+
+    private void closePage() throws IOException {
+        if (content != null) {
+            content.close();
+            content = null;
+        }
+    }
+
+    private void writeRow(String... cells) throws IOException {
+        writeCells(COLUMN_OFFSETS, cells);
+    }
+
+    private void writeSummaryRow(String... cells) throws IOException {
+        writeCells(SUMMARY_OFFSETS, cells);
+    }
+
+    // Una sola instrucción de texto por fila: cada columna se desplaza desde la anterior
+    private void writeCells(float[] offsets, String[] cells) throws IOException {
+        content.beginText();
+        content.newLineAtOffset(MARGIN, y);
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                content.newLineAtOffset(offsets[i], 0);
+            }
+            content.showText(cells[i]);
+        }
+        content.endText();
+    }
+
+    private void writeText(float x, float atY, String text) throws IOException {
+        content.beginText();
+        content.newLineAtOffset(x, atY);
+        content.showText(text);
+        content.endText();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength - 3) + "...";
+    }
+
+    private static String safe(String v) {
+        return v == null ? "" : v;
+    }
+}
@@ -0,0 +1,83 @@
+package userinterface.sales;
+
+import javafx.concurrent.Task;
+import logic.DAO.SaleDAO;
+import logic.DTO.SalesSummaryDTO;
+import logic.DTO.SalesSummaryGroup;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Genera el reporte de ventas en segundo plano: recorre las ventas con el cursor de
+ * {@link SaleDAO#streamSales} y las pasa a {@link SalesPdfWriter} sin juntarlas en una lista.
+ * Publica progreso (filas escritas / total) y se puede cancelar; cancelado no guarda nada.
+ */
+final class SalesReportTask extends Task<SalesReportTask.Result> {
+
+    // Cada cuántas filas se actualiza el mensaje de progreso
+    private static final int MESSAGE_EVERY_ROWS = 250;
+
+    record Result(long rows, BigDecimal total, File file) {
+    }
+
+    private final SaleDAO saleDao;
+    private final SaleDAO.DateRange range;
+    private final String periodLabel;
+    private final long expectedRows;
+    private final File file;
+
+    /** @param expectedRows conteo previo de ventas del rango, solo para el progreso */
+    SalesReportTask(SaleDAO saleDao, SaleDAO.DateRange range, String periodLabel, long expectedRows, File file) {
+        this.saleDao = saleDao;
+        this.range = range;
+        this.periodLabel = periodLabel;
+        this.expectedRows = Math.max(1, expectedRows);
+        this.file = file;
+    }
+
+    @Override
+    protected Result call() throws Exception {
+        updateMessage("Generando reporte...");
+        updateProgress(0, expectedRows);
+
+        try (SalesPdfWriter writer = new SalesPdfWriter(periodLabel)) {
+            saleDao.streamSales(range, sale -> {
+                if (isCancelled()) {
+                    return false;
+                }
+                writer.writeSale(sale);
+
+                long written = writer.getRowCount();
+                // Si entraron ventas después del conteo, la barra se queda llena hasta terminar
+                updateProgress(Math.min(written, expectedRows), expectedRows);
+                if (written % MESSAGE_EVERY_ROWS == 0) {
+                    updateMessage("Generando reporte... " + written + " de " + expectedRows + " ventas");
+                }
+                return true;
+            });
+
+            if (isCancelled()) {
+                return null;
+            }
+
+            // Las secciones de resumen se agregan en el servidor: solo llegan las filas por grupo
+            updateMessage("Calculando resumen...");
+            List<SalesSummaryDTO> summaries = new ArrayList<>();
+            summaries.add(saleDao.getSalesSummary(range, SalesSummaryGroup.STATUS));
+            if (spansSeveralMonths()) {
+                summaries.add(saleDao.getSalesSummary(range, SalesSummaryGroup.MONTH));
+            }
+
+            updateMessage("Guardando archivo...");
+            writer.finish(file, summaries);
+            return new Result(writer.getRowCount(), writer.getTotalGeneral(), file);
+        }
+    }
+
+    private boolean spansSeveralMonths() {
+        return range.isAll() || range.from().plusMonths(1).isBefore(range.to());
+    }
+}
@@ -9,16 +9,17 @@ import javafx.scene.control.*;
 import javafx.scene.layout.AnchorPane;
 import logic.DAO.SupplierDAO;
 import logic.DTO.SupplierDTO;
+import utilities.CachedView;
+import utilities.FxDataLoader;
 import utilities.SessionManager;
 
 import java.io.IOException;
-import java.sql.SQLException;
 import java.util.List;
 import java.util.Locale;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-public class SupplierController {
+public class SupplierController implements CachedView {
 
     @FXML
     private AnchorPane contentArea;
@@ -49,6 +50,7 @@ public class SupplierController {
 
     private final SupplierDAO supplierDao = new SupplierDAO();
     private final ObservableList<SupplierDTO> allSuppliers = FXCollections.observableArrayList();
+    private final FxDataLoader<List<SupplierDTO>> suppliersLoader = new FxDataLoader<>("los proveedores");
 
     private boolean isAdmin;
 
@@ -69,6 +71,7 @@ public class SupplierController {
 
         clearForm();
         setFormDisabled(true);
+        suppliersLoader.attachTo(TblSuppliers);
         reloadSuppliersTable();
     }
 
@@ -298,14 +301,18 @@ public class SupplierController {
         }
     }
 
+    // El dashboard conserva la vista: al volver solo se recargan los datos
+    @Override
+    public void onReactivated() {
+        reloadSuppliersTable();
+    }
+
     private void reloadSuppliersTable() {
-        try {
-            List<SupplierDTO> suppliers = supplierDao.getAllSuppliers(); // antes: getAllActiveSuppliers()
+        // antes: getAllActiveSuppliers()
+        suppliersLoader.load(supplierDao::getAllSuppliers, suppliers -> {
             allSuppliers.setAll(suppliers);
             applyFilter();
-        } catch (SQLException ex) {
-            showError("No se pudieron cargar los proveedores:\n" + ex.getMessage());
-        }
+        });
     }
 
     private void applyFilter() {
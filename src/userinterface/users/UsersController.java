@@ -12,13 +12,15 @@ import javafx.scene.layout.Region;
 import logic.DAO.UserDAO;
 import logic.DAO.UserManagementDAO;
 import logic.DTO.UserAccountDTO;
+import utilities.CachedView;
+import utilities.FxDataLoader;
 import utilities.SessionManager;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
 
-public class UsersController {
+public class UsersController implements CachedView {
 
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final String RESOURCE_USER_FORM = "/userinterface/users/UserFormView.fxml";
@@ -47,6 +49,7 @@ public class UsersController {
     private FilteredList<UserTableRow> filtered;
 
     private List<UserAccountDTO> cacheJoin = List.of();
+    private final FxDataLoader<List<UserAccountDTO>> usuariosLoader = new FxDataLoader<>("los usuarios");
 
     private final UserDAO userDAO = new UserDAO();
     private final UserManagementDAO userManagementDAO = new UserManagementDAO();
@@ -60,6 +63,7 @@ public class UsersController {
         configurarTabla();
         configurarPermisos();
         configurarBusqueda();
+        usuariosLoader.attachTo(tblUsuarios);
         cargarUsuarios();
 
         if (btnNuevo != null) btnNuevo.setOnAction(e -> onNuevo());
@@ -137,34 +141,39 @@ public class UsersController {
         });
     }
 
+    // El dashboard conserva la vista: al volver solo se recargan los datos
+    @Override
+    public void onReactivated() {
+        cargarUsuarios();
+    }
+
     private void cargarUsuarios() {
+        usuariosLoader.load(userDAO::getAllUsersWithAccount, this::mostrarUsuarios);
+    }
+
+    private void mostrarUsuarios(List<UserAccountDTO> lista) {
         usuarios.clear();
-        try {
-            cacheJoin = userDAO.getAllUsersWithAccount();
-
-            // Solo ACTivos
-            for (UserAccountDTO u : cacheJoin) {
-                if (u == null || !u.getIsActive()) {
-                    continue;
-                }
-
-                usuarios.add(new UserTableRow(
-                        u.getAccountId() == null ? "" : String.valueOf(u.getAccountId()),
-                        safe(u.getPersonnelNumber()),
-                        safe(u.getUsername()),
-                        safe(u.getFullName()),
-                        safe(u.getEmail()),
-                        u.getRole() != null ? u.getRole().name() : "-",
-                        "Sí",
-                        u.getCreatedAt() != null ? u.getCreatedAt().format(DATE_FMT) : "-"
-                ));
-            }
+        cacheJoin = lista;
 
-            aplicarBusqueda();
+        // Solo ACTivos
+        for (UserAccountDTO u : cacheJoin) {
+            if (u == null || !u.getIsActive()) {
+                continue;
+            }
 
-        } catch (Exception ex) {
-            mostrarError("Error al cargar usuarios", ex.getMessage());
+            usuarios.add(new UserTableRow(
+                    u.getAccountId() == null ? "" : String.valueOf(u.getAccountId()),
+                    safe(u.getPersonnelNumber()),
+                    safe(u.getUsername()),
+                    safe(u.getFullName()),
+                    safe(u.getEmail()),
+                    u.getRole() != null ? u.getRole().name() : "-",
+                    "Sí",
+                    u.getCreatedAt() != null ? u.getCreatedAt().format(DATE_FMT) : "-"
+            ));
         }
+
+        aplicarBusqueda();
     }
 
     @FXML
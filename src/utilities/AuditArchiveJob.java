@@ -0,0 +1,44 @@
+package utilities;
+
+import dataaccess.ConfigLoader;
+import dataaccess.ConnectionDataBase;
+import logic.DAO.AuditArchiveDAO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Mueve a las tablas mensuales audit_log_archive_YYYYMM las filas de audit_log más antiguas que
+ * audit.retention.months (migración 003_audit_log_archive.sql). Pensado para ejecutarse
+ * periódicamente (p. ej. una vez al mes) fuera del horario de operación.
+ * Ejecutar: java utilities.AuditArchiveJob [meses]
+ */
+public class AuditArchiveJob {
+
+    private static final int DEFAULT_RETENTION_MONTHS = 12;
+    private static final long DEFAULT_PAUSE_MS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int months = args.length > 0
+                ? Integer.parseInt(args[0])
+                : ConfigLoader.getInt("audit.retention.months", DEFAULT_RETENTION_MONTHS);
+        int chunkSize = ConfigLoader.getInt("audit.retention.chunkSize", AuditArchiveDAO.DEFAULT_CHUNK_SIZE);
+        long pauseMs = ConfigLoader.getLong("audit.retention.pauseMs", DEFAULT_PAUSE_MS);
+
+        if (months < 1) {
+            throw new IllegalArgumentException("La retención debe ser de al menos 1 mes.");
+        }
+
+        // Se corta al inicio de mes para que cada tabla de archivo quede con meses completos
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(months).atStartOfDay();
+
+        long start = System.nanoTime();
+        try {
+            long moved = new AuditArchiveDAO().archiveOlderThan(cutoff, chunkSize, pauseMs);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Corte: " + cutoff + " | filas archivadas: " + moved + " en " + elapsedMs + " ms");
+        } finally {
+            ConnectionDataBase.shutdown();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package utilities;
+
+import dataaccess.ConnectionDataBase;
+import logic.DAO.AuditBackfillDAO;
+
+/**
+ * Completa los campos de presentación de audit_log en filas históricas
+ * (migración 002_audit_display_columns.sql).
+ * Ejecutar: java utilities.AuditBackfillJob [tamañoDeBloque]
+ */
+public class AuditBackfillJob {
+
+    public static void main(String[] args) throws Exception {
+        int chunkSize = args.length > 0 ? Integer.parseInt(args[0]) : AuditBackfillDAO.DEFAULT_CHUNK_SIZE;
+
+        long start = System.nanoTime();
+        try {
+            long updated = new AuditBackfillDAO().backfillDisplayFields(chunkSize);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Filas actualizadas: " + updated + " en " + elapsedMs + " ms");
+        } finally {
+            ConnectionDataBase.shutdown();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package utilities;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Hash encadenado de audit_log. Debe producir exactamente lo mismo que el trigger
+ * trg_audit_log_chain (migración 004_audit_log_hash_chain.sql):
+ * <pre>
+ * SHA-256( seq|account_id|action|entity|entity_id|len:before|len:after|ip|created_at|prev_hash )
+ * </pre>
+ * Los campos nulos se representan como cadena vacía y before/after llevan su longitud en
+ * caracteres (CHAR_LENGTH) como prefijo para que un '|' dentro del JSON no sea ambiguo.
+ */
+public final class AuditChainHash {
+
+    public static final String GENESIS = "0".repeat(64);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private AuditChainHash() {}
+
+    /** Todos los valores tal como los devuelve MySQL en texto; created_at con formato yyyy-MM-dd HH:mm:ss. */
+    public static String rowHash(String seq, String accountId, String action, String entity, String entityId,
+                                 String beforeData, String afterData, String ipAddress, String createdAt,
+                                 String prevHash) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(safe(seq)).append('|')
+                .append(safe(accountId)).append('|')
+                .append(safe(action)).append('|')
+                .append(safe(entity)).append('|')
+                .append(safe(entityId)).append('|');
+        appendWithLength(sb, beforeData).append('|');
+        appendWithLength(sb, afterData).append('|');
+        sb.append(safe(ipAddress)).append('|')
+                .append(safe(createdAt)).append('|')
+                .append(safe(prevHash));
+
+        return toHex(sha256().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Firma de un checkpoint: HMAC-SHA256(clave, "seq:rowHash"). */
+    public static String sign(byte[] key, long seq, String rowHash) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return toHex(mac.doFinal((seq + ":" + rowHash).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 no disponible", ex);
+        }
+    }
+
+    /** Comparación en tiempo constante para no filtrar cuántos caracteres coinciden. */
+    public static boolean matches(String expected, String actual) {
+        if (expected == null || actual == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.US_ASCII),
+                actual.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static StringBuilder appendWithLength(StringBuilder sb, String value) {
+        String v = safe(value);
+        // CHAR_LENGTH de MySQL cuenta caracteres Unicode, no unidades UTF-16
+        return sb.append(v.codePointCount(0, v.length())).append(':').append(v);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 no disponible", ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+
+    private static String safe(String v) {
+        return v == null ? "" : v;
+    }
+}
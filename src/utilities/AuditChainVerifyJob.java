@@ -0,0 +1,75 @@
+package utilities;
+
+import dataaccess.ConfigLoader;
+import dataaccess.ConnectionDataBase;
+import logic.DAO.AuditChainVerifier;
+import logic.DTO.AuditChainReportDTO;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Verifica la cadena de hashes de audit_log (migración 004_audit_log_hash_chain.sql).
+ * Sin argumentos solo revisa lo escrito desde el último checkpoint; con --full revisa además todos
+ * los tramos históricos en paralelo. Termina con código 2 si la cadena fue alterada.
+ * La clave HMAC no vive en config.properties (el classpath lo puede leer cualquiera con acceso al
+ * despliegue): se toma de la variable de entorno AUDIT_CHAIN_KEY o del archivo indicado en
+ * AUDIT_CHAIN_KEY_FILE, que debe quedar fuera del alcance del usuario de base de datos.
+ * Ejecutar: java utilities.AuditChainVerifyJob [--full]
+ */
+public class AuditChainVerifyJob {
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+    private static final int EXIT_TAMPERED = 2;
+    private static final String KEY_ENV = "AUDIT_CHAIN_KEY";
+    private static final String KEY_FILE_ENV = "AUDIT_CHAIN_KEY_FILE";
+
+    public static void main(String[] args) throws Exception {
+        boolean full = args.length > 0 && "--full".equals(args[0]);
+
+        String key = readKey();
+        if (key == null || key.isBlank()) {
+            System.err.println("Falta la clave HMAC: defina " + KEY_ENV + " o " + KEY_FILE_ENV + ".");
+            System.exit(1);
+            return;
+        }
+
+        int interval = ConfigLoader.getInt("audit.chain.checkpointInterval", DEFAULT_CHECKPOINT_INTERVAL);
+        int threads = ConfigLoader.getInt("audit.chain.verifyThreads", 0);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        // Cada tramo usa su propia conexión: se deja al menos una libre en el pool
+        threads = Math.max(1, Math.min(threads, ConfigLoader.getInt("db.pool.maxSize", 10) - 1));
+
+        AuditChainVerifier verifier = new AuditChainVerifier(key.getBytes(StandardCharsets.UTF_8), interval, threads);
+
+        long start = System.nanoTime();
+        AuditChainReportDTO report;
+        try {
+            report = full ? verifier.verifyAll() : verifier.verifyIncremental();
+        } finally {
+            ConnectionDataBase.shutdown();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(report + " | " + elapsedMs + " ms");
+        if (!report.isValid()) {
+            System.exit(EXIT_TAMPERED);
+        }
+    }
+
+    private static String readKey() throws IOException {
+        String key = System.getenv(KEY_ENV);
+        if (key != null && !key.isBlank()) {
+            return key;
+        }
+        String file = System.getenv(KEY_FILE_ENV);
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        return Files.readString(Path.of(file.trim()), StandardCharsets.UTF_8).strip();
+    }
+}
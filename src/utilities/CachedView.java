@@ -0,0 +1,11 @@
+package utilities;
+
+/**
+ * Controlador de un módulo que el dashboard conserva entre visitas. Al volver al módulo no se
+ * vuelve a leer el FXML ni a ejecutar {@code initialize()}; solo se llama a {@link #onReactivated()}.
+ */
+public interface CachedView {
+
+    /** Refresca los datos en segundo plano conservando filtros y búsqueda del usuario. */
+    void onReactivated();
+}
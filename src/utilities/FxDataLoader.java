@@ -0,0 +1,216 @@
+package utilities;
+
+import dataaccess.ConfigLoader;
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Task;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Carga de datos de una pantalla fuera del hilo de JavaFX. Cada pantalla crea uno por tabla.
+ * <ul>
+ *     <li>La consulta corre en un pool compartido; el resultado se aplica en el hilo de JavaFX.</li>
+ *     <li>Si se pide otra carga mientras hay una en curso, no se lanza en paralelo: al terminar la
+ *     actual se hace una sola más con la última petición (varias peticiones se juntan en una).</li>
+ *     <li>{@link #cancel()} descarta lo que esté en curso; al salir la tabla de la escena se cancela
+ *     sola y, si vuelve, se repite la última carga que quedó pendiente.</li>
+ *     <li>Mientras carga, la tabla vacía muestra "Cargando ..." en lugar de su placeholder.</li>
+ *     <li>Los errores se registran y se muestran siempre con el mismo diálogo.</li>
+ * </ul>
+ * Todos los métodos se llaman desde el hilo de JavaFX.
+ */
+public final class FxDataLoader<T> {
+
+    private static final Logger log = LogManager.getLogger(FxDataLoader.class);
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    @FunctionalInterface
+    public interface Query<T> {
+        T load() throws Exception;
+    }
+
+    private record Request<T>(Query<T> query, Consumer<T> onLoaded, Consumer<Throwable> onFailed) {
+    }
+
+    private final String description;
+
+    private TableView<?> table;
+    private Node originalPlaceholder;
+    private Node loadingPlaceholder;
+
+    private Task<T> current;
+    private Request<T> lastRequest;
+    private Request<T> pending;
+    private Request<T> interrupted;
+    private int generation;
+
+    /** @param description lo que se carga, para los mensajes ("las ventas", "los proveedores"...) */
+    public FxDataLoader(String description) {
+        this.description = description;
+    }
+
+    private static ExecutorService createExecutor() {
+        int threads = Math.max(1, ConfigLoader.getInt("ui.loader.threads", 4));
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "fx-data-loader-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Usa {@code table} para el placeholder de carga y cancela cuando la tabla sale de la escena
+     * (el usuario cambió de módulo).
+     */
+    public FxDataLoader<T> attachTo(TableView<?> table) {
+        this.table = table;
+        this.originalPlaceholder = table.getPlaceholder();
+
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setPrefSize(24, 24);
+        Label label = new Label("Cargando " + description + "...", spinner);
+        this.loadingPlaceholder = label;
+
+        ChangeListener<Scene> sceneListener = (obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                Request<T> inFlight = pending != null ? pending : (current != null ? lastRequest : null);
+                cancel();
+                interrupted = inFlight;
+            } else if (interrupted != null) {
+                Request<T> retry = interrupted;
+                interrupted = null;
+                start(retry);
+            }
+        };
+        table.sceneProperty().addListener(sceneListener);
+        return this;
+    }
+
+    public void load(Query<T> query, Consumer<T> onLoaded) {
+        load(query, onLoaded, null);
+    }
+
+    /**
+     * @param onFailed se llama después del diálogo de error, para que la pantalla restablezca su
+     *                 estado; puede ser null
+     */
+    public void load(Query<T> query, Consumer<T> onLoaded, Consumer<Throwable> onFailed) {
+        Request<T> request = new Request<>(query, onLoaded, onFailed);
+        interrupted = null;
+
+        if (current != null) {
+            pending = request;
+            return;
+        }
+        start(request);
+    }
+
+    /** Descarta la carga en curso y la pendiente; sus resultados ya no se aplican. */
+    public void cancel() {
+        generation++;
+        pending = null;
+        interrupted = null;
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+        showLoading(false);
+    }
+
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    private void start(Request<T> request) {
+        final int startedGeneration = ++generation;
+        lastRequest = request;
+
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return request.query().load();
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            if (startedGeneration != generation) {
+                return;
+            }
+            finish();
+            request.onLoaded().accept(task.getValue());
+            startPending();
+        });
+
+        task.setOnFailed(e -> {
+            if (startedGeneration != generation) {
+                return;
+            }
+            finish();
+            Throwable ex = task.getException();
+            log.error("Error al cargar {}", description, ex);
+            showError(ex);
+            if (request.onFailed() != null) {
+                request.onFailed().accept(ex);
+            }
+            startPending();
+        });
+
+        current = task;
+        showLoading(true);
+        EXECUTOR.execute(task);
+    }
+
+    private void finish() {
+        current = null;
+        showLoading(false);
+    }
+
+    private void startPending() {
+        if (pending != null && current == null) {
+            Request<T> next = pending;
+            pending = null;
+            start(next);
+        }
+    }
+
+    private void showLoading(boolean loading) {
+        if (table != null) {
+            table.setPlaceholder(loading ? loadingPlaceholder : originalPlaceholder);
+        }
+    }
+
+    private void showError(Throwable ex) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error al cargar datos");
+        alert.setHeaderText(null);
+        alert.setContentText("No se pudieron cargar " + description + ":\n"
+                + (ex == null || ex.getMessage() == null ? "Error desconocido." : ex.getMessage()));
+        alert.show();
+    }
+
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
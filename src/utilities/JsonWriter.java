@@ -0,0 +1,358 @@
+package utilities;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Escritor de objetos JSON planos para los payloads de auditoría (before_data / after_data).
+ * Reutiliza un búfer por hilo y escapa según RFC 8259.
+ * <p>
+ * Mientras todo el contenido sea Latin-1 (español incluido) escribe bytes directamente y el
+ * String final se crea con una sola copia; agregar a un StringBuilder campo por campo costaba
+ * el doble que la concatenación anterior (ver JsonWriterBenchmark). Un valor con caracteres
+ * fuera de Latin-1 pasa el resto del objeto a un StringBuilder.
+ *
+ * <pre>
+ * String json = JsonWriter.object()
+ *         .field("folio", sale.getFolio())
+ *         .field("total", sale.getTotal())
+ *         .end();
+ * </pre>
+ */
+public final class JsonWriter {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char MAX_LATIN1 = '\u00FF';
+
+    private static final ThreadLocal<JsonWriter> LOCAL = ThreadLocal.withInitial(JsonWriter::new);
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int pos;
+    // Solo cuando apareció un carácter fuera de Latin-1; si no, null
+    private StringBuilder wide;
+    private boolean inUse;
+    private boolean first;
+
+    private JsonWriter() {}
+
+    /** Empieza un objeto con el escritor del hilo actual (o uno nuevo si ya está en uso). */
+    public static JsonWriter object() {
+        JsonWriter w = LOCAL.get();
+        if (w.inUse) {
+            w = new JsonWriter();
+        }
+        w.inUse = true;
+        w.first = true;
+        w.pos = 0;
+        w.wide = null;
+        w.ascii('{');
+        return w;
+    }
+
+    public JsonWriter field(String name, String value) {
+        name(name);
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter field(String name, long value) {
+        name(name);
+        number(value);
+        return this;
+    }
+
+    public JsonWriter field(String name, Long value) {
+        return value == null ? fieldNull(name) : field(name, value.longValue());
+    }
+
+    public JsonWriter field(String name, boolean value) {
+        name(name);
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter field(String name, BigDecimal value) {
+        name(name);
+        if (value == null) {
+            ascii("null");
+        } else if (value.scale() >= 0 && value.precision() - value.scale() - 1 >= -6) {
+            // Sin notación exponencial toString() coincide con toPlainString() y BigDecimal lo guarda en caché.
+            ascii(value.toString());
+        } else {
+            ascii(value.toPlainString());
+        }
+        return this;
+    }
+
+    public JsonWriter fieldNull(String name) {
+        name(name);
+        ascii("null");
+        return this;
+    }
+
+    /** Cierra el objeto, devuelve el JSON y libera el escritor para el siguiente uso en el hilo. */
+    public String end() {
+        ascii('}');
+        String json;
+        if (wide == null) {
+            json = new String(buf, 0, pos, StandardCharsets.ISO_8859_1);
+        } else {
+            json = wide.toString();
+            wide = null;
+        }
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+        inUse = false;
+        return json;
+    }
+
+    /** Escapa {@code value} como cadena JSON (con comillas) y lo agrega a {@code out}. */
+    public static void appendQuoted(StringBuilder out, String value) {
+        out.append('"');
+        int length = value.length();
+        int start = firstToEscape(value);
+        if (start == length) {
+            out.append(value).append('"');
+            return;
+        }
+        out.append(value, 0, start);
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c >= 0x20 && c != '\u2028' && c != '\u2029') {
+                // U+2028/U+2029 son JSON válido pero rompen JavaScript; se escapan por seguridad.
+                continue;
+            } else {
+                replacement = null;
+            }
+
+            out.append(value, start, i);
+            if (replacement != null) {
+                out.append(replacement);
+            } else {
+                appendControl(out, c);
+            }
+            start = i + 1;
+        }
+        out.append(value, start, length);
+        out.append('"');
+    }
+
+    private static int firstToEscape(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\' || c == '\u2028' || c == '\u2029') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    // Los nombres de campo son literales del código: no requieren escape.
+    @SuppressWarnings("deprecation")
+    private void name(String name) {
+        if (wide != null) {
+            if (!first) {
+                wide.append(',');
+            }
+            first = false;
+            wide.append('"').append(name).append("\":");
+            return;
+        }
+        // Una sola verificación de capacidad para ,"nombre":
+        int length = name.length();
+        ensureCapacity(length + 4);
+        byte[] b = buf;
+        int p = pos;
+        if (!first) {
+            b[p++] = ',';
+        }
+        first = false;
+        b[p++] = '"';
+        name.getBytes(0, length, b, p);
+        p += length;
+        b[p++] = '"';
+        b[p++] = ':';
+        pos = p;
+    }
+
+    private void string(String value) {
+        if (wide != null) {
+            appendQuoted(wide, value);
+            return;
+        }
+
+        // Lo común es Latin-1 sin nada que escapar: un recorrido y una copia
+        int length = value.length();
+        int special = firstSpecial(value);
+        if (special < length && !isLatin1(value, special)) {
+            widen();
+            appendQuoted(wide, value);
+            return;
+        }
+
+        if (special == length) {
+            quoted(value);
+            return;
+        }
+
+        ascii('"');
+        ascii(value, special);
+        for (int i = special; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                ascii("\\\"");
+            } else if (c == '\\') {
+                ascii("\\\\");
+            } else if (c < 0x20) {
+                control(c);
+            } else {
+                ascii(c);
+            }
+        }
+        ascii('"');
+    }
+
+    @SuppressWarnings("deprecation")
+    private void quoted(String value) {
+        int length = value.length();
+        ensureCapacity(length + 2);
+        byte[] b = buf;
+        int p = pos;
+        b[p++] = '"';
+        value.getBytes(0, length, b, p);
+        p += length;
+        b[p++] = '"';
+        pos = p;
+    }
+
+    // Primer carácter que hay que escapar o que no cabe en Latin-1
+    private static int firstSpecial(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\' || c > MAX_LATIN1) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isLatin1(String value, int from) {
+        for (int i = from; i < value.length(); i++) {
+            if (value.charAt(i) > MAX_LATIN1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void control(char c) {
+        switch (c) {
+            case '\b' -> ascii("\\b");
+            case '\f' -> ascii("\\f");
+            case '\n' -> ascii("\\n");
+            case '\r' -> ascii("\\r");
+            case '\t' -> ascii("\\t");
+            default -> {
+                ascii("\\u00");
+                ascii(HEX[(c >> 4) & 0xF]);
+                ascii(HEX[c & 0xF]);
+            }
+        }
+    }
+
+    // Dígitos directo al búfer: Long.toString crearía un String por campo
+    private void number(long value) {
+        if (wide != null || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            ascii(Long.toString(value));
+            return;
+        }
+        // Ids e importes caben en int; la división entera entre 10 es mucho más barata que la de long
+        int v = (int) value;
+        if (v < 0) {
+            if (v == Integer.MIN_VALUE) {
+                ascii(Long.toString(value));
+                return;
+            }
+            ascii('-');
+            v = -v;
+        }
+        int digits = 1;
+        for (int rest = v; rest >= 10; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        pos += digits;
+    }
+
+    /** Agrega texto que ya se sabe Latin-1 y sin nada que escapar (nombres, números, literales). */
+    private void ascii(String text) {
+        ascii(text, text.length());
+    }
+
+    // Los primeros length caracteres de text
+    @SuppressWarnings("deprecation")
+    private void ascii(String text, int length) {
+        if (wide != null) {
+            wide.append(text, 0, length);
+            return;
+        }
+        ensureCapacity(length);
+        // Copia el byte bajo de cada char; para cadenas Latin-1 es una copia directa del arreglo
+        text.getBytes(0, length, buf, pos);
+        pos += length;
+    }
+
+    private void ascii(char c) {
+        if (wide != null) {
+            wide.append(c);
+            return;
+        }
+        ensureCapacity(1);
+        buf[pos++] = (byte) c;
+    }
+
+    private void widen() {
+        wide = new StringBuilder(pos + INITIAL_CAPACITY);
+        wide.append(new String(buf, 0, pos, StandardCharsets.ISO_8859_1));
+    }
+
+    private void ensureCapacity(int extra) {
+        if (pos + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        }
+    }
+
+    private static void appendControl(StringBuilder out, char c) {
+        switch (c) {
+            case '\b' -> out.append("\\b");
+            case '\f' -> out.append("\\f");
+            case '\n' -> out.append("\\n");
+            case '\r' -> out.append("\\r");
+            case '\t' -> out.append("\\t");
+            default -> out.append("\\u")
+                    .append(HEX[(c >> 12) & 0xF])
+                    .append(HEX[(c >> 8) & 0xF])
+                    .append(HEX[(c >> 4) & 0xF])
+                    .append(HEX[c & 0xF]);
+        }
+    }
+}
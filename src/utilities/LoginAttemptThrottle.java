@@ -0,0 +1,126 @@
+package utilities;
+
+import dataaccess.ConfigLoader;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limita en memoria los intentos de inicio de sesión por correo.
+ * <ul>
+ *   <li>Solo un intento en curso por correo: los clics repetidos no encolan más bcrypt.</li>
+ *   <li>Tras {@code security.login.maxFailures} fallos dentro de la ventana el correo queda
+ *   bloqueado; el bloqueo se duplica con cada fallo extra hasta {@code security.login.maxLockMs}.</li>
+ * </ul>
+ */
+public final class LoginAttemptThrottle {
+
+    private static final int DEFAULT_MAX_FAILURES = 5;
+    private static final long DEFAULT_WINDOW_MS = 5 * 60_000L;
+    private static final long DEFAULT_LOCK_MS = 30_000L;
+    private static final long DEFAULT_MAX_LOCK_MS = 15 * 60_000L;
+    private static final int MAX_TRACKED = 10_000;
+
+    private static final LoginAttemptThrottle INSTANCE = new LoginAttemptThrottle(
+            ConfigLoader.getInt("security.login.maxFailures", DEFAULT_MAX_FAILURES),
+            ConfigLoader.getLong("security.login.windowMs", DEFAULT_WINDOW_MS),
+            ConfigLoader.getLong("security.login.lockMs", DEFAULT_LOCK_MS),
+            ConfigLoader.getLong("security.login.maxLockMs", DEFAULT_MAX_LOCK_MS));
+
+    private final int maxFailures;
+    private final long windowMs;
+    private final long lockMs;
+    private final long maxLockMs;
+
+    private final Map<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    private static final class Attempts {
+        int failures;
+        long firstFailureAt;
+        long lockedUntil;
+        boolean inFlight;
+    }
+
+    private LoginAttemptThrottle(int maxFailures, long windowMs, long lockMs, long maxLockMs) {
+        this.maxFailures = Math.max(1, maxFailures);
+        this.windowMs = windowMs;
+        this.lockMs = lockMs;
+        this.maxLockMs = Math.max(lockMs, maxLockMs);
+    }
+
+    public static LoginAttemptThrottle getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reserva el intento para el correo.
+     *
+     * @return 0 si puede continuar, o los milisegundos que faltan para poder intentar de nuevo
+     * (-1 si ya hay un intento en curso para ese correo)
+     */
+    public long tryAcquire(String email) {
+        long now = System.currentTimeMillis();
+        if (attempts.size() > MAX_TRACKED) {
+            purgeExpired(now);
+        }
+
+        Attempts a = attempts.computeIfAbsent(key(email), k -> new Attempts());
+        synchronized (a) {
+            if (a.inFlight) {
+                return -1;
+            }
+            if (a.lockedUntil > now) {
+                return a.lockedUntil - now;
+            }
+            a.inFlight = true;
+            return 0;
+        }
+    }
+
+    public void recordFailure(String email) {
+        long now = System.currentTimeMillis();
+        Attempts a = attempts.computeIfAbsent(key(email), k -> new Attempts());
+        synchronized (a) {
+            a.inFlight = false;
+            if (a.failures == 0 || now - a.firstFailureAt > windowMs) {
+                a.failures = 0;
+                a.firstFailureAt = now;
+            }
+            a.failures++;
+
+            if (a.failures >= maxFailures) {
+                int extra = Math.min(a.failures - maxFailures, 20);
+                long lock = Math.min(maxLockMs, lockMs << extra);
+                a.lockedUntil = now + lock;
+            }
+        }
+    }
+
+    public void recordSuccess(String email) {
+        attempts.remove(key(email));
+    }
+
+    /** Libera el intento sin contarlo (p. ej. error de base de datos). */
+    public void release(String email) {
+        Attempts a = attempts.get(key(email));
+        if (a != null) {
+            synchronized (a) {
+                a.inFlight = false;
+            }
+        }
+    }
+
+    private void purgeExpired(long now) {
+        attempts.entrySet().removeIf(e -> {
+            Attempts a = e.getValue();
+            synchronized (a) {
+                return !a.inFlight && a.lockedUntil <= now && now - a.firstFailureAt > windowMs;
+            }
+        });
+    }
+
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,6 @@
 package utilities;
 
+import dataaccess.ConfigLoader;
 import org.mindrot.jbcrypt.BCrypt;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
@@ -9,12 +10,65 @@ public final class PasswordUtiities {
     private static final int MAX_LEN = 72;
     private static final int MIN_LEN = 8;
 
+    // Límites de la calibración (BCrypt admite 4..31)
+    private static final int DEFAULT_MIN_COST = 10;
+    private static final int DEFAULT_MAX_COST = 16;
+    private static final long DEFAULT_TARGET_MS = 250;
+    private static final String CALIBRATION_PASSWORD = "calibracion-Imperial-2025";
+
+    // Costo vigente para hashes nuevos; COST hasta que termine la calibración
+    private static volatile int currentCost = COST;
+
     private PasswordUtiities() { }
 
     public static String hashPassword(String plainTextPassword) {
         String pwd = sanitize(plainTextPassword);
         validateLength(pwd);
-        return BCrypt.hashpw(pwd, BCrypt.gensalt(COST));
+        return BCrypt.hashpw(pwd, BCrypt.gensalt(currentCost));
+    }
+
+    public static int getCurrentCost() {
+        return currentCost;
+    }
+
+    /**
+     * Mide BCrypt.hashpw en este equipo y fija el costo más alto cuyo tiempo no pasa de
+     * security.bcrypt.targetMs, sin bajar de security.bcrypt.minCost ni subir de maxCost.
+     * Cada punto de costo duplica el tiempo, así que se sube mientras el doble quepa en el presupuesto.
+     *
+     * @return el costo elegido
+     */
+    public static int calibrate() {
+        int minCost = clampCost(ConfigLoader.getInt("security.bcrypt.minCost", DEFAULT_MIN_COST));
+        int maxCost = Math.max(minCost, clampCost(ConfigLoader.getInt("security.bcrypt.maxCost", DEFAULT_MAX_COST)));
+        long targetMs = ConfigLoader.getLong("security.bcrypt.targetMs", DEFAULT_TARGET_MS);
+
+        // Primera corrida descartada: carga de clases y JIT
+        measureHashMillis(minCost);
+
+        int cost = minCost;
+        long elapsed = measureHashMillis(cost);
+        while (cost < maxCost && elapsed * 2 <= targetMs) {
+            cost++;
+            elapsed = measureHashMillis(cost);
+        }
+        if (elapsed > targetMs && cost > minCost) {
+            cost--;
+        }
+
+        currentCost = cost;
+        return cost;
+    }
+
+    /** Milisegundos de un BCrypt.hashpw con el costo indicado. */
+    public static long measureHashMillis(int cost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(cost));
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static int clampCost(int cost) {
+        return Math.max(4, Math.min(31, cost));
     }
 
     public static boolean verifyPassword(String plainTextPassword, String passwordHash) {
@@ -32,8 +86,8 @@ public final class PasswordUtiities {
         String[] parts = passwordHash.split("\\$");
         if (parts.length < 3) return true;
         try {
-            int currentCost = Integer.parseInt(parts[2]);
-            return currentCost < COST;
+            int hashCost = Integer.parseInt(parts[2]);
+            return hashCost < currentCost;
         } catch (NumberFormatException ex) {
             return true;
         }
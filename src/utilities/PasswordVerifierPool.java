@@ -0,0 +1,48 @@
+package utilities;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutor dedicado para el inicio de sesión (consulta de la cuenta + bcrypt).
+ * Tiene un hilo por núcleo y una cola acotada: una ráfaga de intentos nunca crea más hilos ni
+ * acumula trabajo sin límite; lo que no cabe se rechaza y la pantalla pide reintentar.
+ */
+public final class PasswordVerifierPool {
+
+    private static final int QUEUE_PER_THREAD = 4;
+
+    private static final ThreadPoolExecutor EXECUTOR = create();
+
+    private PasswordVerifierPool() {}
+
+    private static ThreadPoolExecutor create() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD),
+                r -> {
+                    Thread t = new Thread(r, "password-verifier-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** @throws RejectedExecutionException si la cola está llena */
+    public static void execute(Runnable task) {
+        EXECUTOR.execute(task);
+    }
+
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
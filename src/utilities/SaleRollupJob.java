@@ -0,0 +1,64 @@
+package utilities;
+
+import dataaccess.ConnectionDataBase;
+import logic.DAO.SaleDAO;
+import logic.DAO.SaleRollupDAO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reconstruye o verifica sale_daily_rollup (migración 005_sale_daily_rollup.sql) para un rango de
+ * días [desde, hasta); sin fechas aplica a todo el histórico. --verify termina con código 2 si
+ * alguna fila no coincide con lo que hay en sale; en ese caso basta con --rebuild del mismo rango.
+ * Ejecutar: java utilities.SaleRollupJob --rebuild|--verify [desde hasta]   (fechas yyyy-MM-dd)
+ */
+public class SaleRollupJob {
+
+    private static final int EXIT_USAGE = 1;
+    private static final int EXIT_MISMATCH = 2;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1 && args.length != 3
+                || !("--rebuild".equals(args[0]) || "--verify".equals(args[0]))) {
+            System.err.println("Uso: java utilities.SaleRollupJob --rebuild|--verify [desde hasta]");
+            System.exit(EXIT_USAGE);
+            return;
+        }
+
+        SaleDAO.DateRange range = SaleDAO.DateRange.all();
+        if (args.length == 3) {
+            LocalDate from = LocalDate.parse(args[1]);
+            LocalDate to = LocalDate.parse(args[2]);
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("'desde' debe ser anterior a 'hasta' (fin exclusivo).");
+            }
+            range = new SaleDAO.DateRange(from.atStartOfDay(), to.atStartOfDay());
+        }
+        String rangeLabel = range.isAll() ? "todo el histórico" : args[1] + " a " + args[2];
+
+        SaleRollupDAO dao = new SaleRollupDAO();
+        long start = System.nanoTime();
+        List<SaleRollupDAO.Mismatch> mismatches = List.of();
+        try {
+            if ("--rebuild".equals(args[0])) {
+                int rows = dao.rebuild(range);
+                System.out.println("Reconstruido " + rangeLabel + " | filas de resumen: " + rows
+                        + " | " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } else {
+                mismatches = dao.verify(range);
+                for (SaleRollupDAO.Mismatch mismatch : mismatches) {
+                    System.out.println("  " + mismatch);
+                }
+                System.out.println((mismatches.isEmpty() ? "OK" : mismatches.size() + " DIFERENCIAS")
+                        + " | " + rangeLabel + " | " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        } finally {
+            ConnectionDataBase.shutdown();
+        }
+
+        if (!mismatches.isEmpty()) {
+            System.exit(EXIT_MISMATCH);
+        }
+    }
+}
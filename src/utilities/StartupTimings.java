@@ -0,0 +1,115 @@
+package utilities;
+
+import dataaccess.ConfigLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tiempos del arranque (fases de precalentamiento, login visible, login → dashboard).
+ * Se agregan como filas a un CSV (startup.timings.file) una vez por ejecución, con la versión
+ * de la aplicación, para comparar el tiempo hasta el dashboard entre versiones.
+ * <p>
+ * Los tiempos se miden en milisegundos desde el arranque de la JVM.
+ */
+public final class StartupTimings {
+
+    private static final Logger log = LogManager.getLogger(StartupTimings.class);
+
+    private static final String CSV_HEADER = "run_at,version,phase,start_ms,duration_ms,status";
+
+    private record Phase(String name, long startMs, long durationMs, boolean ok) {
+    }
+
+    private static final long JVM_START_MS = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final List<Phase> PHASES = new ArrayList<>();
+    private static boolean flushed;
+
+    private StartupTimings() {
+    }
+
+    /** Milisegundos transcurridos desde el arranque de la JVM. */
+    public static long sinceJvmStart() {
+        return System.currentTimeMillis() - JVM_START_MS;
+    }
+
+    /**
+     * @param startMs    inicio de la fase, según {@link #sinceJvmStart()}
+     * @param durationMs duración de la fase
+     */
+    public static synchronized void record(String phase, long startMs, long durationMs, boolean ok) {
+        PHASES.add(new Phase(phase, startMs, durationMs, ok));
+    }
+
+    /** Registra un hito: una fase que empieza con la JVM y termina ahora. */
+    public static void mark(String milestone) {
+        record(milestone, 0, sinceJvmStart(), true);
+    }
+
+    /** Escribe las filas acumuladas; solo la primera llamada de la ejecución tiene efecto. */
+    public static void flush() {
+        List<Phase> snapshot;
+        synchronized (StartupTimings.class) {
+            if (flushed || PHASES.isEmpty()) {
+                return;
+            }
+            flushed = true;
+            snapshot = new ArrayList<>(PHASES);
+        }
+
+        StringBuilder summary = new StringBuilder();
+        for (Phase p : snapshot) {
+            summary.append(String.format("%n  %-22s inicio=%6d ms  duración=%6d ms%s",
+                    p.name(), p.startMs(), p.durationMs(), p.ok() ? "" : "  (falló)"));
+        }
+        log.info("Tiempos de arranque:{}", summary);
+
+        if (!ConfigLoader.getBoolean("startup.timings.enabled", true)) {
+            return;
+        }
+
+        String defaultFile = Paths.get(System.getProperty("user.home"), ".imperialmotors", "startup-timings.csv").toString();
+        Path file = Paths.get(ConfigLoader.get("startup.timings.file", defaultFile));
+        String runAt = Instant.now().toString();
+        String version = appVersion();
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            boolean isNew = !Files.exists(file);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (isNew) {
+                    out.write(CSV_HEADER);
+                    out.newLine();
+                }
+                for (Phase p : snapshot) {
+                    out.write(runAt + "," + version + "," + p.name() + "," + p.startMs() + ","
+                            + p.durationMs() + "," + (p.ok() ? "ok" : "error"));
+                    out.newLine();
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("No se pudieron guardar los tiempos de arranque en {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /** Versión del manifest del jar; app.version la sobrescribe (útil al correr desde el IDE). */
+    private static String appVersion() {
+        String version = StartupTimings.class.getPackage().getImplementationVersion();
+        return ConfigLoader.get("app.version", version != null ? version : "dev").replace(',', ' ');
+    }
+}
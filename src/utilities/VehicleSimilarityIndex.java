@@ -0,0 +1,256 @@
+package utilities;
+
+import logic.DTO.VehicleDTO;
+import logic.DTO.VehicleStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Búsqueda de vehículos DISPONIBLE parecidos a uno dado (p. ej. cuando el que quería el cliente
+ * ya se vendió). Año, kilometraje y precio se normalizan al rango de los vehículos indexados y se
+ * guardan en un árbol KD implícito (arreglos, sin nodos); una marca o modelo distintos suman una
+ * penalización fija a la distancia.
+ * <p>
+ * La penalización solo aumenta la distancia, así que la distancia numérica al plano de corte
+ * sigue siendo una cota inferior válida para podar ramas. El índice es inmutable: se vuelve a
+ * construir cuando cambia el inventario.
+ */
+public final class VehicleSimilarityIndex {
+
+    private static final int DIMENSIONS = 3;
+    private static final int YEAR = 0;
+    private static final int MILEAGE = 1;
+    private static final int PRICE = 2;
+
+    // Peso por dimensión (año, km, precio) sobre valores normalizados a [0, 1]
+    private static final double[] WEIGHTS = {1.0, 1.0, 1.5};
+    private static final double DIFFERENT_MAKE_PENALTY = 0.09;
+    private static final double DIFFERENT_MODEL_PENALTY = 0.04;
+
+    public static final int DEFAULT_RESULTS = 5;
+
+    private final VehicleDTO[] vehicles;
+    private final double[] points;
+    private final int[] makeCodes;
+    private final int[] modelCodes;
+    private final Map<String, Integer> makeDictionary = new HashMap<>();
+    private final Map<String, Integer> modelDictionary = new HashMap<>();
+    private final double[] min = new double[DIMENSIONS];
+    private final double[] range = new double[DIMENSIONS];
+
+    private VehicleSimilarityIndex(List<VehicleDTO> available) {
+        int n = available.size();
+        double[] raw = new double[n * DIMENSIONS];
+        for (int i = 0; i < n; i++) {
+            coordinates(available.get(i), raw, i * DIMENSIONS);
+        }
+
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double lo = Double.POSITIVE_INFINITY;
+            double hi = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                lo = Math.min(lo, raw[i * DIMENSIONS + d]);
+                hi = Math.max(hi, raw[i * DIMENSIONS + d]);
+            }
+            min[d] = n == 0 ? 0 : lo;
+            range[d] = n == 0 || hi <= lo ? 1 : hi - lo;
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        buildTree(order, raw, 0, n, 0);
+
+        vehicles = new VehicleDTO[n];
+        points = new double[n * DIMENSIONS];
+        makeCodes = new int[n];
+        modelCodes = new int[n];
+        for (int slot = 0; slot < n; slot++) {
+            VehicleDTO v = available.get(order[slot]);
+            vehicles[slot] = v;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                points[slot * DIMENSIONS + d] = (raw[order[slot] * DIMENSIONS + d] - min[d]) / range[d];
+            }
+            makeCodes[slot] = code(makeDictionary, v.getMake(), true);
+            modelCodes[slot] = code(modelDictionary, v.getModel(), true);
+        }
+    }
+
+    /**
+     * Indexa solo los vehículos DISPONIBLE que tienen año y precio; el kilometraje faltante
+     * cuenta como 0.
+     */
+    public static VehicleSimilarityIndex build(Collection<VehicleDTO> vehicles) {
+        List<VehicleDTO> available = new ArrayList<>();
+        for (VehicleDTO v : vehicles) {
+            if (v != null
+                    && v.getStatus() == VehicleStatus.DISPONIBLE
+                    && v.getModelYear() != null
+                    && v.getPrice() != null) {
+                available.add(v);
+            }
+        }
+        return new VehicleSimilarityIndex(available);
+    }
+
+    public int size() {
+        return vehicles.length;
+    }
+
+    /**
+     * Los {@code k} vehículos más parecidos a {@code reference}, del más cercano al más lejano.
+     * Nunca incluye al propio {@code reference} (mismo id).
+     */
+    public List<VehicleDTO> nearest(VehicleDTO reference, int k) {
+        if (reference == null || reference.getModelYear() == null || reference.getPrice() == null
+                || k <= 0 || vehicles.length == 0) {
+            return List.of();
+        }
+
+        Search search = new Search(reference, k);
+        search.visit(0, vehicles.length, 0);
+
+        List<VehicleDTO> result = new ArrayList<>(search.count);
+        for (int i = 0; i < search.count; i++) {
+            result.add(vehicles[search.slots[i]]);
+        }
+        return result;
+    }
+
+    /** Búsqueda con los k mejores en arreglos ordenados (k es pequeño). */
+    private final class Search {
+        private final double[] query = new double[DIMENSIONS];
+        private final int makeCode;
+        private final int modelCode;
+        private final Long excludedId;
+        private final int[] slots;
+        private final double[] distances;
+        private int count;
+
+        Search(VehicleDTO reference, int k) {
+            coordinates(reference, query, 0);
+            for (int d = 0; d < DIMENSIONS; d++) {
+                query[d] = (query[d] - min[d]) / range[d];
+            }
+            makeCode = code(makeDictionary, reference.getMake(), false);
+            modelCode = code(modelDictionary, reference.getModel(), false);
+            excludedId = reference.getVehicleId();
+            slots = new int[k];
+            distances = new double[k];
+        }
+
+        void visit(int lo, int hi, int depth) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            int axis = depth % DIMENSIONS;
+
+            offer(mid);
+
+            double diff = query[axis] - points[mid * DIMENSIONS + axis];
+            boolean leftFirst = diff < 0;
+            visit(leftFirst ? lo : mid + 1, leftFirst ? mid : hi, depth + 1);
+
+            double planeDistance = WEIGHTS[axis] * diff * diff;
+            if (count < slots.length || planeDistance < distances[count - 1]) {
+                visit(leftFirst ? mid + 1 : lo, leftFirst ? hi : mid, depth + 1);
+            }
+        }
+
+        private void offer(int slot) {
+            if (excludedId != null && excludedId.equals(vehicles[slot].getVehicleId())) {
+                return;
+            }
+
+            double distance = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                double delta = query[d] - points[slot * DIMENSIONS + d];
+                distance += WEIGHTS[d] * delta * delta;
+            }
+            if (makeCodes[slot] != makeCode) {
+                distance += DIFFERENT_MAKE_PENALTY;
+            }
+            if (modelCodes[slot] != modelCode) {
+                distance += DIFFERENT_MODEL_PENALTY;
+            }
+
+            if (count == slots.length && distance >= distances[count - 1]) {
+                return;
+            }
+
+            int i = count < slots.length ? count++ : count - 1;
+            while (i > 0 && distances[i - 1] > distance) {
+                distances[i] = distances[i - 1];
+                slots[i] = slots[i - 1];
+                i--;
+            }
+            distances[i] = distance;
+            slots[i] = slot;
+        }
+    }
+
+    // Ordena order[lo, hi) para que la mediana del eje quede en medio (árbol KD implícito)
+    private static void buildTree(int[] order, double[] raw, int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int axis = depth % DIMENSIONS;
+        select(order, raw, lo, hi - 1, mid, axis);
+        buildTree(order, raw, lo, mid, depth + 1);
+        buildTree(order, raw, mid + 1, hi, depth + 1);
+    }
+
+    private static void select(int[] order, double[] raw, int left, int right, int target, int axis) {
+        while (left < right) {
+            double pivot = raw[order[(left + right) >>> 1] * DIMENSIONS + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (raw[order[i] * DIMENSIONS + axis] < pivot) i++;
+                while (raw[order[j] * DIMENSIONS + axis] > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j) {
+                right = j;
+            } else if (target >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void coordinates(VehicleDTO v, double[] target, int offset) {
+        target[offset + YEAR] = v.getModelYear();
+        target[offset + MILEAGE] = v.getMileageKm() != null ? v.getMileageKm() : 0;
+        target[offset + PRICE] = v.getPrice().doubleValue();
+    }
+
+    // -1 para valores que no están en el índice: nunca coinciden con un vehículo indexado
+    private static int code(Map<String, Integer> dictionary, String value, boolean add) {
+        String key = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        Integer code = dictionary.get(key);
+        if (code == null) {
+            if (!add) {
+                return -1;
+            }
+            code = dictionary.size();
+            dictionary.put(key, code);
+        }
+        return code;
+    }
+}